@@ -6,6 +6,7 @@ import android.net.Uri;
 
 import com.yidingliu.dev.knowldegelibrary.helper.SharedPreferencesHelper;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.OkHttpUtils;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.cache.CachePolicy;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.BitmapCallback;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.FileCallBack;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.StringCallback;
@@ -91,6 +92,20 @@ public class HttpManager {
      */
     public static void Post ( final Context context, final String url, final String tag, Map< String, String > params, StringCallback callback ) {
 
+        Post ( context, url, tag, params, CachePolicy.NETWORK_ONLY, callback );
+    }
+
+    /**
+     * 带缓存策略的Post请求，需要先调用OkHttpUtils.setCache设置缓存目录
+     *
+     * @param url         请求的url
+     * @param tag         请求的tag，可以用来取消网络请求
+     * @param params      请求的参数
+     * @param cachePolicy 缓存策略，见CachePolicy
+     * @param callback    网络请求的回调接口
+     */
+    public static void Post ( final Context context, final String url, final String tag, Map< String, String > params, int cachePolicy, StringCallback callback ) {
+
         if ( params == null ) {
             params = new HashMap<> ();
         }
@@ -103,7 +118,7 @@ public class HttpManager {
         }
 
         addSignPar ( params );
-        OkHttpUtils.post ().url ( url ).tag ( tag ).params ( params ).build ().execute ( callback );
+        OkHttpUtils.post ().url ( url ).tag ( tag ).params ( params ).build ().cachePolicy ( cachePolicy ).execute ( callback );
     }
 
     /**
@@ -148,12 +163,32 @@ public class HttpManager {
 
 
     /**
+     * 由FileDownloader断点续传下载，不经过请求限流；重写了parseNetworkResponse或saveFile的回调仍按普通请求下载
+     *
      * @param url      下载的地址
      * @param callback 下载文件的回调内部包含有进度信息
      */
     public static void DownLoadFile ( String url, String tag, FileCallBack callback ) {
 
-        OkHttpUtils.get ().tag ( tag ).url ( url ).build ().execute ( callback );
+        if ( callback.isDefaultSaving () ) {
+            OkHttpUtils.download ( url ).tag ( tag ).start ( callback );
+        } else {
+            OkHttpUtils.get ().tag ( tag ).url ( url ).build ().execute ( callback );
+        }
+    }
+
+    /**
+     * 由FileDownloader断点续传下载，不经过请求限流，也不调用回调的parseNetworkResponse和saveFile
+     *
+     * @param url      下载的地址
+     * @param tag      请求的tag，可以用来取消下载，已下载的部分下次继续
+     * @param segments 大文件分段并行下载的连接数
+     * @param md5      文件的MD5，下载完成后校验，为null时不校验
+     * @param callback 下载文件的回调内部包含有进度信息
+     */
+    public static void DownLoadFile ( String url, String tag, int segments, String md5, FileCallBack callback ) {
+
+        OkHttpUtils.download ( url ).tag ( tag ).segments ( segments ).md5 ( md5 ).start ( callback );
     }
 
     /**
@@ -6,12 +6,16 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal;
 
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.Column;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.FullText;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.Index;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.Indexes;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DatabaseGenerateException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.IndexModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.typechange.BlobOrm;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.typechange.BooleanOrm;
@@ -30,10 +34,8 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 
@@ -66,18 +68,15 @@ public abstract class LitePalBase {
 	private OrmChange[] typeChangeRules = {new NumericOrm (), new TextOrm (), new BooleanOrm (),
 	                                       new DecimalOrm (), new DateOrm (), new BlobOrm ()};
 
-    /**
-     * This is map of class name to fields list. Indicates that each class has which fields.
-     */
-    private Map<String, List<Field>> classFieldsMap = new HashMap<String, List<Field>> ();
-
 	/**
-	 * The collection contains all association models.
+	 * The collection which association models are added into while analyzing a
+	 * class.
 	 */
 	private Collection<AssociationsModel > mAssociationModels;
 
 	/**
-	 * The collection contains all association info.
+	 * The collection which association info are added into while analyzing a
+	 * class.
 	 */
 	private Collection<AssociationsInfo > mAssociationInfos;
 
@@ -88,7 +87,9 @@ public abstract class LitePalBase {
 	 * short/Short, float/Float, double/Double, char/Character, boolean/Boolean
 	 * or String, would generate a column with same name as corresponding field.
 	 * If users don't want some of the fields map a column, declare an ignore
-     * annotation with {@link Column#ignore()}.
+     * annotation with {@link Column#ignore()}. Indexes declared by
+	 * {@link Column#index()}, {@link Index} and {@link Indexes} are added into
+	 * the table model too, so are the columns declared by {@link FullText}.
 	 * 
 	 * @param className
 	 *            The full name of the class to map in database.
@@ -100,14 +101,64 @@ public abstract class LitePalBase {
 		TableModel tableModel = new TableModel();
 		tableModel.setTableName(tableName);
 		tableModel.setClassName(className);
-		List<Field> supportedFields = getSupportedFields(className);
-		for (Field field : supportedFields) {
-            ColumnModel columnModel = convertFieldToColumnModel ( field );
-            tableModel.addColumnModel(columnModel);
+		for (ColumnModel columnModel : getModelMetadata(className).getColumnModels()) {
+			tableModel.addColumnModel(copyColumnModel(columnModel));
+			if (columnModel.isIndexed()) {
+				tableModel.addIndexModel(createIndexModel(tableName, false, columnModel.getColumnName()));
+			}
+		}
+		try {
+			Class<?> clazz = Class.forName(className);
+			Index index = clazz.getAnnotation(Index.class);
+			if (index != null) {
+				tableModel.addIndexModel(createIndexModel(tableName, index.unique(), index.columns()));
+			}
+			Indexes indexes = clazz.getAnnotation(Indexes.class);
+			if (indexes != null) {
+				for (Index eachIndex : indexes.value()) {
+					tableModel.addIndexModel(createIndexModel(tableName, eachIndex.unique(),
+							eachIndex.columns()));
+				}
+			}
+			FullText fullText = clazz.getAnnotation(FullText.class);
+			if (fullText != null) {
+				for (String columnName : fullText.columns()) {
+					if (!tableModel.containsColumn(columnName)) {
+						throw new DatabaseGenerateException(DatabaseGenerateException.FULL_TEXT_COLUMN_NOT_FOUND
+								+ className + "." + columnName);
+					}
+					tableModel.addFullTextColumn(columnName);
+				}
+			}
+		} catch (ClassNotFoundException e) {
+			throw new DatabaseGenerateException(DatabaseGenerateException.CLASS_NOT_FOUND + className);
 		}
 		return tableModel;
 	}
 
+	/**
+	 * Create an index model declared by the model class. The index name is
+	 * generated from the table name and the columns.
+	 * 
+	 * @param tableName
+	 *            The table to index.
+	 * @param unique
+	 *            Unique index or not.
+	 * @param columnNames
+	 *            The columns to index in order.
+	 * @return An index model.
+	 */
+	private IndexModel createIndexModel(String tableName, boolean unique, String... columnNames) {
+		IndexModel indexModel = new IndexModel();
+		for (String columnName : columnNames) {
+			indexModel.addColumnName(columnName);
+		}
+		indexModel.setIndexName(DBUtility.getIndexName(Const.Index.PREFIX, tableName,
+				indexModel.getColumnNames()));
+		indexModel.setIsUnique(unique);
+		return indexModel;
+	}
+
 	/**
 	 * This method is used to get association models depends on the given class
 	 * name list.
@@ -117,14 +168,11 @@ public abstract class LitePalBase {
 	 * @return Collection of association models.
 	 */
 	protected Collection<AssociationsModel> getAssociations(List<String> classNames) {
-		if (mAssociationModels == null) {
-			mAssociationModels = new HashSet<AssociationsModel>();
-		}
-		mAssociationModels.clear();
+		Collection<AssociationsModel> associationModels = new HashSet<AssociationsModel>();
 		for (String className : classNames) {
-			analyzeClassFields(className, GET_ASSOCIATIONS_ACTION);
+			associationModels.addAll(getModelMetadata(className).getAssociationModels());
 		}
-		return mAssociationModels;
+		return associationModels;
 	}
 
 	/**
@@ -132,15 +180,10 @@ public abstract class LitePalBase {
 	 * 
 	 * @param className
 	 *            The class name to introspection.
-	 * @return Collection of association info.
+	 * @return Unmodifiable collection of association info.
 	 */
 	protected Collection<AssociationsInfo> getAssociationInfo(String className) {
-		if (mAssociationInfos == null) {
-			mAssociationInfos = new HashSet<AssociationsInfo>();
-		}
-		mAssociationInfos.clear();
-		analyzeClassFields(className, GET_ASSOCIATION_INFO_ACTION);
-		return mAssociationInfos;
+		return getModelMetadata(className).getAssociationInfos();
 	}
 
 	/**
@@ -151,23 +194,58 @@ public abstract class LitePalBase {
 	 * 
 	 * @param className
 	 *            The full name of the class.
-	 * @return A list of supported fields
+	 * @return An unmodifiable list of supported fields
 	 */
 	protected List<Field> getSupportedFields(String className) {
-        List<Field> fieldList = classFieldsMap.get(className);
-        if (fieldList == null) {
-            List<Field> supportedFields = new ArrayList<Field>();
-            Class<?> clazz;
-            try {
-                clazz = Class.forName(className);
-            } catch (ClassNotFoundException e) {
-                throw new DatabaseGenerateException ( DatabaseGenerateException.CLASS_NOT_FOUND + className);
-            }
-            recursiveSupportedFields(clazz, supportedFields);
-            classFieldsMap.put(className, supportedFields);
-            return supportedFields;
-        }
-        return fieldList;
+		return getModelMetadata(className).getSupportedFields();
+	}
+
+	/**
+	 * Get the metadata of the class from the process-wide registry. It will be
+	 * built and registered at the first time.
+	 * 
+	 * @param className
+	 *            The full name of the class.
+	 * @return The metadata of the class.
+	 */
+	private ModelMetadata getModelMetadata(String className) {
+		ModelMetadata metadata = ModelMetadata.get(className);
+		if (metadata == null) {
+			metadata = ModelMetadata.register(buildModelMetadata(className));
+		}
+		return metadata;
+	}
+
+	/**
+	 * Analyze the class by reflection to build its metadata.
+	 * 
+	 * @param className
+	 *            The full name of the class.
+	 * @return The metadata of the class.
+	 */
+	private ModelMetadata buildModelMetadata(String className) {
+		Class<?> clazz;
+		try {
+			clazz = Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			throw new DatabaseGenerateException ( DatabaseGenerateException.CLASS_NOT_FOUND + className);
+		}
+		List<Field> supportedFields = new ArrayList<Field>();
+		recursiveSupportedFields(clazz, supportedFields);
+		List<ColumnModel> columnModels = new ArrayList<ColumnModel>(supportedFields.size());
+		for (Field field : supportedFields) {
+			field.setAccessible(true);
+			columnModels.add(convertFieldToColumnModel(field));
+		}
+		mAssociationInfos = new HashSet<AssociationsInfo>();
+		analyzeClassFields(className, GET_ASSOCIATION_INFO_ACTION);
+		mAssociationModels = new HashSet<AssociationsModel>();
+		analyzeClassFields(className, GET_ASSOCIATIONS_ACTION);
+		ModelMetadata metadata = new ModelMetadata(className, supportedFields, columnModels,
+				mAssociationInfos, mAssociationModels);
+		mAssociationInfos = null;
+		mAssociationModels = null;
+		return metadata;
 	}
 
 	/**
@@ -559,11 +637,14 @@ public abstract class LitePalBase {
         }
         boolean nullable = true;
         boolean unique = false;
+        boolean indexed = false;
         String defaultValue = "";
         Column annotation = field.getAnnotation(Column.class);
         if (annotation != null) {
             nullable = annotation.nullable();
             unique = annotation.unique();
+            // unique columns are indexed by the constraint already
+            indexed = annotation.index() && !unique;
             defaultValue = annotation.defaultValue();
         }
         ColumnModel columnModel = new ColumnModel();
@@ -572,7 +653,20 @@ public abstract class LitePalBase {
         columnModel.setIsNullable(nullable);
         columnModel.setIsUnique(unique);
         columnModel.setDefaultValue(defaultValue);
+        columnModel.setIsIndexed(indexed);
         return columnModel;
     }
 
+	/**
+	 * Copy the column model from metadata, so that the table model can be
+	 * modified without affecting the metadata shared by others.
+	 * 
+	 * @param columnModel
+	 *            The column model to copy.
+	 * @return A new column model with the same values.
+	 */
+	private ColumnModel copyColumnModel(ColumnModel columnModel) {
+		return new ColumnModel(columnModel);
+	}
+
 }
@@ -0,0 +1,143 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shape of a model class which is found out by reflection: the supported
+ * fields, the column models mapped from them, and the associations with other
+ * models. Handlers are created for every CRUD operation, so the metadata is
+ * kept in a process-wide registry and built only once for each class.
+ * <p>
+ * Metadata is immutable after it's registered, so it can be shared by all
+ * threads without locking. Two threads may build the metadata of the same
+ * class at the same time, only the first registered one is kept.
+ * Associations depend on the mapping list in litepal.xml, so the registry is
+ * cleared whenever litepal.xml is parsed.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public final class ModelMetadata {
+
+	/**
+	 * All the registered metadata keyed by class name.
+	 */
+	private static final ConcurrentHashMap<String, ModelMetadata> registry = new ConcurrentHashMap<String, ModelMetadata>();
+
+	/**
+	 * The full name of model class.
+	 */
+	private final String className;
+
+	/**
+	 * The fields which map columns, already made accessible.
+	 */
+	private final List<Field> supportedFields;
+
+	/**
+	 * Column models of the supported fields, in the same order.
+	 */
+	private final List<ColumnModel> columnModels;
+
+	/**
+	 * Association info of the model class, used by CRUD handlers.
+	 */
+	private final Collection<AssociationsInfo> associationInfos;
+
+	/**
+	 * Association models of the model class, used to create tables.
+	 */
+	private final Collection<AssociationsModel> associationModels;
+
+	ModelMetadata(String className, List<Field> supportedFields,
+			List<ColumnModel> columnModels, Collection<AssociationsInfo> associationInfos,
+			Collection<AssociationsModel> associationModels) {
+		this.className = className;
+		this.supportedFields = Collections.unmodifiableList(supportedFields);
+		this.columnModels = Collections.unmodifiableList(columnModels);
+		this.associationInfos = Collections.unmodifiableCollection(associationInfos);
+		this.associationModels = Collections.unmodifiableCollection(associationModels);
+	}
+
+	/**
+	 * Get the registered metadata of the class.
+	 *
+	 * @param className
+	 *            The full name of model class.
+	 * @return The metadata, or null if not registered yet.
+	 */
+	static ModelMetadata get(String className) {
+		return registry.get(className);
+	}
+
+	/**
+	 * Register the metadata, unless another thread has registered the same
+	 * class first.
+	 *
+	 * @param metadata
+	 *            The metadata just built.
+	 * @return The metadata in the registry, which should be used by caller.
+	 */
+	static ModelMetadata register(ModelMetadata metadata) {
+		ModelMetadata previous = registry.putIfAbsent(metadata.className, metadata);
+		return previous != null ? previous : metadata;
+	}
+
+	/**
+	 * Clear all the registered metadata. Called when the mapping list in
+	 * litepal.xml is parsed again, as associations depend on it.
+	 */
+	public static void clearAll() {
+		registry.clear();
+	}
+
+	/**
+	 * Get the supported fields of model class.
+	 *
+	 * @return An unmodifiable list of accessible fields.
+	 */
+	List<Field> getSupportedFields() {
+		return supportedFields;
+	}
+
+	/**
+	 * Get the column models of model class. They must not be modified, copy
+	 * them before building a table model.
+	 *
+	 * @return An unmodifiable list of column models.
+	 */
+	List<ColumnModel> getColumnModels() {
+		return columnModels;
+	}
+
+	/**
+	 * Get the association info of model class.
+	 *
+	 * @return An unmodifiable collection of association info.
+	 */
+	Collection<AssociationsInfo> getAssociationInfos() {
+		return associationInfos;
+	}
+
+	/**
+	 * Get the association models of model class.
+	 *
+	 * @return An unmodifiable collection of association models.
+	 */
+	Collection<AssociationsModel> getAssociationModels() {
+		return associationModels;
+	}
+
+}
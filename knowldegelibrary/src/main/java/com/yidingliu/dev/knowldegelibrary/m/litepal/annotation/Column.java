@@ -34,6 +34,13 @@ public @interface Column {
      */
     String defaultValue () default "";
 
+    /**
+     * Create an index on the column, so that querying by it won't scan the whole table. Unique
+     * columns are indexed already, so it makes no difference for them. Use {@link Index} to
+     * create an index on multiple columns.
+     */
+    boolean index () default false;
+
     /**
      * Ignore to map this field into a column.
      */
@@ -0,0 +1,40 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used for building a full text index on some text columns of a model's table. Declare it on
+ * the model class, then search the table with
+ * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.crud.ClusterQuery#match(String)}.
+ *
+ * <pre>
+ * &#64;FullText(columns = {"title", "content"})
+ * public class Note extends DataSupport {
+ *     ...
+ * }
+ * </pre>
+ *
+ * The index is an FTS4 table which refers to the model's table as its content, so the text
+ * isn't stored twice. It's kept in sync by triggers, including writes which don't go through
+ * LitePal, and rebuilt by upgrading when the declaration changes.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FullText {
+
+    /**
+     * The columns to index. Column names are the same as field names.
+     */
+    String[] columns ();
+
+}
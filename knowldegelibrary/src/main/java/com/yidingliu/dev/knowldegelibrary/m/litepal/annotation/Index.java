@@ -0,0 +1,43 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used for adding an index on one or more columns of a model's table. Declare it on the model
+ * class, or use {@link Indexes} to declare several indexes.
+ *
+ * <pre>
+ * &#64;Index(columns = {"city", "age"})
+ * public class Person extends DataSupport {
+ *     ...
+ * }
+ * </pre>
+ *
+ * The index is created along with the table, and created or dropped by upgrading when the
+ * declaration changes.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Index {
+
+    /**
+     * The columns to index in order. Column names are the same as field names.
+     */
+    String[] columns ();
+
+    /**
+     * Set unique constraint for the combination of the columns.
+     */
+    boolean unique () default false;
+
+}
@@ -0,0 +1,34 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used for declaring several {@link Index} on one model class.
+ *
+ * <pre>
+ * &#64;Indexes({&#64;Index(columns = "city"), &#64;Index(columns = {"name", "age"}, unique = true)})
+ * public class Person extends DataSupport {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Indexes {
+
+    /**
+     * The indexes to create.
+     */
+    Index[] value ();
+
+}
@@ -0,0 +1,358 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the asynchronous operations of DataSupport and ClusterQuery off the
+ * main thread, and delivers their results on the main thread.
+ * <p>
+ * Writes run one by one on a single writer thread in the order they are
+ * submitted. Reads run on a few reader threads, but a read never starts
+ * before the writes submitted ahead of it have finished, so it always sees
+ * them. Identical reads which are submitted while one is still in flight
+ * share the same query and receive the same result objects.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+class AsyncExecutor {
+
+	/**
+	 * The count of reader threads.
+	 */
+	private static final int READER_COUNT = Math.max(2,
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final ExecutorService readExecutor = newExecutor("LitePal-read", READER_COUNT);
+
+	private static final ExecutorService writeExecutor = newExecutor("LitePal-write", 1);
+
+	/**
+	 * Reads which are not finished yet, keyed by what they query. Also the
+	 * lock of submitting.
+	 */
+	private static final Map<String, Call<?>> inFlightReads = new HashMap<String, Call<?>>();
+
+	/**
+	 * The lock of the write counters below.
+	 */
+	private static final Object writeMonitor = new Object();
+
+	private static long submittedWrites;
+
+	private static long finishedWrites;
+
+	/**
+	 * Disable to create an instance of AsyncExecutor.
+	 */
+	private AsyncExecutor() {
+	}
+
+	/**
+	 * Submit a read operation.
+	 *
+	 * @param key
+	 *            Identifies what the read queries, reads with equal keys in
+	 *            flight at the same time are coalesced. Null to never
+	 *            coalesce.
+	 * @param callable
+	 *            The blocking operation.
+	 * @param callback
+	 *            The callback to deliver result to, could be null.
+	 * @return The task to cancel the delivery.
+	 */
+	static <T> DataTask<T> read(String key, Callable<T> callable, DataCallback<T> callback) {
+		return read(key, callable, callback, null);
+	}
+
+	/**
+	 * Submit a read operation, and deliver the result with the given
+	 * executor.
+	 *
+	 * @param key
+	 *            Identifies what the read queries, reads with equal keys in
+	 *            flight at the same time are coalesced. Null to never
+	 *            coalesce.
+	 * @param callable
+	 *            The blocking operation.
+	 * @param callback
+	 *            The callback to deliver result to, could be null.
+	 * @param delivery
+	 *            The executor to call callback with, null for the main
+	 *            thread.
+	 * @return The task to cancel the delivery.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> DataTask<T> read(String key, Callable<T> callable, DataCallback<T> callback,
+			Executor delivery) {
+		Call<T> call;
+		DataTask<T> task;
+		synchronized (inFlightReads) {
+			if (key != null) {
+				call = (Call<T>) inFlightReads.get(key);
+				if (call != null) {
+					return call.subscribe(callback, delivery);
+				}
+			}
+			synchronized (writeMonitor) {
+				call = new Call<T>(key, callable, submittedWrites, false);
+			}
+			task = call.subscribe(callback, delivery);
+			if (key != null) {
+				inFlightReads.put(key, call);
+			}
+		}
+		readExecutor.execute(call);
+		return task;
+	}
+
+	/**
+	 * Submit a write operation.
+	 *
+	 * @param callable
+	 *            The blocking operation.
+	 * @param callback
+	 *            The callback to deliver result to, could be null.
+	 * @return The task to cancel the delivery.
+	 */
+	static <T> DataTask<T> write(Callable<T> callable, DataCallback<T> callback) {
+		Call<T> call = new Call<T>(null, callable, 0, true);
+		DataTask<T> task = call.subscribe(callback, null);
+		synchronized (inFlightReads) {
+			// Reads submitted from now on must see this write, so they can't
+			// join the reads in flight.
+			inFlightReads.clear();
+			synchronized (writeMonitor) {
+				submittedWrites++;
+			}
+		}
+		writeExecutor.execute(call);
+		return task;
+	}
+
+	/**
+	 * Build a key for coalescing reads from the parts which identify a query.
+	 *
+	 * @param parts
+	 *            The parts of key.
+	 * @return The key.
+	 */
+	static String keyOf(Object... parts) {
+		StringBuilder builder = new StringBuilder();
+		for (Object part : parts) {
+			if (part instanceof Object[]) {
+				for (Object item : (Object[]) part) {
+					builder.append(item).append('\u0001');
+				}
+			} else if (part instanceof long[]) {
+				for (long item : (long[]) part) {
+					builder.append(item).append(',');
+				}
+			} else {
+				builder.append(part);
+			}
+			builder.append('\u0000');
+		}
+		return builder.toString();
+	}
+
+	private static ExecutorService newExecutor(final String name, int threadCount) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 30,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread thread = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+								runnable.run();
+							}
+						}, name + "-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Wait until the given count of writes have finished.
+	 */
+	private static void awaitWrites(long count) {
+		synchronized (writeMonitor) {
+			while (finishedWrites < count) {
+				try {
+					writeMonitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private static void onWriteFinished() {
+		synchronized (writeMonitor) {
+			finishedWrites++;
+			writeMonitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Holds the main thread Handler, created at the first delivery.
+	 */
+	private static class Delivery {
+
+		static final Handler handler = new Handler(Looper.getMainLooper());
+
+	}
+
+	/**
+	 * One operation to run, together with all the tasks waiting for it.
+	 */
+	static class Call<T> implements Runnable {
+
+		private final String key;
+
+		private final Callable<T> callable;
+
+		/**
+		 * How many writes must finish before this call runs.
+		 */
+		private final long writesBefore;
+
+		private final boolean isWrite;
+
+		private final List<DataTask<T>> tasks = new ArrayList<DataTask<T>>(1);
+
+		private volatile boolean done;
+
+		Call(String key, Callable<T> callable, long writesBefore, boolean isWrite) {
+			this.key = key;
+			this.callable = callable;
+			this.writesBefore = writesBefore;
+			this.isWrite = isWrite;
+		}
+
+		synchronized DataTask<T> subscribe(DataCallback<T> callback, Executor delivery) {
+			DataTask<T> task = new DataTask<T>(this, callback, delivery);
+			tasks.add(task);
+			return task;
+		}
+
+		boolean isDone() {
+			return done;
+		}
+
+		@Override
+		public void run() {
+			T result = null;
+			DataSupportException error = null;
+			try {
+				if (!isWrite) {
+					awaitWrites(writesBefore);
+				}
+				if (leaveInFlight(true)) {
+					return;
+				}
+				try {
+					result = callable.call();
+				} catch (DataSupportException e) {
+					error = e;
+				} catch (Exception e) {
+					error = new DataSupportException(e.getMessage(), e);
+				}
+				leaveInFlight(false);
+			} finally {
+				done = true;
+				if (isWrite) {
+					onWriteFinished();
+				}
+			}
+			final List<DataTask<T>> receivers = new ArrayList<DataTask<T>>();
+			final T finalResult = result;
+			final DataSupportException finalError = error;
+			synchronized (this) {
+				for (final DataTask<T> task : tasks) {
+					if (task.getDelivery() == null) {
+						receivers.add(task);
+					} else {
+						task.getDelivery().execute(new Runnable() {
+							@Override
+							public void run() {
+								task.deliver(finalResult, finalError);
+							}
+						});
+					}
+				}
+			}
+			if (receivers.isEmpty()) {
+				return;
+			}
+			Delivery.handler.post(new Runnable() {
+				@Override
+				public void run() {
+					for (DataTask<T> task : receivers) {
+						task.deliver(finalResult, finalError);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Stop other reads from joining this call.
+		 *
+		 * @param onlyIfCancelled
+		 *            True to leave only if all the tasks are cancelled.
+		 * @return True if left, false otherwise.
+		 */
+		private boolean leaveInFlight(boolean onlyIfCancelled) {
+			synchronized (inFlightReads) {
+				if (onlyIfCancelled && !isAllCancelled()) {
+					return false;
+				}
+				if (key != null && inFlightReads.get(key) == this) {
+					inFlightReads.remove(key);
+				}
+				return true;
+			}
+		}
+
+		private synchronized boolean isAllCancelled() {
+			for (DataTask<T> task : tasks) {
+				if (!task.isCancelled()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -5,10 +5,15 @@
 package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 
 
+import android.text.TextUtils;
+
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.Connector;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Allows developers to query tables with cluster style.
@@ -43,6 +48,16 @@ public class ClusterQuery {
 	 */
 	String mOffset;
 
+	/**
+	 * Representing where the keyset pagination starts from.
+	 */
+	PageToken mPageToken;
+
+	/**
+	 * Representing the full text query to match.
+	 */
+	String mMatch;
+
 	/**
 	 * Do not allow to create instance by developers.
 	 */
@@ -89,6 +104,30 @@ public class ClusterQuery {
 		return this;
 	}
 
+	/**
+	 * Declaring to query the rows whose full text index matches the query. The
+	 * model must declare the indexed columns with
+	 * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.FullText}.
+	 * 
+	 * <pre>
+	 * DataSupport.match(&quot;android sqlite*&quot;).where(&quot;archived = ?&quot;, &quot;0&quot;).find(Note.class);
+	 * </pre>
+	 * 
+	 * This will find the notes not archived which contain the word android and
+	 * a word starting with sqlite. The query uses the FTS4 syntax, a trailing
+	 * star matches the prefix of words, and a column name before a colon
+	 * limits the matching to the column, such as title:android. It can be
+	 * combined with all the other cluster parameters.
+	 * 
+	 * @param query
+	 *            The full text query. Passing null will match all rows.
+	 * @return A ClusterQuery instance.
+	 */
+	public ClusterQuery match(String query) {
+		mMatch = query;
+		return this;
+	}
+
 	/**
 	 * Declaring how to order the rows queried from table.
 	 * 
@@ -148,6 +187,79 @@ public class ClusterQuery {
 		return this;
 	}
 
+	/**
+	 * Declaring to query the rows sorted after the given value, which is known
+	 * as keyset pagination. Unlike {@link #offset(int)}, which makes database
+	 * skip the rows one by one, this seeks to the rows directly and stays fast
+	 * on deep pages when the column is indexed.
+	 * 
+	 * <pre>
+	 * DataSupport.after(&quot;id&quot;, lastId).limit(20).find(News.class);
+	 * </pre>
+	 * 
+	 * This will find 20 rows in News table whose id are greater than lastId,
+	 * sorted by id. The order set by {@link #order(String)} is replaced. The
+	 * column should be unique and not null, otherwise use
+	 * {@link #pageAfter(PageToken)} and {@link #findPage(Class)}.
+	 * 
+	 * @param column
+	 *            The column to sort by, optionally followed by asc or desc.
+	 * @param lastValue
+	 *            The value of column in the last row of previous page. Passing
+	 *            null will start from the first row.
+	 * @return A ClusterQuery instance.
+	 */
+	public ClusterQuery after(String column, Object lastValue) {
+		mPageToken = PageToken.after(column, lastValue);
+		return this;
+	}
+
+	/**
+	 * Declaring to query the page which the token points to. The token is
+	 * either created by {@link PageToken#first(String)} or returned by
+	 * {@link Page#getNextPageToken()} of previous page.
+	 * 
+	 * <pre>
+	 * Page&lt;News&gt; page = DataSupport.where(&quot;type = ?&quot;, &quot;1&quot;).pageAfter(PageToken.first(&quot;publishTime desc&quot;))
+	 * 		.limit(20).findPage(News.class);
+	 * Page&lt;News&gt; nextPage = DataSupport.where(&quot;type = ?&quot;, &quot;1&quot;).pageAfter(page.getNextPageToken())
+	 * 		.limit(20).findPage(News.class);
+	 * </pre>
+	 * 
+	 * Rows are sorted by the column of token and then by id, so the order is
+	 * stable even if the column has duplicate values. The order set by
+	 * {@link #order(String)} is replaced.
+	 * 
+	 * @param pageToken
+	 *            Where the last page stopped.
+	 * @return A ClusterQuery instance.
+	 */
+	public ClusterQuery pageAfter(PageToken pageToken) {
+		mPageToken = pageToken;
+		return this;
+	}
+
+	/**
+	 * Finds one page of records by keyset pagination. The page size is
+	 * declared by {@link #limit(int)}, and {@link #offset(int)} is ignored.
+	 * If no page token is declared, the first page sorted by the column of
+	 * {@link #order(String)}, or by id if no order either, will be found.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @return One page of records, with the token to find the next page.
+	 */
+	public <T> Page<T> findPage(Class<T> modelClass) {
+		PageToken pageToken = mPageToken;
+		if (pageToken == null) {
+			pageToken = PageToken.first(mOrderBy == null ? "id" : mOrderBy);
+		}
+		int pageSize = mLimit == null ? 0 : Integer.parseInt(mLimit);
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		return queryHandler.onFindPage(modelClass, mColumns,
+				appendMatchCondition(getTableName(modelClass), mConditions), pageSize, pageToken);
+	}
+
 	/**
 	 * Finds multiple records by the cluster parameters. You can use the below
 	 * way to finish a complicated query:
@@ -187,18 +299,272 @@ public class ClusterQuery {
 	 *            True to load the associated models, false not.
 	 * @return An object list with founded data from database, or an empty list.
 	 */
-	public synchronized <T> List<T> find(Class<T> modelClass, boolean isEager) {
+	public <T> List<T> find(Class<T> modelClass, boolean isEager) {
 		QueryHandler queryHandler = new QueryHandler( Connector.getDatabase ());
-		String limit;
-		if (mOffset == null) {
-			limit = mLimit;
-		} else {
-			if (mLimit == null) {
-				mLimit = "0";
-			}
-			limit = mOffset + "," + mLimit;
-		}
-		return queryHandler.onFind(modelClass, mColumns, mConditions, mOrderBy, limit, isEager);
+		return queryHandler.onFind(modelClass, mColumns, getConditions(getTableName(modelClass)),
+				getOrderBy(), getLimit(), isEager);
+	}
+
+	/**
+	 * Finds multiple records by the cluster parameters, and maps them into
+	 * light result objects instead of models. It's useful when a list only
+	 * shows a few columns of a model:
+	 * 
+	 * <pre>
+	 * List&lt;PersonItem&gt; items = DataSupport.select(&quot;id&quot;, &quot;name&quot;).order(&quot;name&quot;).findAs(Person.class, PersonItem.class);
+	 * </pre>
+	 * 
+	 * The result class could be any class with a constructor without
+	 * parameters, each of its fields receives the value of the column with the
+	 * same name. Only the selected columns are read, no foreign keys or
+	 * associated models are loaded. If no columns are selected, the columns
+	 * which the result class has fields for are read.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param resultClass
+	 *            The object type to return as a list.
+	 * @return A list of result objects, or an empty list.
+	 */
+	public <R> List<R> findAs(Class<?> modelClass, Class<R> resultClass) {
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		return queryHandler.onFindAs(modelClass, resultClass, mColumns,
+				getConditions(getTableName(modelClass)), getOrderBy(), getLimit());
+	}
+
+	/**
+	 * Finds the values of one column by the cluster parameters, without
+	 * creating any objects for the rows:
+	 * 
+	 * <pre>
+	 * long[] ids = DataSupport.where(&quot;age &gt; ?&quot;, &quot;14&quot;).findLongColumn(Person.class, &quot;id&quot;);
+	 * </pre>
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param column
+	 *            The column to query.
+	 * @return The values of the column, null values are read as 0.
+	 */
+	public long[] findLongColumn(Class<?> modelClass, String column) {
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		String tableName = getTableName(modelClass);
+		return queryHandler.onFindLongColumn(tableName, column, getConditions(tableName),
+				getOrderBy(), getLimit());
+	}
+
+	/**
+	 * Finds the values of one column by the cluster parameters, without
+	 * creating any objects for the rows.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param column
+	 *            The column to query.
+	 * @return The values of the column, null values are read as 0.
+	 */
+	public double[] findDoubleColumn(Class<?> modelClass, String column) {
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		String tableName = getTableName(modelClass);
+		return queryHandler.onFindDoubleColumn(tableName, column, getConditions(tableName),
+				getOrderBy(), getLimit());
+	}
+
+	/**
+	 * Finds the values of one column by the cluster parameters, without
+	 * creating any objects for the rows.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param column
+	 *            The column to query.
+	 * @return The values of the column, null values are kept as null.
+	 */
+	public String[] findStringColumn(Class<?> modelClass, String column) {
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		String tableName = getTableName(modelClass);
+		return queryHandler.onFindStringColumn(tableName, column, getConditions(tableName),
+				getOrderBy(), getLimit());
+	}
+
+	/**
+	 * Asynchronous version of {@link #find(Class)}. The records are found on a
+	 * background thread and delivered to the callback on the main thread:
+	 * 
+	 * <pre>
+	 * DataSupport.where(&quot;age &gt; ?&quot;, &quot;14&quot;).findAsync(Person.class, new DataCallback&lt;List&lt;Person&gt;&gt;() {
+	 * 	public void onFinish(List&lt;Person&gt; people) {
+	 * 		...
+	 * 	}
+	 * });
+	 * </pre>
+	 * 
+	 * The cluster parameters are taken at the time of calling. Identical
+	 * queries submitted while one is in flight share it, so their callbacks
+	 * receive the same list.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param callback
+	 *            Receives the found models.
+	 * @return A task to cancel the delivery.
+	 */
+	public <T> DataTask<List<T>> findAsync(Class<T> modelClass, DataCallback<List<T>> callback) {
+		return findAsync(modelClass, false, callback);
+	}
+
+	/**
+	 * It is mostly same as {@link #findAsync(Class, DataCallback)} but an
+	 * isEager parameter. If set true the associated models will be loaded as
+	 * well.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @param callback
+	 *            Receives the found models.
+	 * @return A task to cancel the delivery.
+	 */
+	public <T> DataTask<List<T>> findAsync(final Class<T> modelClass, final boolean isEager,
+			DataCallback<List<T>> callback) {
+		final ClusterQuery query = copy();
+		return AsyncExecutor.read(query.getAsyncKey("query", modelClass.getName(), isEager),
+				new Callable<List<T>>() {
+					@Override
+					public List<T> call() {
+						return query.find(modelClass, isEager);
+					}
+				}, callback);
+	}
+
+	/**
+	 * Observe the records found by this query. They are found on a background
+	 * thread at once, and found again every time the table is changed by
+	 * LitePal, so the list shown to the user is always up to date without
+	 * querying on every resume:
+	 * 
+	 * <pre>
+	 * mObservation = DataSupport.where(&quot;age &gt; ?&quot;, &quot;14&quot;).observe(Person.class, null, new DataCallback&lt;List&lt;Person&gt;&gt;() {
+	 * 	public void onFinish(List&lt;Person&gt; people) {
+	 * 		adapter.setDatas(people);
+	 * 	}
+	 * });
+	 * </pre>
+	 * 
+	 * The cluster parameters are taken at the time of calling.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param executor
+	 *            The executor to deliver the found models with, null for the
+	 *            main thread.
+	 * @param callback
+	 *            Receives the found models every time they are found.
+	 * @return An observation to cancel.
+	 */
+	public <T> QueryObservation<List<T>> observe(Class<T> modelClass, Executor executor,
+			DataCallback<List<T>> callback) {
+		return observe(modelClass, false, executor, callback);
+	}
+
+	/**
+	 * It is mostly same as {@link #observe(Class, Executor, DataCallback)} but
+	 * an isEager parameter. If set true the associated models will be loaded as
+	 * well, and the changes of associated tables are observed too.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @param executor
+	 *            The executor to deliver the found models with, null for the
+	 *            main thread.
+	 * @param callback
+	 *            Receives the found models every time they are found.
+	 * @return An observation to cancel.
+	 */
+	public <T> QueryObservation<List<T>> observe(final Class<T> modelClass, final boolean isEager,
+			Executor executor, DataCallback<List<T>> callback) {
+		final ClusterQuery query = copy();
+		QueryObservation<List<T>> observation = new QueryObservation<List<T>>(
+				new Callable<List<T>>() {
+					@Override
+					public List<T> call() {
+						return query.find(modelClass, isEager);
+					}
+				}, executor, callback);
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		observation.start(queryHandler.getObservedTables(modelClass, isEager));
+		return observation;
+	}
+
+	/**
+	 * Asynchronous version of {@link #count(Class)}. The count is delivered
+	 * to the callback on the main thread.
+	 * 
+	 * @param modelClass
+	 *            Which table to query from by class.
+	 * @param callback
+	 *            Receives the count of the specified table.
+	 * @return A task to cancel the delivery.
+	 */
+	public DataTask<Integer> countAsync(final Class<?> modelClass, DataCallback<Integer> callback) {
+		final ClusterQuery query = copy();
+		return AsyncExecutor.read(query.getAsyncKey("queryCount", modelClass.getName(), false),
+				new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						return query.count(modelClass);
+					}
+				}, callback);
+	}
+
+	/**
+	 * Iterates over the records found by the cluster parameters lazily. Rows
+	 * are read from the cursor and turned into models only when iterated to,
+	 * so a large result set won't be loaded into memory at once:
+	 * 
+	 * <pre>
+	 * QueryIterator&lt;Person&gt; iterator = DataSupport.where(&quot;age &gt; ?&quot;, &quot;14&quot;).iterate(Person.class);
+	 * try {
+	 * 	while (iterator.hasNext()) {
+	 * 		Person person = iterator.next();
+	 * 		...
+	 * 	}
+	 * } finally {
+	 * 	iterator.close();
+	 * }
+	 * </pre>
+	 * 
+	 * The iterator closes its cursor when iterated to the end, but should be
+	 * closed explicitly if you stop early. Associated models are never loaded.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return.
+	 * @return A lazy iterator over the founded data.
+	 */
+	public <T> QueryIterator<T> iterate(Class<T> modelClass) {
+		return iterate(modelClass, false);
+	}
+
+	/**
+	 * It is mostly same as {@link com.yidingliu.dev.knowldegelibrary.m.litepal.crud.ClusterQuery#iterate(Class)} but a
+	 * reuseInstance parameter. If set true every row will be set into one same
+	 * model instance, which avoids creating an object for each row. In this
+	 * case the model returned by next() is only valid until next() is called
+	 * again, do not keep it.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return.
+	 * @param reuseInstance
+	 *            True to reuse one model instance for all rows, false not.
+	 * @return A lazy iterator over the founded data.
+	 */
+	public <T> QueryIterator<T> iterate(Class<T> modelClass, boolean reuseInstance) {
+		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
+		return queryHandler.onIterate(modelClass, mColumns, getConditions(getTableName(modelClass)),
+				getOrderBy(), getLimit(), reuseInstance);
 	}
 
     /**
@@ -298,7 +664,7 @@ public class ClusterQuery {
 	 *            Which table to query from by class.
 	 * @return Count of the specified table.
 	 */
-	public synchronized int count(Class<?> modelClass) {
+	public int count(Class<?> modelClass) {
 		return count ( BaseUtility.changeCase ( modelClass.getSimpleName () ) );
 	}
 
@@ -320,9 +686,9 @@ public class ClusterQuery {
 	 *            Which table to query from.
 	 * @return Count of the specified table.
 	 */
-	public synchronized int count(String tableName) {
+	public int count(String tableName) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
-		return queryHandler.onCount(tableName, mConditions);
+		return queryHandler.onCount(tableName, getConditions(tableName));
 	}
 
 	/**
@@ -344,7 +710,7 @@ public class ClusterQuery {
 	 *            The based on column to calculate.
 	 * @return The average value on a given column.
 	 */
-	public synchronized double average(Class<?> modelClass, String column) {
+	public double average(Class<?> modelClass, String column) {
 		return average(BaseUtility.changeCase(modelClass.getSimpleName()), column);
 	}
 
@@ -367,9 +733,9 @@ public class ClusterQuery {
 	 *            The based on column to calculate.
 	 * @return The average value on a given column.
 	 */
-	public synchronized double average(String tableName, String column) {
+	public double average(String tableName, String column) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
-		return queryHandler.onAverage(tableName, column, mConditions);
+		return queryHandler.onAverage(tableName, column, getConditions(tableName));
 	}
 
 	/**
@@ -394,7 +760,7 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The maximum value on a given column.
 	 */
-	public synchronized <T> T max(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public <T> T max(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return max(BaseUtility.changeCase(modelClass.getSimpleName()), columnName, columnType);
 	}
 
@@ -420,9 +786,9 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The maximum value on a given column.
 	 */
-	public synchronized <T> T max(String tableName, String columnName, Class<T> columnType) {
+	public <T> T max(String tableName, String columnName, Class<T> columnType) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
-		return queryHandler.onMax(tableName, columnName, mConditions, columnType);
+		return queryHandler.onMax(tableName, columnName, getConditions(tableName), columnType);
 	}
 
 	/**
@@ -447,7 +813,7 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The minimum value on a given column.
 	 */
-	public synchronized <T> T min(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public <T> T min(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return min(BaseUtility.changeCase(modelClass.getSimpleName()), columnName, columnType);
 	}
 
@@ -473,9 +839,9 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The minimum value on a given column.
 	 */
-	public synchronized <T> T min(String tableName, String columnName, Class<T> columnType) {
+	public <T> T min(String tableName, String columnName, Class<T> columnType) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
-		return queryHandler.onMin(tableName, columnName, mConditions, columnType);
+		return queryHandler.onMin(tableName, columnName, getConditions(tableName), columnType);
 	}
 
 	/**
@@ -500,7 +866,7 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The sum value on a given column.
 	 */
-	public synchronized <T> T sum(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public <T> T sum(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return sum(BaseUtility.changeCase(modelClass.getSimpleName()), columnName, columnType);
 	}
 
@@ -526,9 +892,125 @@ public class ClusterQuery {
 	 *            The type of the based on column.
 	 * @return The sum value on a given column.
 	 */
-	public synchronized <T> T sum(String tableName, String columnName, Class<T> columnType) {
+	public <T> T sum(String tableName, String columnName, Class<T> columnType) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
-		return queryHandler.onSum(tableName, columnName, mConditions, columnType);
+		return queryHandler.onSum(tableName, columnName, getConditions(tableName), columnType);
+	}
+
+	/**
+	 * Copy the cluster parameters, so that an asynchronous query won't be
+	 * affected if this one is changed later.
+	 * 
+	 * @return A new ClusterQuery with the same parameters.
+	 */
+	private ClusterQuery copy() {
+		ClusterQuery query = new ClusterQuery();
+		query.mColumns = mColumns == null ? null : mColumns.clone();
+		query.mConditions = mConditions == null ? null : mConditions.clone();
+		query.mOrderBy = mOrderBy;
+		query.mLimit = mLimit;
+		query.mOffset = mOffset;
+		query.mPageToken = mPageToken;
+		query.mMatch = mMatch;
+		return query;
+	}
+
+	/**
+	 * Build the key to coalesce identical asynchronous queries.
+	 * 
+	 * @param action
+	 *            What the query does, such as query or queryCount.
+	 * @param className
+	 *            The class name of model to query.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @return The key, or null if the query should never be coalesced.
+	 */
+	private String getAsyncKey(String action, String className, boolean isEager) {
+		if (mPageToken != null) {
+			return null;
+		}
+		return AsyncExecutor.keyOf(action, className, isEager, mColumns, mConditions, mOrderBy,
+				mLimit, mOffset, mMatch);
+	}
+
+	/**
+	 * Combine the offset and limit into the LIMIT clause of SQL.
+	 * 
+	 * @return The LIMIT clause, or null if no limit is set.
+	 */
+	private String getLimit() {
+		if (mOffset == null) {
+			return mLimit;
+		}
+		if (mLimit == null) {
+			mLimit = "0";
+		}
+		return mOffset + "," + mLimit;
+	}
+
+	/**
+	 * Get the where clause and its arguments with the keyset predicate merged.
+	 * 
+	 * @return The conditions to query with.
+	 */
+	private String[] getConditions(String tableName) {
+		String[] conditions = appendMatchCondition(tableName, mConditions);
+		if (mPageToken == null) {
+			return conditions;
+		}
+		return mPageToken.appendConditions(conditions);
+	}
+
+	/**
+	 * Append the full text matching to the conditions. The rows are joined
+	 * back from the full text index by their ids.
+	 * 
+	 * @param tableName
+	 *            The table to query.
+	 * @param conditions
+	 *            The conditions set by where.
+	 * @return The conditions with full text matching, or the passed in
+	 *         conditions if there's nothing to match.
+	 */
+	private String[] appendMatchCondition(String tableName, String[] conditions) {
+		if (mMatch == null) {
+			return conditions;
+		}
+		String fullTextTableName = DBUtility.getFullTextTableName(tableName);
+		String predicate = "id in (select docid from " + fullTextTableName + " where "
+				+ fullTextTableName + " match ?)";
+		if (conditions == null || conditions.length == 0 || TextUtils.isEmpty(conditions[0])) {
+			return new String[] { predicate, mMatch };
+		}
+		String[] merged = new String[conditions.length + 1];
+		merged[0] = "(" + conditions[0] + ") and " + predicate;
+		System.arraycopy(conditions, 1, merged, 1, conditions.length - 1);
+		merged[conditions.length] = mMatch;
+		return merged;
+	}
+
+	/**
+	 * Get the table name of model class.
+	 * 
+	 * @param modelClass
+	 *            The model class.
+	 * @return The table name.
+	 */
+	private String getTableName(Class<?> modelClass) {
+		return BaseUtility.changeCase(DBUtility.getTableNameByClassName(modelClass.getName()));
+	}
+
+	/**
+	 * Get the ORDER BY clause. The order of keyset pagination takes precedence.
+	 * 
+	 * @return The ORDER BY clause.
+	 */
+	private String getOrderBy() {
+		if (mPageToken == null) {
+			return mOrderBy;
+		}
+		return mPageToken.getOrderBy();
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
+
+/**
+ * Callback of the asynchronous operations, such as
+ * {@link DataSupport#findAsync(Class, long, DataCallback)}. Both methods are
+ * called on the main thread.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public abstract class DataCallback<T> {
+
+	/**
+	 * Called when the operation finished successfully.
+	 *
+	 * @param result
+	 *            The result of operation, the same as the blocking version
+	 *            returns.
+	 */
+	public abstract void onFinish(T result);
+
+	/**
+	 * Called when the operation failed. By default the exception is thrown on
+	 * the main thread, just like the blocking version does. Override it to
+	 * handle the failure.
+	 *
+	 * @param e
+	 *            The cause of failure.
+	 */
+	public void onError(DataSupportException e) {
+		throw e;
+	}
+
+}
@@ -7,6 +7,8 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 import android.util.SparseArray;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalBase;
@@ -24,7 +26,9 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility.changeCase;
 
@@ -39,6 +43,12 @@ import static com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility.chan
 abstract class DataHandler extends LitePalBase {
 	public static final String TAG = "DataHandler";
 
+	/**
+	 * The max count of ids to put into one IN clause when loading associated
+	 * models in batch.
+	 */
+	private static final int MAX_IDS_IN_CLAUSE = 500;
+
 	/**
 	 * Instance of SQLiteDatabase, use to do the CRUD job.
 	 */
@@ -113,18 +123,36 @@ abstract class DataHandler extends LitePalBase {
 			cursor = mDatabase.query(tableName, customizedColumns, selection, selectionArgs,
 					groupBy, having, orderBy, limit);
 			if (cursor.moveToFirst()) {
-                SparseArray<QueryInfoCache> queryInfoCacheSparseArray = new SparseArray<QueryInfoCache>();
+                RowMapper<T> rowMapper = RowMapper.of(modelClass, supportedFields);
+				List<Map<Long, List<DataSupport>>> foreignKeyOwners = null;
+				int[] foreignKeyIndexes = null;
+				if (foreignKeyAssociations != null) {
+					foreignKeyOwners = new ArrayList<Map<Long, List<DataSupport>>>();
+					foreignKeyIndexes = new int[foreignKeyAssociations.size()];
+					for (int i = 0; i < foreignKeyIndexes.length; i++) {
+						String foreignKeyColumn = getForeignKeyColumnName(DBUtility
+								.getTableNameByClassName(foreignKeyAssociations.get(i)
+										.getAssociatedClassName()));
+						foreignKeyIndexes[i] = cursor.getColumnIndex(foreignKeyColumn);
+						foreignKeyOwners.add(new HashMap<Long, List<DataSupport>>());
+					}
+				}
 				do {
 					T modelInstance = (T) createInstanceFromClass(modelClass);
-					giveBaseObjIdValue((DataSupport) modelInstance,
-							cursor.getLong(cursor.getColumnIndexOrThrow("id")));
-					setValueToModel(modelInstance, supportedFields, foreignKeyAssociations, cursor, queryInfoCacheSparseArray);
-					if (foreignKeyAssociations != null) {
-						setAssociatedModel((DataSupport) modelInstance);
+					giveBaseObjIdValue((DataSupport) modelInstance, rowMapper.readId(cursor));
+					setValueToModel(modelInstance, cursor, rowMapper);
+					if (foreignKeyIndexes != null) {
+						collectForeignKeyOwners((DataSupport) modelInstance, cursor,
+								foreignKeyIndexes, foreignKeyOwners);
 					}
 					dataList.add(modelInstance);
 				} while (cursor.moveToNext());
-                queryInfoCacheSparseArray.clear();
+				if (foreignKeyAssociations != null) {
+					cursor.close();
+					cursor = null;
+					setForeignKeyModels(foreignKeyAssociations, foreignKeyOwners);
+					setAssociatedModels((List<DataSupport>) dataList);
+				}
 			}
 			return dataList;
 		} catch (Exception e) {
@@ -136,6 +164,84 @@ abstract class DataHandler extends LitePalBase {
 		}
 	}
 
+	/**
+	 * Query the table of the given model, returning a lazy iterator over the
+	 * result set. Models are created from the cursor one at a time when
+	 * iterating, so that the result set won't be held in memory at once.
+	 * Associated models are never loaded.
+	 * 
+	 * @param modelClass
+	 *            The model to compile the query against.
+	 * @param columns
+	 *            A list of which columns to return. Passing null will return
+	 *            all columns.
+	 * @param selection
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause (excluding the WHERE itself). Passing null will
+	 *            return all rows for the given table.
+	 * @param selectionArgs
+	 *            You may include ?s in selection, which will be replaced by the
+	 *            values from selectionArgs, in order that they appear in the
+	 *            selection. The values will be bound as Strings.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause
+	 *            (excluding the ORDER BY itself). Passing null will use the
+	 *            default sort order, which may be unordered.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause. Passing null denotes no LIMIT clause.
+	 * @param reuseInstance
+	 *            True to set every row into one same model instance, false to
+	 *            create a new model instance for each row.
+	 * @return A lazy iterator over the result set, which must be closed if it
+	 *         is not iterated to the end.
+	 */
+	protected <T> QueryIterator<T> iterate(Class<T> modelClass, String[] columns, String selection,
+			String[] selectionArgs, String orderBy, String limit, boolean reuseInstance) {
+		try {
+			List<Field> supportedFields = getSupportedFields(modelClass.getName());
+			Cursor cursor = mDatabase.query(getTableName(modelClass),
+					getCustomizedColumns(columns, null), selection, selectionArgs, null, null,
+					orderBy, limit);
+			return new QueryIterator<T>(this, modelClass, cursor,
+					RowMapper.of(modelClass, supportedFields), reuseInstance);
+		} catch (DataSupportException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Set the values of the row which cursor is positioned at into a model.
+	 * 
+	 * @param modelClass
+	 *            The model class to create instance from.
+	 * @param modelInstance
+	 *            The model instance to set into. Passing null will create a
+	 *            new instance of modelClass.
+	 * @param cursor
+	 *            The cursor which is positioned at the row to read.
+	 * @param rowMapper
+	 *            The row mapper bound to the cursor.
+	 * @return The model with values of current row.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T readRow(Class<T> modelClass, T modelInstance, Cursor cursor, RowMapper<T> rowMapper) {
+		try {
+			if (modelInstance == null) {
+				modelInstance = (T) createInstanceFromClass(modelClass);
+			}
+			giveBaseObjIdValue((DataSupport) modelInstance, rowMapper.readId(cursor));
+			setValueToModel(modelInstance, cursor, rowMapper);
+			return modelInstance;
+		} catch (DataSupportException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		}
+	}
+
 	/**
 	 * Handles the math query of the given table.
 	 * 
@@ -155,6 +261,9 @@ abstract class DataHandler extends LitePalBase {
 	@SuppressWarnings("unchecked")
 	protected <T> T mathQuery(String tableName, String[] columns, String[] conditions, Class<T> type) {
 		BaseUtility.checkConditionsCorrect ( conditions );
+		if (columns != null && columns.length == 1 && isScalarType(type)) {
+			return scalarQuery(tableName, columns[0], conditions, type);
+		}
 		Cursor cursor = null;
 		T result = null;
 		try {
@@ -175,6 +284,127 @@ abstract class DataHandler extends LitePalBase {
 		return result;
 	}
 
+	/**
+	 * Handles the math query which returns a single value by a compiled
+	 * statement from {@link StatementCache}. The where arguments are bound
+	 * straight from conditions, no query cursor is created.
+	 * 
+	 * @param tableName
+	 *            Which table to query from.
+	 * @param column
+	 *            The aggregate expression to select.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param type
+	 *            The type of the based on column. Must be a scalar type, see
+	 *            {@link #isScalarType(Class)}.
+	 * @return The result calculating by SQL.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T scalarQuery(String tableName, String column, String[] conditions, Class<T> type) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("select ").append(column).append(" from ").append(tableName);
+		String whereClause = getWhereClause(conditions);
+		// an empty where clause selects all rows and its arguments are
+		// ignored, the same as query() does.
+		boolean hasWhere = !TextUtils.isEmpty(whereClause);
+		if (hasWhere) {
+			builder.append(" where ").append(whereClause);
+		}
+		String sql = builder.toString();
+		SQLiteStatement statement = null;
+		try {
+			statement = StatementCache.acquire(mDatabase, sql);
+			if (hasWhere) {
+				for (int i = 1; i < conditions.length; i++) {
+					statement.bindString(i, conditions[i]);
+				}
+			}
+			Object result;
+			if (type == int.class || type == Integer.class) {
+				result = (int) statement.simpleQueryForLong();
+			} else if (type == long.class || type == Long.class) {
+				result = statement.simpleQueryForLong();
+			} else if (type == short.class || type == Short.class) {
+				result = (short) statement.simpleQueryForLong();
+			} else {
+				String value = statement.simpleQueryForString();
+				if (type == String.class) {
+					result = value;
+				} else {
+					double number = value == null ? 0 : Double.parseDouble(value);
+					if (type == float.class || type == Float.class) {
+						result = (float) number;
+					} else {
+						result = number;
+					}
+				}
+			}
+			return (T) result;
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		} finally {
+			if (statement != null) {
+				StatementCache.release(mDatabase, sql, statement);
+			}
+		}
+	}
+
+	/**
+	 * Check if the result of math query can be read by a compiled statement.
+	 * 
+	 * @param type
+	 *            The type of the based on column.
+	 * @return True if it's a number type or String, false otherwise.
+	 */
+	private boolean isScalarType(Class<?> type) {
+		return type == int.class || type == Integer.class || type == long.class
+				|| type == Long.class || type == short.class || type == Short.class
+				|| type == float.class || type == Float.class || type == double.class
+				|| type == Double.class || type == String.class;
+	}
+
+	/**
+	 * Bind a field value into the statement. Values are converted the same
+	 * way as putting them into ContentValues. Date is bound as its time in
+	 * milliseconds, boolean as 1 or 0 and char as String. Null is bound as
+	 * NULL.
+	 *
+	 * @param statement
+	 *            The statement to bind into.
+	 * @param index
+	 *            The 1-based index of the place holder.
+	 * @param fieldValue
+	 *            The value of field.
+	 */
+	protected void bindValue(SQLiteStatement statement, int index, Object fieldValue) {
+		if (fieldValue == null) {
+			statement.bindNull(index);
+		} else if (fieldValue instanceof String) {
+			statement.bindString(index, (String) fieldValue);
+		} else if (fieldValue instanceof Double || fieldValue instanceof Float) {
+			statement.bindDouble(index, ((Number) fieldValue).doubleValue());
+		} else if (fieldValue instanceof Number) {
+			statement.bindLong(index, ((Number) fieldValue).longValue());
+		} else if (fieldValue instanceof Boolean) {
+			statement.bindLong(index, (Boolean) fieldValue ? 1 : 0);
+		} else if (fieldValue instanceof Date) {
+			statement.bindLong(index, ((Date) fieldValue).getTime());
+		} else if (fieldValue instanceof byte[]) {
+			statement.bindBlob(index, (byte[]) fieldValue);
+		} else if (fieldValue instanceof Byte[]) {
+			Byte[] bytes = (Byte[]) fieldValue;
+			byte[] blob = new byte[bytes.length];
+			for (int i = 0; i < bytes.length; i++) {
+				blob[i] = bytes[i];
+			}
+			statement.bindBlob(index, blob);
+		} else {
+			statement.bindString(index, String.valueOf(fieldValue));
+		}
+	}
+
 	/**
 	 * Assign the generated id value to {@link DataSupport#baseObjId}. This
 	 * value will be used as identify of this model for system use.
@@ -688,71 +918,213 @@ abstract class DataHandler extends LitePalBase {
 	 *
 	 * @param modelInstance
 	 *            The model to set into.
-	 * @param supportedFields
-	 *            Corresponding to each column in database.
-	 * @param foreignKeyAssociations
-	 *            Associated classes which have foreign keys in the current
-	 *            model's table.
 	 * @param cursor
 	 *            Use to get value from database.
-     * @param sparseArray
-     *            Use SparseArray to cache the query information at first loop. Then the rest loop
-     *            can get query information directly to speed up.
-	 * @throws SecurityException
-	 * @throws IllegalArgumentException
-	 * @throws NoSuchMethodException
+     * @param rowMapper
+     *            Use RowMapper to read each column with typed getter of cursor. The column
+     *            indexes are resolved at first loop, then the rest loop can reuse them to speed up.
 	 * @throws IllegalAccessException
-	 * @throws InvocationTargetException
 	 */
-	protected void setValueToModel(Object modelInstance, List<Field> supportedFields,
-			List<AssociationsInfo> foreignKeyAssociations, Cursor cursor, SparseArray<QueryInfoCache> sparseArray) throws SecurityException,
-			IllegalArgumentException, NoSuchMethodException, IllegalAccessException,
-			InvocationTargetException {
-        int cacheSize = sparseArray.size();
-        if (cacheSize > 0) {
-            for (int i = 0; i < cacheSize; i++) {
-                int columnIndex = sparseArray.keyAt(i);
-                QueryInfoCache cache = sparseArray.get(columnIndex);
-                setToModelByReflection(modelInstance, cache.field, columnIndex, cache.getMethodName, cursor);
-            }
-        } else {
-            for (Field field : supportedFields) {
-                String getMethodName = genGetColumnMethod(field);
-                String columnName = isIdColumn(field.getName()) ? "id" : field.getName();
-                int columnIndex = cursor.getColumnIndex ( changeCase ( columnName ) );
-                if (columnIndex != -1) {
-                    setToModelByReflection(modelInstance, field, columnIndex, getMethodName, cursor);
-                    QueryInfoCache cache = new QueryInfoCache();
-                    cache.getMethodName = getMethodName;
-                    cache.field = field;
-                    sparseArray.put(columnIndex, cache);
-                }
-            }
-        }
+	protected <T> void setValueToModel(T modelInstance, Cursor cursor, RowMapper<T> rowMapper)
+			throws IllegalAccessException {
+        rowMapper.map(cursor, modelInstance);
+	}
 
-		if (foreignKeyAssociations != null) {
-			for (AssociationsInfo associationInfo : foreignKeyAssociations) {
-				String foreignKeyColumn = getForeignKeyColumnName(DBUtility
-						.getTableNameByClassName(associationInfo.getAssociatedClassName()));
-				int columnIndex = cursor.getColumnIndex(foreignKeyColumn);
-				if (columnIndex != -1) {
-					long associatedClassId = cursor.getLong(columnIndex);
-					try {
-						DataSupport associatedObj = (DataSupport) DataSupport.find(
-								Class.forName(associationInfo.getAssociatedClassName()),
-								associatedClassId);
-						if (associatedObj != null) {
-							putSetMethodValueByField((DataSupport) modelInstance,
-									associationInfo.getAssociateOtherModelFromSelf(), associatedObj);
-						}
-					} catch (ClassNotFoundException e) {
-						e.printStackTrace();
+	/**
+	 * Record which foreign key values the base object holds, so that the
+	 * associated models can be found for all the base objects at once later.
+	 *
+	 * @param baseObj
+	 *            The base object which holds the foreign keys.
+	 * @param cursor
+	 *            The cursor which is positioned at the row of baseObj.
+	 * @param foreignKeyIndexes
+	 *            Column index of each foreign key in the cursor, -1 if absent.
+	 * @param foreignKeyOwners
+	 *            The base objects grouped by foreign key value, one map for
+	 *            each foreign key.
+	 */
+	private void collectForeignKeyOwners(DataSupport baseObj, Cursor cursor,
+			int[] foreignKeyIndexes, List<Map<Long, List<DataSupport>>> foreignKeyOwners) {
+		for (int i = 0; i < foreignKeyIndexes.length; i++) {
+			int columnIndex = foreignKeyIndexes[i];
+			if (columnIndex != -1 && !cursor.isNull(columnIndex)) {
+				long associatedClassId = cursor.getLong(columnIndex);
+				Map<Long, List<DataSupport>> owners = foreignKeyOwners.get(i);
+				List<DataSupport> ownerList = owners.get(associatedClassId);
+				if (ownerList == null) {
+					ownerList = new ArrayList<DataSupport>();
+					owners.put(associatedClassId, ownerList);
+				}
+				ownerList.add(baseObj);
+			}
+		}
+	}
+
+	/**
+	 * Finds the associated models which the foreign keys in base objects point
+	 * to, then set them into base objects. Each association costs one query
+	 * for every {@link #MAX_IDS_IN_CLAUSE} ids, no matter how many base
+	 * objects there are.
+	 *
+	 * @param foreignKeyAssociations
+	 *            Associated classes which have foreign keys in the current
+	 *            model's table.
+	 * @param foreignKeyOwners
+	 *            The base objects grouped by foreign key value, one map for
+	 *            each foreign key.
+	 */
+	private void setForeignKeyModels(List<AssociationsInfo> foreignKeyAssociations,
+			List<Map<Long, List<DataSupport>>> foreignKeyOwners) throws Exception {
+		for (int i = 0; i < foreignKeyAssociations.size(); i++) {
+			Map<Long, List<DataSupport>> owners = foreignKeyOwners.get(i);
+			if (owners.isEmpty()) {
+				continue;
+			}
+			AssociationsInfo info = foreignKeyAssociations.get(i);
+			String associatedClassName = info.getAssociatedClassName();
+			String associatedTableName = DBUtility.getTableNameByClassName(associatedClassName);
+			String sql = "select * from " + associatedTableName + " where id in (";
+			Map<Long, List<DataSupport>> associatedModels = queryAssociatedModels(
+					associatedClassName, sql, "id", owners.keySet());
+			for (Map.Entry<Long, List<DataSupport>> entry : associatedModels.entrySet()) {
+				DataSupport associatedObj = entry.getValue().get(0);
+				for (DataSupport owner : owners.get(entry.getKey())) {
+					putSetMethodValueByField(owner, info.getAssociateOtherModelFromSelf(),
+							associatedObj);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the associated models which hold the foreign keys of base objects,
+	 * including the ones linked by intermediate table, then set them into
+	 * base objects. Each association costs one query for every
+	 * {@link #MAX_IDS_IN_CLAUSE} base objects, instead of one query for each
+	 * base object.
+	 *
+	 * @param baseObjList
+	 *            The base objects queried from the same table.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void setAssociatedModels(List<DataSupport> baseObjList) throws Exception {
+		if (fkInOtherModel == null || baseObjList.isEmpty()) {
+			return;
+		}
+		Map<Long, DataSupport> baseObjs = new HashMap<Long, DataSupport>();
+		for (DataSupport baseObj : baseObjList) {
+			baseObjs.put(baseObj.getBaseObjId(), baseObj);
+		}
+		String tableName = baseObjList.get(0).getTableName();
+		for (AssociationsInfo info : fkInOtherModel) {
+			String associatedClassName = info.getAssociatedClassName();
+			String associatedTableName = DBUtility.getTableNameByClassName(associatedClassName);
+			boolean isM2M = info.getAssociationType() == Const.Model.MANY_TO_MANY;
+			String sql;
+			String keyColumn;
+			if (isM2M) {
+				String intermediateTableName = DBUtility.getIntermediateTableName(tableName,
+						associatedTableName);
+				keyColumn = tableName + "_id";
+				StringBuilder builder = new StringBuilder();
+				builder.append("select a.*, b.").append(keyColumn).append(" from ")
+						.append(associatedTableName).append(" a inner join ")
+						.append(intermediateTableName).append(" b on a.id = b.")
+						.append(associatedTableName + "_id").append(" where b.")
+						.append(keyColumn).append(" in (");
+				sql = builder.toString();
+			} else {
+				keyColumn = getForeignKeyColumnName(DBUtility.getTableNameByClassName(info
+						.getSelfClassName()));
+				sql = "select * from " + associatedTableName + " where " + keyColumn + " in (";
+			}
+			Map<Long, List<DataSupport>> associatedModels = queryAssociatedModels(
+					associatedClassName, sql, keyColumn, baseObjs.keySet());
+			for (Map.Entry<Long, List<DataSupport>> entry : associatedModels.entrySet()) {
+				DataSupport baseObj = baseObjs.get(entry.getKey());
+				for (DataSupport modelInstance : entry.getValue()) {
+					if (info.getAssociationType() == Const.Model.MANY_TO_ONE || isM2M) {
+						Collection collection = (Collection) takeGetMethodValueByField(baseObj,
+								info.getAssociateOtherModelFromSelf());
+						collection.add(modelInstance);
+					} else if (info.getAssociationType() == Const.Model.ONE_TO_ONE) {
+						putSetMethodValueByField(baseObj, info.getAssociateOtherModelFromSelf(),
+								modelInstance);
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Query the associated models whose key column is in the given keys, and
+	 * group them by the key. The keys are split into batches of
+	 * {@link #MAX_IDS_IN_CLAUSE}, each batch costs one query. Rows with the
+	 * same id share one model instance.
+	 *
+	 * @param associatedClassName
+	 *            The class name of associated models.
+	 * @param sqlPrefix
+	 *            The select statement ends with "in (", the keys and the
+	 *            closing parenthesis will be appended.
+	 * @param keyColumn
+	 *            The column in the result set which holds the key.
+	 * @param keys
+	 *            The keys to query.
+	 * @return The associated models grouped by key.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<Long, List<DataSupport>> queryAssociatedModels(String associatedClassName,
+			String sqlPrefix, String keyColumn, Collection<Long> keys) throws Exception {
+		Map<Long, List<DataSupport>> groupedModels = new HashMap<Long, List<DataSupport>>();
+		Map<Long, DataSupport> modelsById = new HashMap<Long, DataSupport>();
+		Class<DataSupport> associatedClass = (Class<DataSupport>) Class.forName(associatedClassName);
+		RowMapper<DataSupport> rowMapper = RowMapper.of(associatedClass,
+				getSupportedFields(associatedClassName));
+		List<Long> keyList = new ArrayList<Long>(keys);
+		for (int start = 0; start < keyList.size(); start += MAX_IDS_IN_CLAUSE) {
+			int end = Math.min(start + MAX_IDS_IN_CLAUSE, keyList.size());
+			StringBuilder sql = new StringBuilder(sqlPrefix);
+			for (int i = start; i < end; i++) {
+				if (i > start) {
+					sql.append(",");
+				}
+				sql.append(keyList.get(i));
+			}
+			sql.append(")");
+			Cursor cursor = null;
+			try {
+				cursor = mDatabase.rawQuery(changeCase(sql.toString()), null);
+				if (cursor.moveToFirst()) {
+					int keyIndex = cursor.getColumnIndexOrThrow(changeCase(keyColumn));
+					do {
+						long id = rowMapper.readId(cursor);
+						DataSupport modelInstance = modelsById.get(id);
+						if (modelInstance == null) {
+							modelInstance = (DataSupport) createInstanceFromClass(associatedClass);
+							giveBaseObjIdValue(modelInstance, id);
+							setValueToModel(modelInstance, cursor, rowMapper);
+							modelsById.put(id, modelInstance);
+						}
+						long key = cursor.getLong(keyIndex);
+						List<DataSupport> models = groupedModels.get(key);
+						if (models == null) {
+							models = new ArrayList<DataSupport>();
+							groupedModels.put(key, models);
+						}
+						models.add(modelInstance);
+					} while (cursor.moveToNext());
+				}
+			} finally {
+				if (cursor != null) {
+					cursor.close();
+				}
+			}
+		}
+		return groupedModels;
+	}
+
 	/**
 	 * Get the foreign key associations of the specified class.
 	 *
@@ -1040,21 +1412,6 @@ abstract class DataHandler extends LitePalBase {
 		return setterMethodName;
 	}
 
-	/**
-	 * Generates the getType method for cursor based on field. There're couple of
-     * unusual conditions. If field type is boolean, generate getInt method. If
-     * field type is char, generate getString method. If field type is Date, generate
-     * getLong method. If filed type is Integer, generate getInt method. If field type
-     * is bytes, generate getBlob method.
-	 * 
-	 * @param field
-	 *            To generate getType method for cursor.
-	 * @return The getType method for cursor.
-	 */
-	private String genGetColumnMethod(Field field) {
-		return genGetColumnMethod(field.getType());
-	}
-
 	/**
 	 * Generates the getType method for cursor based on field. There're couple of
 	 * unusual conditions. If field type is boolean, generate getInt method. If
@@ -1162,110 +1519,4 @@ abstract class DataHandler extends LitePalBase {
 		}
 	}
 
-	/**
-	 * Finds the associated models of baseObj, then set them into baseObj.
-	 * 
-	 * @param baseObj
-	 *            The class of base object.
-	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void setAssociatedModel(DataSupport baseObj) {
-		if (fkInOtherModel == null) {
-			return;
-		}
-		for (AssociationsInfo info : fkInOtherModel) {
-			Cursor cursor = null;
-			String associatedClassName = info.getAssociatedClassName();
-			boolean isM2M = info.getAssociationType() == Const.Model.MANY_TO_MANY;
-			try {
-				List<Field> supportedFields = getSupportedFields(associatedClassName);
-				if (isM2M) {
-					String tableName = baseObj.getTableName();
-					String associatedTableName = DBUtility
-							.getTableNameByClassName(associatedClassName);
-					String intermediateTableName = DBUtility.getIntermediateTableName(tableName,
-							associatedTableName);
-					StringBuilder sql = new StringBuilder();
-					sql.append("select * from ").append(associatedTableName)
-							.append(" a inner join ").append(intermediateTableName)
-							.append(" b on a.id = b.").append(associatedTableName + "_id")
-							.append(" where b.").append(tableName).append("_id = ?");
-					cursor = DataSupport.findBySQL( changeCase ( sql.toString () ),
-					                                String.valueOf(baseObj.getBaseObjId()));
-				} else {
-					String foreignKeyColumn = getForeignKeyColumnName(DBUtility
-							.getTableNameByClassName(info.getSelfClassName()));
-					String associatedTableName = DBUtility
-							.getTableNameByClassName(associatedClassName);
-					cursor = mDatabase.query( changeCase ( associatedTableName ), null,
-					                          foreignKeyColumn + "=?",
-					                          new String[] { String.valueOf(baseObj.getBaseObjId()) }, null, null,
-					                          null, null);
-				}
-				if (cursor != null && cursor.moveToFirst()) {
-                    SparseArray<QueryInfoCache> queryInfoCacheSparseArray = new SparseArray<QueryInfoCache>();
-					do {
-						DataSupport modelInstance = (DataSupport) createInstanceFromClass(Class.forName(associatedClassName));
-						giveBaseObjIdValue(modelInstance,
-								cursor.getLong(cursor.getColumnIndexOrThrow("id")));
-						setValueToModel(modelInstance, supportedFields, null, cursor, queryInfoCacheSparseArray);
-						if (info.getAssociationType() == Const.Model.MANY_TO_ONE || isM2M) {
-							Collection collection = (Collection) takeGetMethodValueByField(baseObj,
-									info.getAssociateOtherModelFromSelf());
-							collection.add(modelInstance);
-						} else if (info.getAssociationType() == Const.Model.ONE_TO_ONE) {
-							putSetMethodValueByField(baseObj,
-									info.getAssociateOtherModelFromSelf(), modelInstance);
-						}
-					} while (cursor.moveToNext());
-                    queryInfoCacheSparseArray.clear();
-				}
-			} catch (Exception e) {
-				throw new DataSupportException(e.getMessage(), e);
-			} finally {
-				if (cursor != null) {
-					cursor.close();
-				}
-			}
-		}
-	}
-
-    private void setToModelByReflection(Object modelInstance, Field field, int columnIndex, String getMethodName, Cursor cursor)
-            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Class<?> cursorClass = cursor.getClass();
-        Method method = cursorClass.getMethod(getMethodName, int.class);
-        Object value = method.invoke(cursor, columnIndex);
-        if (field.getType() == boolean.class || field.getType() == Boolean.class) {
-            if ("0".equals(String.valueOf(value))) {
-                value = false;
-            } else if ("1".equals(String.valueOf(value))) {
-                value = true;
-            }
-        } else if (field.getType() == char.class || field.getType() == Character.class) {
-            value = ((String) value).charAt(0);
-        } else if (field.getType() == Date.class) {
-            long date = (Long) value;
-            if (date <= 0) {
-                value = null;
-            } else {
-                value = new Date(date);
-            }
-        }
-        DynamicExecutor.setField(modelInstance, field.getName(), value,
-                modelInstance.getClass());
-    }
-
-    /**
-     * Cache core info for query operation to improve query performance.
-     *
-     * @since 1.3.1
-     */
-    class QueryInfoCache {
-
-        String getMethodName;
-
-        Field field;
-
-    }
-
-}
\ No newline at end of file
+}
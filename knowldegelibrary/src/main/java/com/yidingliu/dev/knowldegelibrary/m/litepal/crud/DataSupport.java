@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * DataSupport connects classes to SQLite database tables to establish an almost
@@ -53,6 +55,15 @@ import java.util.Set;
  */
 public class DataSupport {
 
+	/**
+	 * Serializes all the writing operations of LitePal. Reading operations
+	 * don't hold any lock, so that they can run concurrently with each other
+	 * and, when write-ahead logging is enabled by
+	 * {@link Connector#setWriteAheadLoggingEnabled(boolean)}, with writing
+	 * operations too.
+	 */
+	private static final ReentrantLock writeLock = new ReentrantLock();
+
 	/**
 	 * The identify of each model. LitePal will generate the value
 	 * automatically. Do not try to assign or modify it.
@@ -115,7 +126,7 @@ public class DataSupport {
 	 * 
 	 * @return A ClusterQuery instance.
 	 */
-	public static synchronized ClusterQuery select(String... columns) {
+	public static ClusterQuery select(String... columns) {
 		ClusterQuery cQuery = new ClusterQuery();
 		cQuery.mColumns = columns;
 		return cQuery;
@@ -136,12 +147,32 @@ public class DataSupport {
 	 *            WHERE clause. Passing null will return all rows.
 	 * @return A ClusterQuery instance.
 	 */
-	public static synchronized ClusterQuery where(String... conditions) {
+	public static ClusterQuery where(String... conditions) {
 		ClusterQuery cQuery = new ClusterQuery();
 		cQuery.mConditions = conditions;
 		return cQuery;
 	}
 
+	/**
+	 * Declaring to query the rows whose full text index matches the query.
+	 * 
+	 * <pre>
+	 * DataSupport.match(&quot;android sqlite*&quot;).find(Note.class);
+	 * </pre>
+	 * 
+	 * This will find the notes which contain the word android and a word
+	 * starting with sqlite. See {@link ClusterQuery#match(String)}.
+	 * 
+	 * @param query
+	 *            The full text query. Passing null will match all rows.
+	 * @return A ClusterQuery instance.
+	 */
+	public static ClusterQuery match(String query) {
+		ClusterQuery cQuery = new ClusterQuery();
+		cQuery.mMatch = query;
+		return cQuery;
+	}
+
 	/**
 	 * Declaring how to order the rows queried from table.
 	 * 
@@ -158,7 +189,7 @@ public class DataSupport {
 	 *            unordered.
 	 * @return A ClusterQuery instance.
 	 */
-	public static synchronized ClusterQuery order(String column) {
+	public static ClusterQuery order(String column) {
 		ClusterQuery cQuery = new ClusterQuery();
 		cQuery.mOrderBy = column;
 		return cQuery;
@@ -178,7 +209,7 @@ public class DataSupport {
 	 *            LIMIT clause.
 	 * @return A ClusterQuery instance.
 	 */
-	public static synchronized ClusterQuery limit(int value) {
+	public static ClusterQuery limit(int value) {
 		ClusterQuery cQuery = new ClusterQuery();
 		cQuery.mLimit = String.valueOf(value);
 		return cQuery;
@@ -198,12 +229,55 @@ public class DataSupport {
 	 *            The offset amount of rows returned by the query.
 	 * @return A ClusterQuery instance.
 	 */
-	public static synchronized ClusterQuery offset(int value) {
+	public static ClusterQuery offset(int value) {
 		ClusterQuery cQuery = new ClusterQuery();
 		cQuery.mOffset = String.valueOf(value);
 		return cQuery;
 	}
 
+	/**
+	 * Declaring to query the rows sorted after the given value, which is known
+	 * as keyset pagination.
+	 * 
+	 * <pre>
+	 * DataSupport.after(&quot;id&quot;, lastId).limit(20).find(News.class);
+	 * </pre>
+	 * 
+	 * This will find 20 rows in News table whose id are greater than lastId,
+	 * sorted by id.
+	 * 
+	 * @param column
+	 *            The column to sort by, optionally followed by asc or desc.
+	 * @param lastValue
+	 *            The value of column in the last row of previous page. Passing
+	 *            null will start from the first row.
+	 * @return A ClusterQuery instance.
+	 */
+	public static ClusterQuery after(String column, Object lastValue) {
+		ClusterQuery cQuery = new ClusterQuery();
+		cQuery.mPageToken = PageToken.after(column, lastValue);
+		return cQuery;
+	}
+
+	/**
+	 * Declaring to query the page which the token points to.
+	 * 
+	 * <pre>
+	 * DataSupport.pageAfter(page.getNextPageToken()).limit(20).findPage(News.class);
+	 * </pre>
+	 * 
+	 * This will find the next 20 rows in News table after the previous page.
+	 * 
+	 * @param pageToken
+	 *            Where the last page stopped.
+	 * @return A ClusterQuery instance.
+	 */
+	public static ClusterQuery pageAfter(PageToken pageToken) {
+		ClusterQuery cQuery = new ClusterQuery();
+		cQuery.mPageToken = pageToken;
+		return cQuery;
+	}
+
 	/**
 	 * Count the records.
 	 * 
@@ -222,7 +296,7 @@ public class DataSupport {
 	 *            Which table to query from by class.
 	 * @return Count of the specified table.
 	 */
-	public static synchronized int count(Class<?> modelClass) {
+	public static int count(Class<?> modelClass) {
 		return count ( BaseUtility
 				               .changeCase ( DBUtility.getTableNameByClassName ( modelClass.getName () ) ) );
 	}
@@ -245,7 +319,7 @@ public class DataSupport {
 	 *            Which table to query from.
 	 * @return Count of the specified table.
 	 */
-	public static synchronized int count(String tableName) {
+	public static int count(String tableName) {
 		ClusterQuery cQuery = new ClusterQuery();
 		return cQuery.count(tableName);
 	}
@@ -269,7 +343,7 @@ public class DataSupport {
 	 *            The based on column to calculate.
 	 * @return The average value on a given column.
 	 */
-	public static synchronized double average(Class<?> modelClass, String column) {
+	public static double average(Class<?> modelClass, String column) {
 		return average ( BaseUtility.changeCase (
 				DBUtility.getTableNameByClassName ( modelClass.getName () ) ), column );
 	}
@@ -293,7 +367,7 @@ public class DataSupport {
 	 *            The based on column to calculate.
 	 * @return The average value on a given column.
 	 */
-	public static synchronized double average(String tableName, String column) {
+	public static double average(String tableName, String column) {
 		ClusterQuery cQuery = new ClusterQuery();
 		return cQuery.average(tableName, column);
 	}
@@ -320,7 +394,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The maximum value on a given column.
 	 */
-	public static synchronized <T> T max(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public static <T> T max(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return max(BaseUtility.changeCase(DBUtility.getTableNameByClassName(modelClass.getName())), columnName, columnType);
 	}
 
@@ -346,7 +420,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The maximum value on a given column.
 	 */
-	public static synchronized <T> T max(String tableName, String columnName, Class<T> columnType) {
+	public static <T> T max(String tableName, String columnName, Class<T> columnType) {
 		ClusterQuery cQuery = new ClusterQuery();
 		return cQuery.max(tableName, columnName, columnType);
 	}
@@ -373,7 +447,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The minimum value on a given column.
 	 */
-	public static synchronized <T> T min(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public static <T> T min(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return min(BaseUtility.changeCase(DBUtility.getTableNameByClassName(modelClass.getName())), columnName, columnType);
 	}
 
@@ -399,7 +473,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The minimum value on a given column.
 	 */
-	public static synchronized <T> T min(String tableName, String columnName, Class<T> columnType) {
+	public static <T> T min(String tableName, String columnName, Class<T> columnType) {
 		ClusterQuery cQuery = new ClusterQuery();
 		return cQuery.min(tableName, columnName, columnType);
 	}
@@ -426,7 +500,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The sum value on a given column.
 	 */
-	public static synchronized <T> T sum(Class<?> modelClass, String columnName, Class<T> columnType) {
+	public static <T> T sum(Class<?> modelClass, String columnName, Class<T> columnType) {
 		return sum(BaseUtility.changeCase(DBUtility.getTableNameByClassName(modelClass.getName())), columnName, columnType);
 	}
 
@@ -452,7 +526,7 @@ public class DataSupport {
 	 *            The type of the based on column.
 	 * @return The sum value on a given column.
 	 */
-	public static synchronized <T> T sum(String tableName, String columnName, Class<T> columnType) {
+	public static <T> T sum(String tableName, String columnName, Class<T> columnType) {
 		ClusterQuery cQuery = new ClusterQuery();
 		return cQuery.sum(tableName, columnName, columnType);
 	}
@@ -477,7 +551,7 @@ public class DataSupport {
 	 *            Which record to query.
 	 * @return An object with found data from database, or null.
 	 */
-	public static synchronized <T> T find(Class<T> modelClass, long id) {
+	public static <T> T find(Class<T> modelClass, long id) {
 		return find(modelClass, id, false);
 	}
 
@@ -493,7 +567,7 @@ public class DataSupport {
 	 *            True to load the associated models, false not.
 	 * @return An object with found data from database, or null.
 	 */
-	public static synchronized <T> T find(Class<T> modelClass, long id, boolean isEager) {
+	public static <T> T find(Class<T> modelClass, long id, boolean isEager) {
 		QueryHandler queryHandler = new QueryHandler( Connector.getDatabase ());
 		return queryHandler.onFind(modelClass, id, isEager);
 	}
@@ -513,7 +587,7 @@ public class DataSupport {
 	 *            Which table to query and the object type to return.
 	 * @return An object with data of first row, or null.
 	 */
-	public static synchronized <T> T findFirst(Class<T> modelClass) {
+	public static <T> T findFirst(Class<T> modelClass) {
 		return findFirst(modelClass, false);
 	}
 
@@ -527,7 +601,7 @@ public class DataSupport {
 	 *            True to load the associated models, false not.
 	 * @return An object with data of first row, or null.
 	 */
-	public static synchronized <T> T findFirst(Class<T> modelClass, boolean isEager) {
+	public static <T> T findFirst(Class<T> modelClass, boolean isEager) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
 		return queryHandler.onFindFirst(modelClass, isEager);
 	}
@@ -547,7 +621,7 @@ public class DataSupport {
 	 *            Which table to query and the object type to return.
 	 * @return An object with data of last row, or null.
 	 */
-	public static synchronized <T> T findLast(Class<T> modelClass) {
+	public static <T> T findLast(Class<T> modelClass) {
 		return findLast(modelClass, false);
 	}
 
@@ -561,7 +635,7 @@ public class DataSupport {
 	 *            True to load the associated models, false not.
 	 * @return An object with data of last row, or null.
 	 */
-	public static synchronized <T> T findLast(Class<T> modelClass, boolean isEager) {
+	public static <T> T findLast(Class<T> modelClass, boolean isEager) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
 		return queryHandler.onFindLast(modelClass, isEager);
 	}
@@ -596,7 +670,7 @@ public class DataSupport {
 	 *            Which records to query. Or do not pass it to find all records.
 	 * @return An object list with found data from database, or an empty list.
 	 */
-	public static synchronized <T> List<T> findAll(Class<T> modelClass, long... ids) {
+	public static <T> List<T> findAll(Class<T> modelClass, long... ids) {
 		return findAll(modelClass, false, ids);
 	}
 
@@ -613,12 +687,112 @@ public class DataSupport {
 	 *            Which records to query. Or do not pass it to find all records.
 	 * @return An object list with found data from database, or an empty list.
 	 */
-	public static synchronized <T> List<T> findAll(Class<T> modelClass, boolean isEager,
+	public static <T> List<T> findAll(Class<T> modelClass, boolean isEager,
 			long... ids) {
 		QueryHandler queryHandler = new QueryHandler(Connector.getDatabase());
 		return queryHandler.onFindAll(modelClass, isEager, ids);
 	}
 
+	/**
+	 * Asynchronous version of {@link #find(Class, long)}. The record is found
+	 * on a background thread and delivered to the callback on the main thread.
+	 * 
+	 * <pre>
+	 * DataSupport.findAsync(Person.class, 1, new DataCallback&lt;Person&gt;() {
+	 * 	public void onFinish(Person person) {
+	 * 		...
+	 * 	}
+	 * });
+	 * </pre>
+	 * 
+	 * Identical reads submitted while one is in flight share its query, so
+	 * their callbacks receive the same model.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return.
+	 * @param id
+	 *            Which record to query.
+	 * @param callback
+	 *            Receives the found model, or null.
+	 * @return A task to cancel the delivery.
+	 */
+	public static <T> DataTask<T> findAsync(Class<T> modelClass, long id,
+			DataCallback<T> callback) {
+		return findAsync(modelClass, id, false, callback);
+	}
+
+	/**
+	 * It is mostly same as {@link #findAsync(Class, long, DataCallback)} but
+	 * an isEager parameter. If set true the associated models will be loaded
+	 * as well.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return.
+	 * @param id
+	 *            Which record to query.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @param callback
+	 *            Receives the found model, or null.
+	 * @return A task to cancel the delivery.
+	 */
+	public static <T> DataTask<T> findAsync(final Class<T> modelClass, final long id,
+			final boolean isEager, DataCallback<T> callback) {
+		return AsyncExecutor.read(AsyncExecutor.keyOf("find", modelClass.getName(), id, isEager),
+				new Callable<T>() {
+					@Override
+					public T call() {
+						return find(modelClass, id, isEager);
+					}
+				}, callback);
+	}
+
+	/**
+	 * Asynchronous version of {@link #findAll(Class, long...)}. The records
+	 * are found on a background thread and delivered to the callback on the
+	 * main thread.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param callback
+	 *            Receives the found models.
+	 * @param ids
+	 *            Which records to query. Or do not pass it to find all records.
+	 * @return A task to cancel the delivery.
+	 */
+	public static <T> DataTask<List<T>> findAllAsync(Class<T> modelClass,
+			DataCallback<List<T>> callback, long... ids) {
+		return findAllAsync(modelClass, false, callback, ids);
+	}
+
+	/**
+	 * It is mostly same as
+	 * {@link #findAllAsync(Class, DataCallback, long...)} but an isEager
+	 * parameter. If set true the associated models will be loaded as well.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @param callback
+	 *            Receives the found models.
+	 * @param ids
+	 *            Which records to query. Or do not pass it to find all records.
+	 * @return A task to cancel the delivery.
+	 */
+	public static <T> DataTask<List<T>> findAllAsync(final Class<T> modelClass,
+			final boolean isEager, DataCallback<List<T>> callback, long... ids) {
+		final long[] idsCopy = ids == null ? null : ids.clone();
+		return AsyncExecutor.read(
+				AsyncExecutor.keyOf("findAll", modelClass.getName(), isEager, idsCopy),
+				new Callable<List<T>>() {
+					@Override
+					public List<T> call() {
+						return findAll(modelClass, isEager, idsCopy);
+					}
+				}, callback);
+	}
+
 	/**
 	 * Runs the provided SQL and returns a Cursor over the result set. You may
 	 * include ?s in where clause in the query, which will be replaced by the
@@ -635,7 +809,7 @@ public class DataSupport {
 	 *         that Cursors are not synchronized, see the documentation for more
 	 *         details.
 	 */
-	public static synchronized Cursor findBySQL(String... sql) {
+	public static Cursor findBySQL(String... sql) {
 		BaseUtility.checkConditionsCorrect(sql);
 		if (sql == null) {
 			return null;
@@ -653,6 +827,16 @@ public class DataSupport {
 		return Connector.getDatabase().rawQuery(sql[0], selectionArgs);
 	}
 
+	/**
+	 * Drop all the entities in the entity cache, which is configured by the
+	 * cache node in litepal.xml. Writes through LitePal invalidate the cache
+	 * automatically, call this only after writing the database by raw SQL or
+	 * by SQLiteDatabase directly.
+	 */
+	public static void clearEntityCache() {
+		EntityCache.invalidateAll();
+	}
+
 	/**
 	 * Deletes the record in the database by id.<br>
 	 * The data in other tables which is referenced with the record will be
@@ -670,17 +854,23 @@ public class DataSupport {
 	 *            Which record to delete.
 	 * @return The number of rows affected. Including cascade delete rows.
 	 */
-	public static synchronized int delete(Class<?> modelClass, long id) {
-		int rowsAffected = 0;
-		SQLiteDatabase db = Connector.getDatabase();
-		db.beginTransaction();
+	public static int delete(Class<?> modelClass, long id) {
+		writeLock.lock();
 		try {
-			DeleteHandler deleteHandler = new DeleteHandler(db);
-			rowsAffected = deleteHandler.onDelete(modelClass, id);
-			db.setTransactionSuccessful();
-			return rowsAffected;
+			int rowsAffected = 0;
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				DeleteHandler deleteHandler = new DeleteHandler(db);
+				rowsAffected = deleteHandler.onDelete(modelClass, id);
+				db.setTransactionSuccessful();
+				return rowsAffected;
+			} finally {
+				db.endTransaction();
+			}
 		} finally {
-			db.endTransaction();
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
@@ -696,6 +886,9 @@ public class DataSupport {
 	 * This means that all the records which name is Tom and age is 14 will be
 	 * removed.<br>
 	 * 
+	 * The data in other tables which is referenced with the records will be
+	 * removed too, by one statement for each referenced table.
+	 * 
 	 * @param modelClass
 	 *            Which table to delete from by class.
 	 * @param conditions
@@ -706,11 +899,63 @@ public class DataSupport {
 	 *            replaced by the second element of the array, the next question
 	 *            mark by the third, and so on. Passing empty string will update
 	 *            all rows.
-	 * @return The number of rows affected.
+	 * @return The number of rows affected. Including cascade delete rows.
+	 */
+	public static int deleteAll(Class<?> modelClass, String... conditions) {
+		writeLock.lock();
+		try {
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				DeleteHandler deleteHandler = new DeleteHandler(db);
+				int rowsAffected = deleteHandler.onDeleteAll(modelClass, conditions);
+				db.setTransactionSuccessful();
+				return rowsAffected;
+			} finally {
+				db.endTransaction();
+			}
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
+	}
+
+	/**
+	 * Deletes the records in the database by ids.<br>
+	 * The data in other tables which is referenced with the records will be
+	 * removed too. All the records are deleted in one transaction, and each
+	 * referenced table is cleared by a single statement, so it's much faster
+	 * than deleting the records one by one.
+	 * 
+	 * <pre>
+	 * DataSupport.deleteAll(Person.class, new long[] { 1, 2, 3 });
+	 * </pre>
+	 * 
+	 * This means that the record 1, 2 and 3 in person table will be removed.
+	 * 
+	 * @param modelClass
+	 *            Which table to delete from by class.
+	 * @param ids
+	 *            Which records to delete.
+	 * @return The number of rows affected. Including cascade delete rows.
 	 */
-	public static synchronized int deleteAll(Class<?> modelClass, String... conditions) {
-		DeleteHandler deleteHandler = new DeleteHandler(Connector.getDatabase());
-		return deleteHandler.onDeleteAll(modelClass, conditions);
+	public static int deleteAll(Class<?> modelClass, long[] ids) {
+		writeLock.lock();
+		try {
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				DeleteHandler deleteHandler = new DeleteHandler(db);
+				int rowsAffected = deleteHandler.onDelete(modelClass, ids);
+				db.setTransactionSuccessful();
+				return rowsAffected;
+			} finally {
+				db.endTransaction();
+			}
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
 	}
 
 	/**
@@ -740,9 +985,15 @@ public class DataSupport {
 	 *            all rows.
 	 * @return The number of rows affected.
 	 */
-	public static synchronized int deleteAll(String tableName, String... conditions) {
-		DeleteHandler deleteHandler = new DeleteHandler(Connector.getDatabase());
-		return deleteHandler.onDeleteAll(tableName, conditions);
+	public static int deleteAll(String tableName, String... conditions) {
+		writeLock.lock();
+		try {
+			DeleteHandler deleteHandler = new DeleteHandler(Connector.getDatabase());
+			return deleteHandler.onDeleteAll(tableName, conditions);
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
 	}
 
 	/**
@@ -766,9 +1017,15 @@ public class DataSupport {
 	 *            Which record to update.
 	 * @return The number of rows affected.
 	 */
-	public static synchronized int update(Class<?> modelClass, ContentValues values, long id) {
-		UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
-		return updateHandler.onUpdate(modelClass, id, values);
+	public static int update(Class<?> modelClass, ContentValues values, long id) {
+		writeLock.lock();
+		try {
+			UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
+			return updateHandler.onUpdate(modelClass, id, values);
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
 	}
 
 	/**
@@ -800,7 +1057,7 @@ public class DataSupport {
 	 *            all rows.
 	 * @return The number of rows affected.
 	 */
-	public static synchronized int updateAll(Class<?> modelClass, ContentValues values,
+	public static int updateAll(Class<?> modelClass, ContentValues values,
 			String... conditions) {
 		return updateAll(BaseUtility.changeCase(DBUtility.getTableNameByClassName(
                 modelClass.getName())), values, conditions);
@@ -835,10 +1092,114 @@ public class DataSupport {
 	 *            all rows.
 	 * @return The number of rows affected.
 	 */
-	public static synchronized int updateAll(String tableName, ContentValues values,
+	public static int updateAll(String tableName, ContentValues values,
 			String... conditions) {
-		UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
-		return updateHandler.onUpdateAll(tableName, values, conditions);
+		writeLock.lock();
+		try {
+			UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
+			return updateHandler.onUpdateAll(tableName, values, conditions);
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
+	}
+
+	/**
+	 * Updates many records by id at a time, each with its own ContentValues.
+	 * Returns the number of affected rows of each id.
+	 * 
+	 * <pre>
+	 * Map&lt;Long, ContentValues&gt; changes = new LinkedHashMap&lt;Long, ContentValues&gt;();
+	 * ContentValues cv = new ContentValues();
+	 * cv.put(&quot;name&quot;, &quot;Jim&quot;);
+	 * changes.put(1L, cv);
+	 * DataSupport.updateAll(Person.class, changes);
+	 * </pre>
+	 * 
+	 * All the records are updated in one transaction, and the records which
+	 * update the same columns share one compiled UPDATE statement, so it's
+	 * much more efficient than calling {@link #update(Class, ContentValues, long)}
+	 * for each record. If updating process failed by any accident, the whole
+	 * action will be <b>rolled back</b>.
+	 * 
+	 * @param modelClass
+	 *            Which table to update by class.
+	 * @param valuesById
+	 *            The values to update each record with, keyed by id.
+	 * @return The number of rows affected by each id, in the iteration order
+	 *         of valuesById.
+	 */
+	public static int[] updateAll(Class<?> modelClass, Map<Long, ContentValues> valuesById) {
+		writeLock.lock();
+		try {
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				UpdateHandler updateHandler = new UpdateHandler(db);
+				int[] rowsAffected = updateHandler.onUpdateAll(modelClass, valuesById);
+				db.setTransactionSuccessful();
+				return rowsAffected;
+			} catch (Exception e) {
+				throw new DataSupportException(e.getMessage(), e);
+			} finally {
+				db.endTransaction();
+			}
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
+	}
+
+	/**
+	 * Updates the records of the saved models in collection, each by its own
+	 * id. Returns the number of affected rows of each model.
+	 * 
+	 * <pre>
+	 * DataSupport.updateAll(people);
+	 * </pre>
+	 * 
+	 * This method acts the same result as the below way, but <b>much more
+	 * efficient</b>, because all the models are updated in one transaction
+	 * and the models which update the same columns share one compiled UPDATE
+	 * statement.
+	 * 
+	 * <pre>
+	 * for (Person person : people) {
+	 * 	person.update(person.getId());
+	 * }
+	 * </pre>
+	 * 
+	 * The models which are not saved yet are skipped with 0 affected rows. If
+	 * updating process failed by any accident, the whole action will be
+	 * <b>rolled back</b>.
+	 * 
+	 * @param collection
+	 *            Holds all models to update.
+	 * @return The number of rows affected by each model, in the iteration
+	 *         order of collection.
+	 */
+	public static <T extends DataSupport> int[] updateAll(Collection<T> collection) {
+		writeLock.lock();
+		try {
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				UpdateHandler updateHandler = new UpdateHandler(db);
+				int[] rowsAffected = updateHandler.onUpdateAll(collection);
+				db.setTransactionSuccessful();
+				for (T baseObj : collection) {
+					baseObj.getFieldsToSetToDefault().clear();
+				}
+				return rowsAffected;
+			} catch (Exception e) {
+				throw new DataSupportException(e.getMessage(), e);
+			} finally {
+				db.endTransaction();
+			}
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
 	}
 
 	/**
@@ -867,20 +1228,139 @@ public class DataSupport {
 	 * @param collection
 	 *            Holds all models to save.
 	 */
-	public static synchronized <T extends DataSupport> void saveAll(Collection<T> collection) {
-		SQLiteDatabase db = Connector.getDatabase();
-		db.beginTransaction();
+	public static <T extends DataSupport> void saveAll(Collection<T> collection) {
+		writeLock.lock();
+		try {
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				SaveHandler saveHandler = new SaveHandler(db);
+				saveHandler.onSaveAll(collection);
+				db.setTransactionSuccessful();
+			} catch (Exception e) {
+				throw new DataSupportException ( e.getMessage (), e);
+			} finally {
+				db.endTransaction();
+			}
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
+		}
+	}
+
+	/**
+	 * Saves the collection into database in batches. <br />
+	 * 
+	 * <pre>
+	 * DataSupport.saveAllBatched(people, 500);
+	 * </pre>
+	 * 
+	 * It acts the same result as {@link #saveAll(Collection)}, but every
+	 * batchSize models are committed in their own transaction. If the model
+	 * class has no associations, the new records are inserted by compiled
+	 * statements which are reused by every model with the same set of not
+	 * null fields, so that the INSERT SQL won't be parsed for each model. The
+	 * generated id is assigned to each model, as well as its id or _id field.<br />
+	 * If saving process failed by any accident, only the current batch will be
+	 * <b>rolled back</b>. The batches which are committed already stay in
+	 * database. <br />
+	 * So when your collection holds huge of models without associations,
+	 * {@link #saveAllBatched(Collection, int)} is the better choice.
+	 * 
+	 * @param collection
+	 *            Holds all models to save.
+	 * @param batchSize
+	 *            How many models to commit in one transaction. Zero or
+	 *            negative means to commit all models in one transaction.
+	 */
+	public static <T extends DataSupport> void saveAllBatched(Collection<T> collection,
+			int batchSize) {
+		writeLock.lock();
 		try {
-			SaveHandler saveHandler = new SaveHandler(db);
-			saveHandler.onSaveAll(collection);
-			db.setTransactionSuccessful();
+			SaveHandler saveHandler = new SaveHandler(Connector.getDatabase());
+			saveHandler.onSaveAllBatched(collection, batchSize);
 		} catch (Exception e) {
-			throw new DataSupportException ( e.getMessage (), e);
+			throw new DataSupportException(e.getMessage(), e);
 		} finally {
-			db.endTransaction();
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
+	/**
+	 * Asynchronous version of {@link #saveAll(Collection)}. The collection is
+	 * saved on the writer thread, after all the writes submitted before it.
+	 * Don't modify the collection or its models until the callback is called.
+	 * 
+	 * @param collection
+	 *            Holds all models to save.
+	 * @param callback
+	 *            Called when saved, could be null.
+	 * @return A task to cancel the write.
+	 */
+	public static <T extends DataSupport> DataTask<Void> saveAllAsync(
+			final Collection<T> collection, DataCallback<Void> callback) {
+		return AsyncExecutor.write(new Callable<Void>() {
+			@Override
+			public Void call() {
+				saveAll(collection);
+				return null;
+			}
+		}, callback);
+	}
+
+	/**
+	 * Asynchronous version of {@link #deleteAll(Class, String...)}, which runs
+	 * on the writer thread.
+	 * 
+	 * @param modelClass
+	 *            Which table to delete from by class.
+	 * @param callback
+	 *            Receives the count of deleted records, could be null.
+	 * @param conditions
+	 *            A string array representing the WHERE part of an SQL
+	 *            statement.
+	 * @return A task to cancel the write.
+	 */
+	public static DataTask<Integer> deleteAllAsync(final Class<?> modelClass,
+			DataCallback<Integer> callback, String... conditions) {
+		final String[] conditionsCopy = conditions == null ? null : conditions.clone();
+		return AsyncExecutor.write(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return deleteAll(modelClass, conditionsCopy);
+			}
+		}, callback);
+	}
+
+	/**
+	 * Asynchronous version of
+	 * {@link #updateAll(Class, ContentValues, String...)}, which runs on the
+	 * writer thread.
+	 * 
+	 * @param modelClass
+	 *            Which table to update by class.
+	 * @param values
+	 *            A map from column names to new column values.
+	 * @param callback
+	 *            Receives the count of updated records, could be null.
+	 * @param conditions
+	 *            A string array representing the WHERE part of an SQL
+	 *            statement.
+	 * @return A task to cancel the write.
+	 */
+	public static DataTask<Integer> updateAllAsync(final Class<?> modelClass,
+			ContentValues values, DataCallback<Integer> callback, String... conditions) {
+		final ContentValues valuesCopy = new ContentValues(values);
+		final String[] conditionsCopy = conditions == null ? null : conditions.clone();
+		return AsyncExecutor.write(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return updateAll(modelClass, valuesCopy, conditionsCopy);
+			}
+		}, callback);
+	}
+
     /**
      * Provide a way to mark all models in collection as deleted. This means these models' save
      * state is no longer exist anymore. If save them again, they will be treated as inserting new
@@ -927,16 +1407,22 @@ public class DataSupport {
 	 * @return The number of rows affected. Including cascade delete rows.
 	 */
 	public synchronized int delete() {
-		SQLiteDatabase db = Connector.getDatabase();
-		db.beginTransaction();
+		writeLock.lock();
 		try {
-			DeleteHandler deleteHandler = new DeleteHandler(db);
-			int rowsAffected = deleteHandler.onDelete(this);
-			baseObjId = 0;
-			db.setTransactionSuccessful();
-			return rowsAffected;
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				DeleteHandler deleteHandler = new DeleteHandler(db);
+				int rowsAffected = deleteHandler.onDelete(this);
+				baseObjId = 0;
+				db.setTransactionSuccessful();
+				return rowsAffected;
+			} finally {
+				db.endTransaction();
+			}
 		} finally {
-			db.endTransaction();
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
@@ -962,6 +1448,7 @@ public class DataSupport {
 	 * @return The number of rows affected.
 	 */
 	public synchronized int update(long id) {
+		writeLock.lock();
 		try {
 			UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
 			int rowsAffected = updateHandler.onUpdate(this, id);
@@ -969,6 +1456,9 @@ public class DataSupport {
 			return rowsAffected;
 		} catch (Exception e) {
 			throw new DataSupportException(e.getMessage(), e);
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
@@ -1002,6 +1492,7 @@ public class DataSupport {
 	 * @return The number of rows affected.
 	 */
 	public synchronized int updateAll(String... conditions) {
+		writeLock.lock();
 		try {
 			UpdateHandler updateHandler = new UpdateHandler(Connector.getDatabase());
 			int rowsAffected = updateHandler.onUpdateAll(this, conditions);
@@ -1009,6 +1500,9 @@ public class DataSupport {
 			return rowsAffected;
 		} catch (Exception e) {
 			throw new DataSupportException(e.getMessage(), e);
+		} finally {
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
@@ -1046,6 +1540,24 @@ public class DataSupport {
 		}
 	}
 
+	/**
+	 * Asynchronous version of {@link #save()}, which runs on the writer
+	 * thread. Don't modify the model until the callback is called.
+	 * 
+	 * @param callback
+	 *            Receives whether the model is saved successfully, could be
+	 *            null.
+	 * @return A task to cancel the write.
+	 */
+	public DataTask<Boolean> saveAsync(DataCallback<Boolean> callback) {
+		return AsyncExecutor.write(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return save();
+			}
+		}, callback);
+	}
+
     /**
 	 * Saves the model. <br />
 	 * 
@@ -1071,17 +1583,23 @@ public class DataSupport {
 	 * @throws DataSupportException
 	 */
 	public synchronized void saveThrows() {
-		SQLiteDatabase db = Connector.getDatabase();
-		db.beginTransaction();
+		writeLock.lock();
 		try {
-			SaveHandler saveHandler = new SaveHandler(db);
-			saveHandler.onSave(this);
-			clearAssociatedData();
-			db.setTransactionSuccessful();
-		} catch (Exception e) {
-			throw new DataSupportException(e.getMessage(), e);
+			SQLiteDatabase db = Connector.getDatabase();
+			db.beginTransaction();
+			try {
+				SaveHandler saveHandler = new SaveHandler(db);
+				saveHandler.onSave(this);
+				clearAssociatedData();
+				db.setTransactionSuccessful();
+			} catch (Exception e) {
+				throw new DataSupportException(e.getMessage(), e);
+			} finally {
+				db.endTransaction();
+			}
 		} finally {
-			db.endTransaction();
+			writeLock.unlock();
+			TableChangeBus.dispatchPending();
 		}
 	}
 
@@ -1138,18 +1656,24 @@ public class DataSupport {
      *         happens, return false.
      */
     public synchronized boolean saveFast() {
-        SQLiteDatabase db = Connector.getDatabase();
-        db.beginTransaction();
+        writeLock.lock();
         try {
-            SaveHandler saveHandler = new SaveHandler(db);
-            saveHandler.onSaveFast(this);
-            db.setTransactionSuccessful();
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+            SQLiteDatabase db = Connector.getDatabase();
+            db.beginTransaction();
+            try {
+                SaveHandler saveHandler = new SaveHandler(db);
+                saveHandler.onSaveFast(this);
+                db.setTransactionSuccessful();
+                return true;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            } finally {
+                db.endTransaction();
+            }
         } finally {
-            db.endTransaction();
+            writeLock.unlock();
+            TableChangeBus.dispatchPending();
         }
     }
 
@@ -0,0 +1,91 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Handle of an asynchronous operation, which can be used to cancel the
+ * delivery of its result, for example when the activity which started it is
+ * destroyed.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public final class DataTask<T> {
+
+	/**
+	 * The call which runs the operation, might be shared with other tasks.
+	 */
+	private final AsyncExecutor.Call<T> mCall;
+
+	/**
+	 * The callback to deliver result to.
+	 */
+	private final DataCallback<T> mCallback;
+
+	/**
+	 * The executor to call callback with, null for the main thread.
+	 */
+	private final Executor mDelivery;
+
+	private volatile boolean mCancelled;
+
+	DataTask(AsyncExecutor.Call<T> call, DataCallback<T> callback, Executor delivery) {
+		mCall = call;
+		mCallback = callback;
+		mDelivery = delivery;
+	}
+
+	/**
+	 * Cancel the task. Once called on the main thread, the callback will never
+	 * be called. A read which is not started yet is skipped if no other task
+	 * shares it. A write which is not started yet is skipped, but a write
+	 * which is already running will still be committed.
+	 */
+	public void cancel() {
+		mCancelled = true;
+	}
+
+	/**
+	 * Check if the task is cancelled.
+	 *
+	 * @return True if {@link #cancel()} has been called, false otherwise.
+	 */
+	public boolean isCancelled() {
+		return mCancelled;
+	}
+
+	/**
+	 * Check if the operation has finished, no matter succeeded or failed.
+	 *
+	 * @return True if finished, false otherwise.
+	 */
+	public boolean isDone() {
+		return mCall.isDone();
+	}
+
+	Executor getDelivery() {
+		return mDelivery;
+	}
+
+	/**
+	 * Deliver the result to callback unless cancelled. Called on the main
+	 * thread, or with the delivery executor if given.
+	 */
+	void deliver(T result, DataSupportException error) {
+		if (mCancelled || mCallback == null) {
+			return;
+		}
+		if (error != null) {
+			mCallback.onError(error);
+		} else {
+			mCallback.onFinish(result);
+		}
+	}
+
+}
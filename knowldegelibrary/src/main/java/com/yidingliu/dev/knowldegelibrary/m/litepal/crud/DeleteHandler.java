@@ -5,6 +5,8 @@
 package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
@@ -15,27 +17,27 @@ import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * This is a component under DataSupport. It deals with the deleting stuff as
- * primary task. If deletes a saved model or delete a record with id, the
- * cascade delete function would work. But considering efficiency, if deletes
- * with deleteAll method, the referenced data in other tables will not be
- * affected. Developers should remove those referenced data by their own.
+ * primary task. If deletes by model class, the cascade delete function would
+ * work. But if deletes with table name, the referenced data in other tables
+ * will not be affected. Developers should remove those referenced data by
+ * their own.
+ * <p>
+ * Cascade delete is set based. The ids of the rows to delete are collected
+ * into temp tables by insert ... select along the association graph, again
+ * and again until no more rows are found, which also follows the cycles of
+ * associations. Then each table or intermediate join table is cleared by a
+ * single delete statement, no matter how many rows are deleted. The callers
+ * should run it in one transaction, as the temp tables belong to the
+ * connection.
  * 
  * @author Tony Green
  * @since 1.1
  */
 public class DeleteHandler extends DataHandler {
 
-	/**
-	 * To store associated tables of current model's table. Only used while
-	 * deleting by id and deleting all by model class.
-	 */
-	private List<String> foreignKeyTableToDelete;
-
 	/**
 	 * Initialize {@link com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataHandler#mDatabase} for operating database. Do not
 	 * allow to create instance of DeleteHandler out of CRUD package.
@@ -61,10 +63,10 @@ public class DeleteHandler extends DataHandler {
 	 */
 	int onDelete(DataSupport baseObj) {
 		if (baseObj.isSaved()) {
-			Collection<AssociationsInfo > associationInfos = analyzeAssociations ( baseObj );
-			int                           rowsAffected     = deleteCascade(baseObj);
-			rowsAffected += mDatabase.delete(baseObj.getTableName(), "id = "
-					+ baseObj.getBaseObjId(), null);
+			Collection<AssociationsInfo> associationInfos = getAssociationInfo(baseObj.getClassName());
+			int rowsAffected = deleteCascade(baseObj.getClassName(), baseObj.getTableName(),
+					"id = " + baseObj.getBaseObjId(), null);
+			EntityCache.invalidate(mDatabase, baseObj.getTableName(), baseObj.getBaseObjId());
 			clearAssociatedModelSaveState(baseObj, associationInfos);
 			return rowsAffected;
 		}
@@ -85,11 +87,39 @@ public class DeleteHandler extends DataHandler {
 	 * @return The number of rows affected. Including cascade delete rows.
 	 */
 	int onDelete(Class<?> modelClass, long id) {
-		analyzeAssociations(modelClass);
-		int rowsAffected = deleteCascade(modelClass, id);
-		rowsAffected += mDatabase.delete(getTableName(modelClass),
-				"id = " + id, null);
-		getForeignKeyTableToDelete().clear();
+		String tableName = getTableName(modelClass);
+		int rowsAffected = deleteCascade(modelClass.getName(), tableName, "id = " + id, null);
+		EntityCache.invalidate(mDatabase, tableName, id);
+		return rowsAffected;
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to delete a batch
+	 * of records by ids. This method can action cascade delete, and the cost
+	 * of it doesn't grow with the count of ids.
+	 * 
+	 * @param modelClass
+	 *            Which table to delete from.
+	 * @param ids
+	 *            Which records to delete.
+	 * @return The number of rows affected. Including cascade delete rows.
+	 */
+	int onDelete(Class<?> modelClass, long[] ids) {
+		if (ids == null || ids.length == 0) {
+			return 0;
+		}
+		StringBuilder whereClause = new StringBuilder("id in (");
+		for (int i = 0; i < ids.length; i++) {
+			if (i > 0) {
+				whereClause.append(",");
+			}
+			whereClause.append(ids[i]);
+		}
+		whereClause.append(")");
+		String tableName = getTableName(modelClass);
+		int rowsAffected = deleteCascade(modelClass.getName(), tableName, whereClause.toString(),
+				null);
+		EntityCache.invalidate(mDatabase, tableName);
 		return rowsAffected;
 	}
 
@@ -107,120 +137,209 @@ public class DeleteHandler extends DataHandler {
 	 */
 	int onDeleteAll(String tableName, String... conditions) {
 		BaseUtility.checkConditionsCorrect ( conditions );
-		return mDatabase.delete(tableName, getWhereClause(conditions),
+		int rowsAffected = mDatabase.delete(tableName, getWhereClause(conditions),
 				getWhereArgs(conditions));
+		EntityCache.invalidate(mDatabase, tableName);
+		TableChangeBus.notifyChanged(mDatabase, tableName);
+		return rowsAffected;
 	}
-	
+
+	/**
+	 * The open interface for other classes in CRUD package to delete multiple
+	 * rows with cascade delete. Using modelClass to decide which table to
+	 * delete from, and conditions representing the WHERE part of an SQL
+	 * statement.
+	 * 
+	 * @param modelClass
+	 *            Which table to delete from.
+	 * @param conditions
+	 *            A string array representing the WHERE part of an SQL
+	 *            statement.
+	 * @return The number of rows affected. Including cascade delete rows.
+	 */
 	int onDeleteAll(Class<?> modelClass, String... conditions) {
 		BaseUtility.checkConditionsCorrect(conditions);
-		analyzeAssociations(modelClass);
-		int rowsAffected = deleteAllCascade(modelClass, conditions);
-		rowsAffected += mDatabase.delete(getTableName(modelClass), getWhereClause(conditions),
-				getWhereArgs(conditions));
-		getForeignKeyTableToDelete().clear();
+		String tableName = getTableName(modelClass);
+		int rowsAffected = deleteCascade(modelClass.getName(), tableName,
+				getWhereClause(conditions), getWhereArgs(conditions));
+		EntityCache.invalidate(mDatabase, tableName);
 		return rowsAffected;
 	}
 
 	/**
-	 * Analyze the associations of modelClass and store the associated tables.
-	 * The associated tables might be used when deleting referenced data of a
-	 * specified row.
+	 * Delete the rows matching whereClause from the table, together with all
+	 * the rows which reference them directly or indirectly, and their rows in
+	 * intermediate join tables.
 	 * 
-	 * @param modelClass
-	 *            To get associations of this class.
+	 * @param className
+	 *            The model class of table.
+	 * @param tableName
+	 *            Which table to delete from.
+	 * @param whereClause
+	 *            The WHERE part of SQL, null or empty to delete all rows.
+	 * @param whereArgs
+	 *            The arguments of whereClause.
+	 * @return The number of rows affected in all tables.
 	 */
-	private void analyzeAssociations(Class<?> modelClass) {
-		Collection<AssociationsInfo> associationInfos = getAssociationInfo(modelClass
-				.getName());
-		for (AssociationsInfo associationInfo : associationInfos) {
-			String associatedTableName = DBUtility
-					.getTableNameByClassName(associationInfo
-							.getAssociatedClassName());
-			if (associationInfo.getAssociationType() == Const.Model.MANY_TO_ONE
-					|| associationInfo.getAssociationType() == Const.Model.ONE_TO_ONE) {
-				String classHoldsForeignKey = associationInfo
-						.getClassHoldsForeignKey();
-				if (!modelClass.getName().equals(classHoldsForeignKey)) {
-					getForeignKeyTableToDelete().add(associatedTableName);
+	private int deleteCascade(String className, String tableName, String whereClause,
+			String[] whereArgs) {
+		List<String> tableNames = new ArrayList<String>();
+		List<String[]> references = new ArrayList<String[]>();
+		List<String[]> joinTables = new ArrayList<String[]>();
+		tableNames.add(tableName);
+		collectCascadeTables(className, tableName, tableNames, references, joinTables);
+		if (references.isEmpty() && joinTables.isEmpty()) {
+			int rowsAffected = mDatabase.delete(tableName, whereClause, whereArgs);
+			TableChangeBus.notifyChanged(mDatabase, tableName);
+			return rowsAffected;
+		}
+		try {
+			for (String name : tableNames) {
+				mDatabase.execSQL("create temp table if not exists " + getIdTableName(name)
+						+ " (id integer primary key)");
+				mDatabase.execSQL("delete from " + getIdTableName(name));
+			}
+			// the ids are fixed before any row is deleted, so a cycle of
+			// associations can't change what the later statements select.
+			StringBuilder sql = new StringBuilder("insert into ");
+			sql.append(getIdTableName(tableName)).append(" select id from ").append(tableName);
+			if (!TextUtils.isEmpty(whereClause)) {
+				sql.append(" where ").append(whereClause);
+			}
+			executeUpdate(sql.toString(), whereArgs);
+			boolean grown = true;
+			while (grown) {
+				grown = false;
+				for (String[] reference : references) {
+					if (executeUpdate("insert or ignore into " + getIdTableName(reference[1])
+							+ " select id from " + reference[1] + " where " + reference[2]
+							+ " in (select id from " + getIdTableName(reference[0]) + ")", null) > 0) {
+						grown = true;
+					}
 				}
-			} else if (associationInfo.getAssociationType() == Const.Model.MANY_TO_MANY) {
-				String joinTableName = DBUtility.getIntermediateTableName(
-						getTableName(modelClass), associatedTableName);
-				joinTableName = BaseUtility.changeCase(joinTableName);
-				getForeignKeyTableToDelete().add(joinTableName);
+			}
+			int rowsAffected = 0;
+			for (String[] joinTable : joinTables) {
+				rowsAffected += mDatabase.delete(joinTable[1], joinTable[2] + " in (select id from "
+						+ getIdTableName(joinTable[0]) + ")", null);
+				EntityCache.invalidate(mDatabase, joinTable[1]);
+				TableChangeBus.notifyChanged(mDatabase, joinTable[1]);
+			}
+			// the table deleted from goes last, after all the rows referencing it.
+			for (int i = tableNames.size() - 1; i >= 0; i--) {
+				String name = tableNames.get(i);
+				rowsAffected += mDatabase.delete(name, "id in (select id from "
+						+ getIdTableName(name) + ")", null);
+				// the callers invalidate the rows they delete, unless a cycle
+				// has deleted more rows of their table.
+				if (i > 0 || isReferenced(references, name)) {
+					EntityCache.invalidate(mDatabase, name);
+				}
+				TableChangeBus.notifyChanged(mDatabase, name);
+			}
+			return rowsAffected;
+		} finally {
+			for (String name : tableNames) {
+				mDatabase.execSQL("drop table if exists " + getIdTableName(name));
 			}
 		}
 	}
 
 	/**
-	 * Use the analyzed result of associations to delete referenced data. So
-	 * this method must be called after {@link #analyzeAssociations(Class)}.
-	 * There're two parts of referenced data to delete. The foreign key rows in
-	 * associated table and the foreign key rows in intermediate join table.
+	 * Walk the associations of a model class and collect the tables which
+	 * hold foreign keys to it, and the intermediate join tables. Every table
+	 * is walked once, so the cycles of associations are walked through only
+	 * one time too.
 	 * 
-	 * @param modelClass
-	 *            To get the table name and combine with id as a foreign key
-	 *            column.
-	 * @param id
-	 *            Delete all the rows which referenced with this id.
-	 * @return The number of rows affected in associated tables and intermediate
-	 *         join tables.
+	 * @param className
+	 *            The model class to walk.
+	 * @param tableName
+	 *            The table of model class.
+	 * @param tableNames
+	 *            Receives the tables which rows may be deleted, in the order
+	 *            they are found.
+	 * @param references
+	 *            Receives the table referenced, the table referencing it and
+	 *            the foreign key column.
+	 * @param joinTables
+	 *            Receives the table referenced, the intermediate join table
+	 *            and the foreign key column.
 	 */
-	private int deleteCascade(Class<?> modelClass, long id) {
-		int rowsAffected = 0;
-		for (String associatedTableName : getForeignKeyTableToDelete()) {
-			String fkName = getForeignKeyColumnName(getTableName(modelClass));
-			rowsAffected += mDatabase.delete(associatedTableName, fkName
-					+ " = " + id, null);
+	private void collectCascadeTables(String className, String tableName,
+			List<String> tableNames, List<String[]> references, List<String[]> joinTables) {
+		String fkName = getForeignKeyColumnName(tableName);
+		for (AssociationsInfo associationInfo : getAssociationInfo(className)) {
+			String associatedClassName = associationInfo.getAssociatedClassName();
+			String associatedTableName = DBUtility.getTableNameByClassName(associatedClassName);
+			if (associationInfo.getAssociationType() == Const.Model.MANY_TO_ONE
+					|| associationInfo.getAssociationType() == Const.Model.ONE_TO_ONE) {
+				if (className.equals(associationInfo.getClassHoldsForeignKey())) {
+					continue;
+				}
+				references.add(new String[] { tableName, associatedTableName, fkName });
+				if (!BaseUtility.containsIgnoreCases(tableNames, associatedTableName)) {
+					tableNames.add(associatedTableName);
+					collectCascadeTables(associatedClassName, associatedTableName, tableNames,
+							references, joinTables);
+				}
+			} else if (associationInfo.getAssociationType() == Const.Model.MANY_TO_MANY) {
+				String joinTableName = BaseUtility.changeCase(DBUtility.getIntermediateTableName(
+						tableName, associatedTableName));
+				joinTables.add(new String[] { tableName, joinTableName, fkName });
+			}
 		}
-		return rowsAffected;
 	}
 
-	private int deleteAllCascade(Class<?> modelClass, String... conditions) {
-		int rowsAffected = 0;
-		for (String associatedTableName : getForeignKeyTableToDelete()) {
-			String tableName = getTableName(modelClass);
-			String fkName = getForeignKeyColumnName(tableName);
-			StringBuilder whereClause = new StringBuilder();
-			whereClause.append(fkName).append(" in (select id from ");
-			whereClause.append(tableName);
-			if (conditions != null && conditions.length > 0) {
-				whereClause.append(" where ").append(buildConditionString(conditions));
+	/**
+	 * Check if any table references the table.
+	 * 
+	 * @param references
+	 *            The references collected by
+	 *            {@link #collectCascadeTables(String, String, List, List, List)}.
+	 * @param tableName
+	 *            The table referenced.
+	 * @return True if it's referenced, false otherwise.
+	 */
+	private boolean isReferenced(List<String[]> references, String tableName) {
+		for (String[] reference : references) {
+			if (reference[1].equalsIgnoreCase(tableName)) {
+				return true;
 			}
-			whereClause.append(")");
-			rowsAffected += mDatabase.delete(associatedTableName,
-					BaseUtility.changeCase(whereClause.toString()), null);
 		}
-		return rowsAffected;
-	}
-	
-	private String buildConditionString(String... conditions) {
-		  int argCount = conditions.length - 1;
-          String whereClause = conditions[0];
-          for (int i = 0; i < argCount; i++) {
-                  whereClause = whereClause.replaceFirst("\\?", "'" + conditions[i+1] + "'");
-          }
-          return whereClause;
+		return false;
 	}
 
 	/**
-	 * Analyze the associations of baseObj and store the result in it. The
-	 * associations will be used when deleting referenced data of baseObj.
+	 * Compile and execute an insert or delete statement.
 	 * 
-	 * @param baseObj
-	 *            The record to delete.
+	 * @param sql
+	 *            The SQL to execute.
+	 * @param args
+	 *            The arguments bound as strings, can be null.
+	 * @return The number of rows changed.
 	 */
-	private Collection<AssociationsInfo> analyzeAssociations(DataSupport baseObj) {
+	private int executeUpdate(String sql, String[] args) {
+		SQLiteStatement statement = mDatabase.compileStatement(sql);
 		try {
-			Collection<AssociationsInfo> associationInfos = getAssociationInfo(baseObj
-					.getClassName());
-			analyzeAssociatedModels(baseObj, associationInfos);
-			return associationInfos;
-		} catch (Exception e) {
-			throw new DataSupportException ( e.getMessage (), e);
+			statement.bindAllArgsAsStrings(args);
+			return statement.executeUpdateDelete();
+		} finally {
+			statement.close();
 		}
 	}
 
+	/**
+	 * Get the name of the temp table which holds the ids to delete in a
+	 * table.
+	 * 
+	 * @param tableName
+	 *            The table to delete from.
+	 * @return The name of temp table.
+	 */
+	private String getIdTableName(String tableName) {
+		return "litepal_cascade_" + tableName.toLowerCase();
+	}
+
 	/**
 	 * Clear associated models' save state. After this method, the associated
 	 * models of baseObj which data is removed from database will become
@@ -260,78 +379,4 @@ public class DeleteHandler extends DataHandler {
 		}
 	}
 
-	/**
-	 * Use the analyzed result of associations to delete referenced data. So
-	 * this method must be called after
-	 * {@link #analyzeAssociations(com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport)}. There're two parts of
-	 * referenced data to delete. The foreign key rows in associated tables and
-	 * the foreign key rows in intermediate join tables.
-	 * 
-	 * @param baseObj
-	 *            The record to delete. Now contains associations info.
-	 * @return The number of rows affected in associated table and intermediate
-	 *         join table.
-	 */
-	private int deleteCascade(DataSupport baseObj) {
-		int rowsAffected;
-		rowsAffected = deleteAssociatedForeignKeyRows(baseObj);
-		rowsAffected += deleteAssociatedJoinTableRows(baseObj);
-		return rowsAffected;
-	}
-
-	/**
-	 * Delete the referenced rows of baseObj in associated tables(Many2One and
-	 * One2One conditions).
-	 * 
-	 * @param baseObj
-	 *            The record to delete. Now contains associations info.
-	 * @return The number of rows affected in all associated tables.
-	 */
-	private int deleteAssociatedForeignKeyRows(DataSupport baseObj) {
-		int rowsAffected = 0;
-		Map<String, Set<Long>> associatedModelMap = baseObj
-				.getAssociatedModelsMapWithFK();
-		for (String associatedTableName : associatedModelMap.keySet()) {
-			String fkName = getForeignKeyColumnName(baseObj.getTableName());
-			rowsAffected += mDatabase.delete(associatedTableName, fkName
-					+ " = " + baseObj.getBaseObjId(), null);
-		}
-		return rowsAffected;
-	}
-
-	/**
-	 * Delete the referenced rows of baseObj in intermediate join
-	 * tables(Many2Many condition).
-	 * 
-	 * @param baseObj
-	 *            The record to delete. Now contains associations info.
-	 * @return The number of rows affected in all intermediate join tables.
-	 */
-	private int deleteAssociatedJoinTableRows(DataSupport baseObj) {
-		int rowsAffected = 0;
-		Set<String> associatedTableNames = baseObj
-				.getAssociatedModelsMapForJoinTable().keySet();
-		for (String associatedTableName : associatedTableNames) {
-			String joinTableName = DBUtility.getIntermediateTableName(
-					baseObj.getTableName(), associatedTableName);
-			String fkName = getForeignKeyColumnName(baseObj.getTableName());
-			rowsAffected += mDatabase.delete(joinTableName, fkName + " = "
-					+ baseObj.getBaseObjId(), null);
-		}
-		return rowsAffected;
-	}
-
-	/**
-	 * Get all the associated tables of current model's table. Only used while
-	 * deleting by id.
-	 * 
-	 * @return All the associated tables of current model's table.
-	 */
-	private List<String> getForeignKeyTableToDelete() {
-		if (foreignKeyTableToDelete == null) {
-			foreignKeyTableToDelete = new ArrayList<String>();
-		}
-		return foreignKeyTableToDelete;
-	}
-
 }
@@ -50,33 +50,34 @@ class DynamicExecutor {
 	static Object send(Object object, String methodName, Object[] parameters, Class<?> objectClass,
 			Class<?>[] parameterTypes) throws SecurityException, IllegalArgumentException,
 			IllegalAccessException, InvocationTargetException {
-		try {
-			if (parameters == null) {
-				parameters = new Object[] {};
-			}
-			if (parameterTypes == null) {
-				parameterTypes = new Class[] {};
-			}
-			Method method = objectClass.getDeclaredMethod(methodName, parameterTypes);
-			method.setAccessible(true);
-			return method.invoke(object, parameters);
-		} catch (NoSuchMethodException e) {
+		if (parameters == null) {
+			parameters = new Object[] {};
+		}
+		if (parameterTypes == null) {
+			parameterTypes = new Class[] {};
+		}
+		Method method = FieldAccessorCache.getDeclaredMethod(objectClass, methodName, parameterTypes);
+		if (method == null) {
 			throw new DataSupportException ( DataSupportException.noSuchMethodException (
-					objectClass.getSimpleName(), methodName ), e);
+					objectClass.getSimpleName(), methodName ));
 		}
+		return method.invoke(object, parameters);
 	}
 
     static void set(Object object, String fieldName, Object value, Class<?> objectClass)
             throws SecurityException, IllegalArgumentException, IllegalAccessException, NoSuchFieldException {
-        Field objectField = objectClass.getDeclaredField(fieldName);
-        objectField.setAccessible(true);
+        Field objectField = FieldAccessorCache.getDeclaredField(objectClass, fieldName);
+        if (objectField == null) {
+            throw new NoSuchFieldException(fieldName);
+        }
         objectField.set(object, value);
     }
 
 	/**
 	 * This method use java reflect API to set field value dynamically. Most
 	 * importantly, it could access fields with private modifier to break
-	 * encapsulation.
+	 * encapsulation. The field is looked up through the class hierarchy only
+	 * once, then served by {@link FieldAccessorCache}.
 	 * 
 	 * @param object
 	 *            The object to access.
@@ -92,21 +93,19 @@ class DynamicExecutor {
 	 */
 	static void setField(Object object, String fieldName, Object value, Class<?> objectClass)
 			throws SecurityException, IllegalArgumentException, IllegalAccessException {
-        if (objectClass == DataSupport.class || objectClass == Object.class) {
-            throw new DataSupportException(DataSupportException.noSuchFieldExceptioin(
-                    objectClass.getSimpleName(), fieldName));
-        }
-		try {
-			set(object, fieldName, value, objectClass);
-		} catch (NoSuchFieldException e) {
-			setField(object, fieldName, value, objectClass.getSuperclass());
+		Field objectField = FieldAccessorCache.findField(objectClass, fieldName);
+		if (objectField == null) {
+			throw new DataSupportException(DataSupportException.noSuchFieldExceptioin(
+					objectClass.getSimpleName(), fieldName));
 		}
+		objectField.set(object, value);
 	}
 
 	/**
 	 * This method use java reflect API to get field value dynamically. Most
 	 * importantly, it could access fields with private modifier to break
-	 * encapsulation.
+	 * encapsulation. The field is looked up through the class hierarchy only
+	 * once, then served by {@link FieldAccessorCache}.
 	 * 
 	 * @param object
 	 *            The object to access.
@@ -120,17 +119,12 @@ class DynamicExecutor {
 	 */
 	static Object getField(Object object, String fieldName, Class<?> objectClass)
 			throws IllegalArgumentException, IllegalAccessException {
-        if (objectClass == DataSupport.class || objectClass == Object.class) {
-            throw new DataSupportException(DataSupportException.noSuchFieldExceptioin(
-                    objectClass.getSimpleName(), fieldName));
-        }
-		try {
-			Field objectField = objectClass.getDeclaredField(fieldName);
-			objectField.setAccessible(true);
-			return objectField.get(object);
-		} catch (NoSuchFieldException e) {
-			return getField(object, fieldName, objectClass.getSuperclass());
+		Field objectField = FieldAccessorCache.findField(objectClass, fieldName);
+		if (objectField == null) {
+			throw new DataSupportException(DataSupportException.noSuchFieldExceptioin(
+					objectClass.getSimpleName(), fieldName));
 		}
+		return objectField.get(object);
 	}
 
 }
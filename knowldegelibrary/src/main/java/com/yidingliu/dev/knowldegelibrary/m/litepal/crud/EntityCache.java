@@ -0,0 +1,293 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A size bounded cache of entities for one model class, which lets finding by
+ * id skip the database when the same row is read again and again. Only the
+ * model classes declared by the cache node in litepal.xml are cached:
+ *
+ * <pre>
+ * &lt;cache class=&quot;com.example.Product&quot; size=&quot;200&quot; /&gt;
+ * </pre>
+ *
+ * The least recently used entities are dropped when the cache is full. Every
+ * write through CRUD handlers invalidates the affected entities, or the whole
+ * table if the rows can't be told, so the cache never returns data older than
+ * the database. Writes in a transaction invalidate the cache only after the
+ * transaction ends, otherwise a reader could cache the row it read from the
+ * snapshot before the commit, see {@link TableChangeBus#dispatchPending()}.
+ * Writing the database by raw SQL bypasses the cache, call
+ * {@link DataSupport#clearEntityCache()} after that.
+ * <p>
+ * Entities in the cache are private copies, callers always get copies of
+ * them, so modifying a found model won't affect the cache.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+class EntityCache {
+
+	/**
+	 * All the entity caches which have been created, keyed by table name in
+	 * lower case.
+	 */
+	private static final Map<String, EntityCache> caches = new ConcurrentHashMap<String, EntityCache>();
+
+	/**
+	 * The invalidations of the current thread which wait for its transaction
+	 * to end.
+	 */
+	private static final ThreadLocal<Pending> pending = new ThreadLocal<Pending>() {
+		@Override
+		protected Pending initialValue() {
+			return new Pending();
+		}
+	};
+
+	/**
+	 * Cached entities keyed by id, in access order.
+	 */
+	private final LinkedHashMap<Long, Object> entities;
+
+	/**
+	 * Increased by each invalidation. A query which started before an
+	 * invalidation may read stale data, its result won't be put into cache.
+	 */
+	private long version;
+
+	private EntityCache(final int maxSize) {
+		entities = new LinkedHashMap<Long, Object>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Get the entity cache of the model class. The cache will be created at
+	 * the first time if the model class is declared to cache in litepal.xml.
+	 *
+	 * @param modelClass
+	 *            The model class to cache.
+	 * @param tableName
+	 *            The table name of model class.
+	 * @return The entity cache, or null if the model class is not cached.
+	 */
+	static EntityCache of(Class<?> modelClass, String tableName) {
+		String key = tableName.toLowerCase(Locale.US);
+		EntityCache cache = caches.get(key);
+		if (cache == null) {
+			int maxSize = LitePalAttr.getInstance().getCacheSize(modelClass.getName());
+			if (maxSize <= 0) {
+				return null;
+			}
+			synchronized (caches) {
+				cache = caches.get(key);
+				if (cache == null) {
+					cache = new EntityCache(maxSize);
+					caches.put(key, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Invalidate one entity of the table written by the database, after the
+	 * transaction ends if it's in one.
+	 *
+	 * @param db
+	 *            The database written to.
+	 * @param tableName
+	 *            The table which is written.
+	 * @param id
+	 *            The id of row which is written.
+	 */
+	static void invalidate(SQLiteDatabase db, String tableName, long id) {
+		if (db.inTransaction()) {
+			pending.get().add(db, tableName.toLowerCase(Locale.US), id);
+		} else {
+			invalidate(tableName, id);
+		}
+	}
+
+	/**
+	 * Invalidate all the entities of the table written by the database, after
+	 * the transaction ends if it's in one.
+	 *
+	 * @param db
+	 *            The database written to.
+	 * @param tableName
+	 *            The table which is written.
+	 */
+	static void invalidate(SQLiteDatabase db, String tableName) {
+		if (db.inTransaction()) {
+			pending.get().add(db, tableName.toLowerCase(Locale.US), null);
+		} else {
+			invalidate(tableName);
+		}
+	}
+
+	/**
+	 * Apply the invalidations of the current thread, if the transaction they
+	 * were made in has ended. They are applied even if it was rolled back,
+	 * since the writing thread may have cached the rows it wrote.
+	 */
+	static void dispatchPending() {
+		Pending invalidations = pending.get();
+		if (invalidations.db == null || invalidations.db.inTransaction()) {
+			return;
+		}
+		for (String tableName : invalidations.tableNames) {
+			invalidate(tableName);
+		}
+		for (Map.Entry<String, Set<Long>> entry : invalidations.ids.entrySet()) {
+			if (!invalidations.tableNames.contains(entry.getKey())) {
+				for (long id : entry.getValue()) {
+					invalidate(entry.getKey(), id);
+				}
+			}
+		}
+		pending.remove();
+	}
+
+	/**
+	 * Invalidate one entity of the table.
+	 *
+	 * @param tableName
+	 *            The table which is written.
+	 * @param id
+	 *            The id of row which is written.
+	 */
+	static void invalidate(String tableName, long id) {
+		EntityCache cache = caches.get(tableName.toLowerCase(Locale.US));
+		if (cache != null) {
+			cache.remove(id);
+		}
+	}
+
+	/**
+	 * Invalidate all the entities of the table. Used when the written rows
+	 * can't be told, for example updating or deleting by conditions.
+	 *
+	 * @param tableName
+	 *            The table which is written.
+	 */
+	static void invalidate(String tableName) {
+		EntityCache cache = caches.get(tableName.toLowerCase(Locale.US));
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Invalidate all the entities of all tables.
+	 */
+	static void invalidateAll() {
+		for (EntityCache cache : caches.values()) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Get the cached entity.
+	 *
+	 * @param id
+	 *            The id of entity.
+	 * @return The cached entity, or null if not cached.
+	 */
+	synchronized Object get(long id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the current version of cache. Take it before querying the database,
+	 * and pass it to {@link #put(long, Object, long)} with the query result.
+	 *
+	 * @return The current version.
+	 */
+	synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Put the entity into cache, unless the cache has been invalidated since
+	 * the version was taken.
+	 *
+	 * @param id
+	 *            The id of entity.
+	 * @param entity
+	 *            The entity to cache, should not be shared with others.
+	 * @param expectedVersion
+	 *            The version taken before querying the entity.
+	 */
+	synchronized void put(long id, Object entity, long expectedVersion) {
+		if (version == expectedVersion) {
+			entities.put(id, entity);
+		}
+	}
+
+	private synchronized void remove(long id) {
+		entities.remove(id);
+		version++;
+	}
+
+	private synchronized void clear() {
+		entities.clear();
+		version++;
+	}
+
+	/**
+	 * The invalidations not applied yet of a thread.
+	 */
+	private static class Pending {
+
+		SQLiteDatabase db;
+
+		/**
+		 * Tables of which all the entities are invalidated.
+		 */
+		final Set<String> tableNames = new HashSet<String>();
+
+		/**
+		 * Ids of the invalidated entities of each table.
+		 */
+		final Map<String, Set<Long>> ids = new HashMap<String, Set<Long>>();
+
+		void add(SQLiteDatabase db, String tableName, Long id) {
+			this.db = db;
+			if (id == null) {
+				tableNames.add(tableName);
+				return;
+			}
+			Set<Long> tableIds = ids.get(tableName);
+			if (tableIds == null) {
+				tableIds = new HashSet<Long>();
+				ids.put(tableName, tableIds);
+			}
+			tableIds.add(id);
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide cache of the fields and methods which are accessed by
+ * {@link DynamicExecutor}. Each accessor is resolved and made accessible only
+ * once. Lookups that fail are cached too, so that looking up a field through
+ * the class hierarchy won't throw and catch NoSuchFieldException again and
+ * again.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+class FieldAccessorCache {
+
+	/**
+	 * Placeholder stored for lookups which found nothing, as
+	 * {@link ConcurrentHashMap} doesn't accept null values.
+	 */
+	private static final Object NOT_FOUND = new Object();
+
+	/**
+	 * Cache of fields declared in the exact class.
+	 */
+	private static final Map<AccessorKey, Object> declaredFields = new ConcurrentHashMap<AccessorKey, Object>();
+
+	/**
+	 * Cache of fields found by walking up the class hierarchy.
+	 */
+	private static final Map<AccessorKey, Object> hierarchyFields = new ConcurrentHashMap<AccessorKey, Object>();
+
+	/**
+	 * Cache of methods declared in the exact class.
+	 */
+	private static final Map<AccessorKey, Object> declaredMethods = new ConcurrentHashMap<AccessorKey, Object>();
+
+	/**
+	 * Disable to create an instance of FieldAccessorCache.
+	 */
+	private FieldAccessorCache() {
+	}
+
+	/**
+	 * Get the field declared in the passed in class. The field is accessible
+	 * already.
+	 *
+	 * @param objectClass
+	 *            The class which declares the field.
+	 * @param fieldName
+	 *            The name of field.
+	 * @return The accessible field, or null if the class doesn't declare it.
+	 */
+	static Field getDeclaredField(Class<?> objectClass, String fieldName) {
+		AccessorKey key = new AccessorKey(objectClass, fieldName, null);
+		Object cached = declaredFields.get(key);
+		if (cached == null) {
+			cached = NOT_FOUND;
+			for (Field field : objectClass.getDeclaredFields()) {
+				if (field.getName().equals(fieldName)) {
+					field.setAccessible(true);
+					cached = field;
+					break;
+				}
+			}
+			declaredFields.put(key, cached);
+		}
+		return cached == NOT_FOUND ? null : (Field) cached;
+	}
+
+	/**
+	 * Find the field in the passed in class or its super classes. The lookup
+	 * stops at {@link DataSupport} or Object. The field is accessible already.
+	 *
+	 * @param objectClass
+	 *            The class to start finding from.
+	 * @param fieldName
+	 *            The name of field.
+	 * @return The accessible field, or null if no class in the hierarchy
+	 *         declares it.
+	 */
+	static Field findField(Class<?> objectClass, String fieldName) {
+		AccessorKey key = new AccessorKey(objectClass, fieldName, null);
+		Object cached = hierarchyFields.get(key);
+		if (cached == null) {
+			cached = NOT_FOUND;
+			Class<?> clazz = objectClass;
+			while (clazz != null && clazz != DataSupport.class && clazz != Object.class) {
+				Field field = getDeclaredField(clazz, fieldName);
+				if (field != null) {
+					cached = field;
+					break;
+				}
+				clazz = clazz.getSuperclass();
+			}
+			hierarchyFields.put(key, cached);
+		}
+		return cached == NOT_FOUND ? null : (Field) cached;
+	}
+
+	/**
+	 * Get the method declared in the passed in class. The method is accessible
+	 * already.
+	 *
+	 * @param objectClass
+	 *            The class which declares the method.
+	 * @param methodName
+	 *            The name of method.
+	 * @param parameterTypes
+	 *            The parameter types of method.
+	 * @return The accessible method, or null if the class doesn't declare it.
+	 */
+	static Method getDeclaredMethod(Class<?> objectClass, String methodName, Class<?>[] parameterTypes) {
+		AccessorKey key = new AccessorKey(objectClass, methodName, parameterTypes);
+		Object cached = declaredMethods.get(key);
+		if (cached == null) {
+			try {
+				Method method = objectClass.getDeclaredMethod(methodName, parameterTypes);
+				method.setAccessible(true);
+				cached = method;
+			} catch (NoSuchMethodException e) {
+				cached = NOT_FOUND;
+			}
+			declaredMethods.put(key, cached);
+		}
+		return cached == NOT_FOUND ? null : (Method) cached;
+	}
+
+	/**
+	 * Key of the cache. Combines class, member name and parameter types.
+	 */
+	private static class AccessorKey {
+
+		final Class<?> objectClass;
+
+		final String name;
+
+		final Class<?>[] parameterTypes;
+
+		final int hashCode;
+
+		AccessorKey(Class<?> objectClass, String name, Class<?>[] parameterTypes) {
+			this.objectClass = objectClass;
+			this.name = name;
+			this.parameterTypes = parameterTypes;
+			int result = objectClass.hashCode();
+			result = 31 * result + name.hashCode();
+			result = 31 * result + Arrays.hashCode(parameterTypes);
+			hashCode = result;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof AccessorKey)) {
+				return false;
+			}
+			AccessorKey other = (AccessorKey) o;
+			return objectClass == other.objectClass && name.equals(other.name)
+					&& Arrays.equals(parameterTypes, other.parameterTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.util.List;
+
+/**
+ * One page of models found by keyset pagination, together with the token to
+ * find the next page.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class Page<T> {
+
+	/**
+	 * Models in current page.
+	 */
+	private final List<T> mList;
+
+	/**
+	 * Token of the next page. Null means there's no more page.
+	 */
+	private final PageToken mNextPageToken;
+
+	Page(List<T> list, PageToken nextPageToken) {
+		mList = list;
+		mNextPageToken = nextPageToken;
+	}
+
+	/**
+	 * Get the models in current page.
+	 *
+	 * @return An object list with founded data from database, or an empty
+	 *         list.
+	 */
+	public List<T> getList() {
+		return mList;
+	}
+
+	/**
+	 * Get the token to find the next page with
+	 * {@link ClusterQuery#pageAfter(PageToken)}.
+	 *
+	 * @return The token of next page, or null if there's no more page.
+	 */
+	public PageToken getNextPageToken() {
+		return mNextPageToken;
+	}
+
+	/**
+	 * Check if there might be more pages after current page.
+	 *
+	 * @return True if there might be more pages, false otherwise.
+	 */
+	public boolean hasNextPage() {
+		return mNextPageToken != null;
+	}
+
+}
@@ -0,0 +1,236 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.text.TextUtils;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Remembers where the last page stopped in a keyset pagination. Instead of
+ * skipping rows by OFFSET, the next page is found by seeking to the rows
+ * which are sorted after the last row, so that deep pages are as fast as the
+ * first one when the sort column is indexed.
+ * <p>
+ * Rows are sorted by the sort column and then by id, which makes the order
+ * stable even if the sort column has duplicate values. The sort column should
+ * not contain null values.
+ * <p>
+ * PageToken is immutable and serializable, so it can be kept in a Bundle
+ * between configuration changes.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public final class PageToken implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The column to sort by.
+	 */
+	private final String mColumn;
+
+	/**
+	 * Sort descending or not.
+	 */
+	private final boolean mDescending;
+
+	/**
+	 * Value of the sort column in the last row. Null means the first page.
+	 */
+	private final String mLastValue;
+
+	/**
+	 * Id of the last row. Only used to break the ties of sort column, 0 means
+	 * the sort column is unique.
+	 */
+	private final long mLastId;
+
+	PageToken(String column, boolean descending, String lastValue, long lastId) {
+		mColumn = column;
+		mDescending = descending;
+		mLastValue = lastValue;
+		mLastId = lastId;
+	}
+
+	/**
+	 * Create a token for the first page.
+	 *
+	 * <pre>
+	 * PageToken.first(&quot;publishTime desc&quot;);
+	 * </pre>
+	 *
+	 * @param order
+	 *            The sort column, optionally followed by asc or desc.
+	 * @return A token for the first page.
+	 */
+	public static PageToken first(String order) {
+		return after(order, null);
+	}
+
+	/**
+	 * Create a token for the rows after the given value. The sort column
+	 * should be unique, or rows with the same value will be skipped.
+	 *
+	 * @param order
+	 *            The sort column, optionally followed by asc or desc.
+	 * @param lastValue
+	 *            The value of sort column in the last row. Passing null means
+	 *            the first page.
+	 * @return A token for the rows after lastValue.
+	 */
+	static PageToken after(String order, Object lastValue) {
+		if (TextUtils.isEmpty(order)) {
+			throw new DataSupportException(DataSupportException.PAGE_ORDER_EXCEPTION);
+		}
+		String[] parts = order.trim().split("\\s+");
+		if (parts.length > 2) {
+			throw new DataSupportException(DataSupportException.PAGE_ORDER_EXCEPTION);
+		}
+		boolean descending = false;
+		if (parts.length == 2) {
+			if ("desc".equalsIgnoreCase(parts[1])) {
+				descending = true;
+			} else if (!"asc".equalsIgnoreCase(parts[1])) {
+				throw new DataSupportException(DataSupportException.PAGE_ORDER_EXCEPTION);
+			}
+		}
+		// the _id field is saved in the id column.
+		String column = "_id".equalsIgnoreCase(parts[0]) ? "id" : parts[0];
+		return new PageToken(column, descending, toColumnValue(lastValue), 0);
+	}
+
+	/**
+	 * Create the token for the page after the given row.
+	 *
+	 * @param lastValue
+	 *            Value of sort column in the last row.
+	 * @param lastId
+	 *            Id of the last row.
+	 * @return The token for next page.
+	 */
+	PageToken next(Object lastValue, long lastId) {
+		if (lastValue == null) {
+			throw new DataSupportException(DataSupportException.PAGE_ORDER_EXCEPTION);
+		}
+		return new PageToken(mColumn, mDescending, toColumnValue(lastValue), isSortedById() ? 0
+				: lastId);
+	}
+
+	/**
+	 * Get the column to sort by.
+	 *
+	 * @return The sort column.
+	 */
+	public String getColumn() {
+		return mColumn;
+	}
+
+	/**
+	 * Check if the rows are sorted descending.
+	 *
+	 * @return True if descending, false if ascending.
+	 */
+	public boolean isDescending() {
+		return mDescending;
+	}
+
+	/**
+	 * Check if the token points to the first page.
+	 *
+	 * @return True if it's the first page, false otherwise.
+	 */
+	public boolean isFirstPage() {
+		return mLastValue == null;
+	}
+
+	/**
+	 * Build the ORDER BY clause which keeps the order stable.
+	 *
+	 * @return The ORDER BY clause.
+	 */
+	String getOrderBy() {
+		String direction = mDescending ? " desc" : " asc";
+		if (isSortedById()) {
+			return mColumn + direction;
+		}
+		return mColumn + direction + ", id" + direction;
+	}
+
+	/**
+	 * Merge the seek predicate into the conditions.
+	 *
+	 * @param conditions
+	 *            The where clause and its arguments. Can be null.
+	 * @return The merged conditions, or the conditions passed in if it's the
+	 *         first page.
+	 */
+	String[] appendConditions(String[] conditions) {
+		if (isFirstPage()) {
+			return conditions;
+		}
+		String op = mDescending ? " < ?" : " > ?";
+		String predicate;
+		String[] args;
+		if (mLastId > 0) {
+			predicate = "(" + mColumn + op + " or (" + mColumn + " = ? and id" + op + "))";
+			args = new String[] { mLastValue, mLastValue, String.valueOf(mLastId) };
+		} else {
+			predicate = mColumn + op;
+			args = new String[] { mLastValue };
+		}
+		if (conditions == null || conditions.length == 0 || TextUtils.isEmpty(conditions[0])) {
+			String[] merged = new String[args.length + 1];
+			merged[0] = predicate;
+			System.arraycopy(args, 0, merged, 1, args.length);
+			return merged;
+		}
+		String[] merged = new String[conditions.length + args.length];
+		merged[0] = "(" + conditions[0] + ") and " + predicate;
+		System.arraycopy(conditions, 1, merged, 1, conditions.length - 1);
+		System.arraycopy(args, 0, merged, conditions.length, args.length);
+		return merged;
+	}
+
+	/**
+	 * Check if the sort column is id, which needs no tie breaker.
+	 *
+	 * @return True if sorted by id, false otherwise.
+	 */
+	private boolean isSortedById() {
+		return "id".equalsIgnoreCase(mColumn);
+	}
+
+	/**
+	 * Convert the value to what it looks like in the database, so that it can
+	 * be bound as the selection argument.
+	 *
+	 * @param value
+	 *            The value of sort column.
+	 * @return The value in the database.
+	 */
+	private static String toColumnValue(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof Date) {
+			return String.valueOf(((Date) value).getTime());
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value ? "1" : "0";
+		}
+		if (value instanceof Float) {
+			// float is saved as a real, so 0.1f has to be bound as
+			// 0.10000000149011612 to compare equal with it.
+			return String.valueOf(((Number) value).doubleValue());
+		}
+		return String.valueOf(value);
+	}
+
+}
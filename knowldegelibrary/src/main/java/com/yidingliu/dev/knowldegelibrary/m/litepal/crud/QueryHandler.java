@@ -4,11 +4,25 @@
 
 package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * This is a component under DataSupport. It deals with query stuff as primary
@@ -43,10 +57,23 @@ class QueryHandler extends DataHandler {
 	 * @return An object with found data from database, or null.
 	 */
 	<T> T onFind(Class<T> modelClass, long id, boolean isEager) {
+		EntityCache cache = isEager ? null : EntityCache.of(modelClass, getTableName(modelClass));
+		long cacheVersion = 0;
+		if (cache != null) {
+			Object entity = cache.get(id);
+			if (entity != null) {
+				return copyModel(modelClass, entity);
+			}
+			cacheVersion = cache.getVersion();
+		}
 		List<T> dataList = query(modelClass, null, "id = ?", new String[] { String.valueOf(id) },
 				null, null, null, null, getForeignKeyAssociations(modelClass.getName(), isEager));
 		if (dataList.size() > 0) {
-			return dataList.get(0);
+			T model = dataList.get(0);
+			if (cache != null) {
+				cache.put(id, copyModel(modelClass, model), cacheVersion);
+			}
+			return model;
 		}
 		return null;
 	}
@@ -107,12 +134,90 @@ class QueryHandler extends DataHandler {
 			dataList = query(modelClass, null, null, null, null, null, "id", null,
 					getForeignKeyAssociations(modelClass.getName(), isEager));
 		} else {
+			EntityCache cache = isEager ? null : EntityCache.of(modelClass,
+					getTableName(modelClass));
+			if (cache != null) {
+				return findAllThroughCache(modelClass, cache, ids);
+			}
 			dataList = query(modelClass, null, getWhereOfIdsWithOr(ids), null, null, null, "id",
 					null, getForeignKeyAssociations(modelClass.getName(), isEager));
 		}
 		return dataList;
 	}
 
+	/**
+	 * Find multiple records by ids through the entity cache. Only the records
+	 * which are not cached will be queried from database, and then cached.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param cache
+	 *            The entity cache of modelClass.
+	 * @param ids
+	 *            Which records to query.
+	 * @return An object list sorted by id.
+	 */
+	private <T> List<T> findAllThroughCache(Class<T> modelClass, EntityCache cache, long... ids) {
+		Map<Long, T> models = new TreeMap<Long, T>();
+		List<Long> missingIds = new ArrayList<Long>();
+		for (long id : ids) {
+			if (models.containsKey(id) || missingIds.contains(id)) {
+				continue;
+			}
+			Object entity = cache.get(id);
+			if (entity != null) {
+				models.put(id, copyModel(modelClass, entity));
+			} else {
+				missingIds.add(id);
+			}
+		}
+		if (!missingIds.isEmpty()) {
+			long cacheVersion = cache.getVersion();
+			List<T> dataList = query(modelClass, null, getWhereOfIdsWithOr(missingIds), null,
+					null, null, null, null, null);
+			for (T model : dataList) {
+				long id = ((DataSupport) model).getBaseObjId();
+				cache.put(id, copyModel(modelClass, model), cacheVersion);
+				models.put(id, model);
+			}
+		}
+		return new ArrayList<T>(models.values());
+	}
+
+	/**
+	 * Make a copy of the model, so that the model in entity cache is never
+	 * shared with callers. Mutable values such as Date and byte array are
+	 * copied too.
+	 * 
+	 * @param modelClass
+	 *            The class of model.
+	 * @param model
+	 *            The model to copy.
+	 * @return A new model with the same id and values.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T copyModel(Class<T> modelClass, Object model) {
+		try {
+			T copy = (T) createInstanceFromClass(modelClass);
+			giveBaseObjIdValue((DataSupport) copy, ((DataSupport) model).getBaseObjId());
+			for (Field field : getSupportedFields(modelClass.getName())) {
+				field.setAccessible(true);
+				Object value = field.get(model);
+				if (value instanceof Date) {
+					value = new Date(((Date) value).getTime());
+				} else if (value instanceof byte[]) {
+					value = ((byte[]) value).clone();
+				} else if (value instanceof Byte[]) {
+					value = ((Byte[]) value).clone();
+				}
+				field.set(copy, value);
+			}
+			return copy;
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		}
+	}
+
 	/**
 	 * The open interface for other classes in CRUD package to query multiple
 	 * records by parameters.
@@ -144,6 +249,108 @@ class QueryHandler extends DataHandler {
                 getForeignKeyAssociations(modelClass.getName(), isEager));
 	}
 
+	/**
+	 * The open interface for other classes in CRUD package to iterate over
+	 * the records lazily. Only the row which is iterated to is turned into
+	 * model.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return.
+	 * @param columns
+	 *            A String array of which columns to return. Passing null will
+	 *            return all columns.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause.
+	 *            Passing null will use the default sort order, which may be
+	 *            unordered.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause.
+	 * @param reuseInstance
+	 *            True to set every row into one same model instance, false to
+	 *            create a new model instance for each row.
+	 * @return A lazy iterator over the query result.
+	 */
+	<T> QueryIterator<T> onIterate(Class<T> modelClass, String[] columns, String[] conditions,
+			String orderBy, String limit, boolean reuseInstance) {
+		BaseUtility.checkConditionsCorrect(conditions);
+		return iterate(modelClass, columns, getWhereClause(conditions), getWhereArgs(conditions),
+				orderBy, limit, reuseInstance);
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to find one page
+	 * of records by keyset pagination.
+	 * 
+	 * @param modelClass
+	 *            Which table to query and the object type to return as a list.
+	 * @param columns
+	 *            A String array of which columns to return. Passing null will
+	 *            return all columns.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param pageSize
+	 *            The max count of records in one page. Passing 0 or less will
+	 *            return all the rest records.
+	 * @param pageToken
+	 *            Where the last page stopped.
+	 * @return One page of records and the token of next page.
+	 */
+	<T> Page<T> onFindPage(Class<T> modelClass, String[] columns, String[] conditions,
+			int pageSize, PageToken pageToken) {
+		String[] pageConditions = pageToken.appendConditions(conditions);
+		BaseUtility.checkConditionsCorrect(pageConditions);
+		String sortColumn = pageToken.getColumn();
+		if (columns != null && !BaseUtility.containsIgnoreCases(Arrays.asList(columns), sortColumn)) {
+			String[] pageColumns = new String[columns.length + 1];
+			System.arraycopy(columns, 0, pageColumns, 0, columns.length);
+			pageColumns[columns.length] = sortColumn;
+			columns = pageColumns;
+		}
+		List<T> list = query(modelClass, columns, getWhereClause(pageConditions),
+				getWhereArgs(pageConditions), null, null, pageToken.getOrderBy(),
+				pageSize > 0 ? String.valueOf(pageSize) : null, null);
+		PageToken nextPageToken = null;
+		if (pageSize > 0 && list.size() == pageSize) {
+			DataSupport lastModel = (DataSupport) list.get(list.size() - 1);
+			nextPageToken = pageToken.next(getSortValue(lastModel, sortColumn),
+					lastModel.getBaseObjId());
+		}
+		return new Page<T>(list, nextPageToken);
+	}
+
+	/**
+	 * Get the value of the sort column in a model.
+	 * 
+	 * @param model
+	 *            The model to read value from.
+	 * @param sortColumn
+	 *            The sort column of keyset pagination.
+	 * @return The value of the sort column.
+	 */
+	private Object getSortValue(DataSupport model, String sortColumn) {
+		if (isIdColumn(sortColumn)) {
+			return model.getBaseObjId();
+		}
+		String className = model.getClassName();
+		for (Field field : getSupportedFields(className)) {
+			if (field.getName().equalsIgnoreCase(sortColumn)) {
+				try {
+					field.setAccessible(true);
+					return field.get(model);
+				} catch (IllegalAccessException e) {
+					throw new DataSupportException(e.getMessage(), e);
+				}
+			}
+		}
+		throw new DataSupportException(DataSupportException.noSuchFieldExceptioin(className,
+				sortColumn));
+	}
+
 	/**
 	 * The open interface for other classes in CRUD package to Count the
 	 * records.
@@ -234,4 +441,232 @@ class QueryHandler extends DataHandler {
 		return mathQuery(tableName, new String[] { "sum(" + column + ")" }, conditions, type);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * The open interface for other classes in CRUD package to query rows into
+	 * the result class of a projection instead of models. Only the selected
+	 * columns are read, and no associated models or foreign keys are touched.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param resultClass
+	 *            The class to map rows into, which must have a constructor
+	 *            without parameters.
+	 * @param columns
+	 *            A String array of which columns to return. Passing null will
+	 *            return the columns which have fields with the same names in
+	 *            the result class.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause.
+	 * @return A list of result objects, or an empty list.
+	 */
+	<R> List<R> onFindAs(Class<?> modelClass, Class<R> resultClass, String[] columns,
+			String[] conditions, String orderBy, String limit) {
+		BaseUtility.checkConditionsCorrect(conditions);
+		RowMapper<R> rowMapper = RowMapper.ofProjection(resultClass);
+		if (columns == null) {
+			columns = getProjectedColumns(modelClass, rowMapper.getColumnNames());
+		}
+		List<R> resultList = new ArrayList<R>();
+		Cursor cursor = null;
+		try {
+			Constructor<R> constructor = resultClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			cursor = mDatabase.query(getTableName(modelClass), columns, getWhereClause(conditions),
+					getWhereArgs(conditions), null, null, orderBy, limit);
+			if (cursor.moveToFirst()) {
+				do {
+					R result = constructor.newInstance();
+					rowMapper.map(cursor, result);
+					resultList.add(result);
+				} while (cursor.moveToNext());
+			}
+			return resultList;
+		} catch (NoSuchMethodException e) {
+			throw new DataSupportException(resultClass.getName()
+					+ DataSupportException.INSTANTIATION_EXCEPTION, e);
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		} finally {
+			if (cursor != null) {
+				cursor.close();
+			}
+		}
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to query the
+	 * values of one column as a long array.
+	 * 
+	 * @param tableName
+	 *            Which table to query from.
+	 * @param column
+	 *            The column to query.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause.
+	 * @return The values of the column, null values are read as 0.
+	 */
+	long[] onFindLongColumn(String tableName, String column, String[] conditions,
+			String orderBy, String limit) {
+		Cursor cursor = queryColumn(tableName, column, conditions, orderBy, limit);
+		try {
+			long[] values = new long[cursor.getCount()];
+			for (int i = 0; cursor.moveToNext(); i++) {
+				values[i] = cursor.getLong(0);
+			}
+			return values;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to query the
+	 * values of one column as a double array.
+	 * 
+	 * @param tableName
+	 *            Which table to query from.
+	 * @param column
+	 *            The column to query.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause.
+	 * @return The values of the column, null values are read as 0.
+	 */
+	double[] onFindDoubleColumn(String tableName, String column, String[] conditions,
+			String orderBy, String limit) {
+		Cursor cursor = queryColumn(tableName, column, conditions, orderBy, limit);
+		try {
+			double[] values = new double[cursor.getCount()];
+			for (int i = 0; cursor.moveToNext(); i++) {
+				values[i] = cursor.getDouble(0);
+			}
+			return values;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to query the
+	 * values of one column as a String array.
+	 * 
+	 * @param tableName
+	 *            Which table to query from.
+	 * @param column
+	 *            The column to query.
+	 * @param conditions
+	 *            A filter declaring which rows to return, formatted as an SQL
+	 *            WHERE clause. Passing null will return all rows.
+	 * @param orderBy
+	 *            How to order the rows, formatted as an SQL ORDER BY clause.
+	 * @param limit
+	 *            Limits the number of rows returned by the query, formatted as
+	 *            LIMIT clause.
+	 * @return The values of the column, null values are kept as null.
+	 */
+	String[] onFindStringColumn(String tableName, String column, String[] conditions,
+			String orderBy, String limit) {
+		Cursor cursor = queryColumn(tableName, column, conditions, orderBy, limit);
+		try {
+			String[] values = new String[cursor.getCount()];
+			for (int i = 0; cursor.moveToNext(); i++) {
+				values[i] = cursor.getString(0);
+			}
+			return values;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Query one column of the table.
+	 * 
+	 * @return A cursor with the only column, positioned before the first row.
+	 */
+	private Cursor queryColumn(String tableName, String column, String[] conditions,
+			String orderBy, String limit) {
+		BaseUtility.checkConditionsCorrect(conditions);
+		try {
+			return mDatabase.query(tableName, new String[] { column }, getWhereClause(conditions),
+					getWhereArgs(conditions), null, null, orderBy, limit);
+		} catch (Exception e) {
+			throw new DataSupportException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Pick the columns of the model which the result class of a projection
+	 * has fields for.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param fieldColumns
+	 *            The columns which the result class has fields for.
+	 * @return The columns to select.
+	 */
+	private String[] getProjectedColumns(Class<?> modelClass, String[] fieldColumns) {
+		List<String> columns = new ArrayList<String>();
+		List<Field> supportedFields = getSupportedFields(modelClass.getName());
+		for (String fieldColumn : fieldColumns) {
+			boolean isColumn = "id".equalsIgnoreCase(fieldColumn);
+			for (int i = 0; !isColumn && i < supportedFields.size(); i++) {
+				isColumn = supportedFields.get(i).getName().equalsIgnoreCase(fieldColumn);
+			}
+			if (isColumn) {
+				columns.add(BaseUtility.changeCase(fieldColumn));
+			}
+		}
+		if (columns.isEmpty()) {
+			throw new DataSupportException(DataSupportException.PROJECTION_NO_COLUMN
+					+ modelClass.getName());
+		}
+		return columns.toArray(new String[columns.size()]);
+	}
+
+	/**
+	 * Get the tables which the result of a query on modelClass depends on.
+	 * They are the table of modelClass, and if isEager is true the associated
+	 * tables and intermediate join tables too.
+	 * 
+	 * @param modelClass
+	 *            Which table to query.
+	 * @param isEager
+	 *            True to load the associated models, false not.
+	 * @return The names of the tables.
+	 */
+	String[] getObservedTables(Class<?> modelClass, boolean isEager) {
+		String tableName = getTableName(modelClass);
+		Set<String> tableNames = new LinkedHashSet<String>();
+		tableNames.add(tableName);
+		if (isEager) {
+			for (AssociationsInfo associationInfo : getAssociationInfo(modelClass.getName())) {
+				String associatedTableName = DBUtility.getTableNameByClassName(associationInfo
+						.getAssociatedClassName());
+				tableNames.add(associatedTableName);
+				if (associationInfo.getAssociationType() == Const.Model.MANY_TO_MANY) {
+					tableNames.add(DBUtility.getIntermediateTableName(tableName,
+							associatedTableName));
+				}
+			}
+		}
+		return tableNames.toArray(new String[tableNames.size()]);
+	}
+
+}
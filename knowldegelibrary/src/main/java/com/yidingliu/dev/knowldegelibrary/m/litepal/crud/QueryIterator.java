@@ -0,0 +1,135 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over a query result which is backed by the cursor. Each call
+ * of {@link #next()} turns only one row into model, so the result set is never
+ * held in memory at once. The cursor will be closed automatically once the
+ * last row is read, call {@link #close()} if the iteration is stopped early.
+ * <p>
+ * The iterator is not thread safe and should be used by only one thread.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class QueryIterator<T> implements Iterator<T>, Closeable {
+
+	/**
+	 * The handler which creates models from rows.
+	 */
+	private final DataHandler mDataHandler;
+
+	/**
+	 * The model class to create instance from.
+	 */
+	private final Class<T> mModelClass;
+
+	/**
+	 * The cursor which holds the query result.
+	 */
+	private final Cursor mCursor;
+
+	/**
+	 * The row mapper bound to the cursor.
+	 */
+	private final RowMapper<T> mRowMapper;
+
+	/**
+	 * Whether to set every row into one same model instance.
+	 */
+	private final boolean mReuseInstance;
+
+	/**
+	 * The model instance reused by every row, only when mReuseInstance is
+	 * true.
+	 */
+	private T mReusedInstance;
+
+	/**
+	 * Whether the cursor is positioned at a row which is not read yet.
+	 */
+	private boolean mHasNext;
+
+	/**
+	 * Whether the cursor is closed already.
+	 */
+	private boolean mClosed;
+
+	QueryIterator(DataHandler dataHandler, Class<T> modelClass, Cursor cursor,
+			RowMapper<T> rowMapper, boolean reuseInstance) {
+		mDataHandler = dataHandler;
+		mModelClass = modelClass;
+		mCursor = cursor;
+		mRowMapper = rowMapper;
+		mReuseInstance = reuseInstance;
+		try {
+			mHasNext = cursor.moveToFirst();
+		} finally {
+			if (!mHasNext) {
+				close();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return mHasNext;
+	}
+
+	/**
+	 * Read the current row into model and move to the next row. If the
+	 * iterator reuses instance, the same model will be returned every time
+	 * with values of the current row.
+	 *
+	 * @return The model with values of current row.
+	 */
+	@Override
+	public T next() {
+		if (!mHasNext) {
+			throw new NoSuchElementException();
+		}
+		T modelInstance;
+		try {
+			modelInstance = mDataHandler.readRow(mModelClass, mReusedInstance, mCursor, mRowMapper);
+			if (mReuseInstance) {
+				mReusedInstance = modelInstance;
+			}
+			mHasNext = mCursor.moveToNext();
+		} finally {
+			if (!mHasNext) {
+				close();
+			}
+		}
+		return modelInstance;
+	}
+
+	/**
+	 * Removing is not supported. Use DataSupport#delete instead.
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove");
+	}
+
+	/**
+	 * Close the cursor. Calling it more than once is harmless.
+	 */
+	@Override
+	public void close() {
+		if (!mClosed) {
+			mClosed = true;
+			mHasNext = false;
+			mCursor.close();
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Handle of an observed query, which is created by
+ * {@link ClusterQuery#observe(Class, Executor, DataCallback)}. The query runs
+ * once at the beginning, and runs again every time the tables it depends on
+ * are changed. Changes which happen while the query is running cause only one
+ * more run after it. Cancel the observation when the results are not needed
+ * any more, for example when the activity is destroyed.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public final class QueryObservation<T> {
+
+	/**
+	 * The query to run.
+	 */
+	private final Callable<T> mQuery;
+
+	/**
+	 * The executor to call callback with, null for the main thread.
+	 */
+	private final Executor mDelivery;
+
+	/**
+	 * Receives the results.
+	 */
+	private final DataCallback<T> mCallback;
+
+	/**
+	 * Registered to TableChangeBus to run the query again.
+	 */
+	private final TableObserver mObserver = new TableObserver() {
+		@Override
+		public void onTablesChanged(Set<String> tableNames) {
+			requery();
+		}
+	};
+
+	/**
+	 * Whether the query is running now.
+	 */
+	private boolean mRunning;
+
+	/**
+	 * Whether the tables are changed while the query is running.
+	 */
+	private boolean mDirty;
+
+	private volatile boolean mCancelled;
+
+	QueryObservation(Callable<T> query, Executor delivery, DataCallback<T> callback) {
+		mQuery = query;
+		mDelivery = delivery;
+		mCallback = callback;
+	}
+
+	/**
+	 * Stop observing. Once called on the delivery thread, the callback will
+	 * never be called.
+	 */
+	public void cancel() {
+		mCancelled = true;
+		TableChangeBus.unregister(mObserver);
+	}
+
+	/**
+	 * Check if the observation is cancelled.
+	 *
+	 * @return True if {@link #cancel()} has been called, false otherwise.
+	 */
+	public boolean isCancelled() {
+		return mCancelled;
+	}
+
+	/**
+	 * Start observing the tables, and run the query for the first time.
+	 *
+	 * @param tableNames
+	 *            The tables which the result of query depends on.
+	 */
+	void start(String... tableNames) {
+		TableChangeBus.register(mObserver, null, tableNames);
+		requery();
+	}
+
+	/**
+	 * Run the query in background, or mark it to run again if it is running.
+	 */
+	private synchronized void requery() {
+		if (mCancelled) {
+			return;
+		}
+		if (mRunning) {
+			mDirty = true;
+			return;
+		}
+		mRunning = true;
+		AsyncExecutor.read(null, mQuery, new DataCallback<T>() {
+			@Override
+			public void onFinish(T result) {
+				try {
+					if (!mCancelled) {
+						mCallback.onFinish(result);
+					}
+				} finally {
+					onQueryFinished();
+				}
+			}
+
+			@Override
+			public void onError(DataSupportException e) {
+				onQueryFinished();
+				if (!mCancelled) {
+					mCallback.onError(e);
+				}
+			}
+		}, mDelivery);
+	}
+
+	private synchronized void onQueryFinished() {
+		mRunning = false;
+		if (mDirty) {
+			mDirty = false;
+			requery();
+		}
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.Cursor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility.changeCase;
+
+/**
+ * Maps rows of a cursor into model instances. The accessor table of each model
+ * class is built only once per process, it knows which typed getter of
+ * {@link Cursor} to call for every supported field, so that no getXxx method
+ * need to be looked up and invoked dynamically for each column of each row.
+ * The column indexes are resolved at the first row of a cursor and reused for
+ * the rest rows.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+class RowMapper<T> {
+
+	private static final int TYPE_INT = 1;
+
+	private static final int TYPE_LONG = 2;
+
+	private static final int TYPE_SHORT = 3;
+
+	private static final int TYPE_FLOAT = 4;
+
+	private static final int TYPE_DOUBLE = 5;
+
+	private static final int TYPE_BOOLEAN = 6;
+
+	private static final int TYPE_CHAR = 7;
+
+	private static final int TYPE_STRING = 8;
+
+	private static final int TYPE_DATE = 9;
+
+	private static final int TYPE_BLOB = 10;
+
+	private static final int TYPE_BYTE_OBJECT_ARRAY = 11;
+
+	/**
+	 * Accessor tables of all the model classes which have been queried. Built
+	 * once and shared by all handlers.
+	 */
+	private static final Map<Class<?>, ColumnAccessor[]> accessorTables = new ConcurrentHashMap<Class<?>, ColumnAccessor[]>();
+
+	/**
+	 * Accessor tables of all the result classes of projections which have
+	 * been queried. Kept apart from the model ones as they are built by
+	 * different rules.
+	 */
+	private static final Map<Class<?>, ColumnAccessor[]> projectionTables = new ConcurrentHashMap<Class<?>, ColumnAccessor[]>();
+
+	/**
+	 * The accessor table of current model class.
+	 */
+	private final ColumnAccessor[] accessors;
+
+	/**
+	 * Column index of each accessor in the current cursor. -1 means the column
+	 * is not in the cursor.
+	 */
+	private int[] columnIndexes;
+
+	/**
+	 * Column index of id in the current cursor.
+	 */
+	private int idColumnIndex = -1;
+
+	private RowMapper(ColumnAccessor[] accessors) {
+		this.accessors = accessors;
+	}
+
+	/**
+	 * Get a row mapper for the model class. Each query should use its own row
+	 * mapper, as column indexes are bound to the cursor.
+	 *
+	 * @param modelClass
+	 *            The model class to map rows into.
+	 * @param supportedFields
+	 *            The supported fields of the model class.
+	 * @return A row mapper for the model class.
+	 */
+	static <T> RowMapper<T> of(Class<T> modelClass, List<Field> supportedFields) {
+		ColumnAccessor[] accessors = accessorTables.get(modelClass);
+		if (accessors == null) {
+			accessors = buildAccessorTable(supportedFields);
+			accessorTables.put(modelClass, accessors);
+		}
+		return new RowMapper<T>(accessors);
+	}
+
+	/**
+	 * Get a row mapper for the result class of a projection, which can be any
+	 * class with a constructor without parameters. Every non-static and
+	 * non-transient field with a type which a column can hold maps the column
+	 * with the same name.
+	 *
+	 * @param resultClass
+	 *            The class to map rows into.
+	 * @return A row mapper for the result class.
+	 */
+	static <T> RowMapper<T> ofProjection(Class<T> resultClass) {
+		ColumnAccessor[] accessors = projectionTables.get(resultClass);
+		if (accessors == null) {
+			List<Field> fields = new ArrayList<Field>();
+			Class<?> clazz = resultClass;
+			while (clazz != null && clazz != Object.class && clazz != DataSupport.class) {
+				for (Field field : clazz.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+							&& isColumnType(field.getType())) {
+						fields.add(field);
+					}
+				}
+				clazz = clazz.getSuperclass();
+			}
+			accessors = buildAccessorTable(fields);
+			projectionTables.put(resultClass, accessors);
+		}
+		return new RowMapper<T>(accessors);
+	}
+
+	/**
+	 * Get the names of the columns this row mapper reads.
+	 *
+	 * @return The column names.
+	 */
+	String[] getColumnNames() {
+		String[] columnNames = new String[accessors.length];
+		for (int i = 0; i < accessors.length; i++) {
+			columnNames[i] = accessors[i].columnName;
+		}
+		return columnNames;
+	}
+
+	/**
+	 * Read the id value of the current row.
+	 *
+	 * @param cursor
+	 *            The cursor which is positioned at the row to read.
+	 * @return The id value of current row.
+	 */
+	long readId(Cursor cursor) {
+		if (idColumnIndex == -1) {
+			idColumnIndex = cursor.getColumnIndexOrThrow("id");
+		}
+		return cursor.getLong(idColumnIndex);
+	}
+
+	/**
+	 * Set values of the current row into the model instance. Columns which
+	 * are not contained in the cursor will be skipped.
+	 *
+	 * @param cursor
+	 *            The cursor which is positioned at the row to map.
+	 * @param modelInstance
+	 *            The model to set into.
+	 * @throws IllegalAccessException
+	 */
+	void map(Cursor cursor, T modelInstance) throws IllegalAccessException {
+		if (columnIndexes == null) {
+			bindColumnIndexes(cursor);
+		}
+		for (int i = 0; i < accessors.length; i++) {
+			int columnIndex = columnIndexes[i];
+			if (columnIndex != -1) {
+				accessors[i].read(cursor, columnIndex, modelInstance);
+			}
+		}
+	}
+
+	/**
+	 * Find the column index for each accessor in the cursor.
+	 *
+	 * @param cursor
+	 *            The cursor to map rows from.
+	 */
+	private void bindColumnIndexes(Cursor cursor) {
+		int[] indexes = new int[accessors.length];
+		for (int i = 0; i < accessors.length; i++) {
+			indexes[i] = cursor.getColumnIndex(changeCase(accessors[i].columnName));
+		}
+		columnIndexes = indexes;
+	}
+
+	/**
+	 * Build the accessor table by the supported fields of a model class.
+	 *
+	 * @param supportedFields
+	 *            The supported fields of the model class.
+	 * @return The accessor table.
+	 */
+	private static ColumnAccessor[] buildAccessorTable(List<Field> supportedFields) {
+		ColumnAccessor[] accessors = new ColumnAccessor[supportedFields.size()];
+		for (int i = 0; i < accessors.length; i++) {
+			Field field = supportedFields.get(i);
+			field.setAccessible(true);
+			String fieldName = field.getName();
+			boolean isId = "_id".equalsIgnoreCase(fieldName) || "id".equalsIgnoreCase(fieldName);
+			accessors[i] = new ColumnAccessor(field, isId ? "id" : fieldName, getColumnType(field.getType()));
+		}
+		return accessors;
+	}
+
+	/**
+	 * Check if a column can hold the value of the type.
+	 *
+	 * @param fieldType
+	 *            The type of field.
+	 * @return True if it's a primitive type, a wrapper type, String, Date or
+	 *         a byte array, false otherwise.
+	 */
+	private static boolean isColumnType(Class<?> fieldType) {
+		return fieldType.isPrimitive() && fieldType != void.class && fieldType != byte.class
+				|| fieldType == Integer.class || fieldType == Long.class || fieldType == Short.class
+				|| fieldType == Float.class || fieldType == Double.class
+				|| fieldType == Boolean.class || fieldType == Character.class
+				|| fieldType == String.class || fieldType == Date.class
+				|| fieldType == byte[].class || fieldType == Byte[].class;
+	}
+
+	/**
+	 * Decide which typed getter of cursor the field type should use. It follows
+	 * the same rules as reading values by getXxx methods, boolean is read with
+	 * getInt, char with getString, Date with getLong and byte array with
+	 * getBlob.
+	 *
+	 * @param fieldType
+	 *            The type of field.
+	 * @return The column type constant.
+	 */
+	private static int getColumnType(Class<?> fieldType) {
+		if (fieldType == int.class || fieldType == Integer.class) {
+			return TYPE_INT;
+		} else if (fieldType == long.class || fieldType == Long.class) {
+			return TYPE_LONG;
+		} else if (fieldType == short.class || fieldType == Short.class) {
+			return TYPE_SHORT;
+		} else if (fieldType == float.class || fieldType == Float.class) {
+			return TYPE_FLOAT;
+		} else if (fieldType == double.class || fieldType == Double.class) {
+			return TYPE_DOUBLE;
+		} else if (fieldType == boolean.class || fieldType == Boolean.class) {
+			return TYPE_BOOLEAN;
+		} else if (fieldType == char.class || fieldType == Character.class) {
+			return TYPE_CHAR;
+		} else if (fieldType == Date.class) {
+			return TYPE_DATE;
+		} else if (fieldType == byte[].class) {
+			return TYPE_BLOB;
+		} else if (fieldType == Byte[].class) {
+			return TYPE_BYTE_OBJECT_ARRAY;
+		}
+		return TYPE_STRING;
+	}
+
+	/**
+	 * Reads one column from cursor with the typed getter and writes it into
+	 * one field.
+	 */
+	private static class ColumnAccessor {
+
+		final Field field;
+
+		final String columnName;
+
+		final int columnType;
+
+		final boolean isPrimitive;
+
+		ColumnAccessor(Field field, String columnName, int columnType) {
+			this.field = field;
+			this.columnName = columnName;
+			this.columnType = columnType;
+			this.isPrimitive = field.getType().isPrimitive();
+		}
+
+		void read(Cursor cursor, int columnIndex, Object modelInstance) throws IllegalAccessException {
+			switch (columnType) {
+			case TYPE_INT:
+				if (isPrimitive) {
+					field.setInt(modelInstance, cursor.getInt(columnIndex));
+				} else {
+					field.set(modelInstance, cursor.getInt(columnIndex));
+				}
+				break;
+			case TYPE_LONG:
+				if (isPrimitive) {
+					field.setLong(modelInstance, cursor.getLong(columnIndex));
+				} else {
+					field.set(modelInstance, cursor.getLong(columnIndex));
+				}
+				break;
+			case TYPE_SHORT:
+				if (isPrimitive) {
+					field.setShort(modelInstance, cursor.getShort(columnIndex));
+				} else {
+					field.set(modelInstance, cursor.getShort(columnIndex));
+				}
+				break;
+			case TYPE_FLOAT:
+				if (isPrimitive) {
+					field.setFloat(modelInstance, cursor.getFloat(columnIndex));
+				} else {
+					field.set(modelInstance, cursor.getFloat(columnIndex));
+				}
+				break;
+			case TYPE_DOUBLE:
+				if (isPrimitive) {
+					field.setDouble(modelInstance, cursor.getDouble(columnIndex));
+				} else {
+					field.set(modelInstance, cursor.getDouble(columnIndex));
+				}
+				break;
+			case TYPE_BOOLEAN:
+				boolean bool = cursor.getInt(columnIndex) != 0;
+				if (isPrimitive) {
+					field.setBoolean(modelInstance, bool);
+				} else {
+					field.set(modelInstance, bool);
+				}
+				break;
+			case TYPE_CHAR:
+				String chars = cursor.getString(columnIndex);
+				if (chars != null && chars.length() > 0) {
+					if (isPrimitive) {
+						field.setChar(modelInstance, chars.charAt(0));
+					} else {
+						field.set(modelInstance, chars.charAt(0));
+					}
+				} else if (!isPrimitive) {
+					// reused instances may still hold the value of last row
+					field.set(modelInstance, null);
+				}
+				break;
+			case TYPE_DATE:
+				long date = cursor.getLong(columnIndex);
+				field.set(modelInstance, date <= 0 ? null : new Date(date));
+				break;
+			case TYPE_BLOB:
+				field.set(modelInstance, cursor.getBlob(columnIndex));
+				break;
+			case TYPE_BYTE_OBJECT_ARRAY:
+				byte[] blob = cursor.getBlob(columnIndex);
+				Byte[] bytes = null;
+				if (blob != null) {
+					bytes = new Byte[blob.length];
+					for (int i = 0; i < blob.length; i++) {
+						bytes[i] = blob[i];
+					}
+				}
+				field.set(modelInstance, bytes);
+				break;
+			default:
+				field.set(modelInstance, cursor.getString(columnIndex));
+				break;
+			}
+		}
+
+	}
+
+}
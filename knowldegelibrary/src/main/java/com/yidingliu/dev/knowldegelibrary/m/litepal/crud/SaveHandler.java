@@ -6,17 +6,22 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility.changeCase;
+
 /**
  * This is a component under DataSupport. It deals with the saving stuff as
  * primary task. All the implementation based on the java reflection API and
@@ -132,17 +137,188 @@ class SaveHandler extends DataHandler {
 			List<Field> supportedFields = getSupportedFields(className);
 			Collection<AssociationsInfo> associationInfos = getAssociationInfo(className);
 			for (DataSupport baseObj : array) {
-				if (!baseObj.isSaved()) {
-					analyzeAssociatedModels(baseObj, associationInfos);
-					doSaveAction(baseObj, supportedFields);
-					analyzeAssociatedModels(baseObj, associationInfos);
-				} else {
-					analyzeAssociatedModels(baseObj, associationInfos);
-					doUpdateAction(baseObj, supportedFields);
+				doSaveOrUpdateAction(baseObj, supportedFields, associationInfos);
+			}
+		}
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to save a model
+	 * collection in batches. It is called when developer calls
+	 * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport#saveAllBatched(Collection, int)}.
+	 * Each batch is committed in its own transaction. If the model class has
+	 * no associations, the unsaved models are inserted by compiled INSERT
+	 * statements, which are compiled only once for each set of not null
+	 * columns. Otherwise each model is saved the same way as
+	 * {@link #onSaveAll(Collection)}.
+	 *
+	 * @param collection
+	 *            Holds all models to persist.
+	 * @param batchSize
+	 *            How many models to commit in one transaction. Zero or
+	 *            negative means to commit all models in one transaction.
+	 * @throws InvocationTargetException
+	 * @throws IllegalAccessException
+	 * @throws NoSuchMethodException
+	 * @throws IllegalArgumentException
+	 * @throws SecurityException
+	 */
+	<T extends DataSupport> void onSaveAllBatched(Collection<T> collection, int batchSize)
+			throws SecurityException, IllegalArgumentException, NoSuchMethodException,
+			IllegalAccessException, InvocationTargetException {
+		if (collection == null || collection.isEmpty()) {
+			return;
+		}
+		DataSupport[] array = collection.toArray(new DataSupport[0]);
+		String className = array[0].getClassName();
+		List<Field> supportedFields = getSupportedFields(className);
+		Collection<AssociationsInfo> associationInfos = getAssociationInfo(className);
+		boolean hasAssociations = !associationInfos.isEmpty();
+		Field idField = getIdField(supportedFields);
+		List<Field> columnFields = new ArrayList<Field>();
+		for (Field field : supportedFields) {
+			if (!isIdColumn(field.getName())) {
+				columnFields.add(field);
+			}
+		}
+		int size = batchSize > 0 ? batchSize : array.length;
+		Map<String, SQLiteStatement> insertStatements = new HashMap<String, SQLiteStatement>();
+		try {
+			for (int start = 0; start < array.length; start += size) {
+				int end = Math.min(start + size, array.length);
+				mDatabase.beginTransaction();
+				try {
+					for (int i = start; i < end; i++) {
+						DataSupport baseObj = array[i];
+						if (hasAssociations || baseObj.isSaved()) {
+							doSaveOrUpdateAction(baseObj, supportedFields, associationInfos);
+						} else {
+							doInsertByStatement(baseObj, columnFields, idField, insertStatements);
+						}
+					}
+					mDatabase.setTransactionSuccessful();
+				} finally {
+					mDatabase.endTransaction();
 				}
-				baseObj.clearAssociatedData();
+				// each batch is committed, its rows can't be cached stale any more.
+				EntityCache.dispatchPending();
 			}
+		} finally {
+			for (SQLiteStatement statement : insertStatements.values()) {
+				statement.close();
+			}
+		}
+	}
+
+	/**
+	 * Save the model if it's not saved yet, or update it. Associations of the
+	 * model will be analyzed before and after.
+	 *
+	 * @param baseObj
+	 *            Current model to persist.
+	 * @param supportedFields
+	 *            List of all supported fields.
+	 * @param associationInfos
+	 *            The association info of the model class.
+	 * @throws InvocationTargetException
+	 * @throws IllegalAccessException
+	 * @throws NoSuchMethodException
+	 * @throws IllegalArgumentException
+	 * @throws SecurityException
+	 */
+	private void doSaveOrUpdateAction(DataSupport baseObj, List<Field> supportedFields,
+			Collection<AssociationsInfo> associationInfos) throws SecurityException,
+			IllegalArgumentException, NoSuchMethodException, IllegalAccessException,
+			InvocationTargetException {
+		if (!baseObj.isSaved()) {
+			analyzeAssociatedModels(baseObj, associationInfos);
+			doSaveAction(baseObj, supportedFields);
+			analyzeAssociatedModels(baseObj, associationInfos);
+		} else {
+			analyzeAssociatedModels(baseObj, associationInfos);
+			doUpdateAction(baseObj, supportedFields);
+		}
+		baseObj.clearAssociatedData();
+	}
+
+	/**
+	 * Insert the model with a compiled statement. Null fields are left out of
+	 * the statement like {@link #putContentValuesForSave} does, so that the
+	 * default value declared in annotation can still work. Statements are
+	 * cached by the set of columns they insert.
+	 *
+	 * @param baseObj
+	 *            Current model to persist.
+	 * @param columnFields
+	 *            List of supported fields except id.
+	 * @param idField
+	 *            The field of id, or null.
+	 * @param insertStatements
+	 *            The compiled statements keyed by the set of inserted columns.
+	 * @throws IllegalAccessException
+	 */
+	private void doInsertByStatement(DataSupport baseObj, List<Field> columnFields, Field idField,
+			Map<String, SQLiteStatement> insertStatements) throws IllegalAccessException {
+		int fieldCount = columnFields.size();
+		Object[] fieldValues = new Object[fieldCount];
+		StringBuilder columnSetKey = new StringBuilder(fieldCount);
+		for (int i = 0; i < fieldCount; i++) {
+			Object fieldValue = DynamicExecutor.getField(baseObj, columnFields.get(i).getName(),
+					baseObj.getClass());
+			fieldValues[i] = fieldValue;
+			columnSetKey.append(fieldValue == null ? '0' : '1');
+		}
+		String key = columnSetKey.toString();
+		SQLiteStatement statement = insertStatements.get(key);
+		if (statement == null) {
+			statement = mDatabase.compileStatement(buildInsertSQL(baseObj.getTableName(),
+					columnFields, fieldValues));
+			insertStatements.put(key, statement);
+		}
+		statement.clearBindings();
+		int bindIndex = 1;
+		for (Object fieldValue : fieldValues) {
+			if (fieldValue != null) {
+				bindValue(statement, bindIndex++, fieldValue);
+			}
+		}
+		long id = statement.executeInsert();
+		throwIfSaveFailed(id);
+		TableChangeBus.notifyChanged(mDatabase, baseObj.getTableName());
+		assignIdValue(baseObj, idField, id);
+	}
+
+	/**
+	 * Build the INSERT SQL with place holders for all not null fields.
+	 *
+	 * @param tableName
+	 *            The table to insert into.
+	 * @param columnFields
+	 *            List of supported fields except id.
+	 * @param fieldValues
+	 *            Values of the fields, in the same order as columnFields.
+	 * @return The INSERT SQL.
+	 */
+	private String buildInsertSQL(String tableName, List<Field> columnFields, Object[] fieldValues) {
+		StringBuilder columns = new StringBuilder();
+		StringBuilder placeHolders = new StringBuilder();
+		for (int i = 0; i < fieldValues.length; i++) {
+			if (fieldValues[i] != null) {
+				if (columns.length() > 0) {
+					columns.append(", ");
+					placeHolders.append(", ");
+				}
+				columns.append(changeCase(columnFields.get(i).getName()));
+				placeHolders.append("?");
+			}
+		}
+		StringBuilder sql = new StringBuilder("insert into ").append(tableName);
+		if (columns.length() > 0) {
+			sql.append(" (").append(columns).append(") values (").append(placeHolders).append(")");
+		} else {
+			sql.append(" default values");
 		}
+		return sql.toString();
 	}
 
 	/**
@@ -210,7 +386,9 @@ class SaveHandler extends DataHandler {
 	 * @return The row ID of the newly inserted row, or -1 if an error occurred.
 	 */
 	private long saving(DataSupport baseObj, ContentValues values) {
-		return mDatabase.insert(baseObj.getTableName(), null, values);
+		long id = mDatabase.insert(baseObj.getTableName(), null, values);
+		TableChangeBus.notifyChanged(mDatabase, baseObj.getTableName());
+		return id;
 	}
 
 	/**
@@ -295,6 +473,8 @@ class SaveHandler extends DataHandler {
 	private void updating(DataSupport baseObj, ContentValues values) {
 		mDatabase.update(baseObj.getTableName(), values, "id = ?",
 				new String[] { String.valueOf(baseObj.getBaseObjId()) });
+		EntityCache.invalidate(mDatabase, baseObj.getTableName(), baseObj.getBaseObjId());
+		TableChangeBus.notifyChanged(mDatabase, baseObj.getTableName());
 	}
 
 	/**
@@ -429,6 +609,7 @@ class SaveHandler extends DataHandler {
 			Set<Long> ids = associatedModelMap.get(associatedTableName);
 			if (ids != null && !ids.isEmpty()) {
 				mDatabase.update(associatedTableName, values, getWhereOfIdsWithOr(ids), null);
+				TableChangeBus.notifyChanged(mDatabase, associatedTableName);
 			}
 		}
 	}
@@ -448,6 +629,7 @@ class SaveHandler extends DataHandler {
 			values.putNull(fkColumnName);
 			String whereClause = fkColumnName + " = " + baseObj.getBaseObjId();
 			mDatabase.update(associatedTableName, values, whereClause, null);
+			TableChangeBus.notifyChanged(mDatabase, associatedTableName);
 		}
 	}
 
@@ -476,6 +658,7 @@ class SaveHandler extends DataHandler {
 				values.put(getForeignKeyColumnName(associatedTableName), associatedId);
 				mDatabase.insert(joinTableName, null, values);
 			}
+			TableChangeBus.notifyChanged(mDatabase, joinTableName);
 		}
 	}
 
@@ -0,0 +1,124 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide LRU cache of compiled statements keyed by SQL, so that the
+ * aggregate queries which run again and again won't be compiled every time.
+ * <p>
+ * A SQLiteStatement can't be used by two threads at the same time, so a
+ * statement is taken out of the cache by {@link #acquire(SQLiteDatabase, String)}
+ * and put back by {@link #release(SQLiteDatabase, String, SQLiteStatement)}.
+ * If another thread needs the same SQL meanwhile, it compiles its own one,
+ * which will be closed on release. Statements are bound to the database they
+ * were compiled on, all of them are closed once the database changes.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+class StatementCache {
+
+	/**
+	 * The max count of statements to keep.
+	 */
+	private static final int MAX_SIZE = 32;
+
+	/**
+	 * The database which the cached statements are compiled on.
+	 */
+	private static SQLiteDatabase sDatabase;
+
+	/**
+	 * Cached statements in access order. The eldest one is closed when the
+	 * cache is full.
+	 */
+	private static final LinkedHashMap<String, SQLiteStatement> sStatements = new LinkedHashMap<String, SQLiteStatement>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+			if (size() > MAX_SIZE) {
+				eldest.getValue().close();
+				return true;
+			}
+			return false;
+		}
+
+	};
+
+	/**
+	 * Disable to create an instance of StatementCache.
+	 */
+	private StatementCache() {
+	}
+
+	/**
+	 * Take the statement of the SQL out of cache, or compile a new one if not
+	 * cached. The statement must be given back by
+	 * {@link #release(SQLiteDatabase, String, SQLiteStatement)} after use.
+	 *
+	 * @param db
+	 *            The database to compile on.
+	 * @param sql
+	 *            The SQL of statement.
+	 * @return The compiled statement.
+	 */
+	static SQLiteStatement acquire(SQLiteDatabase db, String sql) {
+		synchronized (sStatements) {
+			if (db != sDatabase) {
+				closeAll();
+				sDatabase = db;
+			}
+			SQLiteStatement statement = sStatements.remove(sql);
+			if (statement != null) {
+				return statement;
+			}
+		}
+		return db.compileStatement(sql);
+	}
+
+	/**
+	 * Give the statement back to cache. The bindings are cleared. It will be
+	 * closed instead if the cache already has one for the SQL, or the database
+	 * has been changed.
+	 *
+	 * @param db
+	 *            The database which the statement is compiled on.
+	 * @param sql
+	 *            The SQL of statement.
+	 * @param statement
+	 *            The statement taken by
+	 *            {@link #acquire(SQLiteDatabase, String)}.
+	 */
+	static void release(SQLiteDatabase db, String sql, SQLiteStatement statement) {
+		statement.clearBindings();
+		synchronized (sStatements) {
+			if (db == sDatabase && db.isOpen() && !sStatements.containsKey(sql)) {
+				sStatements.put(sql, statement);
+				return;
+			}
+		}
+		statement.close();
+	}
+
+	/**
+	 * Close all the cached statements. Must be called with the lock held.
+	 */
+	private static void closeAll() {
+		for (SQLiteStatement statement : sStatements.values()) {
+			statement.close();
+		}
+		sStatements.clear();
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.LogUtil;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Notifies the observers when tables are changed by LitePal. The handlers
+ * report every table they write to, and the changes are announced once the
+ * writing transaction ends, so all the writes in one transaction, such as a
+ * {@link DataSupport#saveAll(java.util.Collection)}, are announced together.
+ * <p>
+ * Changes are announced without checking whether the transaction succeeded,
+ * an observer may be notified of a rolled back write, which only costs a
+ * useless query. Writes made by raw SQL are not reported. If a transaction is
+ * begun by the developer around LitePal writes, call
+ * {@link #dispatchPending()} after it ends.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public final class TableChangeBus {
+
+	public static final String TAG = "TableChangeBus";
+
+	/**
+	 * All the registered observers.
+	 */
+	private static final CopyOnWriteArrayList<Registration> registrations = new CopyOnWriteArrayList<Registration>();
+
+	/**
+	 * The tables changed by the current thread which are not announced yet.
+	 */
+	private static final ThreadLocal<Pending> pending = new ThreadLocal<Pending>() {
+		@Override
+		protected Pending initialValue() {
+			return new Pending();
+		}
+	};
+
+	/**
+	 * Disable to create an instance of TableChangeBus.
+	 */
+	private TableChangeBus() {
+	}
+
+	/**
+	 * Register an observer of tables.
+	 *
+	 * @param observer
+	 *            The observer to notify.
+	 * @param executor
+	 *            The executor to notify the observer with. Null to notify it
+	 *            on the thread which commits the writes, it should return
+	 *            quickly then.
+	 * @param tableNames
+	 *            The tables to observe, case insensitive.
+	 */
+	public static void register(TableObserver observer, Executor executor, String... tableNames) {
+		Set<String> tables = new HashSet<String>();
+		for (String tableName : tableNames) {
+			tables.add(tableName.toLowerCase());
+		}
+		registrations.add(new Registration(observer, executor, tables));
+	}
+
+	/**
+	 * Unregister an observer, it won't be notified any more.
+	 *
+	 * @param observer
+	 *            The observer to unregister.
+	 */
+	public static void unregister(TableObserver observer) {
+		for (Registration registration : registrations) {
+			if (registration.observer == observer) {
+				registrations.remove(registration);
+			}
+		}
+	}
+
+	/**
+	 * Announce the changes made by the current thread, if the transaction they
+	 * were made in has ended. The entity cache is invalidated for them first,
+	 * so that observers querying again won't get the cached rows.
+	 */
+	public static void dispatchPending() {
+		EntityCache.dispatchPending();
+		Pending changes = pending.get();
+		if (changes.tableNames.isEmpty() || changes.db == null || changes.db.inTransaction()) {
+			return;
+		}
+		Set<String> tableNames = changes.tableNames;
+		changes.tableNames = new LinkedHashSet<String>();
+		changes.db = null;
+		for (Registration registration : registrations) {
+			// the writes are done, a failing observer must neither fail them
+			// nor keep the others from being notified.
+			try {
+				registration.dispatch(tableNames);
+			} catch (RuntimeException e) {
+				LogUtil.e(TAG, e);
+			}
+		}
+	}
+
+	/**
+	 * Report a table which is written by the current thread. It's announced at
+	 * once if the database is not in a transaction.
+	 *
+	 * @param db
+	 *            The database written to.
+	 * @param tableName
+	 *            The table written to.
+	 */
+	static void notifyChanged(SQLiteDatabase db, String tableName) {
+		Pending changes = pending.get();
+		changes.db = db;
+		changes.tableNames.add(tableName.toLowerCase());
+		if (!db.inTransaction()) {
+			dispatchPending();
+		}
+	}
+
+	/**
+	 * The changes not announced yet of a thread.
+	 */
+	private static class Pending {
+
+		SQLiteDatabase db;
+
+		Set<String> tableNames = new LinkedHashSet<String>();
+
+	}
+
+	/**
+	 * An observer with the tables it observes.
+	 */
+	private static class Registration {
+
+		final TableObserver observer;
+
+		final Executor executor;
+
+		final Set<String> tableNames;
+
+		Registration(TableObserver observer, Executor executor, Set<String> tableNames) {
+			this.observer = observer;
+			this.executor = executor;
+			this.tableNames = tableNames;
+		}
+
+		void dispatch(Set<String> changedTables) {
+			Set<String> affected = null;
+			for (String tableName : changedTables) {
+				if (tableNames.contains(tableName)) {
+					if (affected == null) {
+						affected = new HashSet<String>();
+					}
+					affected.add(tableName);
+				}
+			}
+			if (affected == null) {
+				return;
+			}
+			final Set<String> result = Collections.unmodifiableSet(affected);
+			if (executor == null) {
+				observer.onTablesChanged(result);
+			} else {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						observer.onTablesChanged(result);
+					}
+				});
+			}
+		}
+
+	}
+
+}
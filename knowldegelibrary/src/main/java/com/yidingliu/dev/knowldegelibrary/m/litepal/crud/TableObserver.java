@@ -0,0 +1,28 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.util.Set;
+
+/**
+ * Observer of table changes, which is registered with
+ * {@link TableChangeBus#register(TableObserver, java.util.concurrent.Executor, String...)}.
+ *
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public abstract class TableObserver {
+
+	/**
+	 * Called after the writes to the observed tables are committed. All the
+	 * writes in one transaction are notified once. A RuntimeException thrown
+	 * here is logged and doesn't affect the writes or the other observers.
+	 *
+	 * @param tableNames
+	 *            The observed tables which are changed, in lower case.
+	 */
+	public abstract void onTablesChanged(Set<String> tableNames);
+
+}
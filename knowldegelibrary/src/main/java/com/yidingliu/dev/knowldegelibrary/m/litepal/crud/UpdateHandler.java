@@ -6,6 +6,7 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
 
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DataSupportException;
@@ -13,7 +14,9 @@ import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,7 +65,10 @@ class UpdateHandler extends DataHandler {
 		putFieldsValue(baseObj, supportedFields, values);
 		putFieldsToDefaultValue(baseObj, values);
 		if (values.size() > 0) {
-			return mDatabase.update(baseObj.getTableName(), values, "id = " + id, null);
+			int rowsAffected = mDatabase.update(baseObj.getTableName(), values, "id = " + id, null);
+			EntityCache.invalidate(mDatabase, baseObj.getTableName(), id);
+			TableChangeBus.notifyChanged(mDatabase, baseObj.getTableName());
+			return rowsAffected;
 		}
 		return 0;
 	}
@@ -83,11 +89,83 @@ class UpdateHandler extends DataHandler {
 	 */
 	int onUpdate(Class<?> modelClass, long id, ContentValues values) {
 		if (values.size() > 0) {
-			return mDatabase.update(getTableName(modelClass), values, "id = " + id, null);
+			int rowsAffected = mDatabase.update(getTableName(modelClass), values, "id = " + id, null);
+			EntityCache.invalidate(mDatabase, getTableName(modelClass), id);
+			TableChangeBus.notifyChanged(mDatabase, getTableName(modelClass));
+			return rowsAffected;
 		}
 		return 0;
 	}
 
+	/**
+	 * The open interface for other classes in CRUD package to update many
+	 * models at a time. Each model updates the row of its own id with its own
+	 * values, the same as {@link #onUpdate(DataSupport, long)}, but rows which
+	 * update the same set of columns share one compiled UPDATE statement.
+	 * Models which are not saved yet are skipped.
+	 * 
+	 * @param collection
+	 *            Holds all models to update.
+	 * @return The number of rows affected by each model, in the iteration
+	 *         order of collection.
+	 * @throws InvocationTargetException
+	 * @throws IllegalAccessException
+	 * @throws NoSuchMethodException
+	 * @throws IllegalArgumentException
+	 * @throws SecurityException
+	 */
+	<T extends DataSupport> int[] onUpdateAll(Collection<T> collection) throws SecurityException,
+			IllegalArgumentException, NoSuchMethodException, IllegalAccessException,
+			InvocationTargetException {
+		int[] rowsAffected = new int[collection.size()];
+		Map<String, SQLiteStatement> updateStatements = new HashMap<String, SQLiteStatement>();
+		try {
+			int index = 0;
+			for (T baseObj : collection) {
+				if (baseObj.isSaved()) {
+					List<Field> supportedFields = getSupportedFields(baseObj.getClassName());
+					ContentValues values = new ContentValues();
+					putFieldsValue(baseObj, supportedFields, values);
+					putFieldsToDefaultValue(baseObj, values);
+					rowsAffected[index] = doUpdateByStatement(baseObj.getTableName(),
+							baseObj.getBaseObjId(), values, updateStatements);
+				}
+				index++;
+			}
+		} finally {
+			closeStatements(updateStatements);
+		}
+		return rowsAffected;
+	}
+
+	/**
+	 * The open interface for other classes in CRUD package to update many
+	 * rows at a time, each by id with its own ContentValues. Rows which update
+	 * the same set of columns share one compiled UPDATE statement.
+	 * 
+	 * @param modelClass
+	 *            Which table to update by class.
+	 * @param valuesById
+	 *            The values to update each row with, keyed by id.
+	 * @return The number of rows affected by each id, in the iteration order
+	 *         of valuesById.
+	 */
+	int[] onUpdateAll(Class<?> modelClass, Map<Long, ContentValues> valuesById) {
+		String tableName = getTableName(modelClass);
+		int[] rowsAffected = new int[valuesById.size()];
+		Map<String, SQLiteStatement> updateStatements = new HashMap<String, SQLiteStatement>();
+		try {
+			int index = 0;
+			for (Map.Entry<Long, ContentValues> entry : valuesById.entrySet()) {
+				rowsAffected[index++] = doUpdateByStatement(tableName, entry.getKey(),
+						entry.getValue(), updateStatements);
+			}
+		} finally {
+			closeStatements(updateStatements);
+		}
+		return rowsAffected;
+	}
+
 	/**
 	 * The open interface for other classes in CRUD package to update multiple
 	 * rows. Using baseObj to decide which table to update, and conditions
@@ -154,12 +232,75 @@ class UpdateHandler extends DataHandler {
 	private int doUpdateAllAction(String tableName, ContentValues values, String... conditions) {
 		BaseUtility.checkConditionsCorrect ( conditions );
 		if (values.size() > 0) {
-			return mDatabase.update(tableName, values, getWhereClause(conditions),
+			int rowsAffected = mDatabase.update(tableName, values, getWhereClause(conditions),
 					getWhereArgs(conditions));
+			EntityCache.invalidate(mDatabase, tableName);
+			TableChangeBus.notifyChanged(mDatabase, tableName);
+			return rowsAffected;
 		}
 		return 0;
 	}
 
+	/**
+	 * Update one row by a compiled UPDATE statement. The statement is
+	 * compiled once for each set of columns, and kept in updateStatements for
+	 * the following rows.
+	 * 
+	 * @param tableName
+	 *            Which table to update.
+	 * @param id
+	 *            Which record to update.
+	 * @param values
+	 *            A map from column names to new column values. null is a valid
+	 *            value that will be translated to NULL.
+	 * @param updateStatements
+	 *            The compiled statements keyed by their SQL.
+	 * @return The number of rows affected.
+	 */
+	private int doUpdateByStatement(String tableName, long id, ContentValues values,
+			Map<String, SQLiteStatement> updateStatements) {
+		if (values.size() == 0) {
+			return 0;
+		}
+		String[] columns = values.keySet().toArray(new String[values.size()]);
+		Arrays.sort(columns);
+		StringBuilder sql = new StringBuilder("update ").append(tableName).append(" set ");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(columns[i]).append(" = ?");
+		}
+		sql.append(" where id = ?");
+		String key = sql.toString();
+		SQLiteStatement statement = updateStatements.get(key);
+		if (statement == null) {
+			statement = mDatabase.compileStatement(key);
+			updateStatements.put(key, statement);
+		}
+		statement.clearBindings();
+		for (int i = 0; i < columns.length; i++) {
+			bindValue(statement, i + 1, values.get(columns[i]));
+		}
+		statement.bindLong(columns.length + 1, id);
+		int rowsAffected = statement.executeUpdateDelete();
+		EntityCache.invalidate(mDatabase, tableName, id);
+		TableChangeBus.notifyChanged(mDatabase, tableName);
+		return rowsAffected;
+	}
+
+	/**
+	 * Close the compiled statements after a batch update.
+	 * 
+	 * @param updateStatements
+	 *            The compiled statements keyed by their SQL.
+	 */
+	private void closeStatements(Map<String, SQLiteStatement> updateStatements) {
+		for (SQLiteStatement statement : updateStatements.values()) {
+			statement.close();
+		}
+	}
+
 	/**
 	 * Iterate all the fields that need to set to default value. If the field is
 	 * id, ignore it. Or put the default value of field into ContentValues.
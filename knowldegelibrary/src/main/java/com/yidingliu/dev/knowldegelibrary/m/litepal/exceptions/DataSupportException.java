@@ -46,6 +46,16 @@ public class DataSupportException extends RuntimeException {
 	 */
 	public static final String UPDATE_CONDITIONS_EXCEPTION = "The parameters in conditions are incorrect.";
 
+	/**
+	 * Thrown when the order of keyset pagination is incorrect.
+	 */
+	public static final String PAGE_ORDER_EXCEPTION = "The order of page should be one non-null column, optionally followed by asc or desc.";
+
+	/**
+	 * Thrown when no field of the result class of a projection maps a column.
+	 */
+	public static final String PROJECTION_NO_COLUMN = "No field of the result class maps a column of ";
+
 	/**
 	 * Constructor of DataSupportException.
 	 * 
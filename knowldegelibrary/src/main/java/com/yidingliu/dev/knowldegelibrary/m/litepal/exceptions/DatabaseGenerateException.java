@@ -39,6 +39,11 @@ public class DatabaseGenerateException extends RuntimeException {
 	 */
 	public static final String TABLE_DOES_NOT_EXIST = "Table doesn't exist with the name of ";
 
+	/**
+	 * A column declared by FullText annotation is not a column of the model.
+	 */
+	public static final String FULL_TEXT_COLUMN_NOT_FOUND = "Full text column is not a column of model: ";
+
 	/**
 	 * Constructor of DatabaseGenerateException.
 	 * 
@@ -35,6 +35,31 @@ public class InvalidAttributesException extends RuntimeException {
 	 */
 	public static final String CASES_VALUE_IS_INVALID = " is an invalid value for <cases></cases>";
 
+	/**
+	 * There's an invalid value in journalmode mark.
+	 */
+	public static final String JOURNAL_MODE_VALUE_IS_INVALID = " is an invalid value for <journalmode></journalmode>";
+
+	/**
+	 * There's an invalid value in synchronous mark.
+	 */
+	public static final String SYNCHRONOUS_VALUE_IS_INVALID = " is an invalid value for <synchronous></synchronous>";
+
+	/**
+	 * There's an invalid value in tempstore mark.
+	 */
+	public static final String TEMP_STORE_VALUE_IS_INVALID = " is an invalid value for <tempstore></tempstore>";
+
+	/**
+	 * The page size must be a power of two between 512 and 65536.
+	 */
+	public static final String PAGE_SIZE_IS_INVALID = " is an invalid value for <pagesize></pagesize>, it must be a power of two between 512 and 65536";
+
+	/**
+	 * The size of cache is not a number or is negative.
+	 */
+	public static final String CACHE_SIZE_IS_INVALID = " is an invalid size for <cache />, it must be a number not less than 0";
+
 	/**
 	 * Constructor of InvalidAttributesException.
 	 * 
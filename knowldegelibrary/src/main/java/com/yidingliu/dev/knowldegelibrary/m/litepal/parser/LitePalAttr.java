@@ -11,7 +11,9 @@ import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.SharedUtil;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The object model for the litepal.xml file. Once database connection happens,
@@ -54,6 +56,46 @@ public final class LitePalAttr {
 	 */
 	private List<String> classNames;
 
+	/**
+	 * The max count of entities to cache for each model class. Model classes
+	 * which are not in the map won't be cached.
+	 */
+	private Map<String, Integer> cacheSizes;
+
+	/**
+	 * The journal mode of database, such as wal. Null to keep the default.
+	 */
+	private String journalMode;
+
+	/**
+	 * The synchronous level of database, such as normal. Null to keep the
+	 * default.
+	 */
+	private String synchronous;
+
+	/**
+	 * The page size in bytes of a new database. 0 to keep the default.
+	 */
+	private int pageSize;
+
+	/**
+	 * The page cache size of the connection, pages if positive and KiB if
+	 * negative, as the cache_size pragma. Null to keep the default.
+	 */
+	private Integer pageCacheSize;
+
+	/**
+	 * The max bytes of database to access with memory mapped I/O. Null to keep
+	 * the default.
+	 */
+	private Long mmapSize;
+
+	/**
+	 * Where to store temporary tables and indexes, such as memory. Null to
+	 * keep the default.
+	 */
+	private String tempStore;
+
 	/**
 	 * Do not allow new a LitePalAttr object. Makes it a singleton class.
 	 */
@@ -125,6 +167,109 @@ public final class LitePalAttr {
 		getClassNames().add(className);
 	}
 
+	/**
+	 * Get the max count of entities to cache for the model class, which is
+	 * declared by the cache node in litepal.xml.
+	 * 
+	 * @param className
+	 *            Full package class name.
+	 * @return The max count of entities to cache, or 0 if the class is not
+	 *         cached.
+	 */
+	public int getCacheSize(String className) {
+		if (cacheSizes == null) {
+			return 0;
+		}
+		Integer size = cacheSizes.get(className);
+		return size == null ? 0 : size;
+	}
+
+	/**
+	 * Set the max count of entities to cache for the model class.
+	 * 
+	 * @param className
+	 *            Full package class name.
+	 * @param size
+	 *            The max count of entities to cache. 0 or less disables the
+	 *            cache.
+	 */
+	void setCacheSize(String className, int size) {
+		if (cacheSizes == null) {
+			cacheSizes = new HashMap<String, Integer>();
+		}
+		cacheSizes.put(className, size);
+	}
+
+	/**
+	 * Remove all the cache sizes. Called before litepal.xml is parsed again.
+	 */
+	void clearCacheSizes() {
+		if (cacheSizes != null) {
+			cacheSizes.clear();
+		}
+	}
+
+	public String getJournalMode() {
+		return journalMode;
+	}
+
+	void setJournalMode(String journalMode) {
+		this.journalMode = journalMode;
+	}
+
+	public String getSynchronous() {
+		return synchronous;
+	}
+
+	void setSynchronous(String synchronous) {
+		this.synchronous = synchronous;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	public Integer getPageCacheSize() {
+		return pageCacheSize;
+	}
+
+	void setPageCacheSize(Integer pageCacheSize) {
+		this.pageCacheSize = pageCacheSize;
+	}
+
+	public Long getMmapSize() {
+		return mmapSize;
+	}
+
+	void setMmapSize(Long mmapSize) {
+		this.mmapSize = mmapSize;
+	}
+
+	public String getTempStore() {
+		return tempStore;
+	}
+
+	void setTempStore(String tempStore) {
+		this.tempStore = tempStore;
+	}
+
+	/**
+	 * Remove all the pragma settings. Called before litepal.xml is parsed
+	 * again.
+	 */
+	void clearPragmas() {
+		journalMode = null;
+		synchronous = null;
+		pageSize = 0;
+		pageCacheSize = null;
+		mmapSize = null;
+		tempStore = null;
+	}
+
 	public String getCases() {
 		return cases;
 	}
@@ -170,7 +315,45 @@ public final class LitePalAttr {
 						+ InvalidAttributesException.CASES_VALUE_IS_INVALID);
 			}
 		}
+		if (journalMode != null) {
+			journalMode = checkPragmaValue(journalMode, Const.Pragma.JOURNAL_MODES,
+					InvalidAttributesException.JOURNAL_MODE_VALUE_IS_INVALID);
+		}
+		if (synchronous != null) {
+			synchronous = checkPragmaValue(synchronous, Const.Pragma.SYNCHRONOUS_LEVELS,
+					InvalidAttributesException.SYNCHRONOUS_VALUE_IS_INVALID);
+		}
+		if (tempStore != null) {
+			tempStore = checkPragmaValue(tempStore, Const.Pragma.TEMP_STORES,
+					InvalidAttributesException.TEMP_STORE_VALUE_IS_INVALID);
+		}
+		if (pageSize != 0 && (pageSize < 512 || pageSize > 65536 || (pageSize & (pageSize - 1)) != 0)) {
+			throw new InvalidAttributesException(pageSize
+					+ InvalidAttributesException.PAGE_SIZE_IS_INVALID);
+		}
 		return true;
 	}
 
+	/**
+	 * Check the value of a pragma node is one of the allowed values, ignoring
+	 * case.
+	 * 
+	 * @param value
+	 *            The value in litepal.xml.
+	 * @param allowedValues
+	 *            The allowed values in lower case.
+	 * @param errorMessage
+	 *            The message to throw with if the value is not allowed.
+	 * @return The value in lower case.
+	 */
+	private String checkPragmaValue(String value, String[] allowedValues, String errorMessage) {
+		String lowerValue = value.toLowerCase();
+		for (String allowedValue : allowedValues) {
+			if (allowedValue.equals(lowerValue)) {
+				return lowerValue;
+			}
+		}
+		throw new InvalidAttributesException(value + errorMessage);
+	}
+
 }
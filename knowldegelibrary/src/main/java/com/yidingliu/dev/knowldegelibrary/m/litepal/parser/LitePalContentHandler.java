@@ -4,6 +4,8 @@
 
 package com.yidingliu.dev.knowldegelibrary.m.litepal.parser;
 
+import com.yidingliu.dev.knowldegelibrary.m.litepal.ModelMetadata;
+
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -52,6 +54,9 @@ public class LitePalContentHandler extends DefaultHandler {
 	public void startDocument() throws SAXException {
 		litePalAttr = LitePalAttr.getInstance();
 		litePalAttr.getClassNames().clear();
+		litePalAttr.clearCacheSizes();
+		litePalAttr.clearPragmas();
+		ModelMetadata.clearAll();
 	}
 
 	/**
@@ -91,7 +96,57 @@ public class LitePalContentHandler extends DefaultHandler {
                     litePalAttr.setStorage(attributes.getValue(i).trim());
                 }
             }
-        }
+        } else if (LitePalParser.NODE_CACHE.equalsIgnoreCase(localName)) {
+			String className = null;
+			String sizeValue = null;
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_CLASS.equalsIgnoreCase(attributes.getLocalName(i))) {
+					className = attributes.getValue(i).trim();
+				} else if (LitePalParser.ATTR_SIZE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					sizeValue = attributes.getValue(i);
+				}
+			}
+			int size = LitePalParser.parseCacheSize(sizeValue);
+			if (className != null) {
+				litePalAttr.setCacheSize(className, size);
+			}
+		} else if (LitePalParser.NODE_JOURNAL_MODE.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setJournalMode(attributes.getValue(i).trim());
+				}
+			}
+		} else if (LitePalParser.NODE_SYNCHRONOUS.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setSynchronous(attributes.getValue(i).trim());
+				}
+			}
+		} else if (LitePalParser.NODE_PAGE_SIZE.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setPageSize(Integer.parseInt(attributes.getValue(i).trim()));
+				}
+			}
+		} else if (LitePalParser.NODE_CACHE_SIZE.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setPageCacheSize(Integer.valueOf(attributes.getValue(i).trim()));
+				}
+			}
+		} else if (LitePalParser.NODE_MMAP_SIZE.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setMmapSize(Long.valueOf(attributes.getValue(i).trim()));
+				}
+			}
+		} else if (LitePalParser.NODE_TEMP_STORE.equalsIgnoreCase(localName)) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (LitePalParser.ATTR_VALUE.equalsIgnoreCase(attributes.getLocalName(i))) {
+					litePalAttr.setTempStore(attributes.getValue(i).trim());
+				}
+			}
+		}
 	}
 
 }
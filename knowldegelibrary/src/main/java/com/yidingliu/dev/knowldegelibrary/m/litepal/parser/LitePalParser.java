@@ -8,6 +8,8 @@ import android.content.res.AssetManager;
 import android.content.res.Resources.NotFoundException;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalApplication;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.ModelMetadata;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.InvalidAttributesException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.ParseConfigurationFileException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 
@@ -64,6 +66,41 @@ public class LitePalParser {
      */
     static final String NODE_STORAGE = "storage";
 
+	/**
+	 * Node name cache.
+	 */
+	static final String NODE_CACHE = "cache";
+
+	/**
+	 * Node name journal mode.
+	 */
+	static final String NODE_JOURNAL_MODE = "journalmode";
+
+	/**
+	 * Node name synchronous.
+	 */
+	static final String NODE_SYNCHRONOUS = "synchronous";
+
+	/**
+	 * Node name page size.
+	 */
+	static final String NODE_PAGE_SIZE = "pagesize";
+
+	/**
+	 * Node name cache size.
+	 */
+	static final String NODE_CACHE_SIZE = "cachesize";
+
+	/**
+	 * Node name mmap size.
+	 */
+	static final String NODE_MMAP_SIZE = "mmapsize";
+
+	/**
+	 * Node name temp store.
+	 */
+	static final String NODE_TEMP_STORE = "tempstore";
+
 	/**
 	 * Attribute name value, for dbname and version node.
 	 */
@@ -74,6 +111,11 @@ public class LitePalParser {
 	 */
 	static final String ATTR_CLASS = "class";
 
+	/**
+	 * Attribute name size, for cache node.
+	 */
+	static final String ATTR_SIZE = "size";
+
 	/**
 	 * Store the parsed value of litepal.xml.
 	 */
@@ -137,6 +179,9 @@ public class LitePalParser {
 			XmlPullParser xmlPullParser = factory.newPullParser();
 			xmlPullParser.setInput(getConfigInputStream(), "UTF-8");
 			int eventType = xmlPullParser.getEventType();
+			litePalAttr.clearCacheSizes();
+			litePalAttr.clearPragmas();
+			ModelMetadata.clearAll();
 			while (eventType != XmlPullParser.END_DOCUMENT) {
 				String nodeName = xmlPullParser.getName();
 				switch (eventType) {
@@ -153,6 +198,27 @@ public class LitePalParser {
 					} else if (NODE_CASES.equals(nodeName)) {
 						String cases = xmlPullParser.getAttributeValue("", ATTR_VALUE);
 						litePalAttr.setCases(cases);
+					} else if (NODE_CACHE.equals(nodeName)) {
+						String className = xmlPullParser.getAttributeValue("", ATTR_CLASS);
+						int size = parseCacheSize(xmlPullParser.getAttributeValue("", ATTR_SIZE));
+						if (className != null) {
+							litePalAttr.setCacheSize(className.trim(), size);
+						}
+					} else if (NODE_JOURNAL_MODE.equals(nodeName)) {
+						litePalAttr.setJournalMode(xmlPullParser.getAttributeValue("", ATTR_VALUE));
+					} else if (NODE_SYNCHRONOUS.equals(nodeName)) {
+						litePalAttr.setSynchronous(xmlPullParser.getAttributeValue("", ATTR_VALUE));
+					} else if (NODE_PAGE_SIZE.equals(nodeName)) {
+						String pageSize = xmlPullParser.getAttributeValue("", ATTR_VALUE);
+						litePalAttr.setPageSize(Integer.parseInt(pageSize));
+					} else if (NODE_CACHE_SIZE.equals(nodeName)) {
+						String cacheSize = xmlPullParser.getAttributeValue("", ATTR_VALUE);
+						litePalAttr.setPageCacheSize(Integer.valueOf(cacheSize));
+					} else if (NODE_MMAP_SIZE.equals(nodeName)) {
+						String mmapSize = xmlPullParser.getAttributeValue("", ATTR_VALUE);
+						litePalAttr.setMmapSize(Long.valueOf(mmapSize));
+					} else if (NODE_TEMP_STORE.equals(nodeName)) {
+						litePalAttr.setTempStore(xmlPullParser.getAttributeValue("", ATTR_VALUE));
 					}
 					break;
 				}
@@ -169,6 +235,29 @@ public class LitePalParser {
 		}
 	}
 
+	/**
+	 * Parse the size attribute of a cache node.
+	 * 
+	 * @param size
+	 *            The value of size attribute.
+	 * @return The max count of models to cache.
+	 * @throws InvalidAttributesException
+	 *             If size is missing, not a number or less than 0.
+	 */
+	static int parseCacheSize(String size) {
+		if (size != null) {
+			try {
+				int cacheSize = Integer.parseInt(size.trim());
+				if (cacheSize >= 0) {
+					return cacheSize;
+				}
+			} catch (NumberFormatException e) {
+				// fall through to the exception below.
+			}
+		}
+		throw new InvalidAttributesException(size + InvalidAttributesException.CACHE_SIZE_IS_INVALID);
+	}
+
 	/**
 	 * Iterates all files in the root of assets folder. If find litepal.xml,
 	 * open this file and return the input stream. Or throw
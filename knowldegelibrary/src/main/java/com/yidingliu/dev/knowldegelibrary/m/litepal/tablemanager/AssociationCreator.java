@@ -12,6 +12,7 @@ import android.text.TextUtils;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DatabaseGenerateException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.IndexModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
@@ -146,6 +147,127 @@ public abstract class AssociationCreator extends Generator {
 		return addColumnSQL.toString();
 	}
 
+	/**
+	 * Generate a SQL for creating an index on the table.
+	 * 
+	 * @param tableName
+	 *            The table to index.
+	 * @param indexModel
+	 *            Which contains index info.
+	 * @return A SQL to create index.
+	 */
+	protected String generateCreateIndexSQL(String tableName, IndexModel indexModel) {
+		StringBuilder createIndexSQL = new StringBuilder("create ");
+		if (indexModel.isUnique()) {
+			createIndexSQL.append("unique ");
+		}
+		createIndexSQL.append("index if not exists ").append(indexModel.getIndexName());
+		createIndexSQL.append(" on ").append(tableName).append(" (");
+		boolean needSeparator = false;
+		for (String columnName : indexModel.getColumnNames()) {
+			if (needSeparator) {
+				createIndexSQL.append(", ");
+			}
+			needSeparator = true;
+			createIndexSQL.append(columnName);
+		}
+		createIndexSQL.append(")");
+		LogUtil.d(TAG, "create index sql is >> " + createIndexSQL);
+		return createIndexSQL.toString();
+	}
+
+	/**
+	 * Generate a SQL for dropping index.
+	 * 
+	 * @param indexName
+	 *            The index name.
+	 * @return A SQL to drop index.
+	 */
+	protected String generateDropIndexSQL(String indexName) {
+		return "drop index if exists " + indexName;
+	}
+
+	/**
+	 * Generate the SQLs for building the full text index of the table from
+	 * scratch. The index is an FTS4 table using the table as external content,
+	 * with prefix indexes so that prefix queries are fast too. Triggers keep
+	 * it in sync with the table, and the existing rows are indexed at last.
+	 * 
+	 * @param tableName
+	 *            The table to index.
+	 * @param columnNames
+	 *            The columns to index.
+	 * @return A SQL list to drop the old index and build the new one.
+	 */
+	protected List<String> generateCreateFullTextSQLs(String tableName, List<String> columnNames) {
+		List<String> sqls = generateDropFullTextSQLs(tableName);
+		String fullTextTableName = DBUtility.getFullTextTableName(tableName);
+		StringBuilder columns = new StringBuilder();
+		StringBuilder newValues = new StringBuilder();
+		for (String columnName : columnNames) {
+			columns.append(", ").append(columnName);
+			newValues.append(", new.").append(columnName);
+		}
+		sqls.add("create virtual table " + fullTextTableName + " using fts4(content=\"" + tableName
+				+ "\"" + columns + ", prefix=\"2,3\")");
+		String insertSQL = "insert into " + fullTextTableName + "(docid" + columns
+				+ ") values (new.rowid" + newValues + ");";
+		String deleteSQL = "delete from " + fullTextTableName + " where docid = old.rowid;";
+		String triggerPrefix = Const.FullText.TRIGGER_PREFIX + tableName;
+		sqls.add("create trigger " + triggerPrefix + "_bu before update on " + tableName
+				+ " begin " + deleteSQL + " end");
+		sqls.add("create trigger " + triggerPrefix + "_bd before delete on " + tableName
+				+ " begin " + deleteSQL + " end");
+		sqls.add("create trigger " + triggerPrefix + "_au after update on " + tableName
+				+ " begin " + insertSQL + " end");
+		sqls.add("create trigger " + triggerPrefix + "_ai after insert on " + tableName
+				+ " begin " + insertSQL + " end");
+		sqls.add("insert into " + fullTextTableName + "(" + fullTextTableName
+				+ ") values ('rebuild')");
+		LogUtil.d(TAG, "create full text sqls are >> " + sqls);
+		return sqls;
+	}
+
+	/**
+	 * Generate the SQLs for dropping the full text index of the table and its
+	 * triggers.
+	 * 
+	 * @param tableName
+	 *            The indexed table.
+	 * @return A SQL list to drop the full text index.
+	 */
+	protected List<String> generateDropFullTextSQLs(String tableName) {
+		List<String> sqls = new ArrayList<String>();
+		String triggerPrefix = Const.FullText.TRIGGER_PREFIX + tableName;
+		sqls.add("drop trigger if exists " + triggerPrefix + "_bu");
+		sqls.add("drop trigger if exists " + triggerPrefix + "_bd");
+		sqls.add("drop trigger if exists " + triggerPrefix + "_au");
+		sqls.add("drop trigger if exists " + triggerPrefix + "_ai");
+		sqls.add(generateDropTableSQL(DBUtility.getFullTextTableName(tableName)));
+		return sqls;
+	}
+
+	/**
+	 * Create an index on the foreign key column or the column of intermediate
+	 * join table if it doesn't exist, so that finding associated models won't
+	 * scan the whole table.
+	 * 
+	 * @param tableName
+	 *            The table which holds the column.
+	 * @param columnName
+	 *            The column to index.
+	 * @param db
+	 *            Instance of SQLiteDatabase.
+	 */
+	protected void createForeignKeyIndex(String tableName, String columnName, SQLiteDatabase db) {
+		IndexModel indexModel = new IndexModel();
+		indexModel.addColumnName(columnName);
+		indexModel.setIndexName(DBUtility.getIndexName(Const.Index.FOREIGN_KEY_PREFIX, tableName,
+				indexModel.getColumnNames()));
+		String[] sqls = { generateCreateIndexSQL(tableName, indexModel) };
+		execute(sqls, db);
+	}
+
 	/**
 	 * Judge the passed in column is a foreign key column format or not. Each
 	 * column name ends with _id will be considered as foreign key column
@@ -316,6 +438,9 @@ public abstract class AssociationCreator extends Generator {
 			sqls.add(generateCreateTableSQL(intermediateTableName, columnModelList, false));
 		}
 		execute(sqls.toArray(new String[0]), db);
+		for (ColumnModel columnModel : columnModelList) {
+			createForeignKeyIndex(intermediateTableName, columnModel.getColumnName(), db);
+		}
 		giveTableSchemaACopy(intermediateTableName, Const.TableSchema.INTERMEDIATE_JOIN_TABLE, db);
 	}
 
@@ -356,6 +481,7 @@ public abstract class AssociationCreator extends Generator {
 					LogUtil.d(TAG, "column " + foreignKeyColumn
 							+ " is already exist, no need to add one");
 				}
+				createForeignKeyIndex(tableHoldsForeignKey, foreignKeyColumn, db);
 			} else {
 				throw new DatabaseGenerateException ( DatabaseGenerateException.TABLE_DOES_NOT_EXIST
 						+ associatedTableName);
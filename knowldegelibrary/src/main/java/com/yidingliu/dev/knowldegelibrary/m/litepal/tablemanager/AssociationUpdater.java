@@ -6,11 +6,8 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
 
 import android.database.sqlite.SQLiteDatabase;
 
-import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
-import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
-import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.LogUtil;
@@ -23,7 +20,8 @@ import java.util.List;
  * Upgrade the associations between model classes into tables. Creating new
  * tables and adding new foreign key columns are done in
  * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.AssociationUpdater}. So this class just deal with the simple job of
- * removing foreign key columns and dropping dump intermediate join tables.
+ * dropping dump intermediate join tables. Foreign key columns which are no
+ * longer needed are removed by {@link Upgrader} along with the other columns.
  * 
  * @author Tony Green
  * @since 1.0
@@ -51,9 +49,8 @@ public abstract class AssociationUpdater extends Creator {
 	protected abstract void createOrUpgradeTable(SQLiteDatabase db, boolean force);
 
 	/**
-	 * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.AssociationUpdater} does two jobs. Removing foreign key columns
-	 * when two models are not associated anymore, and remove the intermediate
-	 * join tables when two models are not associated anymore.
+	 * {@link com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.AssociationUpdater} removes the intermediate join tables when two
+	 * models are not associated anymore.
 	 */
 	@Override
 	protected void addOrUpdateAssociation(SQLiteDatabase db, boolean force) {
@@ -62,46 +59,6 @@ public abstract class AssociationUpdater extends Creator {
 		removeAssociations();
 	}
 
-	/**
-	 * This method looks around all the columns in the table, and judge which of
-	 * them are foreign key columns.
-	 * 
-	 * @param tableModel
-	 *            Use the TableModel to get table name and columns name to
-	 *            generate SQL.
-	 * @return All the foreign key columns in a list.
-	 */
-	protected List<String> getForeignKeyColumns (TableModel tableModel ) {
-		List<String>       foreignKeyColumns = new ArrayList<String>();
-        List<ColumnModel > columnModelList   = getTableModelFromDB ( tableModel.getTableName () ).getColumnModels ();
-		for (ColumnModel columnModel : columnModelList) {
-            String columnName = columnModel.getColumnName();
-			if (isForeignKeyColumnFormat(columnModel.getColumnName())) {
-                if (!tableModel.containsColumn(columnName)) {
-                    // Now this is a foreign key column.
-                    LogUtil.d ( TAG, "getForeignKeyColumnNames >> foreign key column is " + columnName );
-                    foreignKeyColumns.add(columnName);
-                }
-			}
-		}
-		return foreignKeyColumns;
-	}
-
-	/**
-	 * Judge the passed in column is a foreign key column or not. Each column
-	 * name ends with _id will be considered as foreign key column.
-	 * 
-	 * @param tableModel
-	 *            Use the TableModel to get table name and columns name to
-	 *            generate SQL.
-	 * @param columnName
-	 *            The column to judge.
-	 * @return Return true if it's foreign column, otherwise return false.
-	 */
-	protected boolean isForeignKeyColumn(TableModel tableModel, String columnName) {
-		return BaseUtility.containsIgnoreCases ( getForeignKeyColumns ( tableModel ), columnName );
-	}
-
 	/**
 	 * Look from the database to find a table named same as the table name in
 	 * table model. Then iterate the columns and types of this table to create a
@@ -135,21 +92,6 @@ public abstract class AssociationUpdater extends Creator {
 		}
 	}
 
-	/**
-	 * When some fields are removed from class, the table should synchronize the
-	 * changes by removing the corresponding columns.
-	 * 
-	 * @param removeColumnNames
-	 *            The column names that need to remove.
-	 * @param tableName
-	 *            The table name to remove columns from.
-	 */
-	protected void removeColumns(Collection<String> removeColumnNames, String tableName) {
-		if (removeColumnNames != null && !removeColumnNames.isEmpty()) {
-			execute(getRemoveColumnSQLs(removeColumnNames, tableName), mDb);
-		}
-	}
-
 	/**
 	 * The values in table_schame should be synchronized with the model tables
 	 * in the database. If a model table is dropped, the corresponding data
@@ -179,25 +121,13 @@ public abstract class AssociationUpdater extends Creator {
 
 	/**
 	 * When the association between two tables are no longer associated in the
-	 * classes, database should remove the foreign key column or intermediate
-	 * join table that keeps these two tables associated.
+	 * classes, database should remove the intermediate join table that keeps
+	 * these two tables associated.
 	 */
 	private void removeAssociations() {
-		removeForeignKeyColumns();
 		removeIntermediateTables();
 	}
 
-	/**
-	 * Analyzing the table models, then remove all the foreign key columns if
-	 * their association in model classes are no longer exist any more.
-	 */
-	private void removeForeignKeyColumns() {
-		for (String className : LitePalAttr.getInstance ().getClassNames ()) {
-			TableModel tableModel = getTableModel(className);
-			removeColumns(findForeignKeyToRemove(tableModel), tableModel.getTableName());
-		}
-	}
-
 	/**
 	 * If there're intermediate join tables for two tables, when the two classes
 	 * are not associated, the join table should be dropped.
@@ -208,30 +138,6 @@ public abstract class AssociationUpdater extends Creator {
 		clearCopyInTableSchema(tableNamesToDrop);
 	}
 
-	/**
-	 * This method gives back the names of the foreign key columns that need to
-	 * remove, cause their associations in the classes are no longer exist.
-	 * 
-	 * @param tableModel
-	 *            Use the TableModel to get table name and columns name to
-	 *            generate SQL.
-	 * @return The foreign key columns need to remove in a list.
-	 */
-	private List<String> findForeignKeyToRemove(TableModel tableModel) {
-		List<String> removeRelations = new ArrayList<String>();
-		List<String> foreignKeyColumns = getForeignKeyColumns(tableModel);
-		String selfTableName = tableModel.getTableName();
-		for (String foreignKeyColumn : foreignKeyColumns) {
-			String associatedTableName = DBUtility.getTableNameByForeignColumn(foreignKeyColumn);
-			if (shouldDropForeignKey(selfTableName, associatedTableName)) {
-				removeRelations.add(foreignKeyColumn);
-			}
-		}
-		LogUtil.d(TAG, "findForeignKeyToRemove >> " + tableModel.getTableName() + " "
-				+ removeRelations);
-		return removeRelations;
-	}
-
 	/**
 	 * When many2many associations are no longer exist between two models, the
 	 * intermediate join table should be dropped from database. This method
@@ -279,61 +185,6 @@ public abstract class AssociationUpdater extends Creator {
 		return sql.toString();
 	}
 
-	/**
-	 * Generate a SQL to create new table by the table model from database. Also
-	 * it will remove the columns that need to remove before generating the SQL.
-	 * 
-	 * @param removeColumnNames
-	 *            The column names need to remove.
-	 * @param tableModel
-	 *            Which contains table name use to create new table.
-	 * @return SQL to create new table.
-	 */
-	private String generateCreateNewTableSQL(Collection<String> removeColumnNames, TableModel tableModel) {
-		for (String removeColumnName : removeColumnNames) {
-            tableModel.removeColumnModelByName(removeColumnName);
-		}
-		return generateCreateTableSQL(tableModel);
-	}
-
-	/**
-	 * Generate a SQL to do the data migration job to avoid losing data.
-	 *
-	 * @param tableModel
-	 *            Which contains table name use to migrate data.
-	 * @return SQL to migrate data.
-	 */
-	protected String generateDataMigrationSQL(TableModel tableModel) {
-        String tableName = tableModel.getTableName();
-		List<ColumnModel> columnModels = tableModel.getColumnModels();
-		if (!columnModels.isEmpty()) {
-			StringBuilder sql = new StringBuilder();
-			sql.append("insert into ").append(tableName).append("(");
-			boolean needComma = false;
-			for (ColumnModel columnModel : columnModels) {
-				if (needComma) {
-					sql.append(", ");
-				}
-				needComma = true;
-				sql.append(columnModel.getColumnName());
-			}
-			sql.append(") ");
-			sql.append("select ");
-			needComma = false;
-			for (ColumnModel columnModel : columnModels) {
-				if (needComma) {
-					sql.append(", ");
-				}
-				needComma = true;
-				sql.append(columnModel.getColumnName());
-			}
-			sql.append(" from ").append(getTempTableName(tableName));
-			return sql.toString();
-		} else {
-			return null;
-		}
-	}
-
 	/**
 	 * Generate a SQL to drop the temporary table.
 	 * 
@@ -357,86 +208,4 @@ public abstract class AssociationUpdater extends Creator {
 		return tableName + "_temp";
 	}
 
-	/**
-	 * This method create a SQL array for the whole remove dump columns job.
-	 * 
-	 * @param removeColumnNames
-	 *            The column names need to remove.
-	 * @param tableName
-	 *            The table name to remove from.
-	 * @return A SQL array contains create temporary table, create new table,
-	 *         migrate data and drop temporary table.
-	 */
-	private String[] getRemoveColumnSQLs(Collection<String> removeColumnNames, String tableName) {
-        TableModel tableModelFromDB = getTableModelFromDB(tableName);
-		String alterToTempTableSQL = generateAlterToTempTableSQL(tableName);
-		LogUtil.d(TAG, "generateRemoveColumnSQL >> " + alterToTempTableSQL);
-		String createNewTableSQL = generateCreateNewTableSQL(removeColumnNames, tableModelFromDB);
-		LogUtil.d(TAG, "generateRemoveColumnSQL >> " + createNewTableSQL);
-		String dataMigrationSQL = generateDataMigrationSQL(tableModelFromDB);
-		LogUtil.d(TAG, "generateRemoveColumnSQL >> " + dataMigrationSQL);
-		String dropTempTableSQL = generateDropTempTableSQL(tableName);
-		LogUtil.d(TAG, "generateRemoveColumnSQL >> " + dropTempTableSQL);
-		String[] sqls = { alterToTempTableSQL, createNewTableSQL, dataMigrationSQL,
-				dropTempTableSQL };
-		return sqls;
-	}
-
-	/**
-	 * Judge if the current iterated foreign key column should be dropped. It is
-	 * only used in {@link #findForeignKeyToRemove(com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel)} when iterating
-	 * the foreign key column list. When this foreign key can not be found in
-	 * the association model collection, this foreign key should be dropped.
-	 * 
-	 * @param selfTableName
-	 *            The table name of currently table model.
-	 * @param associatedTableName
-	 *            The associated table name of current table model.
-	 * @return If the foreign key currently iterated should be dropped, return
-	 *         true. Otherwise return false.
-	 */
-	private boolean shouldDropForeignKey(String selfTableName, String associatedTableName) {
-		for (AssociationsModel associationModel : mAssociationModels) {
-			if (associationModel.getAssociationType() == Const.Model.ONE_TO_ONE) {
-				if (selfTableName.equalsIgnoreCase(associationModel.getTableHoldsForeignKey())) {
-					if (associationModel.getTableName().equalsIgnoreCase(selfTableName)) {
-						if (isRelationCorrect(associationModel, selfTableName, associatedTableName)) {
-							return false;
-						}
-					} else if (associationModel.getAssociatedTableName().equalsIgnoreCase(
-							selfTableName)) {
-						if (isRelationCorrect(associationModel, associatedTableName, selfTableName)) {
-							return false;
-						}
-					}
-				}
-			} else if (associationModel.getAssociationType() == Const.Model.MANY_TO_ONE) {
-				if (isRelationCorrect(associationModel, associatedTableName, selfTableName)) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * Judge if the tableName1 equals {@link com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel#getTableName()}
-	 * and tableName2 equals {@link com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel#getAssociatedTableName()}.
-	 * 
-	 * @param associationModel
-	 *            The association model to get table name and associated table
-	 *            name.
-	 * @param tableName1
-	 *            The table name to match table name from association model.
-	 * @param tableName2
-	 *            The table name to match associated table name from association
-	 *            model.
-	 * @return Return true if the description is true, otherwise return false.
-	 */
-	private boolean isRelationCorrect(AssociationsModel associationModel, String tableName1,
-			String tableName2) {
-		return associationModel.getTableName().equalsIgnoreCase(tableName1)
-				&& associationModel.getAssociatedTableName().equalsIgnoreCase(tableName2);
-	}
-
 }
@@ -4,12 +4,20 @@
 
 package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
 
+import android.annotation.TargetApi;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalApplication;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.InvalidAttributesException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalParser;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.DatabaseSettings;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.MigrationPlan;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
+
+import java.io.File;
 
 /**
  * The connector to connect database provided by LitePal. Users can use this
@@ -32,6 +40,19 @@ public class Connector {
 	 */
 	private static LitePalOpenHelper mLitePalHelper;
 
+	/**
+	 * Indicates whether write-ahead logging should be enabled on the
+	 * connection.
+	 */
+	private static boolean mWriteAheadLoggingEnabled;
+
+	/**
+	 * Indicates whether write-ahead logging is set by
+	 * {@link #setWriteAheadLoggingEnabled(boolean)}, which overrides the
+	 * journal mode in litepal.xml.
+	 */
+	private static boolean mWriteAheadLoggingSet;
+
 	/**
 	 * Get a writable SQLiteDatabase.
 	 * 
@@ -83,6 +104,106 @@ public class Connector {
 		return getWritableDatabase();
 	}
 
+	/**
+	 * Enable or disable write-ahead logging of the database. It can be called
+	 * before or after the connection is built.
+	 * 
+	 * With write-ahead logging enabled, SQLiteDatabase keeps a pool of
+	 * connections for reading, so that the queries from different threads can
+	 * run in parallel with each other and with the writing transaction. Without
+	 * it, every query has to wait for the running writing transaction.
+	 * 
+	 * By default write-ahead logging is enabled if the journal mode in
+	 * litepal.xml is wal. Calling this method overrides that.
+	 * 
+	 * @param enabled
+	 *            True to enable write-ahead logging, false to disable it.
+	 */
+	public synchronized static void setWriteAheadLoggingEnabled(boolean enabled) {
+		mWriteAheadLoggingEnabled = enabled;
+		mWriteAheadLoggingSet = true;
+		if (mLitePalHelper != null) {
+			applyWriteAheadLogging(mLitePalHelper);
+		}
+	}
+
+	/**
+	 * Whether write-ahead logging is requested on the database.
+	 * 
+	 * @return True if write-ahead logging is enabled, false otherwise.
+	 */
+	public synchronized static boolean isWriteAheadLoggingEnabled() {
+		return mWriteAheadLoggingEnabled;
+	}
+
+	/**
+	 * Read the settings which are in effect on the database connection, such
+	 * as the journal mode and the synchronous level. It's the way to check the
+	 * pragmas in litepal.xml are really applied, for example the page size of
+	 * an existing database can't be changed, and the wal journal mode can't be
+	 * used by an in-memory database.
+	 * 
+	 * @return The settings of the connection.
+	 * 
+	 * @throws com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.InvalidAttributesException
+	 */
+	public synchronized static DatabaseSettings getDatabaseSettings() {
+		SQLiteDatabase db = getWritableDatabase();
+		DatabaseSettings settings = new DatabaseSettings();
+		settings.setJournalMode(queryPragma(db, "journal_mode"));
+		settings.setSynchronous(getPragmaName(queryPragma(db, "synchronous"),
+				Const.Pragma.SYNCHRONOUS_LEVELS));
+		settings.setPageSize(Long.parseLong(queryPragma(db, "page_size")));
+		settings.setPageCacheSize(Long.parseLong(queryPragma(db, "cache_size")));
+		String mmapSize = queryPragma(db, "mmap_size");
+		// mmap_size returns nothing if SQLite is built without memory mapped I/O.
+		settings.setMmapSize(mmapSize == null ? 0 : Long.parseLong(mmapSize));
+		settings.setTempStore(getPragmaName(queryPragma(db, "temp_store"),
+				Const.Pragma.TEMP_STORES));
+		return settings;
+	}
+
+	/**
+	 * Plan the upgrade from the current database to the model classes in the
+	 * mapping list, without changing anything. The database file is opened
+	 * read only beside the connection, so the upgrade is not triggered even
+	 * if the version is increased. Useful to review which tables would be
+	 * rebuilt and how many rows would be copied before releasing a new
+	 * version.
+	 * 
+	 * @return The migration plan of all the tables.
+	 * 
+	 * @throws com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.InvalidAttributesException
+	 */
+	public synchronized static MigrationPlan getMigrationPlan() {
+		if (mLitePalAttr == null) {
+			LitePalParser.parseLitePalConfiguration ();
+			mLitePalAttr = LitePalAttr.getInstance();
+		}
+		if (!mLitePalAttr.checkSelfValid()) {
+			throw new InvalidAttributesException ( "Uncaught invalid attributes exception happened");
+		}
+		File dbFile;
+		if ("external".equalsIgnoreCase(mLitePalAttr.getStorage())) {
+			dbFile = new File(LitePalApplication.getContext().getExternalFilesDir("")
+					+ "/databases/" + mLitePalAttr.getDbName());
+		} else {
+			dbFile = LitePalApplication.getContext().getDatabasePath(mLitePalAttr.getDbName());
+		}
+		SQLiteDatabase db;
+		if (dbFile.exists()) {
+			db = SQLiteDatabase.openDatabase(dbFile.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+		} else {
+			// nothing created yet, every table will be created.
+			db = SQLiteDatabase.create(null);
+		}
+		try {
+			return Generator.plan(db);
+		} finally {
+			db.close();
+		}
+	}
+
 	/**
 	 * Build a connection to the database. This progress will analysis the
 	 * litepal.xml file, and will check if the fields in LitePalAttr are valid,
@@ -107,7 +228,14 @@ public class Connector {
                 if ("external".equalsIgnoreCase(mLitePalAttr.getStorage())) {
                     dbName = LitePalApplication.getContext ().getExternalFilesDir ( "" ) + "/databases/" + dbName;
                 }
+				if (!mWriteAheadLoggingSet) {
+					mWriteAheadLoggingEnabled = Const.Pragma.JOURNAL_MODE_WAL.equals(mLitePalAttr
+							.getJournalMode());
+				}
 				mLitePalHelper = new LitePalOpenHelper(dbName, mLitePalAttr.getVersion());
+				if (mWriteAheadLoggingEnabled) {
+					applyWriteAheadLogging(mLitePalHelper);
+				}
 			}
 			return mLitePalHelper;
 		} else {
@@ -115,4 +243,59 @@ public class Connector {
 		}
 	}
 
+	/**
+	 * Query the value of a pragma.
+	 * 
+	 * @param db
+	 *            The database to query.
+	 * @param pragma
+	 *            The name of the pragma.
+	 * @return The value of the pragma, or null if nothing is returned.
+	 */
+	private static String queryPragma(SQLiteDatabase db, String pragma) {
+		Cursor cursor = db.rawQuery("pragma " + pragma, null);
+		try {
+			return cursor.moveToFirst() ? cursor.getString(0) : null;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Convert the value returned by a pragma to the name used in litepal.xml.
+	 * 
+	 * @param value
+	 *            The value returned by the pragma.
+	 * @param names
+	 *            The names, the index of each is its value.
+	 * @return The name of the value, or the value itself if it's unknown.
+	 */
+	private static String getPragmaName(String value, String[] names) {
+		try {
+			int index = Integer.parseInt(value);
+			if (index >= 0 && index < names.length) {
+				return names[index];
+			}
+		} catch (NumberFormatException e) {
+		}
+		return value;
+	}
+
+	/**
+	 * Apply the write-ahead logging setting to the helper. Before Jelly Bean
+	 * SQLiteOpenHelper has no such setting, so it is enabled on the opened
+	 * database directly, and can't be disabled any more.
+	 * 
+	 * @param litePalHelper
+	 *            The helper to apply the setting to.
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static void applyWriteAheadLogging(LitePalOpenHelper litePalHelper) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			litePalHelper.setWriteAheadLoggingEnabled(mWriteAheadLoggingEnabled);
+		} else if (mWriteAheadLoggingEnabled) {
+			litePalHelper.getWritableDatabase().enableWriteAheadLogging();
+		}
+	}
+
 }
@@ -6,10 +6,13 @@ package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
 
 import android.database.sqlite.SQLiteDatabase;
 
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.IndexModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 
+import java.util.List;
+
 
 /**
  * This is a subclass of Generator. Use to create tables. It will automatically
@@ -37,10 +40,51 @@ class Creator extends AssociationCreator {
 	}
 
     protected void createOrUpgradeTable(TableModel tableModel, SQLiteDatabase db, boolean force) {
-        execute(getCreateTableSQLs(tableModel, db, force), db);
+        String[] sqls = getCreateTableSQLs(tableModel, db, force);
+        execute(sqls, db);
+        if (sqls != null) {
+            // Indexes of an existing table are synchronized by Upgrader, after its columns are.
+            execute(getCreateIndexSQLs(tableModel), db);
+            execute(getCreateFullTextSQLs(tableModel), db);
+        }
         giveTableSchemaACopy ( tableModel.getTableName(), Const.TableSchema.NORMAL_TABLE, db );
     }
 
+	/**
+	 * Create a SQL array for creating all the indexes declared in the table
+	 * model.
+	 * 
+	 * @param tableModel
+	 *            The table model.
+	 * @return A SQL array contains create index for each index.
+	 */
+	protected String[] getCreateIndexSQLs(TableModel tableModel) {
+		List<IndexModel> indexModels = tableModel.getIndexModels();
+		String[] sqls = new String[indexModels.size()];
+		for (int i = 0; i < sqls.length; i++) {
+			sqls[i] = generateCreateIndexSQL(tableModel.getTableName(), indexModels.get(i));
+		}
+		return sqls;
+	}
+
+	/**
+	 * Create a SQL array for building the full text index declared in the
+	 * table model.
+	 * 
+	 * @param tableModel
+	 *            The table model.
+	 * @return A SQL array to build the full text index, or an empty array if
+	 *         the table model has no full text columns.
+	 */
+	protected String[] getCreateFullTextSQLs(TableModel tableModel) {
+		if (tableModel.getFullTextColumns().isEmpty()) {
+			return new String[0];
+		}
+		List<String> sqls = generateCreateFullTextSQLs(tableModel.getTableName(),
+				tableModel.getFullTextColumns());
+		return sqls.toArray(new String[sqls.size()]);
+	}
+
 	/**
 	 * When creating a new table, it should always try to drop the same name
 	 * table if exists. This method create a SQL array for the whole create
@@ -47,11 +47,15 @@ public class Dropper extends AssociationUpdater {
 
 	/**
 	 * Drop the tables which are not exist in the mapping list to keep
-	 * synchronization.
+	 * synchronization, together with their full text indexes.
 	 */
 	private void dropTables() {
-		List<String> tableNamesToDrop = findTablesToDrop();
+		List<String> tableNamesToDrop = findTablesToDrop(mDb);
 		dropTables(tableNamesToDrop, mDb);
+		for (String tableName : tableNamesToDrop) {
+			List<String> sqls = generateDropFullTextSQLs(tableName);
+			execute(sqls.toArray(new String[sqls.size()]), mDb);
+		}
 		clearCopyInTableSchema(tableNamesToDrop);
 	}
 
@@ -59,9 +63,13 @@ public class Dropper extends AssociationUpdater {
 	 * It will find all the tables need to drop in the database, following the
 	 * rules of {@link #shouldDropThisTable(String, int)}.
 	 * 
+	 * @param db
+	 *            Instance of SQLiteDatabase.
 	 * @return A list contains all the table names need to drop.
 	 */
-	private List<String> findTablesToDrop() {
+	List<String> findTablesToDrop(SQLiteDatabase db) {
+		mTableModels = getAllTableModels();
+		mDb = db;
 		List<String> dropTableNames = new ArrayList<String>();
 		Cursor cursor = null;
 		try {
@@ -11,6 +11,7 @@ import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalBase;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DatabaseGenerateException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.MigrationPlan;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.BaseUtility;
 
@@ -121,7 +122,7 @@ public abstract class Generator extends LitePalBase {
 
 	/**
 	 * Update associations to all the associated tables in the database. Remove
-	 * dump foreign key columns and dump intermediate join tables.
+	 * dump intermediate join tables.
 	 * 
 	 * @param db
 	 *            Instance of SQLiteDatabase.
@@ -132,8 +133,8 @@ public abstract class Generator extends LitePalBase {
 	}
 
 	/**
-	 * Upgrade all the tables in the database, including remove dump columns and
-	 * add new columns.
+	 * Upgrade all the tables in the database, including remove dump columns,
+	 * dump foreign key columns and add new columns.
 	 * 
 	 * @param db
 	 *            Instance of SQLiteDatabase.
@@ -213,6 +214,18 @@ public abstract class Generator extends LitePalBase {
 		addAssociation(db, false);
 	}
 
+	/**
+	 * Plan the upgrade without changing the database, so that it can be
+	 * reviewed before the version is increased.
+	 * 
+	 * @param db
+	 *            Instance of SQLiteDatabase.
+	 * @return The migration plan of all the tables.
+	 */
+	static MigrationPlan plan(SQLiteDatabase db) {
+		return new Upgrader().planMigration(db);
+	}
+
 	/**
 	 * Analysis the TableModel by the purpose of subclasses, and generate a SQL
 	 * to do the intention job. The implementation of this method is totally
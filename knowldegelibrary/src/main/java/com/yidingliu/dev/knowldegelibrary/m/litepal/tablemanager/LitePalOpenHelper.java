@@ -5,11 +5,15 @@
 package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDatabase.CursorFactory;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalApplication;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.SharedUtil;
 
 
@@ -66,6 +70,27 @@ class LitePalOpenHelper extends SQLiteOpenHelper {
 		this ( LitePalApplication.getContext (), dbName, null, version );
 	}
 
+	/**
+	 * Apply the pragmas in litepal.xml before the tables are created or
+	 * upgraded, so that the page size takes effect on a new database.
+	 */
+	@Override
+	public void onConfigure(SQLiteDatabase db) {
+		applyPragmas(db);
+	}
+
+	/**
+	 * Before Jelly Bean onConfigure is never called, the pragmas are applied
+	 * once the database is opened instead, which is too late for the page size
+	 * of a new database.
+	 */
+	@Override
+	public void onOpen(SQLiteDatabase db) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+			applyPragmas(db);
+		}
+	}
+
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		Generator.create(db);
@@ -77,4 +102,56 @@ class LitePalOpenHelper extends SQLiteOpenHelper {
 		SharedUtil.updateVersion ( newVersion );
 	}
 
+	/**
+	 * Apply the pragmas declared in litepal.xml to the connection. The wal
+	 * journal mode is applied by {@link Connector} with write-ahead logging,
+	 * which lets SQLiteDatabase keep the pool of reading connections, so it's
+	 * skipped here. The other settings only apply to the main connection,
+	 * which does all the writing.
+	 * 
+	 * @param db
+	 *            The database being opened.
+	 */
+	private void applyPragmas(SQLiteDatabase db) {
+		LitePalAttr litePalAttr = LitePalAttr.getInstance();
+		if (litePalAttr.getPageSize() > 0) {
+			execPragma(db, "pragma page_size = " + litePalAttr.getPageSize());
+		}
+		String journalMode = litePalAttr.getJournalMode();
+		if (journalMode != null && !Const.Pragma.JOURNAL_MODE_WAL.equals(journalMode)
+				&& !Connector.isWriteAheadLoggingEnabled()) {
+			execPragma(db, "pragma journal_mode = " + journalMode);
+		}
+		if (litePalAttr.getSynchronous() != null) {
+			execPragma(db, "pragma synchronous = " + litePalAttr.getSynchronous());
+		}
+		if (litePalAttr.getPageCacheSize() != null) {
+			execPragma(db, "pragma cache_size = " + litePalAttr.getPageCacheSize());
+		}
+		if (litePalAttr.getMmapSize() != null) {
+			execPragma(db, "pragma mmap_size = " + litePalAttr.getMmapSize());
+		}
+		if (litePalAttr.getTempStore() != null) {
+			execPragma(db, "pragma temp_store = " + litePalAttr.getTempStore());
+		}
+	}
+
+	/**
+	 * Execute a pragma by rawQuery, as some pragmas return the new value as a
+	 * row, which execSQL doesn't allow.
+	 * 
+	 * @param db
+	 *            The database to execute on.
+	 * @param pragma
+	 *            The pragma statement.
+	 */
+	private void execPragma(SQLiteDatabase db, String pragma) {
+		Cursor cursor = db.rawQuery(pragma, null);
+		try {
+			cursor.moveToFirst();
+		} finally {
+			cursor.close();
+		}
+	}
+
 }
@@ -4,342 +4,456 @@
 
 package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
 
-import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.model.AssociationsInfo;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.AssociationsModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.IndexModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.MigrationPlan;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableMigration;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.Const;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.util.LogUtil;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
- * Upgrade the database. The first step is to remove the columns that can not
- * find the corresponding field in the model class. Then add the new added field
- * as new column into the table. At last it will check all the types of columns
- * to see which are changed.
- * 
+ * Upgrade the database. Each table is compared with its model class once, and
+ * all the differences are migrated together. Untouched tables are skipped.
+ * New columns are added in place. Removing columns, including foreign key
+ * columns of removed associations, changing column types or constraints needs
+ * to rebuild the table, which copies the data once with values converted to
+ * the new types. Indexes and the full text index declared by the model are
+ * synchronized too.
+ *
  * @author Tony Green
  * @since 1.0
  */
 public class Upgrader extends AssociationUpdater {
-	/**
-	 * Model class for table.
-	 */
-	protected TableModel mTableModel;
-
-    /**
-     * Model class for table from database.
-     */
-    protected TableModel mTableModelDB;
-
-    /**
-     * Indicates that column constraints has changed or not.
-     */
-    private boolean hasConstraintChanged;
 
 	/**
-	 * Analyzing the table model, them remove the dump columns and add new
-	 * columns of a table.
+	 * Plan the migration of each table, then run the SQLs of the plan.
 	 */
 	@Override
 	protected void createOrUpgradeTable(SQLiteDatabase db, boolean force) {
 		mDb = db;
 		for (TableModel tableModel : getAllTableModels()) {
-			mTableModel = tableModel;
-            mTableModelDB = getTableModelFromDB(tableModel.getTableName());
-			upgradeTable();
+			if (DBUtility.isTableExists(tableModel.getTableName(), db)) {
+				TableMigration tableMigration = planTable(tableModel);
+				LogUtil.d(TAG, "upgrade table >> " + tableMigration);
+				execute(tableMigration.getSqls().toArray(new String[0]), db);
+			}
 		}
 	}
 
 	/**
-	 * Upgrade table actions. Include remove dump columns, add new columns and
-	 * change column types. All the actions above will be done by the description
-     * order.
+	 * Plan the upgrade of the whole database without changing anything, which
+	 * contains the tables to drop, the tables to create and the migration of
+	 * the existing model tables.
+	 *
+	 * @param db
+	 *            Instance of SQLiteDatabase.
+	 * @return The migration plan.
 	 */
-	private void upgradeTable() {
-        if (hasNewUniqueOrNotNullColumn()) {
-            // Need to drop the table and create new one. Cause unique column can not be added, and null data can not be migrated.
-            createOrUpgradeTable(mTableModel, mDb, true);
-            // add foreign keys of the table.
-            Collection<AssociationsInfo > associationsInfo = getAssociationInfo ( mTableModel.getClassName () );
-            for (AssociationsInfo info : associationsInfo) {
-                if (info.getAssociationType() == Const.Model.MANY_TO_ONE
-                        || info.getAssociationType() == Const.Model.ONE_TO_ONE) {
-                    if (info.getClassHoldsForeignKey().equalsIgnoreCase(mTableModel.getClassName())) {
-                        String associatedTableName = DBUtility
-                                .getTableNameByClassName ( info.getAssociatedClassName () );
-                        addForeignKeyColumn(mTableModel.getTableName(), associatedTableName, mTableModel.getTableName(), mDb);
-                    }
-                }
-            }
-        } else {
-            hasConstraintChanged = false;
-            removeColumns(findColumnsToRemove());
-            addColumns(findColumnsToAdd());
-            changeColumnsType(findColumnTypesToChange());
-            changeColumnsConstraints();
-        }
+	MigrationPlan planMigration(SQLiteDatabase db) {
+		mDb = db;
+		MigrationPlan migrationPlan = new MigrationPlan();
+		for (String tableName : new Dropper().findTablesToDrop(db)) {
+			TableMigration tableMigration = new TableMigration();
+			tableMigration.setTableName(tableName);
+			tableMigration.setAction(TableMigration.ACTION_DROP);
+			tableMigration.setEstimatedRows(estimateRowCount(tableName));
+			tableMigration.addSql(generateDropTableSQL(tableName));
+			for (String sql : generateDropFullTextSQLs(tableName)) {
+				tableMigration.addSql(sql);
+			}
+			migrationPlan.addTableMigration(tableMigration);
+		}
+		for (TableModel tableModel : getAllTableModels()) {
+			if (DBUtility.isTableExists(tableModel.getTableName(), db)) {
+				migrationPlan.addTableMigration(planTable(tableModel));
+			} else {
+				TableMigration tableMigration = new TableMigration();
+				tableMigration.setTableName(tableModel.getTableName());
+				tableMigration.setAction(TableMigration.ACTION_CREATE);
+				tableMigration.addSql(generateCreateTableSQL(tableModel));
+				addCreateIndexSQLs(tableMigration, tableModel);
+				addCreateFullTextSQLs(tableMigration, tableModel);
+				migrationPlan.addTableMigration(tableMigration);
+			}
+		}
+		return migrationPlan;
 	}
 
-    /**
-     * Check if the current model add or upgrade an unique or not null column.
-     * @return True if has new unique or not null column. False otherwise.
-     */
-    private boolean hasNewUniqueOrNotNullColumn() {
-        List<ColumnModel > columnModelList = mTableModel.getColumnModels ();
-        for (ColumnModel columnModel : columnModelList) {
-            ColumnModel columnModelDB = mTableModelDB.getColumnModelByName(columnModel.getColumnName());
-            if (columnModel.isUnique()) {
-                if (columnModelDB == null || !columnModelDB.isUnique()) {
-                    return true;
-                }
-            }
-            if (columnModelDB != null && !columnModel.isNullable() && columnModelDB.isNullable()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
 	/**
-	 * It will find the difference between class model and table model. If
-	 * there's a field in the class without a corresponding column in the table,
-	 * this field is a new added column. This method find all new added columns.
-	 * 
-	 * @return List with ColumnModel contains information of new columns.
+	 * Compare the table with its model class, and find out the minimal way to
+	 * migrate it.
+	 *
+	 * @param tableModel
+	 *            The table model from class.
+	 * @return The migration of the table.
 	 */
-	private List<ColumnModel> findColumnsToAdd() {
-        List<ColumnModel> columnsToAdd = new ArrayList<ColumnModel>();
-        for (ColumnModel columnModel : mTableModel.getColumnModels()) {
-            String columnName = columnModel.getColumnName();
-            if (!mTableModelDB.containsColumn(columnName)) {
-                // add column action
-                columnsToAdd.add(columnModel);
-            }
-        }
-		return columnsToAdd;
+	private TableMigration planTable(TableModel tableModel) {
+		String tableName = tableModel.getTableName();
+		TableModel tableModelDB = getTableModelFromDB(tableName);
+		List<ColumnModel> columnModels = getColumnModelsToKeep(tableModel);
+		TableMigration tableMigration = new TableMigration();
+		tableMigration.setTableName(tableName);
+		tableMigration.setEstimatedRows(estimateRowCount(tableName));
+		List<ColumnModel> columnsToAdd = new ArrayList<ColumnModel>();
+		boolean needRebuild = false;
+		boolean needRecreate = false;
+		for (ColumnModel columnModel : columnModels) {
+			String columnName = columnModel.getColumnName();
+			ColumnModel columnModelDB = tableModelDB.getColumnModelByName(columnName);
+			if (columnModelDB == null) {
+				if (columnModel.isUnique()) {
+					// unique column can't be added by alter table, and all the existing rows
+					// can't have the same not null value.
+					if (columnModel.isNullable()) {
+						needRebuild = true;
+					} else {
+						needRecreate = true;
+					}
+				}
+				columnsToAdd.add(columnModel);
+				tableMigration.addChange("add " + columnName);
+				continue;
+			}
+			if (!columnModelDB.getColumnType().equalsIgnoreCase(columnModel.getColumnType())) {
+				needRebuild = true;
+				tableMigration.addChange("change type of " + columnName + " from "
+						+ columnModelDB.getColumnType() + " to " + columnModel.getColumnType());
+			}
+			if (columnModel.isUnique() && !columnModelDB.isUnique()) {
+				// existing rows might have duplicate values.
+				needRecreate = true;
+				tableMigration.addChange("add unique constraint to " + columnName);
+			} else if (columnModelDB.isNullable() != columnModel.isNullable()
+					|| !columnModelDB.getDefaultValue().equalsIgnoreCase(columnModel.getDefaultValue())
+					|| (columnModelDB.isUnique() && !columnModel.isUnique())) {
+				needRebuild = true;
+				tableMigration.addChange("change constraints of " + columnName);
+			}
+		}
+		for (ColumnModel columnModelDB : tableModelDB.getColumnModels()) {
+			if (!columnModelDB.isIdColumn() && findColumnModelByName(columnModels,
+					columnModelDB.getColumnName()) == null) {
+				needRebuild = true;
+				tableMigration.addChange("remove " + columnModelDB.getColumnName());
+			}
+		}
+		if (needRecreate) {
+			tableMigration.setAction(TableMigration.ACTION_RECREATE);
+			tableMigration.addSql(generateDropTableSQL(tableName));
+			tableMigration.addSql(generateCreateTableSQL(tableName, columnModels, true));
+			addCreateIndexSQLs(tableMigration, tableModel);
+			addCreateFullTextSQLs(tableMigration, tableModel);
+		} else if (needRebuild) {
+			tableMigration.setAction(TableMigration.ACTION_REBUILD);
+			String tempTableName = getTempTableName(tableName);
+			tableMigration.addSql(generateDropTableSQL(tempTableName));
+			tableMigration.addSql(generateAlterToTempTableSQL(tableName));
+			tableMigration.addSql(generateCreateTableSQL(tableName, columnModels, true));
+			tableMigration.addSql(generateDataMigrationSQL(tableName, tableModelDB, columnModels));
+			tableMigration.addSql(generateDropTempTableSQL(tableName));
+			// indexes and triggers are dropped along with the temporary table.
+			addCreateIndexSQLs(tableMigration, tableModel);
+			addCreateFullTextSQLs(tableMigration, tableModel);
+		} else {
+			for (ColumnModel columnModel : columnsToAdd) {
+				tableMigration.addSql(generateAddColumnSQL(tableName, columnModel));
+			}
+			addUpgradeIndexSQLs(tableMigration, tableModel);
+			addUpgradeFullTextSQLs(tableMigration, tableModel);
+			if (!tableMigration.getSqls().isEmpty()) {
+				tableMigration.setAction(TableMigration.ACTION_ALTER);
+			}
+		}
+		return tableMigration;
 	}
 
 	/**
-	 * This method helps find the difference between table model from class and
-	 * table model from database. Database should always be synchronized with
-	 * model class. If there're some fields are removed from class, the table
-	 * model from database will be compared to find out which fields are
-	 * removed. But there're still some exceptions. The columns named id or _id
-	 * won't ever be removed. The foreign key column will be checked some where
-	 * else, not from here.
-	 * 
-	 * @return A list with column names need to remove.
+	 * Get the columns which the table should have after upgrading. They are
+	 * the columns of the model class and the foreign key columns of the
+	 * associations which the table holds. The id column is not included.
+	 *
+	 * @param tableModel
+	 *            The table model from class.
+	 * @return A list contains the columns to keep.
 	 */
-	private List<String> findColumnsToRemove() {
-        String tableName = mTableModel.getTableName();
-		List<String> removeColumns = new ArrayList<String>();
-        List<ColumnModel> columnModelList = mTableModelDB.getColumnModels();
-        for (ColumnModel columnModel : columnModelList) {
-            String dbColumnName = columnModel.getColumnName();
-            if (isNeedToRemove(dbColumnName)) {
-                removeColumns.add(dbColumnName);
-            }
-        }
-        LogUtil.d ( TAG, "remove columns from " + tableName + " >> " + removeColumns );
-		return removeColumns;
+	private List<ColumnModel> getColumnModelsToKeep(TableModel tableModel) {
+		List<ColumnModel> columnModels = new ArrayList<ColumnModel>();
+		for (ColumnModel columnModel : tableModel.getColumnModels()) {
+			if (!columnModel.isIdColumn()) {
+				columnModels.add(columnModel);
+			}
+		}
+		String tableName = tableModel.getTableName();
+		for (AssociationsModel associationModel : getAllAssociations()) {
+			if (associationModel.getAssociationType() == Const.Model.MANY_TO_MANY
+					|| !tableName.equalsIgnoreCase(associationModel.getTableHoldsForeignKey())) {
+				continue;
+			}
+			String foreignKeyColumn;
+			if (tableName.equalsIgnoreCase(associationModel.getTableName())) {
+				foreignKeyColumn = getForeignKeyColumnName(associationModel.getAssociatedTableName());
+			} else {
+				foreignKeyColumn = getForeignKeyColumnName(associationModel.getTableName());
+			}
+			if (findColumnModelByName(columnModels, foreignKeyColumn) == null) {
+				ColumnModel columnModel = new ColumnModel();
+				columnModel.setColumnName(foreignKeyColumn);
+				columnModel.setColumnType("integer");
+				columnModels.add(columnModel);
+			}
+		}
+		return columnModels;
 	}
 
 	/**
-	 * It will check each class in the mapping list. Find their types for each
-	 * field is changed or not by comparing with the types in table columns. If
-	 * there's a column have same name as a field in class but with different
-	 * type, then it's a type changed column.
+	 * Generate a SQL to copy the data from the temporary table into the
+	 * rebuilt table. Values are converted by cast when the column type is
+	 * changed, and null values are replaced by the default value when the
+	 * column becomes not null. New columns are left to their default values.
 	 *
-	 * @return A list contains all ColumnModel which type are changed from database.
+	 * @param tableName
+	 *            The table name.
+	 * @param tableModelDB
+	 *            The table model from database before rebuilding.
+	 * @param columnModels
+	 *            The columns of the rebuilt table.
+	 * @return SQL to migrate data.
 	 */
-	private List<ColumnModel> findColumnTypesToChange() {
-        List<ColumnModel> columnsToChangeType = new ArrayList<ColumnModel>();
-        for (ColumnModel columnModelDB : mTableModelDB.getColumnModels()) {
-            for (ColumnModel columnModel : mTableModel.getColumnModels()) {
-                if (columnModelDB.getColumnName().equalsIgnoreCase(columnModel.getColumnName())) {
-                    if (!columnModelDB.getColumnType().equalsIgnoreCase(columnModel.getColumnType())) {
-                        // column type is changed
-                        columnsToChangeType.add(columnModel);
-                    }
-                    if (!hasConstraintChanged) {
-                        // for reducing loops, check column constraints change here.
-                        LogUtil.d(TAG, "default value db is:" + columnModelDB.getDefaultValue() + ", default value is:" + columnModel.getDefaultValue());
-                        if (columnModelDB.isNullable() != columnModel.isNullable() ||
-                            !columnModelDB.getDefaultValue().equalsIgnoreCase(columnModel.getDefaultValue()) ||
-                            (columnModelDB.isUnique() && !columnModel.isUnique())) { // unique constraint can not be added
-                            hasConstraintChanged = true;
-                        }
-                    }
-                }
-            }
-        }
-		return columnsToChangeType;
+	private String generateDataMigrationSQL(String tableName, TableModel tableModelDB,
+			List<ColumnModel> columnModels) {
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		for (ColumnModel columnModelDB : tableModelDB.getColumnModels()) {
+			if (columnModelDB.isIdColumn()) {
+				columns.append("id");
+				values.append(columnModelDB.getColumnName());
+				break;
+			}
+		}
+		for (ColumnModel columnModel : columnModels) {
+			String columnName = columnModel.getColumnName();
+			ColumnModel columnModelDB = tableModelDB.getColumnModelByName(columnName);
+			if (columnModelDB == null) {
+				continue;
+			}
+			String value = columnName;
+			if (!columnModelDB.getColumnType().equalsIgnoreCase(columnModel.getColumnType())) {
+				value = "cast(" + value + " as " + columnModel.getColumnType() + ")";
+			}
+			if (!columnModel.isNullable()) {
+				value = "coalesce(" + value + ", " + getDefaultValueForNotNull(columnModel) + ")";
+			}
+			if (columns.length() > 0) {
+				columns.append(", ");
+				values.append(", ");
+			}
+			columns.append(columnName);
+			values.append(value);
+		}
+		StringBuilder sql = new StringBuilder("insert into ");
+		sql.append(tableName).append(" (").append(columns).append(") select ").append(values);
+		sql.append(" from ").append(getTempTableName(tableName));
+		return sql.toString();
 	}
 
 	/**
-	 * Tell LitePal the column is need to remove or not. The column can be
-	 * remove only on the condition that the following three rules are all
-	 * passed. First the corresponding field for this column is removed in the
-	 * class. Second this column is not an id column. Third this column is not a
-	 * foreign key column.
-	 * 
-	 * @param columnName
-	 *            The column name to judge
-	 * @return Need to remove return true, otherwise return false.
+	 * Get the value to fill a not null column with, when the value is null.
+	 *
+	 * @param columnModel
+	 *            The not null column.
+	 * @return The default value of column, or the zero value of column type.
 	 */
-	private boolean isNeedToRemove(String columnName) {
-		return isRemovedFromClass(columnName) && !isIdColumn(columnName)
-				&& !isForeignKeyColumn(mTableModel, columnName);
+	private String getDefaultValueForNotNull(ColumnModel columnModel) {
+		String defaultValue = columnModel.getDefaultValue();
+		if (!TextUtils.isEmpty(defaultValue)) {
+			return defaultValue;
+		}
+		String columnType = columnModel.getColumnType();
+		if ("integer".equalsIgnoreCase(columnType)) {
+			return "0";
+		} else if ("real".equalsIgnoreCase(columnType)) {
+			return "0.0";
+		} else if ("blob".equalsIgnoreCase(columnType)) {
+			return "x''";
+		}
+		return "''";
 	}
 
 	/**
-	 * Read a column name from database, and judge the corresponding field in
-	 * class is removed or not.
-	 * 
-	 * @param columnName
-	 *            The column name to judge.
-	 * @return If it's removed return true, or return false.
+	 * Add the SQLs to create all the indexes declared by the model, used
+	 * after the table is rebuilt or recreated.
+	 *
+	 * @param tableMigration
+	 *            The migration to add SQLs into.
+	 * @param tableModel
+	 *            The table model from class.
 	 */
-	private boolean isRemovedFromClass(String columnName) {
-        return !mTableModel.containsColumn(columnName);
+	private void addCreateIndexSQLs(TableMigration tableMigration, TableModel tableModel) {
+		for (String sql : getCreateIndexSQLs(tableModel)) {
+			tableMigration.addSql(sql);
+		}
 	}
 
 	/**
-	 * Generate a SQL for add new column into the existing table.
-	 * 
-	 * @param columnModel
-	 *            Which contains column info.
-	 * @return A SQL to add new column.
+	 * Add the SQLs to synchronize the indexes declared by the model with the
+	 * table. Declared indexes which don't exist are created, the ones whose
+	 * columns or unique constraint changed are recreated, and the ones no
+	 * longer declared are dropped. Indexes not created by LitePal are never
+	 * touched.
+	 *
+	 * @param tableMigration
+	 *            The migration to add SQLs into.
+	 * @param tableModel
+	 *            The table model from class.
 	 */
-	private String generateAddColumnSQL(ColumnModel columnModel) {
-		return generateAddColumnSQL(mTableModel.getTableName(), columnModel);
+	private void addUpgradeIndexSQLs(TableMigration tableMigration, TableModel tableModel) {
+		String tableName = tableModel.getTableName();
+		List<IndexModel> indexModelsDB = DBUtility.findIndexes(tableName, Const.Index.PREFIX, mDb);
+		for (IndexModel indexModelDB : indexModelsDB) {
+			IndexModel indexModel = findIndexModelByName(tableModel.getIndexModels(),
+					indexModelDB.getIndexName());
+			if (indexModel == null || !indexModel.hasSameDefinition(indexModelDB)) {
+				tableMigration.addChange("drop index " + indexModelDB.getIndexName());
+				tableMigration.addSql(generateDropIndexSQL(indexModelDB.getIndexName()));
+			}
+		}
+		for (IndexModel indexModel : tableModel.getIndexModels()) {
+			IndexModel indexModelDB = findIndexModelByName(indexModelsDB, indexModel.getIndexName());
+			if (indexModelDB == null || !indexModel.hasSameDefinition(indexModelDB)) {
+				tableMigration.addChange("create index " + indexModel.getIndexName());
+				tableMigration.addSql(generateCreateIndexSQL(tableName, indexModel));
+			}
+		}
 	}
 
 	/**
-	 * This method create a SQL array for the all new columns to add them into
-	 * table.
-	 * 
-	 * @param columnModelList
-	 *            List with ColumnModel to add new column.
-	 * @return A SQL array contains add all new columns job.
+	 * Add the SQLs to build the full text index declared by the model, used
+	 * after the table is rebuilt or recreated. The old index is dropped first
+	 * as its content is stale.
+	 *
+	 * @param tableMigration
+	 *            The migration to add SQLs into.
+	 * @param tableModel
+	 *            The table model from class.
 	 */
-	private String[] getAddColumnSQLs(List<ColumnModel> columnModelList) {
-		List<String> sqls = new ArrayList<String>();
-		for (ColumnModel columnModel : columnModelList) {
-			sqls.add(generateAddColumnSQL(columnModel));
+	private void addCreateFullTextSQLs(TableMigration tableMigration, TableModel tableModel) {
+		for (String sql : getCreateFullTextSQLs(tableModel)) {
+			tableMigration.addSql(sql);
 		}
-		return sqls.toArray(new String[0]);
 	}
 
-    /**
-     * When some fields are removed from class, the table should synchronize the
-     * changes by removing the corresponding columns.
-     *
-     * @param removeColumnNames
-     *            The column names that need to remove.
-     */
-    private void removeColumns(List<String> removeColumnNames) {
-        LogUtil.d(TAG, "do addColumn");
-        removeColumns(removeColumnNames, mTableModel.getTableName());
-        for (String columnName : removeColumnNames) {
-            mTableModelDB.removeColumnModelByName(columnName);
-        }
-    }
-
 	/**
-	 * When some fields are added into the class after last upgrade, the table
-	 * should synchronize the changes by adding the corresponding columns.
-	 * 
-	 * @param columnModelList
-	 *            List with ColumnModel to add new column.
+	 * Add the SQLs to synchronize the full text index declared by the model
+	 * with the table. The index is built when it's declared or its columns
+	 * changed, and dropped when it's no longer declared.
+	 *
+	 * @param tableMigration
+	 *            The migration to add SQLs into.
+	 * @param tableModel
+	 *            The table model from class.
 	 */
-	private void addColumns(List<ColumnModel> columnModelList) {
-        LogUtil.d(TAG, "do addColumn");
-		execute(getAddColumnSQLs(columnModelList), mDb);
-        for (ColumnModel columnModel : columnModelList) {
-            mTableModelDB.addColumnModel(columnModel);
-        }
+	private void addUpgradeFullTextSQLs(TableMigration tableMigration, TableModel tableModel) {
+		String tableName = tableModel.getTableName();
+		List<String> columnNamesDB = DBUtility.findFullTextColumns(tableName, mDb);
+		List<String> columnNames = tableModel.getFullTextColumns();
+		if (columnNames.isEmpty()) {
+			if (columnNamesDB != null) {
+				tableMigration.addChange("drop full text index");
+				for (String sql : generateDropFullTextSQLs(tableName)) {
+					tableMigration.addSql(sql);
+				}
+			}
+		} else if (columnNamesDB == null || !isSameColumns(columnNames, columnNamesDB)) {
+			tableMigration.addChange("build full text index");
+			addCreateFullTextSQLs(tableMigration, tableModel);
+		}
 	}
 
 	/**
-	 * When some fields type are changed in class, the table should drop the
-	 * before columns and create new columns with same name but new types.
-	 * 
-	 * @param columnModelList
-	 *            List with ColumnModel to change column type.
+	 * Check if two lists contain the same column names in the same order,
+	 * ignoring cases.
 	 */
-	private void changeColumnsType(List<ColumnModel> columnModelList) {
-        LogUtil.d(TAG, "do changeColumnsType");
-        List<String> columnNames = new ArrayList<String>();
-        if (columnModelList != null && !columnModelList.isEmpty()) {
-            for (ColumnModel columnModel : columnModelList) {
-                columnNames.add(columnModel.getColumnName());
-            }
-        }
-		removeColumns(columnNames);
-		addColumns(columnModelList);
+	private boolean isSameColumns(List<String> columnNames, List<String> otherColumnNames) {
+		if (columnNames.size() != otherColumnNames.size()) {
+			return false;
+		}
+		for (int i = 0; i < columnNames.size(); i++) {
+			if (!columnNames.get(i).equalsIgnoreCase(otherColumnNames.get(i))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
-    /**
-     * When fields annotation changed in class, table should change the corresponding constraints
-     * make them sync to the fields annotation.
-     */
-    private void changeColumnsConstraints() {
-        if (hasConstraintChanged) {
-            LogUtil.d(TAG, "do changeColumnsConstraints");
-            execute(getChangeColumnsConstraintsSQL(), mDb);
-        }
-    }
+	/**
+	 * Estimate the count of rows in the table by the max rowid, which is
+	 * found from the primary key without scanning the table.
+	 *
+	 * @param tableName
+	 *            The table name.
+	 * @return The estimated count of rows.
+	 */
+	private long estimateRowCount(String tableName) {
+		Cursor cursor = null;
+		try {
+			cursor = mDb.rawQuery("select max(rowid) from " + tableName, null);
+			if (cursor.moveToFirst()) {
+				return cursor.getLong(0);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			if (cursor != null) {
+				cursor.close();
+			}
+		}
+		return 0;
+	}
 
-    /**
-     * This method create a SQL array for the whole changing column constraints job.
-     * @return A SQL array contains create temporary table, create new table, add foreign keys,
-     *         migrate data and drop temporary table.
-     */
-    private String[] getChangeColumnsConstraintsSQL() {
-        String alterToTempTableSQL = generateAlterToTempTableSQL(mTableModel.getTableName());
-        String createNewTableSQL = generateCreateTableSQL(mTableModel);
-        List<String> addForeignKeySQLs = generateAddForeignKeySQL();
-        String dataMigrationSQL = generateDataMigrationSQL(mTableModelDB);
-        String dropTempTableSQL = generateDropTempTableSQL(mTableModel.getTableName());
-        List<String> sqls = new ArrayList<String>();
-        sqls.add(alterToTempTableSQL);
-        sqls.add(createNewTableSQL);
-        sqls.addAll(addForeignKeySQLs);
-        sqls.add(dataMigrationSQL);
-        sqls.add(dropTempTableSQL);
-        LogUtil.d(TAG, "generateChangeConstraintSQL >> ");
-        for (String sql : sqls) {
-            LogUtil.d(TAG, sql);
-        }
-        LogUtil.d(TAG, "<< generateChangeConstraintSQL");
-        return sqls.toArray(new String[0]);
-    }
+	/**
+	 * Find the column model with the name in the list.
+	 *
+	 * @param columnModels
+	 *            The column models to look up.
+	 * @param columnName
+	 *            The column name to find.
+	 * @return The column model with the name, or null.
+	 */
+	private ColumnModel findColumnModelByName(List<ColumnModel> columnModels, String columnName) {
+		for (ColumnModel columnModel : columnModels) {
+			if (columnModel.getColumnName().equalsIgnoreCase(columnName)) {
+				return columnModel;
+			}
+		}
+		return null;
+	}
 
-    /**
-     * Generate a SQL List for adding foreign keys. Changing constraints job should remain all the
-     * existing columns including foreign keys. This method add origin foreign keys after creating
-     * table.
-     * @return A SQL List for adding foreign keys.
-     */
-    private List<String> generateAddForeignKeySQL() {
-        List<String> addForeignKeySQLs = new ArrayList<String>();
-        List<String> foreignKeyColumns = getForeignKeyColumns(mTableModel);
-        for (String foreignKeyColumn : foreignKeyColumns) {
-            if (!mTableModel.containsColumn(foreignKeyColumn)) {
-                ColumnModel columnModel = new ColumnModel();
-                columnModel.setColumnName(foreignKeyColumn);
-                columnModel.setColumnType("integer");
-                addForeignKeySQLs.add(generateAddColumnSQL(mTableModel.getTableName(), columnModel));
-            }
-        }
-        return addForeignKeySQLs;
-    }
+	/**
+	 * Find the index model with the name in the list.
+	 *
+	 * @param indexModels
+	 *            The index models to look up.
+	 * @param indexName
+	 *            The index name to find.
+	 * @return The index model with the name, or null.
+	 */
+	private IndexModel findIndexModelByName(List<IndexModel> indexModels, String indexName) {
+		for (IndexModel indexModel : indexModels) {
+			if (indexModel.getIndexName().equalsIgnoreCase(indexName)) {
+				return indexModel;
+			}
+		}
+		return null;
+	}
 
 }
@@ -39,6 +39,28 @@ public class ColumnModel {
      */
     private String defaultValue = "";
 
+    /**
+     * Indexed or not.
+     */
+    private boolean isIndexed = false;
+
+    public ColumnModel() {
+    }
+
+    /**
+     * Copy all the values of another column model. The default value is copied as it is, since
+     * {@link #setDefaultValue(String)} would quote a text default again.
+     * @param columnModel The column model to copy.
+     */
+    public ColumnModel(ColumnModel columnModel) {
+        columnName = columnModel.columnName;
+        columnType = columnModel.columnType;
+        isNullable = columnModel.isNullable;
+        isUnique = columnModel.isUnique;
+        defaultValue = columnModel.defaultValue;
+        isIndexed = columnModel.isIndexed;
+    }
+
     public String getColumnName() {
         return columnName;
     }
@@ -85,6 +107,14 @@ public class ColumnModel {
         }
     }
 
+    public boolean isIndexed() {
+        return isIndexed;
+    }
+
+    public void setIsIndexed(boolean isIndexed) {
+        this.isIndexed = isIndexed;
+    }
+
     /**
      * Judge current ColumnModel is id column or not.
      * @return True if it's id column. False otherwise.
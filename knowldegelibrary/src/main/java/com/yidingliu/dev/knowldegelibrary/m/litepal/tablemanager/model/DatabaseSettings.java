@@ -0,0 +1,101 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model;
+
+/**
+ * This is a model class for the settings which are in effect on the database connection. The
+ * values are read back from SQLite, so they show what is really applied, no matter they come from
+ * litepal.xml or the defaults.
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class DatabaseSettings {
+
+    /**
+     * The journal mode, such as wal or delete.
+     */
+    private String journalMode;
+
+    /**
+     * The synchronous level, such as normal or full.
+     */
+    private String synchronous;
+
+    /**
+     * The page size in bytes.
+     */
+    private long pageSize;
+
+    /**
+     * The page cache size, pages if positive and KiB if negative.
+     */
+    private long pageCacheSize;
+
+    /**
+     * The max bytes of database to access with memory mapped I/O.
+     */
+    private long mmapSize;
+
+    /**
+     * Where temporary tables and indexes are stored, such as memory.
+     */
+    private String tempStore;
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public void setJournalMode(String journalMode) {
+        this.journalMode = journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public void setSynchronous(String synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(long pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public long getPageCacheSize() {
+        return pageCacheSize;
+    }
+
+    public void setPageCacheSize(long pageCacheSize) {
+        this.pageCacheSize = pageCacheSize;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public void setMmapSize(long mmapSize) {
+        this.mmapSize = mmapSize;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public void setTempStore(String tempStore) {
+        this.tempStore = tempStore;
+    }
+
+    @Override
+    public String toString() {
+        return "journal_mode=" + journalMode + ", synchronous=" + synchronous + ", page_size="
+                + pageSize + ", cache_size=" + pageCacheSize + ", mmap_size=" + mmapSize
+                + ", temp_store=" + tempStore;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a model class for indexes. It stores index name, the indexed columns in order, and
+ * whether the index is unique.
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class IndexModel {
+
+    /**
+     * Name of index.
+     */
+    private String indexName;
+
+    /**
+     * Names of the indexed columns in order.
+     */
+    private List<String> columnNames = new ArrayList<String>();
+
+    /**
+     * Unique constraint.
+     */
+    private boolean isUnique = false;
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public void addColumnName(String columnName) {
+        columnNames.add(columnName);
+    }
+
+    public boolean isUnique() {
+        return isUnique;
+    }
+
+    public void setIsUnique(boolean isUnique) {
+        this.isUnique = isUnique;
+    }
+
+    /**
+     * Judge the passed in index indexes the same columns in the same order with the same unique
+     * constraint. Index names are not compared.
+     * @param indexModel
+     *          The index to compare with.
+     * @return True if they are the same, false otherwise.
+     */
+    public boolean hasSameDefinition(IndexModel indexModel) {
+        if (isUnique != indexModel.isUnique() || columnNames.size() != indexModel.getColumnNames().size()) {
+            return false;
+        }
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (!columnNames.get(i).equalsIgnoreCase(indexModel.getColumnNames().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a model class for the plan of upgrading the database to the current models. It stores
+ * a {@link TableMigration} for each model table, and for each table to drop.
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class MigrationPlan {
+
+    /**
+     * A list contains the migration of each table.
+     */
+    private List<TableMigration> tableMigrations = new ArrayList<TableMigration>();
+
+    /**
+     * Add the migration of a table into the plan.
+     * @param tableMigration
+     *          The migration of a table.
+     */
+    public void addTableMigration(TableMigration tableMigration) {
+        tableMigrations.add(tableMigration);
+    }
+
+    /**
+     * Find all the table migrations of the plan.
+     * @return A list contains all table migrations.
+     */
+    public List<TableMigration> getTableMigrations() {
+        return tableMigrations;
+    }
+
+    /**
+     * Sum the estimated rows of the tables which will be rebuilt, which is the main cost of
+     * upgrading.
+     * @return The estimated count of rows to copy.
+     */
+    public long getEstimatedRowsToCopy() {
+        long rows = 0;
+        for (TableMigration tableMigration : tableMigrations) {
+            if (tableMigration.getAction() == TableMigration.ACTION_REBUILD) {
+                rows += tableMigration.getEstimatedRows();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Judge the plan has anything to do or not.
+     * @return True if all the tables are untouched. False otherwise.
+     */
+    public boolean isEmpty() {
+        for (TableMigration tableMigration : tableMigrations) {
+            if (tableMigration.getAction() != TableMigration.ACTION_NONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("migration plan, ~");
+        builder.append(getEstimatedRowsToCopy()).append(" rows to copy");
+        for (TableMigration tableMigration : tableMigrations) {
+            builder.append("\n").append(tableMigration);
+        }
+        return builder.toString();
+    }
+
+}
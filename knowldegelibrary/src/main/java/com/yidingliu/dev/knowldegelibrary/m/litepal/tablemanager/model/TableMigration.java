@@ -0,0 +1,122 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a model class for the migration of one table in a {@link MigrationPlan}. It stores
+ * what will be done to the table, the changes found, the SQLs to run and how many rows the table
+ * is estimated to have.
+ * @author Tony Green
+ * @since 1.3.2
+ */
+public class TableMigration {
+
+    /**
+     * The table is the same as its model, nothing will be done.
+     */
+    public static final int ACTION_NONE = 0;
+
+    /**
+     * The table doesn't exist and will be created.
+     */
+    public static final int ACTION_CREATE = 1;
+
+    /**
+     * Columns will be added or indexes will be changed in place, no data is copied.
+     */
+    public static final int ACTION_ALTER = 2;
+
+    /**
+     * The table will be rebuilt and its data copied once into the new table.
+     */
+    public static final int ACTION_REBUILD = 3;
+
+    /**
+     * The table will be dropped and created again, its data will be lost. Only happens when a
+     * column becomes unique, or a unique not null column is added, as the existing rows can't
+     * satisfy the constraint.
+     */
+    public static final int ACTION_RECREATE = 4;
+
+    /**
+     * The table has no model any more and will be dropped.
+     */
+    public static final int ACTION_DROP = 5;
+
+    /**
+     * Name of table.
+     */
+    private String tableName;
+
+    /**
+     * What will be done to the table.
+     */
+    private int action = ACTION_NONE;
+
+    /**
+     * The estimated count of rows in the table.
+     */
+    private long estimatedRows;
+
+    /**
+     * Descriptions of the changes found.
+     */
+    private List<String> changes = new ArrayList<String>();
+
+    /**
+     * The SQLs to run in order.
+     */
+    private List<String> sqls = new ArrayList<String>();
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public void setAction(int action) {
+        this.action = action;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows(long estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    public List<String> getChanges() {
+        return changes;
+    }
+
+    public void addChange(String change) {
+        changes.add(change);
+    }
+
+    public List<String> getSqls() {
+        return sqls;
+    }
+
+    public void addSql(String sql) {
+        sqls.add(sql);
+    }
+
+    @Override
+    public String toString() {
+        String[] actionNames = { "none", "create", "alter", "rebuild", "recreate", "drop" };
+        return tableName + " " + actionNames[action] + " (~" + estimatedRows + " rows) " + changes;
+    }
+
+}
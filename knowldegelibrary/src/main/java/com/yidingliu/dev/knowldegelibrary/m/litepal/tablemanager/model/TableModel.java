@@ -28,6 +28,16 @@ public class TableModel {
      */
     private List<ColumnModel> columnModels = new ArrayList<ColumnModel>();
 
+    /**
+     * A list contains the index models declared for the table.
+     */
+    private List<IndexModel> indexModels = new ArrayList<IndexModel>();
+
+    /**
+     * The columns in the full text index of the table, empty if the table has no full text index.
+     */
+    private List<String> fullTextColumns = new ArrayList<String>();
+
 	/**
 	 * Class name for the table name. This value might be null. Don't rely on it.
 	 */
@@ -89,6 +99,41 @@ public class TableModel {
         return columnModels;
     }
 
+    /**
+     * Add an index model into the table model.
+     *
+     * @param indexModel
+     *            An index model contains name, columns and constraint.
+     */
+    public void addIndexModel(IndexModel indexModel) {
+        indexModels.add(indexModel);
+    }
+
+    /**
+     * Find all the index models of the current table model.
+     * @return A list contains all index models.
+     */
+    public List<IndexModel> getIndexModels() {
+        return indexModels;
+    }
+
+    /**
+     * Add a column into the full text index of the table.
+     * @param columnName
+     *          Name of column.
+     */
+    public void addFullTextColumn(String columnName) {
+        fullTextColumns.add(columnName);
+    }
+
+    /**
+     * Find the columns in the full text index of the table.
+     * @return A list contains the column names, or an empty list.
+     */
+    public List<String> getFullTextColumns() {
+        return fullTextColumns;
+    }
+
     /**
      * Find the ColumnModel which can map the column name passed in.
      * @param columnName
@@ -77,4 +77,58 @@ public interface Const {
 		public static final int INTERMEDIATE_JOIN_TABLE = 1;
 	}
 
+	public interface Index {
+		/**
+		 * Prefix of the indexes declared by models, which are created and
+		 * dropped by upgrading as the declarations change.
+		 */
+		public static final String PREFIX = "litepal_index_";
+
+		/**
+		 * Prefix of the indexes created for foreign key columns and the
+		 * columns of intermediate join tables.
+		 */
+		public static final String FOREIGN_KEY_PREFIX = "litepal_fk_index_";
+	}
+
+	public interface FullText {
+		/**
+		 * Suffix of the full text index tables, appended to the name of the
+		 * indexed table.
+		 */
+		public static final String TABLE_SUFFIX = "_fts";
+
+		/**
+		 * Prefix of the triggers which keep the full text index tables in sync
+		 * with the indexed tables.
+		 */
+		public static final String TRIGGER_PREFIX = "litepal_fts_";
+	}
+
+	public interface Pragma {
+		/**
+		 * The journal mode which is applied by enabling write-ahead logging
+		 * on the connection, instead of the journal_mode pragma.
+		 */
+		public static final String JOURNAL_MODE_WAL = "wal";
+
+		/**
+		 * The journal modes allowed in litepal.xml.
+		 */
+		public static final String[] JOURNAL_MODES = { "delete", "truncate", "persist", "memory",
+				JOURNAL_MODE_WAL, "off" };
+
+		/**
+		 * The synchronous levels allowed in litepal.xml, the index of each is
+		 * the value returned by the synchronous pragma.
+		 */
+		public static final String[] SYNCHRONOUS_LEVELS = { "off", "normal", "full", "extra" };
+
+		/**
+		 * The temp stores allowed in litepal.xml, the index of each is the
+		 * value returned by the temp_store pragma.
+		 */
+		public static final String[] TEMP_STORES = { "default", "file", "memory" };
+	}
+
 }
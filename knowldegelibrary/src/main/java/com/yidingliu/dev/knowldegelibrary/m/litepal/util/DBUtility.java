@@ -10,6 +10,7 @@ import android.text.TextUtils;
 
 import com.yidingliu.dev.knowldegelibrary.m.litepal.exceptions.DatabaseGenerateException;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.ColumnModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.IndexModel;
 import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
 
 import java.util.ArrayList;
@@ -114,6 +115,34 @@ public class DBUtility {
 		return null;
 	}
 
+	/**
+	 * Get the name of an index by the table name and the indexed columns. The
+	 * name is the prefix, the table name, two underlines and the column names
+	 * joined by underline.
+	 * 
+	 * @param prefix
+	 *            The prefix which tells who manages the index, see
+	 *            {@link Const.Index}.
+	 * @param tableName
+	 *            The table name.
+	 * @param columnNames
+	 *            The indexed columns in order.
+	 * @return The name of index.
+	 */
+	public static String getIndexName(String prefix, String tableName, List<String> columnNames) {
+		StringBuilder indexName = new StringBuilder(prefix);
+		indexName.append(tableName).append("__");
+		boolean needSeparator = false;
+		for (String columnName : columnNames) {
+			if (needSeparator) {
+				indexName.append("_");
+			}
+			needSeparator = true;
+			indexName.append(columnName);
+		}
+		return indexName.toString();
+	}
+
 	/**
 	 * Judge the table name is an intermediate table or not.
 	 * 
@@ -325,8 +354,9 @@ public class DBUtility {
             if (cursor.moveToFirst()) {
                 do {
                     int unique = cursor.getInt(cursor.getColumnIndexOrThrow("unique"));
-                    if (unique == 1) {
-                        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
+                    String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
+                    // unique indexes declared by models are not column constraints
+                    if (unique == 1 && !name.toLowerCase().startsWith(Const.Index.PREFIX)) {
                         innerCursor = db.rawQuery("pragma index_info(" + name + ")", null);
                         if (innerCursor.moveToFirst()) {
                             String columnName = innerCursor.getString(innerCursor.getColumnIndexOrThrow("name"));
@@ -349,4 +379,96 @@ public class DBUtility {
         return columns;
     }
 
+    /**
+     * Find the indexes of specified table whose names start with the prefix.
+     * @param tableName
+     *          The table to find indexes.
+     * @param prefix
+     *          The prefix of index names, see {@link Const.Index}.
+     * @param db
+     *          Instance of SQLiteDatabase.
+     * @return A list with the matched indexes of specified table.
+     */
+    public static List<IndexModel> findIndexes(String tableName, String prefix, SQLiteDatabase db) {
+        List<IndexModel> indexes = new ArrayList<IndexModel>();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("pragma index_list(" + tableName + ")", null);
+            if (cursor.moveToFirst()) {
+                do {
+                    String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
+                    if (!name.toLowerCase().startsWith(prefix.toLowerCase())) {
+                        continue;
+                    }
+                    IndexModel indexModel = new IndexModel();
+                    indexModel.setIndexName(name);
+                    indexModel.setIsUnique(cursor.getInt(cursor.getColumnIndexOrThrow("unique")) == 1);
+                    Cursor innerCursor = db.rawQuery("pragma index_info(" + name + ")", null);
+                    try {
+                        if (innerCursor.moveToFirst()) {
+                            do {
+                                indexModel.addColumnName(innerCursor.getString(innerCursor.getColumnIndexOrThrow("name")));
+                            } while (innerCursor.moveToNext());
+                        }
+                    } finally {
+                        innerCursor.close();
+                    }
+                    indexes.add(indexModel);
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new DatabaseGenerateException(e.getMessage());
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Get the name of the full text index table of specified table.
+     * @param tableName
+     *          The indexed table.
+     * @return The name of full text index table.
+     */
+    public static String getFullTextTableName(String tableName) {
+        return tableName + Const.FullText.TABLE_SUFFIX;
+    }
+
+    /**
+     * Find the columns in the full text index of specified table.
+     * @param tableName
+     *          The indexed table.
+     * @param db
+     *          Instance of SQLiteDatabase.
+     * @return A list with the indexed columns in order, or null if the table has no full text
+     *          index.
+     */
+    public static List<String> findFullTextColumns(String tableName, SQLiteDatabase db) {
+        String fullTextTableName = getFullTextTableName(tableName);
+        if (!isTableExists(fullTextTableName, db)) {
+            return null;
+        }
+        List<String> columnNames = new ArrayList<String>();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("pragma table_info(" + fullTextTableName + ")", null);
+            if (cursor.moveToFirst()) {
+                do {
+                    columnNames.add(cursor.getString(cursor.getColumnIndexOrThrow("name")));
+                } while (cursor.moveToNext());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new DatabaseGenerateException(e.getMessage());
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return columnNames;
+    }
+
 }
@@ -14,14 +14,33 @@ import com.yidingliu.dev.knowldegelibrary.m.okhttp.builder.GetBuilder;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.builder.PostFileBuilder;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.builder.PostFormBuilder;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.builder.PostStringBuilder;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.cache.CacheInterceptor;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.cache.CachePolicy;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.cache.ResponseCache;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.Callback;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.cookie.CookiesManager;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch.RequestThrottler;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch.SharedCall;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.download.FileDownloader;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.https.HttpsUtils;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.request.RequestCall;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSession;
@@ -42,12 +61,19 @@ public class OkHttpUtils
     private static OkHttpUtils mInstance;
     private OkHttpClient mOkHttpClient;
     private Handler mDelivery;
+    private RequestThrottler mThrottler = new RequestThrottler().perHostRate(10, 10);
+    private final CacheInterceptor mCacheInterceptor = new CacheInterceptor();
+    private ExecutorService mCacheExecutor;
+    private final Map<String, SharedCall> mSharedCalls = new HashMap<String, SharedCall>();
+    private volatile Set<String> mVolatileParams = Collections.unmodifiableSet(
+            new HashSet<String>(Arrays.asList("t", "s")));
 
     private OkHttpUtils ( Context context )
     {
         OkHttpClient.Builder okHttpClientBuilder = new OkHttpClient.Builder();
         //cookie enabled
         okHttpClientBuilder.cookieJar (new CookiesManager ( context) );
+        okHttpClientBuilder.addInterceptor(mCacheInterceptor);
         mDelivery = new Handler(Looper.getMainLooper());
 
 
@@ -120,6 +146,52 @@ public class OkHttpUtils
     }
 
 
+    /**
+     * Replace the throttler which decides when the calls are enqueued, or pass null to enqueue
+     * every call at once. By default each host can start 10 calls per second.
+     */
+    public void setThrottler(RequestThrottler throttler)
+    {
+        mThrottler = throttler;
+    }
+
+    public RequestThrottler getThrottler()
+    {
+        return mThrottler;
+    }
+
+    /**
+     * Enable the response cache for the requests with a {@link CachePolicy}, or pass null directory
+     * to disable it.
+     *
+     * @param directory where to store the cached responses, should be used only by the cache
+     * @param maxSize   the max bytes of the cached responses
+     */
+    public void setCache(File directory, long maxSize)
+    {
+        mCacheInterceptor.setCache(directory == null ? null : new ResponseCache(directory, maxSize));
+    }
+
+    public ResponseCache getResponseCache()
+    {
+        return mCacheInterceptor.getCache();
+    }
+
+    /**
+     * Set the params which change every time, such as the timestamp t and signature s added by
+     * HttpManager. They are left out of {@link RequestCall#getKey()}, so that the same request
+     * signed at different times shares its cached response. t and s by default.
+     */
+    public void setVolatileParams(String... names)
+    {
+        mVolatileParams = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(names)));
+    }
+
+    public Set<String> getVolatileParams()
+    {
+        return mVolatileParams;
+    }
+
     public static GetBuilder get()
     {
         return new GetBuilder ();
@@ -140,6 +212,14 @@ public class OkHttpUtils
         return new PostFormBuilder();
     }
 
+    /**
+     * Download a file with resume, and parallel segments if asked, see {@link FileDownloader}.
+     */
+    public static FileDownloader download(String url)
+    {
+        return new FileDownloader(url);
+    }
+
 
     public void execute ( final RequestCall requestCall, Callback callback )
     {
@@ -154,14 +234,47 @@ public class OkHttpUtils
         if (debug) Log.d(tag, "execute执行了啊......");
         if (callback == null)
             callback = Callback.CALLBACK_DEFAULT;
+
+        SharedCall sharedCall = null;
+        Object resultKey = callback.getResultKey();
+        if (requestCall.isShareable() && resultKey != null)
+        {
+            // identical requests in flight share one call.
+            String key = requestCall.getKey() + "\n" + resultKey;
+            synchronized (mSharedCalls)
+            {
+                SharedCall inFlight = mSharedCalls.get(key);
+                if (inFlight != null)
+                {
+                    if (debug) Log.d(tag, "share the call in flight: " + key);
+                    inFlight.add(requestCall, callback);
+                    return;
+                }
+                sharedCall = new SharedCall(key, requestCall, callback);
+                sharedCall.setCall(requestCall.regenerateCall(sharedCall));
+                mSharedCalls.put(key, sharedCall);
+            }
+            callback = sharedCall;
+        }
         final Callback finalCallback = callback;
+        final SharedCall finalSharedCall = sharedCall;
 
         final Call call = requestCall.getCall();
-        
-        call.enqueue(new okhttp3.Callback() {
+        final RequestThrottler throttler = mThrottler;
+        final AtomicBoolean staleDelivered = new AtomicBoolean();
+        final okhttp3.Callback responseCallback = new okhttp3.Callback() {
         	
 			@Override
 			public void onResponse(Response response) throws IOException {
+				if (finalSharedCall != null) removeSharedCall(finalSharedCall);
+				try {
+					handleResponse(response);
+				} finally {
+					if (throttler != null) throttler.finished();
+				}
+			}
+
+			private void handleResponse(Response response) {
 				if (debug){
 					
 					 Log.d(tag, "Response  cache response:    " + response.cacheResponse()+"");
@@ -176,8 +289,23 @@ public class OkHttpUtils
 			            //System.out.println(responseHeaders.name(i) + ": " + responseHeaders.value(i));
 			         }
 				}   
+				 String cacheSource = response.header(CachePolicy.HEADER_SOURCE);
+				 if (staleDelivered.get() && CachePolicy.SOURCE_REVALIDATED.equals(cacheSource))
+				 {
+				     // the stale response delivered is still fresh.
+				     response.body().close();
+				     sendAfterCallback(finalCallback);
+				     return;
+				 }
 				 if (response.code() >= 400 && response.code() <= 599)
 	                {
+	                    if (staleDelivered.get())
+	                    {
+	                        // keep showing the stale response, the same as a network failure.
+	                        response.body().close();
+	                        sendAfterCallback(finalCallback);
+	                        return;
+	                    }
 	                    try
 	                    {   if (debug) Log.d(tag, "response.code():400-600");
 	                        sendFailResultCallback(call, new RuntimeException(response.body().string()), finalCallback);
@@ -191,7 +319,7 @@ public class OkHttpUtils
 	                try
 	                {   if (debug) Log.d(tag, "response.code():<400 || >600");
 	                    Object o = finalCallback.parseNetworkResponse(response);
-	                    sendSuccessResultCallback(o, finalCallback);
+	                    sendSuccessResultCallback(o, finalCallback, cacheSource != null);
 	                } catch (Exception e)
 	                {   if (debug) Log.d(tag, "response.code():<400 || >600 on Exception");
 	                    sendFailResultCallback(call, e, finalCallback);
@@ -201,10 +329,111 @@ public class OkHttpUtils
 			@Override
 			public void onFailure(Request arg0, IOException e) {
 				 if (debug) Log.d(tag, "onFailure, Request :"+arg0.toString());
-				 sendFailResultCallback(call, e, finalCallback);
-				
+				 if (finalSharedCall != null) removeSharedCall(finalSharedCall);
+				 if (staleDelivered.get())
+				 {
+				     // keep showing the stale response.
+				     sendAfterCallback(finalCallback);
+				 } else
+				 {
+				     sendFailResultCallback(call, e, finalCallback);
+				 }
+				 if (throttler != null) throttler.finished();
 			}
-		});
+		};
+        final Runnable enqueue = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                call.enqueue(responseCallback);
+            }
+        };
+        final Runnable dispatch = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (throttler == null)
+                {
+                    enqueue.run();
+                } else
+                {
+                    throttler.submit(call, requestCall.getPriority(), enqueue);
+                }
+            }
+        };
+        final ResponseCache cache = getResponseCache();
+        if (cache != null && requestCall.getCachePolicy() == CachePolicy.STALE_WHILE_REVALIDATE)
+        {
+            getCacheExecutor().execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    deliverStale(cache, requestCall, finalCallback, staleDelivered);
+                    dispatch.run();
+                }
+            });
+        } else
+        {
+            dispatch.run();
+        }
+    }
+
+    /**
+     * Stop sharing the call once its response arrives, the later identical requests make a new
+     * call.
+     */
+    private void removeSharedCall(SharedCall sharedCall)
+    {
+        synchronized (mSharedCalls)
+        {
+            if (mSharedCalls.get(sharedCall.getKey()) == sharedCall)
+            {
+                mSharedCalls.remove(sharedCall.getKey());
+            }
+        }
+    }
+
+    /**
+     * Deliver the cached response of the request before it is revalidated, without onAfter.
+     */
+    private void deliverStale(ResponseCache cache, RequestCall requestCall, final Callback callback,
+                              AtomicBoolean staleDelivered)
+    {
+        ResponseCache.Entry entry = cache.get(requestCall.getKey());
+        if (entry == null || requestCall.getCall().isCanceled())
+        {
+            return;
+        }
+        final Object o;
+        try
+        {
+            o = callback.parseNetworkResponse(entry.toResponse(requestCall.getRequest(), CachePolicy.SOURCE_CACHE));
+        } catch (Exception e)
+        {
+            if (debug) Log.d(tag, "stale response not parsed: " + e);
+            return;
+        }
+        staleDelivered.set(true);
+        mDelivery.post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                callback.onResponse(o, true);
+            }
+        });
+    }
+
+    private synchronized ExecutorService getCacheExecutor()
+    {
+        if (mCacheExecutor == null)
+        {
+            mCacheExecutor = Executors.newSingleThreadExecutor();
+        }
+        return mCacheExecutor;
     }
 
 
@@ -224,6 +453,11 @@ public class OkHttpUtils
     }
 
     public void sendSuccessResultCallback(final Object object, final Callback callback)
+    {
+        sendSuccessResultCallback(object, callback, false);
+    }
+
+    public void sendSuccessResultCallback(final Object object, final Callback callback, final boolean fromCache)
     {
         if (callback == null) return;
         mDelivery.post(new Runnable()
@@ -231,14 +465,87 @@ public class OkHttpUtils
             @Override
             public void run()
             {
-                callback.onResponse(object);
+                callback.onResponse(object, fromCache);
                 callback.onAfter();
             }
         });
     }
 
+    /**
+     * Tell an unsubscribed request it's cancelled, the same as OkHttp does for a cancelled call.
+     */
+    private void sendCanceledCallback(SharedCall.Subscriber subscriber)
+    {
+        sendFailResultCallback(subscriber.getCall(), new IOException("Canceled"), subscriber.getCallback());
+    }
+
+    private void sendAfterCallback(final Callback callback)
+    {
+        mDelivery.post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                callback.onAfter();
+            }
+        });
+    }
+
+    /**
+     * Cancel a request. If it shares a call with identical requests, only this request is
+     * unsubscribed, the call goes on for the others.
+     */
+    public void cancel(RequestCall requestCall)
+    {
+        synchronized (mSharedCalls)
+        {
+            for (SharedCall sharedCall : mSharedCalls.values())
+            {
+                SharedCall.Subscriber subscriber = sharedCall.detach(requestCall);
+                if (subscriber != null)
+                {
+                    if (sharedCall.isEmpty())
+                    {
+                        mSharedCalls.remove(sharedCall.getKey());
+                        sharedCall.getCall().cancel();
+                    }
+                    sendCanceledCallback(subscriber);
+                    return;
+                }
+            }
+        }
+        if (requestCall.getCall() != null)
+        {
+            requestCall.getCall().cancel();
+        }
+    }
+
     public void cancelTag(Object tag)
     {
+        List<SharedCall.Subscriber> detached = new ArrayList<SharedCall.Subscriber>();
+        synchronized (mSharedCalls)
+        {
+            Iterator<SharedCall> iterator = mSharedCalls.values().iterator();
+            while (iterator.hasNext())
+            {
+                SharedCall sharedCall = iterator.next();
+                detached.addAll(sharedCall.detach(tag));
+                if (sharedCall.isEmpty())
+                {
+                    iterator.remove();
+                    sharedCall.getCall().cancel();
+                }
+            }
+        }
+        for (SharedCall.Subscriber subscriber : detached)
+        {
+            sendCanceledCallback(subscriber);
+        }
+        FileDownloader.cancelTag(tag);
+        if (mThrottler != null)
+        {
+            mThrottler.cancelTag(tag);
+        }
         for (Call call : mOkHttpClient.dispatcher().queuedCalls())
         {
             if (tag.equals(call.request().tag()))
@@ -0,0 +1,111 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.cache;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Applies the {@link CachePolicy} of each request with the {@link ResponseCache}. The policy is
+ * carried by the request headers of {@link CachePolicy}, which are removed before the request goes
+ * to the network. Requests without a policy, or any request when no cache is set, pass through.
+ */
+public class CacheInterceptor implements Interceptor
+{
+    private volatile ResponseCache mCache;
+
+    public void setCache(ResponseCache cache)
+    {
+        mCache = cache;
+    }
+
+    public ResponseCache getCache()
+    {
+        return mCache;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        Request request = chain.request();
+        String policyHeader = request.header(CachePolicy.HEADER_POLICY);
+        if (policyHeader == null)
+        {
+            return chain.proceed(request);
+        }
+        int policy = Integer.parseInt(policyHeader);
+        long maxStale = Long.parseLong(request.header(CachePolicy.HEADER_MAX_STALE));
+        String key = request.header(CachePolicy.HEADER_KEY);
+        request = request.newBuilder()
+                .removeHeader(CachePolicy.HEADER_POLICY)
+                .removeHeader(CachePolicy.HEADER_MAX_STALE)
+                .removeHeader(CachePolicy.HEADER_KEY)
+                .build();
+        ResponseCache cache = mCache;
+        if (cache == null || policy == CachePolicy.NETWORK_ONLY)
+        {
+            return chain.proceed(request);
+        }
+
+        ResponseCache.Entry entry = cache.get(key);
+        boolean usable = entry != null && entry.getAge() <= maxStale;
+        if (policy == CachePolicy.CACHE_FIRST && usable)
+        {
+            return entry.toResponse(request, CachePolicy.SOURCE_CACHE);
+        }
+
+        Request.Builder networkRequest = request.newBuilder();
+        if (entry != null && entry.getEtag() != null)
+        {
+            networkRequest.header("If-None-Match", entry.getEtag());
+        }
+        if (entry != null && entry.getLastModified() != null)
+        {
+            networkRequest.header("If-Modified-Since", entry.getLastModified());
+        }
+        Response response;
+        try
+        {
+            response = chain.proceed(networkRequest.build());
+        } catch (IOException e)
+        {
+            if (policy == CachePolicy.MAX_STALE && usable)
+            {
+                return entry.toResponse(request, CachePolicy.SOURCE_CACHE);
+            }
+            throw e;
+        }
+
+        if (response.code() == 304 && entry != null)
+        {
+            response.body().close();
+            cache.touch(key);
+            return entry.toResponse(request, CachePolicy.SOURCE_REVALIDATED);
+        }
+        if (response.code() >= 500 && policy == CachePolicy.MAX_STALE && usable)
+        {
+            response.body().close();
+            return entry.toResponse(request, CachePolicy.SOURCE_CACHE);
+        }
+        if (response.code() == 200 && !response.cacheControl().noStore())
+        {
+            ResponseBody body = response.body();
+            byte[] bytes = body.bytes();
+            try
+            {
+                cache.put(key, response, bytes);
+            } catch (IOException ignored)
+            {
+                // the response is still fine without being cached.
+            }
+            return response.newBuilder().body(ResponseBody.create(body.contentType(), bytes)).build();
+        }
+        return response;
+    }
+}
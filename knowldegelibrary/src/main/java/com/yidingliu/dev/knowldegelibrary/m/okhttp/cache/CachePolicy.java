@@ -0,0 +1,64 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.cache;
+
+/**
+ * How a request uses the {@link ResponseCache}, which is set by
+ * {@link com.yidingliu.dev.knowldegelibrary.m.okhttp.request.RequestCall#cachePolicy(int, long)}.
+ * Only successful responses are cached, and a cached response is always revalidated with its
+ * ETag and Last-Modified when the network is used.
+ */
+public final class CachePolicy
+{
+    /**
+     * Always use the network, and don't cache the response. The default.
+     */
+    public static final int NETWORK_ONLY = 0;
+
+    /**
+     * Use the cached response if it's not older than max stale, without the network. Otherwise use
+     * the network.
+     */
+    public static final int CACHE_FIRST = 1;
+
+    /**
+     * Deliver the cached response at once, then revalidate it by the network and deliver again if
+     * it has changed. onResponse could be called twice, onAfter is called once at last.
+     */
+    public static final int STALE_WHILE_REVALIDATE = 2;
+
+    /**
+     * Use the network, and fall back to the cached response if it's not older than max stale when
+     * the network fails or the server answers 5xx. For being offline.
+     */
+    public static final int MAX_STALE = 3;
+
+    /**
+     * Headers which carry the policy of a request to {@link CacheInterceptor}, they are removed
+     * before the request is sent.
+     */
+    public static final String HEADER_POLICY = "X-OkHttpUtils-Cache-Policy";
+    public static final String HEADER_MAX_STALE = "X-OkHttpUtils-Cache-Max-Stale";
+    public static final String HEADER_KEY = "X-OkHttpUtils-Cache-Key";
+
+    /**
+     * Header of a response which comes from the cache, with one of the SOURCE values.
+     */
+    public static final String HEADER_SOURCE = "X-OkHttpUtils-Cache-Source";
+
+    /**
+     * The response is read from the cache without the network.
+     */
+    public static final String SOURCE_CACHE = "cache";
+
+    /**
+     * The response is read from the cache after the server answered it's not modified.
+     */
+    public static final String SOURCE_REVALIDATED = "revalidated";
+
+    private CachePolicy()
+    {
+    }
+}
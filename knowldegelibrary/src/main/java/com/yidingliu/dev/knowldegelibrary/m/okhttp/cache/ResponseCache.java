@@ -0,0 +1,296 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * A disk cache of successful responses, keyed by
+ * {@link com.yidingliu.dev.knowldegelibrary.m.okhttp.request.RequestCall#getKey()}, so that the
+ * signed POST requests can be cached as well as GET. Each entry is a file holding the ETag,
+ * Last-Modified and Content-Type with the body, and the modified time of the file is when the
+ * response was last fetched or revalidated. The least recently fetched entries are removed when the
+ * cache grows over its max size.
+ */
+public class ResponseCache
+{
+    private final File mDirectory;
+    private final long mMaxSize;
+    private long mSize = -1;
+
+    public ResponseCache(File directory, long maxSize)
+    {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    public File getDirectory()
+    {
+        return mDirectory;
+    }
+
+    public long getMaxSize()
+    {
+        return mMaxSize;
+    }
+
+    /**
+     * @return the cached entry of the key, or null if not cached or unreadable
+     */
+    public synchronized Entry get(String key)
+    {
+        File file = getFile(key);
+        if (!file.exists())
+        {
+            return null;
+        }
+        BufferedSource source = null;
+        try
+        {
+            source = Okio.buffer(Okio.source(file));
+            String etag = source.readUtf8LineStrict();
+            String lastModified = source.readUtf8LineStrict();
+            String contentType = source.readUtf8LineStrict();
+            byte[] body = source.readByteArray();
+            return new Entry(file.lastModified(), emptyToNull(etag), emptyToNull(lastModified),
+                    emptyToNull(contentType), body);
+        } catch (IOException e)
+        {
+            remove(key);
+            return null;
+        } finally
+        {
+            closeQuietly(source);
+        }
+    }
+
+    /**
+     * Store the response with its body, which has been read already.
+     */
+    public synchronized void put(String key, Response response, byte[] body) throws IOException
+    {
+        if (!mDirectory.exists() && !mDirectory.mkdirs())
+        {
+            throw new IOException("can not create " + mDirectory);
+        }
+        File file = getFile(key);
+        File tmp = new File(mDirectory, file.getName() + ".tmp");
+        BufferedSink sink = Okio.buffer(Okio.sink(tmp));
+        try
+        {
+            sink.writeUtf8(nullToEmpty(response.header("ETag"))).writeByte('\n');
+            sink.writeUtf8(nullToEmpty(response.header("Last-Modified"))).writeByte('\n');
+            sink.writeUtf8(nullToEmpty(response.header("Content-Type"))).writeByte('\n');
+            sink.write(body);
+        } finally
+        {
+            sink.close();
+        }
+        long oldLength = file.length();
+        if (!tmp.renameTo(file))
+        {
+            tmp.delete();
+            throw new IOException("can not write " + file);
+        }
+        mSize = getSize() - oldLength + file.length();
+        trimToSize();
+    }
+
+    /**
+     * Mark the entry as just fetched, after the server answered it's not modified.
+     */
+    public synchronized void touch(String key)
+    {
+        getFile(key).setLastModified(System.currentTimeMillis());
+    }
+
+    public synchronized void remove(String key)
+    {
+        File file = getFile(key);
+        long length = file.length();
+        if (file.delete() && mSize >= 0)
+        {
+            mSize -= length;
+        }
+    }
+
+    public synchronized void evictAll()
+    {
+        File[] files = mDirectory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        mSize = 0;
+    }
+
+    /**
+     * @return the total bytes of the entries
+     */
+    public synchronized long getSize()
+    {
+        if (mSize < 0)
+        {
+            mSize = 0;
+            File[] files = mDirectory.listFiles();
+            if (files != null)
+            {
+                for (File file : files)
+                {
+                    mSize += file.length();
+                }
+            }
+        }
+        return mSize;
+    }
+
+    private void trimToSize()
+    {
+        if (mSize <= mMaxSize)
+        {
+            return;
+        }
+        File[] files = mDirectory.listFiles();
+        if (files == null)
+        {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>()
+        {
+            @Override
+            public int compare(File lhs, File rhs)
+            {
+                long lhsModified = lhs.lastModified();
+                long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (File file : files)
+        {
+            if (mSize <= mMaxSize)
+            {
+                break;
+            }
+            long length = file.length();
+            if (file.delete())
+            {
+                mSize -= length;
+            }
+        }
+    }
+
+    private File getFile(String key)
+    {
+        return new File(mDirectory, ByteString.encodeUtf8(key).md5().hex());
+    }
+
+    private static String emptyToNull(String value)
+    {
+        return value.length() == 0 ? null : value;
+    }
+
+    private static String nullToEmpty(String value)
+    {
+        return value == null ? "" : value;
+    }
+
+    private static void closeQuietly(BufferedSource source)
+    {
+        if (source != null)
+        {
+            try
+            {
+                source.close();
+            } catch (IOException ignored)
+            {
+            }
+        }
+    }
+
+    /**
+     * A cached response.
+     */
+    public static class Entry
+    {
+        private final long fetchedAt;
+        private final String etag;
+        private final String lastModified;
+        private final String contentType;
+        private final byte[] body;
+
+        Entry(long fetchedAt, String etag, String lastModified, String contentType, byte[] body)
+        {
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        /**
+         * @return milliseconds since the response was fetched or revalidated
+         */
+        public long getAge()
+        {
+            return System.currentTimeMillis() - fetchedAt;
+        }
+
+        public String getEtag()
+        {
+            return etag;
+        }
+
+        public String getLastModified()
+        {
+            return lastModified;
+        }
+
+        /**
+         * Build a response of the request from the entry.
+         *
+         * @param source one of {@link CachePolicy#SOURCE_CACHE} and
+         *               {@link CachePolicy#SOURCE_REVALIDATED}
+         */
+        public Response toResponse(Request request, String source)
+        {
+            Response.Builder builder = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .header(CachePolicy.HEADER_SOURCE, source)
+                    .body(ResponseBody.create(contentType == null ? null : MediaType.parse(contentType), body));
+            if (etag != null)
+            {
+                builder.header("ETag", etag);
+            }
+            if (lastModified != null)
+            {
+                builder.header("Last-Modified", lastModified);
+            }
+            if (contentType != null)
+            {
+                builder.header("Content-Type", contentType);
+            }
+            return builder.build();
+        }
+    }
+}
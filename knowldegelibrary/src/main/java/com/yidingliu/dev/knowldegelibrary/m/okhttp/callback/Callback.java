@@ -48,6 +48,40 @@ public abstract class Callback<T>
 
     public abstract void onResponse(T response);
 
+    /**
+     * UI Thread
+     *
+     * @param response
+     * @param fromCache whether the response is read from the cache of OkHttpUtils
+     */
+    public void onResponse(T response, boolean fromCache)
+    {
+        onResponse(response);
+    }
+
+
+    /**
+     * Callbacks with equal result keys parse a response into equal results, so when OkHttpUtils
+     * merges identical requests in flight, one parsed result is delivered to all their callbacks.
+     * By default it's the class which implements parseNetworkResponse. Return null if the parsing
+     * has side effects, then the request is never merged.
+     */
+    public Object getResultKey()
+    {
+        Class<?> clazz = getClass();
+        while (clazz != Callback.class)
+        {
+            try
+            {
+                clazz.getDeclaredMethod("parseNetworkResponse", Response.class);
+                return clazz;
+            } catch (NoSuchMethodException e)
+            {
+                clazz = clazz.getSuperclass();
+            }
+        }
+        return null;
+    }
 
     public static Callback CALLBACK_DEFAULT = new Callback()
     {
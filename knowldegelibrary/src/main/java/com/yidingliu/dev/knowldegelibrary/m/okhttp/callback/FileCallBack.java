@@ -8,9 +8,14 @@ import com.yidingliu.dev.knowldegelibrary.m.okhttp.OkHttpUtils;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.utils.L;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
 
 import okhttp3.Response;
 
@@ -19,6 +24,9 @@ import okhttp3.Response;
  */
 public abstract class FileCallBack extends Callback<File>
 {
+    public static final long DEFAULT_PROGRESS_INTERVAL = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * 目标文件存储的文件夹路径
      */
@@ -27,6 +35,11 @@ public abstract class FileCallBack extends Callback<File>
      * 目标文件存储的文件名
      */
     private String destFileName;
+    /**
+     * 两次进度回调的最小间隔，毫秒
+     */
+    private volatile long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    private final AtomicLong lastProgressAt = new AtomicLong();
 
     public abstract void inProgress(float progress);
 
@@ -36,6 +49,66 @@ public abstract class FileCallBack extends Callback<File>
         this.destFileName = destFileName;
     }
 
+    public String getDestFileDir()
+    {
+        return destFileDir;
+    }
+
+    public String getDestFileName()
+    {
+        return destFileName;
+    }
+
+    /**
+     * @param intervalMillis the min milliseconds between two progress callbacks, 100 by default
+     */
+    public FileCallBack setProgressInterval(long intervalMillis)
+    {
+        this.progressInterval = intervalMillis;
+        return this;
+    }
+
+
+    /**
+     * Every callback saves its own file, so the result can't be shared.
+     */
+    @Override
+    public Object getResultKey()
+    {
+        return null;
+    }
+
+    /**
+     * Whether the response is saved the way of FileCallBack, not by an override of
+     * {@link #parseNetworkResponse(Response)} or {@link #saveFile(Response)}. The
+     * {@link com.yidingliu.dev.knowldegelibrary.m.okhttp.download.FileDownloader} writes the file by
+     * itself and never calls them.
+     */
+    public boolean isDefaultSaving()
+    {
+        Class<?> clazz = getClass();
+        while (clazz != FileCallBack.class)
+        {
+            if (declaresMethod(clazz, "parseNetworkResponse") || declaresMethod(clazz, "saveFile"))
+            {
+                return false;
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return true;
+    }
+
+    private static boolean declaresMethod(Class<?> clazz, String name)
+    {
+        try
+        {
+            clazz.getDeclaredMethod(name, Response.class);
+            return true;
+        } catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
 
     @Override
     public File parseNetworkResponse(Response response) throws Exception
@@ -47,9 +120,7 @@ public abstract class FileCallBack extends Callback<File>
     public File saveFile(Response response) throws IOException
     {
         InputStream is = null;
-        byte[] buf = new byte[2048];
-        int len = 0;
-        FileOutputStream fos = null;
+        RandomAccessFile raf = null;
         try
         {
             is = response.body().byteStream();
@@ -64,23 +135,29 @@ public abstract class FileCallBack extends Callback<File>
                 dir.mkdirs();
             }
             File file = new File(dir, destFileName);
-            fos = new FileOutputStream(file);
-            while ((len = is.read(buf)) != -1)
+            raf = new RandomAccessFile(file, "rw");
+            // preallocate the file when the length is known.
+            raf.setLength(Math.max(0, total));
+            FileChannel out = raf.getChannel();
+            ReadableByteChannel in = Channels.newChannel(is);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            resetProgress();
+            while (in.read(buffer) != -1)
             {
-                sum += len;
-                fos.write(buf, 0, len);
-                final long finalSum = sum;
-                OkHttpUtils.getInstance().getDelivery().post(new Runnable()
+                buffer.flip();
+                sum += buffer.remaining();
+                while (buffer.hasRemaining())
                 {
-                    @Override
-                    public void run()
-                    {
-
-                        inProgress(finalSum * 1.0f / total);
-                    }
-                });
+                    out.write(buffer);
+                }
+                buffer.clear();
+                if (total > 0)
+                {
+                    postProgress(sum * 1.0f / total, false);
+                }
             }
-            fos.flush();
+            raf.setLength(sum);
+            postProgress(1.0f, true);
 
             return file;
 
@@ -94,7 +171,7 @@ public abstract class FileCallBack extends Callback<File>
             }
             try
             {
-                if (fos != null) fos.close();
+                if (raf != null) raf.close();
             } catch (IOException e)
             {
             }
@@ -102,5 +179,42 @@ public abstract class FileCallBack extends Callback<File>
         }
     }
 
+    /**
+     * Post the progress to {@link #inProgress(float)} on the UI thread, at most once every
+     * progress interval unless forced. Safe to call from several threads.
+     *
+     * @param force post even if the last progress was posted just now, such as the final one
+     */
+    public void postProgress(final float progress, boolean force)
+    {
+        long now = System.nanoTime() / 1000000;
+        long last = lastProgressAt.get();
+        if (!force && last != 0 && now - last < progressInterval)
+        {
+            return;
+        }
+        if (!lastProgressAt.compareAndSet(last, now) && !force)
+        {
+            // another thread has just posted.
+            return;
+        }
+        OkHttpUtils.getInstance().getDelivery().post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                inProgress(progress);
+            }
+        });
+    }
+
+    /**
+     * Let the next progress be posted at once.
+     */
+    public void resetProgress()
+    {
+        lastProgressAt.set(0);
+    }
+
 
 }
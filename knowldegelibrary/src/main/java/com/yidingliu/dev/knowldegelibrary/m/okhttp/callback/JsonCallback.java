@@ -0,0 +1,73 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.callback;
+
+import com.google.gson.stream.JsonReader;
+import com.yidingliu.dev.knowldegelibrary.tools.GsonUtils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import okhttp3.Response;
+
+/**
+ * Parses the response body as JSON into T with the shared Gson of {@link GsonUtils}. The body is
+ * read straight from its char stream on the OkHttp thread, it is never buffered into a String.
+ * <pre>
+ * new JsonCallback&lt;User&gt;() {...}
+ * new JsonCallback&lt;Page&lt;User&gt;&gt;(new TypeToken&lt;Page&lt;User&gt;&gt;() {}.getType()) {...}
+ * </pre>
+ */
+public abstract class JsonCallback<T> extends Callback<T>
+{
+    private final Type mType;
+
+    /**
+     * Parse into the type argument of the anonymous subclass.
+     */
+    protected JsonCallback()
+    {
+        mType = getTypeArgument(getClass());
+    }
+
+    protected JsonCallback(Type type)
+    {
+        mType = type;
+    }
+
+    @Override
+    public T parseNetworkResponse(Response response) throws Exception
+    {
+        JsonReader reader = new JsonReader(response.body().charStream());
+        try
+        {
+            return GsonUtils.getGson().fromJson(reader, mType);
+        } finally
+        {
+            reader.close();
+        }
+    }
+
+    @Override
+    public Object getResultKey()
+    {
+        Object parser = super.getResultKey();
+        return parser == JsonCallback.class ? parser + " " + mType : parser;
+    }
+
+    /**
+     * Find the type argument which the subclass passed to its generic superclass.
+     */
+    static Type getTypeArgument(Class<?> subclass)
+    {
+        Type superclass = subclass.getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType))
+        {
+            throw new IllegalStateException(subclass.getName() + " must declare the type to parse into");
+        }
+        return ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    }
+
+}
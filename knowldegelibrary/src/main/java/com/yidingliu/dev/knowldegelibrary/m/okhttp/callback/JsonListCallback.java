@@ -0,0 +1,121 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.callback;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.yidingliu.dev.knowldegelibrary.tools.GsonUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Response;
+
+/**
+ * Parses a JSON array in the response body into a list, element by element with the shared Gson of
+ * {@link GsonUtils}. The array could be the whole body, or a field of the body object such as
+ * <code>{"data": [...]}</code>. Use {@link JsonStreamCallback} for huge arrays which should not be
+ * kept in memory at all.
+ */
+public abstract class JsonListCallback<T> extends Callback<List<T>>
+{
+    private final Type mElementType;
+    private final String mArrayField;
+
+    /**
+     * Parse the whole body as an array of the type argument of the anonymous subclass.
+     */
+    protected JsonListCallback()
+    {
+        this(null, null);
+    }
+
+    /**
+     * @param arrayField the field of the body object which holds the array, or null if the body is the array
+     */
+    protected JsonListCallback(String arrayField)
+    {
+        this(null, arrayField);
+    }
+
+    /**
+     * @param elementType the type of the elements, or null for the type argument of the anonymous subclass
+     * @param arrayField  the field of the body object which holds the array, or null if the body is the array
+     */
+    protected JsonListCallback(Type elementType, String arrayField)
+    {
+        mElementType = elementType == null ? JsonCallback.getTypeArgument(getClass()) : elementType;
+        mArrayField = arrayField;
+    }
+
+    @Override
+    public List<T> parseNetworkResponse(Response response) throws Exception
+    {
+        List<T> list = new ArrayList<T>();
+        Gson gson = GsonUtils.getGson();
+        JsonReader reader = new JsonReader(response.body().charStream());
+        try
+        {
+            if (beginArray(reader, mArrayField))
+            {
+                while (reader.hasNext())
+                {
+                    T element = gson.fromJson(reader, mElementType);
+                    list.add(element);
+                }
+            }
+        } finally
+        {
+            reader.close();
+        }
+        return list;
+    }
+
+    @Override
+    public Object getResultKey()
+    {
+        Object parser = super.getResultKey();
+        return parser == JsonListCallback.class ? parser + " " + mElementType + " " + mArrayField : parser;
+    }
+
+    /**
+     * Move the reader into the array, which is the whole document or a field of the document
+     * object.
+     *
+     * @return false if the array is null
+     */
+    static boolean beginArray(JsonReader reader, String arrayField) throws IOException
+    {
+        if (arrayField != null)
+        {
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                if (arrayField.equals(reader.nextName()))
+                {
+                    return beginArrayOrNull(reader);
+                }
+                reader.skipValue();
+            }
+            throw new IOException("no field " + arrayField + " in the response");
+        }
+        return beginArrayOrNull(reader);
+    }
+
+    private static boolean beginArrayOrNull(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return false;
+        }
+        reader.beginArray();
+        return true;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.callback;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.yidingliu.dev.knowldegelibrary.tools.GsonUtils;
+
+import java.lang.reflect.Type;
+
+import okhttp3.Response;
+
+/**
+ * Streams a huge JSON array in the response body element by element. Each element is passed to
+ * {@link #onElement(Object)} on the OkHttp thread as soon as it is parsed and is not kept, so only
+ * one element is in memory at a time. {@link #onResponse(Object)} receives the count of elements.
+ * <pre>
+ * new JsonStreamCallback&lt;News&gt;("data") {
+ *     protected void onElement(News news) { batch.add(news); ... }
+ *     ...
+ * }
+ * </pre>
+ */
+public abstract class JsonStreamCallback<T> extends Callback<Integer>
+{
+    private final Type mElementType;
+    private final String mArrayField;
+
+    protected JsonStreamCallback()
+    {
+        this(null, null);
+    }
+
+    /**
+     * @param arrayField the field of the body object which holds the array, or null if the body is the array
+     */
+    protected JsonStreamCallback(String arrayField)
+    {
+        this(null, arrayField);
+    }
+
+    /**
+     * @param elementType the type of the elements, or null for the type argument of the anonymous subclass
+     * @param arrayField  the field of the body object which holds the array, or null if the body is the array
+     */
+    protected JsonStreamCallback(Type elementType, String arrayField)
+    {
+        mElementType = elementType == null ? JsonCallback.getTypeArgument(getClass()) : elementType;
+        mArrayField = arrayField;
+    }
+
+    /**
+     * Thread Pool Thread
+     *
+     * @param element the parsed element, throw to stop parsing and fail the request
+     */
+    protected abstract void onElement(T element) throws Exception;
+
+    /**
+     * The elements are consumed by onElement, so the result can't be shared.
+     */
+    @Override
+    public Object getResultKey()
+    {
+        return null;
+    }
+
+    @Override
+    public Integer parseNetworkResponse(Response response) throws Exception
+    {
+        int count = 0;
+        Gson gson = GsonUtils.getGson();
+        JsonReader reader = new JsonReader(response.body().charStream());
+        try
+        {
+            if (JsonListCallback.beginArray(reader, mArrayField))
+            {
+                while (reader.hasNext())
+                {
+                    T element = gson.fromJson(reader, mElementType);
+                    onElement(element);
+                    count++;
+                }
+            }
+        } finally
+        {
+            reader.close();
+        }
+        return count;
+    }
+
+}
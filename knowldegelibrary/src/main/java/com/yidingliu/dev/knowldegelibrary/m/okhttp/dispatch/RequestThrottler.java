@@ -0,0 +1,327 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+
+/**
+ * Throttles the calls before they are enqueued to OkHttp: a token bucket for
+ * each host, a limit of running calls and three priority lanes. A call which
+ * can't start yet waits in its lane, and is started later by a timer thread,
+ * so the thread which executes a request never waits.
+ * <p>
+ * Every started call must be reported by {@link #finished()} when it ends.
+ */
+public class RequestThrottler
+{
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+
+    private static ScheduledExecutorService sTimer;
+
+    /**
+     * The system time, with a daemon timer thread shared by all the throttlers.
+     */
+    static final Clock SYSTEM_CLOCK = new Clock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayNanos)
+        {
+            getTimer().schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    };
+
+    private final Clock mClock;
+
+    /**
+     * Waiting calls of each priority, in the order they are submitted.
+     */
+    private final List<LinkedList<Pending>> mLanes = new ArrayList<LinkedList<Pending>>();
+    private final Map<String, TokenBucket> mBuckets = new HashMap<String, TokenBucket>();
+
+    private int mMaxConcurrency;
+    private double mPermitsPerSecond;
+    private int mBurst;
+
+    private int mRunning;
+
+    /**
+     * When the scheduled drain runs, in nanoTime, or 0 if none is scheduled.
+     */
+    private long mScheduledDrainAt;
+
+    public RequestThrottler()
+    {
+        this(SYSTEM_CLOCK);
+    }
+
+    RequestThrottler(Clock clock)
+    {
+        mClock = clock;
+        for (int i = PRIORITY_LOW; i <= PRIORITY_HIGH; i++)
+        {
+            mLanes.add(new LinkedList<Pending>());
+        }
+    }
+
+    /**
+     * @param maxConcurrency the max count of running calls, 0 for no limit
+     */
+    public synchronized RequestThrottler maxConcurrency(int maxConcurrency)
+    {
+        mMaxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @param permitsPerSecond how many calls can start per second for each host, 0 for no limit
+     * @param burst            how many calls can start at once for each host after being idle
+     */
+    public synchronized RequestThrottler perHostRate(double permitsPerSecond, int burst)
+    {
+        mPermitsPerSecond = permitsPerSecond;
+        mBurst = Math.max(1, burst);
+        mBuckets.clear();
+        return this;
+    }
+
+    /**
+     * Start the call now if it is allowed, or let it wait in its lane.
+     *
+     * @param call     the call to throttle, whose host is used for the rate
+     * @param priority one of the PRIORITY constants
+     * @param start    enqueues the call, never blocks
+     */
+    public void submit(Call call, int priority, Runnable start)
+    {
+        int lane = Math.max(PRIORITY_LOW, Math.min(PRIORITY_HIGH, priority));
+        synchronized (this)
+        {
+            mLanes.get(lane).add(new Pending(call, start));
+        }
+        drain();
+    }
+
+    /**
+     * Report a started call has ended, so that a waiting one can start.
+     */
+    public void finished()
+    {
+        synchronized (this)
+        {
+            mRunning--;
+        }
+        drain();
+    }
+
+    /**
+     * Cancel the waiting calls with the tag. They are started at once to
+     * deliver the cancellation to their callbacks.
+     */
+    public void cancelTag(Object tag)
+    {
+        synchronized (this)
+        {
+            for (LinkedList<Pending> lane : mLanes)
+            {
+                for (Pending pending : lane)
+                {
+                    if (tag.equals(pending.call.request().tag()))
+                    {
+                        pending.call.cancel();
+                    }
+                }
+            }
+        }
+        drain();
+    }
+
+    public synchronized int getRunningCount()
+    {
+        return mRunning;
+    }
+
+    public synchronized int getWaitingCount()
+    {
+        int count = 0;
+        for (LinkedList<Pending> lane : mLanes)
+        {
+            count += lane.size();
+        }
+        return count;
+    }
+
+    /**
+     * Start all the calls which are allowed now, from the high lane to the
+     * low lane. If some are still waiting for tokens, schedule another drain
+     * when the first token is refilled.
+     */
+    private void drain()
+    {
+        List<Runnable> toStart = new ArrayList<Runnable>();
+        synchronized (this)
+        {
+            long now = mClock.nanoTime();
+            long nextWait = Long.MAX_VALUE;
+            lanes:
+            for (int i = PRIORITY_HIGH; i >= PRIORITY_LOW; i--)
+            {
+                Iterator<Pending> iterator = mLanes.get(i).iterator();
+                while (iterator.hasNext())
+                {
+                    Pending pending = iterator.next();
+                    if (!pending.call.isCanceled())
+                    {
+                        if (mMaxConcurrency > 0 && mRunning >= mMaxConcurrency)
+                        {
+                            break lanes;
+                        }
+                        long wait = acquire(pending.call.request().url().host(), now);
+                        if (wait > 0)
+                        {
+                            nextWait = Math.min(nextWait, wait);
+                            continue;
+                        }
+                    }
+                    iterator.remove();
+                    mRunning++;
+                    toStart.add(pending.start);
+                }
+            }
+            if (nextWait != Long.MAX_VALUE)
+            {
+                scheduleDrain(now, nextWait);
+            }
+        }
+        for (Runnable start : toStart)
+        {
+            start.run();
+        }
+    }
+
+    /**
+     * Take a token of the host.
+     *
+     * @return 0 if taken, or the nanoseconds to wait for the next token
+     */
+    private long acquire(String host, long now)
+    {
+        if (mPermitsPerSecond <= 0)
+        {
+            return 0;
+        }
+        TokenBucket bucket = mBuckets.get(host);
+        if (bucket == null)
+        {
+            bucket = new TokenBucket(mBurst, now);
+            mBuckets.put(host, bucket);
+        }
+        return bucket.acquire(now, mPermitsPerSecond, mBurst);
+    }
+
+    private void scheduleDrain(long now, long delay)
+    {
+        long drainAt = now + delay;
+        if (mScheduledDrainAt != 0 && mScheduledDrainAt <= drainAt)
+        {
+            return;
+        }
+        mScheduledDrainAt = drainAt;
+        mClock.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized (RequestThrottler.this)
+                {
+                    mScheduledDrainAt = 0;
+                }
+                drain();
+            }
+        }, delay);
+    }
+
+    private static synchronized ScheduledExecutorService getTimer()
+    {
+        if (sTimer == null)
+        {
+            sTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "OkHttpUtils Throttler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sTimer;
+    }
+
+    /**
+     * Where the throttler reads the time and schedules the drains, replaced by tests.
+     */
+    interface Clock
+    {
+        long nanoTime();
+
+        void schedule(Runnable task, long delayNanos);
+    }
+
+    private static class Pending
+    {
+        final Call call;
+        final Runnable start;
+
+        Pending(Call call, Runnable start)
+        {
+            this.call = call;
+            this.start = start;
+        }
+    }
+
+    private static class TokenBucket
+    {
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int burst, long now)
+        {
+            tokens = burst;
+            refilledAt = now;
+        }
+
+        long acquire(long now, double permitsPerSecond, int burst)
+        {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / 1e9);
+            refilledAt = now;
+            if (tokens >= 1)
+            {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) * 1e9 / permitsPerSecond));
+        }
+    }
+}
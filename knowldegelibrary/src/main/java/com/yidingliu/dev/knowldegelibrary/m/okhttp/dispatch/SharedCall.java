@@ -0,0 +1,191 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch;
+
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.Callback;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.request.RequestCall;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Response;
+
+/**
+ * One call in flight shared by identical requests. The response is parsed once by the callback of
+ * the first request, and the result is delivered to the callbacks of all the requests which are
+ * still subscribed. The call is tagged with the SharedCall itself, every request is cancelled by
+ * its own tag through {@link #detach(Object)} instead.
+ */
+public class SharedCall extends Callback<Object>
+{
+    private final String mKey;
+    private final Callback mParser;
+    private final List<Subscriber> mSubscribers = new ArrayList<Subscriber>();
+    private Call mCall;
+
+    public SharedCall(String key, RequestCall requestCall, Callback callback)
+    {
+        mKey = key;
+        mParser = callback;
+        add(requestCall, callback);
+    }
+
+    public String getKey()
+    {
+        return mKey;
+    }
+
+    public synchronized Call getCall()
+    {
+        return mCall;
+    }
+
+    public synchronized void setCall(Call call)
+    {
+        mCall = call;
+    }
+
+    /**
+     * Subscribe a request to the result.
+     */
+    public synchronized void add(RequestCall requestCall, Callback callback)
+    {
+        mSubscribers.add(new Subscriber(requestCall, callback, requestCall.getRequest().tag()));
+    }
+
+    /**
+     * Unsubscribe the requests with the tag.
+     *
+     * @return the unsubscribed requests
+     */
+    public synchronized List<Subscriber> detach(Object tag)
+    {
+        List<Subscriber> detached = new ArrayList<Subscriber>();
+        Iterator<Subscriber> iterator = mSubscribers.iterator();
+        while (iterator.hasNext())
+        {
+            Subscriber subscriber = iterator.next();
+            if (tag.equals(subscriber.tag))
+            {
+                iterator.remove();
+                detached.add(subscriber);
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Unsubscribe the request.
+     *
+     * @return the unsubscribed request, or null if it's not subscribed
+     */
+    public synchronized Subscriber detach(RequestCall requestCall)
+    {
+        Iterator<Subscriber> iterator = mSubscribers.iterator();
+        while (iterator.hasNext())
+        {
+            Subscriber subscriber = iterator.next();
+            if (subscriber.requestCall == requestCall)
+            {
+                iterator.remove();
+                return subscriber;
+            }
+        }
+        return null;
+    }
+
+    public synchronized boolean isEmpty()
+    {
+        return mSubscribers.isEmpty();
+    }
+
+    private synchronized List<Subscriber> getSubscribers()
+    {
+        return new ArrayList<Subscriber>(mSubscribers);
+    }
+
+    @Override
+    public Object getResultKey()
+    {
+        return mParser.getResultKey();
+    }
+
+    @Override
+    public Object parseNetworkResponse(Response response) throws Exception
+    {
+        return mParser.parseNetworkResponse(response);
+    }
+
+    @Override
+    public void inProgress(float progress)
+    {
+        for (Subscriber subscriber : getSubscribers())
+        {
+            subscriber.callback.inProgress(progress);
+        }
+    }
+
+    @Override
+    public void onError(Call call, Exception e)
+    {
+        for (Subscriber subscriber : getSubscribers())
+        {
+            subscriber.callback.onError(subscriber.getCall(), e);
+        }
+    }
+
+    @Override
+    public void onResponse(Object response)
+    {
+        onResponse(response, false);
+    }
+
+    @Override
+    public void onResponse(Object response, boolean fromCache)
+    {
+        for (Subscriber subscriber : getSubscribers())
+        {
+            subscriber.callback.onResponse(response, fromCache);
+        }
+    }
+
+    @Override
+    public void onAfter()
+    {
+        for (Subscriber subscriber : getSubscribers())
+        {
+            subscriber.callback.onAfter();
+        }
+    }
+
+    /**
+     * A request subscribed to the shared call.
+     */
+    public static class Subscriber
+    {
+        final RequestCall requestCall;
+        final Callback callback;
+        final Object tag;
+
+        Subscriber(RequestCall requestCall, Callback callback, Object tag)
+        {
+            this.requestCall = requestCall;
+            this.callback = callback;
+            this.tag = tag;
+        }
+
+        public Callback getCallback()
+        {
+            return callback;
+        }
+
+        public Call getCall()
+        {
+            return requestCall.getCall();
+        }
+    }
+}
@@ -0,0 +1,777 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.download;
+
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.OkHttpUtils;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.FileCallBack;
+import com.yidingliu.dev.knowldegelibrary.tools.Md5Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * Downloads a file into the dir and name of a {@link FileCallBack}, with resume and optional
+ * parallel segments:
+ * <ul>
+ * <li>the file is written through a {@link FileChannel} into a preallocated name.tmp, and renamed
+ * when it's complete;</li>
+ * <li>the bytes done of each segment are kept in name.cfg, so a failed or cancelled download
+ * resumes with HTTP Range requests, unless the ETag or Last-Modified of the file has changed;</li>
+ * <li>a large file is split into segments downloaded by parallel connections, if the server
+ * accepts ranges;</li>
+ * <li>the progress is posted at most once every progress interval, and the file is verified by
+ * its MD5 if given.</li>
+ * </ul>
+ * Create it by {@link OkHttpUtils#download(String)}, and cancel it by {@link #cancel()} or by its
+ * tag through {@link OkHttpUtils#cancelTag(Object)}.
+ * <p>
+ * The file is written by the downloader, so the parseNetworkResponse and saveFile of the callback
+ * are not called, see {@link FileCallBack#isDefaultSaving()}. The calls run on the downloader's
+ * own threads and are not throttled by the
+ * {@link com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch.RequestThrottler} of OkHttpUtils.
+ */
+public class FileDownloader
+{
+    public static final long DEFAULT_MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_RETRIES = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long STATE_SAVE_INTERVAL = 1000;
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String STATE_SUFFIX = ".cfg";
+
+    private static final List<FileDownloader> sActive = new ArrayList<FileDownloader>();
+    private static ExecutorService sExecutor;
+
+    private final String mUrl;
+    private final Map<String, String> mHeaders = new LinkedHashMap<String, String>();
+    private Object mTag;
+    private int mSegments = 1;
+    private long mMinSegmentSize = DEFAULT_MIN_SEGMENT_SIZE;
+    private int mRetries = DEFAULT_RETRIES;
+    private long mProgressInterval = FileCallBack.DEFAULT_PROGRESS_INTERVAL;
+    private String mMd5;
+
+    private final List<Call> mCalls = new ArrayList<Call>();
+    private volatile boolean mCanceled;
+    /**
+     * Set when cancelled or when a segment fails, to stop all the segments.
+     */
+    private volatile boolean mStopped;
+    private final AtomicLong mStateSavedAt = new AtomicLong();
+    private File mStateFile;
+
+    public FileDownloader(String url)
+    {
+        mUrl = url;
+    }
+
+    public FileDownloader tag(Object tag)
+    {
+        mTag = tag;
+        return this;
+    }
+
+    public FileDownloader addHeader(String name, String value)
+    {
+        mHeaders.put(name, value);
+        return this;
+    }
+
+    /**
+     * @param segments the max count of parallel connections, 1 by default
+     */
+    public FileDownloader segments(int segments)
+    {
+        mSegments = Math.max(1, segments);
+        return this;
+    }
+
+    /**
+     * @param minSegmentSize files are split only into segments of at least this many bytes
+     */
+    public FileDownloader minSegmentSize(long minSegmentSize)
+    {
+        mMinSegmentSize = Math.max(1, minSegmentSize);
+        return this;
+    }
+
+    /**
+     * @param retries how many times a failed segment is retried from where it stopped
+     */
+    public FileDownloader retries(int retries)
+    {
+        mRetries = Math.max(0, retries);
+        return this;
+    }
+
+    /**
+     * @param intervalMillis the min milliseconds between two progress callbacks
+     */
+    public FileDownloader progressInterval(long intervalMillis)
+    {
+        mProgressInterval = intervalMillis;
+        return this;
+    }
+
+    /**
+     * @param md5 the expected MD5 of the file in hex, checked before it is renamed
+     */
+    public FileDownloader md5(String md5)
+    {
+        mMd5 = md5;
+        return this;
+    }
+
+    public Object getTag()
+    {
+        return mTag;
+    }
+
+    /**
+     * Start downloading in background. The callback gets the file by onResponse, or the failure by
+     * onError, and then onAfter, on the UI thread.
+     */
+    public FileDownloader start(final FileCallBack callback)
+    {
+        callback.setProgressInterval(mProgressInterval);
+        synchronized (sActive)
+        {
+            sActive.add(this);
+        }
+        final Request request = newRequest().build();
+        OkHttpUtils.getInstance().getDelivery().post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                callback.onBefore(request);
+            }
+        });
+        getExecutor().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    File file = download(callback);
+                    OkHttpUtils.getInstance().sendSuccessResultCallback(file, callback);
+                } catch (Exception e)
+                {
+                    OkHttpUtils.getInstance().sendFailResultCallback(null,
+                            mCanceled ? new IOException("Canceled") : e, callback);
+                } finally
+                {
+                    synchronized (sActive)
+                    {
+                        sActive.remove(FileDownloader.this);
+                    }
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Stop downloading. What's done is kept for the next download of the same file.
+     */
+    public void cancel()
+    {
+        mCanceled = true;
+        stop();
+    }
+
+    public boolean isCanceled()
+    {
+        return mCanceled;
+    }
+
+    /**
+     * Cancel the running downloads with the tag.
+     */
+    public static void cancelTag(Object tag)
+    {
+        List<FileDownloader> downloaders;
+        synchronized (sActive)
+        {
+            downloaders = new ArrayList<FileDownloader>(sActive);
+        }
+        for (FileDownloader downloader : downloaders)
+        {
+            if (tag.equals(downloader.mTag))
+            {
+                downloader.cancel();
+            }
+        }
+    }
+
+    private File download(FileCallBack callback) throws Exception
+    {
+        File dir = new File(callback.getDestFileDir());
+        if (!dir.exists() && !dir.mkdirs())
+        {
+            throw new IOException("can not create " + dir);
+        }
+        String name = callback.getDestFileName();
+        File file = new File(dir, name);
+        File tmp = new File(dir, name + TMP_SUFFIX);
+        File stateFile = new File(dir, name + STATE_SUFFIX);
+        mStateFile = stateFile;
+
+        State probe = probe();
+        State state = State.read(stateFile);
+        boolean resume = state != null && probe.acceptRanges && tmp.exists()
+                && state.matches(mUrl, probe.total, probe.validator);
+        if (!resume)
+        {
+            state = probe;
+            state.split(probe.acceptRanges ? getSegmentCount(probe.total) : 1);
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+        try
+        {
+            if (!resume)
+            {
+                raf.setLength(Math.max(0, state.total));
+            }
+            FileChannel channel = raf.getChannel();
+            callback.resetProgress();
+            try
+            {
+                if (state.total != 0)
+                {
+                    downloadSegments(state, channel, callback);
+                }
+            } catch (Exception e)
+            {
+                state.write(stateFile);
+                throw e;
+            }
+            if (state.total < 0)
+            {
+                raf.setLength(state.getDone());
+            }
+        } finally
+        {
+            raf.close();
+        }
+
+        if (mMd5 != null)
+        {
+            String md5 = Md5Utils.getFileMD5String(tmp);
+            if (!mMd5.equalsIgnoreCase(md5))
+            {
+                tmp.delete();
+                stateFile.delete();
+                throw new IOException("MD5 mismatch, expected " + mMd5 + " but was " + md5);
+            }
+        }
+        if (file.exists() && !file.delete() || !tmp.renameTo(file))
+        {
+            throw new IOException("can not rename " + tmp + " to " + file);
+        }
+        stateFile.delete();
+        callback.postProgress(1.0f, true);
+        return file;
+    }
+
+    /**
+     * Ask for the first byte, to find the length and the validator of the file, and whether the
+     * server accepts ranges.
+     */
+    private State probe() throws IOException
+    {
+        Response response = execute(newRequest().header("Range", "bytes=0-0").build());
+        try
+        {
+            if (response.code() == 416)
+            {
+                // no first byte, the file is empty if the server says bytes */0. Otherwise
+                // download it without ranges.
+                String contentRange = response.header("Content-Range");
+                boolean empty = contentRange != null && contentRange.replace(" ", "").endsWith("*/0");
+                return new State(mUrl, empty ? 0 : -1, null, false);
+            }
+            if (!response.isSuccessful())
+            {
+                throw new IOException("Unexpected code " + response);
+            }
+            String validator = response.header("ETag");
+            if (validator == null)
+            {
+                validator = response.header("Last-Modified");
+            }
+            long total = -1;
+            boolean acceptRanges = false;
+            String contentRange = response.header("Content-Range");
+            if (response.code() == 206 && contentRange != null)
+            {
+                // bytes 0-0/total
+                int slash = contentRange.lastIndexOf('/');
+                try
+                {
+                    total = Long.parseLong(contentRange.substring(slash + 1).trim());
+                    acceptRanges = true;
+                } catch (NumberFormatException ignored)
+                {
+                    // the total is unknown, download by one connection.
+                }
+            } else if (response.code() == 200)
+            {
+                total = response.body().contentLength();
+            }
+            return new State(mUrl, total, validator, acceptRanges);
+        } finally
+        {
+            response.body().close();
+        }
+    }
+
+    private int getSegmentCount(long total)
+    {
+        if (total <= 0)
+        {
+            return 1;
+        }
+        return (int) Math.max(1, Math.min(mSegments, total / mMinSegmentSize));
+    }
+
+    private void downloadSegments(final State state, final FileChannel channel,
+                                  final FileCallBack callback) throws Exception
+    {
+        if (state.segments.size() == 1)
+        {
+            downloadSegment(state, state.segments.get(0), channel, callback);
+            return;
+        }
+        // the first failure is the cause, the others are mostly cancelled by it.
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final Segment segment : state.segments)
+        {
+            futures.add(getExecutor().submit(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    try
+                    {
+                        downloadSegment(state, segment, channel, callback);
+                    } catch (Exception e)
+                    {
+                        failure.compareAndSet(null, e);
+                        stop();
+                        throw e;
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures)
+        {
+            try
+            {
+                future.get();
+            } catch (ExecutionException e)
+            {
+                failure.compareAndSet(null, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            }
+        }
+        if (failure.get() != null)
+        {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Download the rest of the segment, retrying from where it stopped. A segment of known length
+     * is done only when all of its bytes are written, a response ending short is retried, or the
+     * preallocated file would be left with a hole.
+     */
+    private void downloadSegment(State state, Segment segment, FileChannel channel,
+                                 FileCallBack callback) throws IOException
+    {
+        int retries = 0;
+        while (!segment.isComplete())
+        {
+            try
+            {
+                fetch(state, segment, channel, callback);
+                if (segment.end < 0)
+                {
+                    // the length is unknown, the end of the response is the end of the file.
+                    return;
+                }
+                if (!segment.isComplete())
+                {
+                    throw new IOException("response ended at " + segment.getPosition()
+                            + " before the end of segment " + segment.end);
+                }
+            } catch (IOException e)
+            {
+                if (mStopped || retries++ >= mRetries)
+                {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void fetch(State state, Segment segment, FileChannel channel, FileCallBack callback)
+            throws IOException
+    {
+        Request.Builder builder = newRequest();
+        if (state.acceptRanges)
+        {
+            builder.header("Range", "bytes=" + segment.getPosition() + "-" + segment.end);
+        }
+        Response response = execute(builder.build());
+        try
+        {
+            if (response.code() == 200)
+            {
+                // the whole file, only fine for a single segment.
+                if (state.segments.size() > 1)
+                {
+                    throw new IOException("Range not satisfied: " + response);
+                }
+                segment.done.set(0);
+            } else if (response.code() == 206)
+            {
+                checkContentRange(response.header("Content-Range"), segment.getPosition(), state.total);
+            } else
+            {
+                throw new IOException("Unexpected code " + response);
+            }
+            ReadableByteChannel in = Channels.newChannel(response.body().byteStream());
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (in.read(buffer) != -1)
+            {
+                if (mStopped)
+                {
+                    throw new IOException("Canceled");
+                }
+                buffer.flip();
+                long position = segment.getPosition();
+                if (segment.end >= 0)
+                {
+                    // never write into the next segment.
+                    long remaining = segment.end + 1 - position;
+                    if (remaining <= 0)
+                    {
+                        break;
+                    }
+                    if (buffer.remaining() > remaining)
+                    {
+                        buffer.limit((int) remaining);
+                    }
+                }
+                while (buffer.hasRemaining())
+                {
+                    position += channel.write(buffer, position);
+                }
+                segment.done.set(position - segment.start);
+                buffer.clear();
+                if (state.total > 0)
+                {
+                    callback.postProgress(state.getDone() * 1.0f / state.total, false);
+                }
+                saveStateIfDue(state);
+            }
+        } finally
+        {
+            response.body().close();
+        }
+    }
+
+    /**
+     * Make sure the partial response starts where it was asked, and is of the same file.
+     *
+     * @param contentRange such as bytes 100-199/1000
+     */
+    private static void checkContentRange(String contentRange, long position, long total)
+            throws IOException
+    {
+        if (contentRange == null || !contentRange.startsWith("bytes "))
+        {
+            throw new IOException("Unexpected Content-Range: " + contentRange);
+        }
+        int dash = contentRange.indexOf('-');
+        int slash = contentRange.lastIndexOf('/');
+        try
+        {
+            long start = Long.parseLong(contentRange.substring("bytes ".length(), dash).trim());
+            String length = contentRange.substring(slash + 1).trim();
+            if (start != position || !"*".equals(length) && Long.parseLong(length) != total)
+            {
+                throw new IOException("Content-Range " + contentRange + " doesn't match position "
+                        + position + " of total " + total);
+            }
+        } catch (RuntimeException e)
+        {
+            throw new IOException("Unexpected Content-Range: " + contentRange);
+        }
+    }
+
+    private Request.Builder newRequest()
+    {
+        Request.Builder builder = new Request.Builder().url(mUrl).tag(mTag);
+        for (Map.Entry<String, String> header : mHeaders.entrySet())
+        {
+            builder.header(header.getKey(), header.getValue());
+        }
+        return builder;
+    }
+
+    /**
+     * Execute the request, which is cancelled by {@link #stop()} while it's executing.
+     */
+    private Response execute(Request request) throws IOException
+    {
+        OkHttpClient client = OkHttpUtils.getInstance().getOkHttpClient();
+        Call call = client.newCall(request);
+        synchronized (mCalls)
+        {
+            if (mStopped)
+            {
+                throw new IOException("Canceled");
+            }
+            mCalls.add(call);
+        }
+        try
+        {
+            return call.execute();
+        } finally
+        {
+            synchronized (mCalls)
+            {
+                mCalls.remove(call);
+            }
+        }
+    }
+
+    /**
+     * Save the state once in a while, so that the download can be resumed even if the process is
+     * killed.
+     */
+    private void saveStateIfDue(State state)
+    {
+        long now = System.nanoTime() / 1000000;
+        long last = mStateSavedAt.get();
+        if (now - last >= STATE_SAVE_INTERVAL && mStateSavedAt.compareAndSet(last, now))
+        {
+            state.write(mStateFile);
+        }
+    }
+
+    private void stop()
+    {
+        synchronized (mCalls)
+        {
+            mStopped = true;
+            for (Call call : mCalls)
+            {
+                call.cancel();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (sExecutor == null)
+        {
+            sExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "OkHttpUtils Downloader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    /**
+     * What's known of the file and what's done of each segment, saved in name.cfg as lines of the
+     * url, the total, the validator, and start, end and done of each segment.
+     */
+    private static class State
+    {
+        final String url;
+        final long total;
+        final String validator;
+        final boolean acceptRanges;
+        final List<Segment> segments = new ArrayList<Segment>();
+
+        State(String url, long total, String validator, boolean acceptRanges)
+        {
+            this.url = url;
+            this.total = total;
+            this.validator = validator;
+            this.acceptRanges = acceptRanges;
+        }
+
+        boolean matches(String url, long total, String validator)
+        {
+            return this.url.equals(url) && this.total == total && validator != null
+                    && validator.equals(this.validator);
+        }
+
+        void split(int count)
+        {
+            segments.clear();
+            if (total <= 0)
+            {
+                segments.add(new Segment(0, -1, 0));
+                return;
+            }
+            long size = total / count;
+            for (int i = 0; i < count; i++)
+            {
+                long start = i * size;
+                long end = i == count - 1 ? total - 1 : start + size - 1;
+                segments.add(new Segment(start, end, 0));
+            }
+        }
+
+        long getDone()
+        {
+            long done = 0;
+            for (Segment segment : segments)
+            {
+                done += segment.done.get();
+            }
+            return done;
+        }
+
+        synchronized void write(File file)
+        {
+            if (!acceptRanges || validator == null)
+            {
+                // can't be resumed.
+                file.delete();
+                return;
+            }
+            try
+            {
+                BufferedSink sink = Okio.buffer(Okio.sink(file));
+                try
+                {
+                    sink.writeUtf8(url).writeByte('\n');
+                    sink.writeUtf8(String.valueOf(total)).writeByte('\n');
+                    sink.writeUtf8(validator).writeByte('\n');
+                    for (Segment segment : segments)
+                    {
+                        sink.writeUtf8(segment.start + " " + segment.end + " " + segment.done.get())
+                                .writeByte('\n');
+                    }
+                } finally
+                {
+                    sink.close();
+                }
+            } catch (IOException e)
+            {
+                file.delete();
+            }
+        }
+
+        /**
+         * @return the saved state, or null if none or unreadable
+         */
+        static State read(File file)
+        {
+            if (!file.exists())
+            {
+                return null;
+            }
+            BufferedSource source = null;
+            try
+            {
+                source = Okio.buffer(Okio.source(file));
+                State state = new State(source.readUtf8LineStrict(),
+                        Long.parseLong(source.readUtf8LineStrict()), source.readUtf8LineStrict(), true);
+                String line;
+                while ((line = source.readUtf8Line()) != null && line.length() > 0)
+                {
+                    String[] values = line.split(" ");
+                    state.segments.add(new Segment(Long.parseLong(values[0]),
+                            Long.parseLong(values[1]), Long.parseLong(values[2])));
+                }
+                return state.segments.isEmpty() ? null : state;
+            } catch (Exception e)
+            {
+                return null;
+            } finally
+            {
+                if (source != null)
+                {
+                    try
+                    {
+                        source.close();
+                    } catch (IOException ignored)
+                    {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A range of the file, from start to end inclusive, or to the end of the file if end is -1.
+     */
+    private static class Segment
+    {
+        final long start;
+        final long end;
+        final AtomicLong done;
+
+        Segment(long start, long end, long done)
+        {
+            this.start = start;
+            this.end = end;
+            this.done = new AtomicLong(done);
+        }
+
+        long getPosition()
+        {
+            return start + done.get();
+        }
+
+        boolean isComplete()
+        {
+            return end >= 0 && getPosition() > end;
+        }
+    }
+}
@@ -51,6 +51,25 @@ public abstract class OkHttpRequest
 
     protected abstract Request buildRequest(Request.Builder builder, RequestBody requestBody);
 
+    /**
+     * Whether the request is identified by its url and params, so that identical requests in
+     * flight can share one call. False if the body holds more than the params.
+     */
+    protected boolean isShareable()
+    {
+        return true;
+    }
+
+    /**
+     * What the body holds beyond the params, as part of {@link RequestCall#getKey()}. Empty if the
+     * params are all of it, or null if the body can't be keyed, such as files, then the request is
+     * never cached.
+     */
+    protected String getBodyKey()
+    {
+        return "";
+    }
+
     public RequestCall build()
     {
         return new RequestCall(this);
@@ -41,6 +41,18 @@ public class PostFileRequest extends OkHttpRequest
 
     }
 
+    @Override
+    protected boolean isShareable()
+    {
+        return false;
+    }
+
+    @Override
+    protected String getBodyKey()
+    {
+        return null;
+    }
+
     @Override
     protected RequestBody buildRequestBody()
     {
@@ -33,6 +33,18 @@ public class PostFormRequest extends OkHttpRequest
         this.files = files;
     }
 
+    @Override
+    protected boolean isShareable()
+    {
+        return files == null || files.isEmpty();
+    }
+
+    @Override
+    protected String getBodyKey()
+    {
+        return files == null || files.isEmpty() ? "" : null;
+    }
+
     @Override
     protected RequestBody buildRequestBody()
     {
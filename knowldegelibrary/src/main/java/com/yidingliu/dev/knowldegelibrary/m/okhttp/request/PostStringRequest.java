@@ -11,6 +11,7 @@ import java.util.Map;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okio.ByteString;
 
 /**
  * Created by zhy on 15/12/14.
@@ -21,6 +22,7 @@ public class PostStringRequest extends OkHttpRequest
 
     private String content;
     private MediaType mediaType;
+    private String bodyKey;
 
 
     public PostStringRequest(String url, Object tag, Map<String, String> params, Map<String, String> headers, String content, MediaType mediaType)
@@ -40,6 +42,22 @@ public class PostStringRequest extends OkHttpRequest
 
     }
 
+    @Override
+    protected boolean isShareable()
+    {
+        return false;
+    }
+
+    @Override
+    protected String getBodyKey()
+    {
+        if (bodyKey == null)
+        {
+            bodyKey = ByteString.encodeUtf8(mediaType + "\n" + content).md5().hex();
+        }
+        return bodyKey;
+    }
+
     @Override
     protected RequestBody buildRequestBody()
     {
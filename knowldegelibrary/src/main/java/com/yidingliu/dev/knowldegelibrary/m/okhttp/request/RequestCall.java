@@ -5,12 +5,18 @@
 package com.yidingliu.dev.knowldegelibrary.m.okhttp.request;
 
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.OkHttpUtils;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.cache.CachePolicy;
 import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.Callback;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch.RequestThrottler;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -27,6 +33,9 @@ public class RequestCall
     private long readTimeOut;
     private long writeTimeOut;
     private long connTimeOut;
+    private int priority = RequestThrottler.PRIORITY_NORMAL;
+    private int cachePolicy = CachePolicy.NETWORK_ONLY;
+    private long maxStale = Long.MAX_VALUE;
 
     private OkHttpClient clone;
 
@@ -55,9 +64,110 @@ public class RequestCall
     }
 
 
+    /**
+     * @param priority one of {@link RequestThrottler#PRIORITY_LOW}, {@link RequestThrottler#PRIORITY_NORMAL}
+     *                 and {@link RequestThrottler#PRIORITY_HIGH}, decides which call starts first when
+     *                 they are throttled
+     */
+    public RequestCall priority(int priority)
+    {
+        this.priority = priority;
+        return this;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * @param cachePolicy one of the {@link CachePolicy} constants, takes effect once a cache is set by
+     *                    {@link OkHttpUtils#setCache(java.io.File, long)}
+     */
+    public RequestCall cachePolicy(int cachePolicy)
+    {
+        return cachePolicy(cachePolicy, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param cachePolicy one of the {@link CachePolicy} constants
+     * @param maxStale    how old in milliseconds a cached response can be used by
+     *                    {@link CachePolicy#CACHE_FIRST} and {@link CachePolicy#MAX_STALE}
+     */
+    public RequestCall cachePolicy(int cachePolicy, long maxStale)
+    {
+        this.cachePolicy = cachePolicy;
+        this.maxStale = maxStale;
+        return this;
+    }
+
+    /**
+     * @return the cache policy, which is always {@link CachePolicy#NETWORK_ONLY} for the requests
+     * whose body can't be keyed, such as uploading files
+     */
+    public int getCachePolicy()
+    {
+        return okHttpRequest.getBodyKey() == null ? CachePolicy.NETWORK_ONLY : cachePolicy;
+    }
+
+    /**
+     * The key of the request for caching, which is the method, the url without query and all the
+     * params sorted, except the volatile params such as the timestamp and signature, see
+     * {@link OkHttpUtils#setVolatileParams(String...)}, followed by a digest of the body if it
+     * holds more than the params. Requests with the same key get the same response. Available
+     * after the call is generated.
+     */
+    public String getKey()
+    {
+        Set<String> volatileParams = OkHttpUtils.getInstance().getVolatileParams();
+        Set<String> sortedParams = new TreeSet<String>();
+        HttpUrl url = request.url();
+        for (int i = 0; i < url.querySize(); i++)
+        {
+            if (!volatileParams.contains(url.queryParameterName(i)))
+            {
+                sortedParams.add(url.queryParameterName(i) + "=" + url.queryParameterValue(i));
+            }
+        }
+        if (okHttpRequest.params != null)
+        {
+            for (Map.Entry<String, String> entry : okHttpRequest.params.entrySet())
+            {
+                if (!volatileParams.contains(entry.getKey()))
+                {
+                    sortedParams.add(entry.getKey() + "=" + entry.getValue());
+                }
+            }
+        }
+        StringBuilder key = new StringBuilder(request.method()).append(' ')
+                .append(url.scheme()).append("://").append(url.host()).append(':').append(url.port())
+                .append(url.encodedPath());
+        char separator = '?';
+        for (String param : sortedParams)
+        {
+            key.append(separator).append(param);
+            separator = '&';
+        }
+        String bodyKey = okHttpRequest.getBodyKey();
+        if (bodyKey != null && bodyKey.length() > 0)
+        {
+            key.append('#').append(bodyKey);
+        }
+        return key.toString();
+    }
+
     public Call generateCall(Callback callback)
     {
         request = generateRequest(callback);
+        int policy = getCachePolicy();
+        if (policy != CachePolicy.NETWORK_ONLY)
+        {
+            request = request.newBuilder()
+                    .header(CachePolicy.HEADER_POLICY, String.valueOf(policy))
+                    .header(CachePolicy.HEADER_MAX_STALE, String.valueOf(maxStale))
+                    .header(CachePolicy.HEADER_KEY, getKey())
+                    .build();
+        }
 
         if (readTimeOut > 0 || writeTimeOut > 0 || connTimeOut > 0)
         {
@@ -79,6 +189,26 @@ public class RequestCall
         return call;
     }
 
+    /**
+     * Re-create the call with another tag, when the call is shared by several identical requests
+     * which are cancelled by their own tags.
+     */
+    public Call regenerateCall(Object tag)
+    {
+        request = request.newBuilder().tag(tag).build();
+        OkHttpClient client = clone != null ? clone : OkHttpUtils.getInstance().getOkHttpClient();
+        call = client.newCall(request);
+        return call;
+    }
+
+    /**
+     * Whether the call can be shared with identical requests in flight.
+     */
+    public boolean isShareable()
+    {
+        return okHttpRequest.isShareable() && getCachePolicy() != CachePolicy.STALE_WHILE_REVALIDATE;
+    }
+
     private Request generateRequest(Callback callback)
     {
         return okHttpRequest.generateRequest(callback);
@@ -86,12 +216,6 @@ public class RequestCall
 
     public void execute(Callback callback)
     {
-    	try {
-    		 Thread.currentThread().sleep(150); //1000 毫秒，也就是1秒.
-    		} catch(InterruptedException ex) {
-    		Thread.currentThread().interrupt();
-    		}
-    	
         generateCall(callback);
 
         if (callback != null)
@@ -125,10 +249,7 @@ public class RequestCall
 
     public void cancel()
     {
-        if (call != null)
-        {
-            call.cancel();
-        }
+        OkHttpUtils.getInstance().cancel(this);
     }
 
 
@@ -3,9 +3,11 @@ package com.yidingliu.dev.knowldegelibrary.tools;
 import android.util.Log;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
-import org.json.JSONArray;
-
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +18,19 @@ import java.util.List;
  *
  */
 public class GsonUtils {
+
+	/**
+	 * Gson是线程安全的，共用一个实例，避免每次解析都重新创建
+	 */
+	private static final Gson GSON = new Gson();
+
+	/**
+	 * 获取共用的Gson实例
+	 * @return
+	 */
+	public static Gson getGson(){
+		return GSON;
+	}
 	
 	/**
 	 * 将json解析成java对象
@@ -26,8 +41,7 @@ public class GsonUtils {
 	public static <T> T parseFromJson(String json,Class<T> cls){
 		T t=null;
 		try{
-			Gson gson=new Gson();
-			t=gson.fromJson(json, cls);
+			t=GSON.fromJson(json, cls);
 		}catch(Exception ex){
 			ex.printStackTrace();
 			Log.e("Gson", "json or class error");
@@ -36,7 +50,7 @@ public class GsonUtils {
 	}
 	
 	/**
-	 * 将json解析为java对象列表
+	 * 将json解析为java对象列表，某个元素解析失败时该位置为null，继续解析后面的元素
 	 * @param json
 	 * @param cls
 	 * @return
@@ -44,9 +58,19 @@ public class GsonUtils {
 	public static <T> List<T> parseFromJsons(String json,Class<T> cls){
 		List<T> listT=new ArrayList<T>();
 		try{
-			JSONArray ja=new JSONArray(json);
-			for(int i=0;i<ja.length();i++){
-				listT.add(parseFromJson(ja.getString(i), cls));	
+			JsonReader reader=new JsonReader(new StringReader(json));
+			JsonParser parser=new JsonParser();
+			reader.beginArray();
+			while(reader.hasNext()){
+				JsonElement element=parser.parse(reader);
+				T t=null;
+				try{
+					t=GSON.fromJson(element, cls);
+				}catch(Exception ex){
+					ex.printStackTrace();
+					Log.e("Gson", "json or class error");
+				}
+				listT.add(t);
 			}
 			
 		}catch(Exception ex){
@@ -64,8 +88,7 @@ public class GsonUtils {
 	public static <T> String parseToJson(Class<T> cls){
 		String json="";
 		try{
-		Gson gson=new Gson();
-		json=gson.toJson(cls);
+		json=GSON.toJson(cls);
 		}catch(Exception ex){
 			ex.printStackTrace();
 			Log.e("Gson", "json or class error");
@@ -81,8 +104,7 @@ public class GsonUtils {
 	public static <T> String parseToJsons(List<T> clsList){
 		String json="";
 		try {
-		Gson gson=new Gson();
-		json=gson.toJson(clsList);
+		json=GSON.toJson(clsList);
 		}catch(Exception ex){
 			ex.printStackTrace();
 			Log.e("Gson", "json or class error");
@@ -37,13 +37,19 @@ public class Md5Utils {
         }
     }
 
-    public static String getFileMD5String (File file ) throws IOException {
+    public static synchronized String getFileMD5String (File file ) throws IOException {
         FileInputStream in = new FileInputStream( file);
-        FileChannel     ch = in.getChannel ();
-        MappedByteBuffer byteBuffer = ch.map ( FileChannel.MapMode.READ_ONLY, 0,
-                                               file.length() );
-        messagedigest.update(byteBuffer);
-        in.close();
+        try {
+            FileChannel     ch = in.getChannel ();
+            MappedByteBuffer byteBuffer = ch.map ( FileChannel.MapMode.READ_ONLY, 0,
+                                                   file.length() );
+            messagedigest.update(byteBuffer);
+        } catch (IOException e) {
+            messagedigest.reset();
+            throw e;
+        } finally {
+            in.close();
+        }
         return bufferToHex(messagedigest.digest()).toLowerCase();
     }
 
@@ -51,7 +57,7 @@ public class Md5Utils {
         return getMD5String(s.getBytes()).toLowerCase();
     }
 
-    public static String getMD5String(byte[] bytes) {
+    public static synchronized String getMD5String(byte[] bytes) {
         messagedigest.update(bytes);
         return bufferToHex(messagedigest.digest()).toLowerCase();
     }
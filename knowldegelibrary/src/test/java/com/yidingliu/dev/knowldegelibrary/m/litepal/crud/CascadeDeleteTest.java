@@ -0,0 +1,143 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yidingliu.dev.knowldegelibrary.BuildConfig;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.parser.LitePalAttr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cascade delete must follow a cycle of associations to its end, and leave no
+ * row which references a deleted one.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CascadeDeleteTest {
+
+	private SQLiteDatabase db;
+
+	@Before
+	public void setUp() {
+		List<String> classNames = LitePalAttr.getInstance().getClassNames();
+		for (Class<?> modelClass : new Class<?>[] { CycleA.class, CycleB.class, CycleC.class }) {
+			if (!classNames.contains(modelClass.getName())) {
+				classNames.add(modelClass.getName());
+			}
+		}
+		db = SQLiteDatabase.create(null);
+		db.execSQL("create table cyclea (id integer primary key autoincrement, name text, cyclec_id integer)");
+		db.execSQL("create table cycleb (id integer primary key autoincrement, name text, cyclea_id integer)");
+		db.execSQL("create table cyclec (id integer primary key autoincrement, name text, cycleb_id integer)");
+		// root -> b1 -> c1 -> a2 -> b2 -> c2, which goes round the cycle twice.
+		db.execSQL("insert into cyclea (id, name) values (1, 'root')");
+		db.execSQL("insert into cycleb (id, name, cyclea_id) values (1, 'b1', 1)");
+		db.execSQL("insert into cyclec (id, name, cycleb_id) values (1, 'c1', 1)");
+		db.execSQL("insert into cyclea (id, name, cyclec_id) values (2, 'a2', 1)");
+		db.execSQL("insert into cycleb (id, name, cyclea_id) values (2, 'b2', 2)");
+		db.execSQL("insert into cyclec (id, name, cycleb_id) values (2, 'c2', 2)");
+		// a3 -> b3 is not reachable from root.
+		db.execSQL("insert into cyclea (id, name) values (3, 'a3')");
+		db.execSQL("insert into cycleb (id, name, cyclea_id) values (3, 'b3', 3)");
+	}
+
+	@After
+	public void tearDown() {
+		db.close();
+	}
+
+	@Test
+	public void deleteAllFollowsCycle() {
+		int rowsAffected = deleteAll("name = ?", "root");
+		assertEquals(6, rowsAffected);
+		assertEquals("3", ids("cyclea"));
+		assertEquals("3", ids("cycleb"));
+		assertEquals("", ids("cyclec"));
+		assertNoOrphans();
+	}
+
+	@Test
+	public void deleteFromTheMiddleOfCycle() {
+		int rowsAffected = deleteAll("name = ?", "a2");
+		assertEquals(3, rowsAffected);
+		assertEquals("1,3", ids("cyclea"));
+		assertEquals("1,3", ids("cycleb"));
+		assertEquals("1", ids("cyclec"));
+		assertNoOrphans();
+	}
+
+	@Test
+	public void cascadeTempTablesAreDropped() {
+		deleteAll("name = ?", "root");
+		Cursor cursor = db.rawQuery(
+				"select count(1) from sqlite_temp_master where name like 'litepal_cascade_%'", null);
+		try {
+			cursor.moveToFirst();
+			assertEquals(0, cursor.getInt(0));
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Delete from cyclea in a transaction, the same as DataSupport does.
+	 */
+	private int deleteAll(String... conditions) {
+		db.beginTransaction();
+		try {
+			int rowsAffected = new DeleteHandler(db).onDeleteAll(CycleA.class, conditions);
+			db.setTransactionSuccessful();
+			return rowsAffected;
+		} finally {
+			db.endTransaction();
+			TableChangeBus.dispatchPending();
+		}
+	}
+
+	private void assertNoOrphans() {
+		assertEquals(0, count("select count(1) from cycleb where cyclea_id not in (select id from cyclea)"));
+		assertEquals(0, count("select count(1) from cyclec where cycleb_id not in (select id from cycleb)"));
+		assertEquals(0, count("select count(1) from cyclea where cyclec_id not in (select id from cyclec)"));
+	}
+
+	private String ids(String tableName) {
+		StringBuilder ids = new StringBuilder();
+		Cursor cursor = db.rawQuery("select id from " + tableName + " order by id", null);
+		try {
+			while (cursor.moveToNext()) {
+				if (ids.length() > 0) {
+					ids.append(",");
+				}
+				ids.append(cursor.getLong(0));
+			}
+		} finally {
+			cursor.close();
+		}
+		return ids.toString();
+	}
+
+	private int count(String sql) {
+		Cursor cursor = db.rawQuery(sql, null);
+		try {
+			cursor.moveToFirst();
+			return cursor.getInt(0);
+		} finally {
+			cursor.close();
+		}
+	}
+
+}
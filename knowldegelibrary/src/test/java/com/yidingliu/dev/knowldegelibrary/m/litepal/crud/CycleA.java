@@ -0,0 +1,24 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The root of a cycle of associations: CycleA has many CycleB, which has many
+ * CycleC, which has many CycleA again.
+ */
+public class CycleA extends DataSupport {
+
+	private long id;
+
+	private String name;
+
+	private List<CycleB> cycleBList = new ArrayList<CycleB>();
+
+	private CycleC cycleC;
+
+}
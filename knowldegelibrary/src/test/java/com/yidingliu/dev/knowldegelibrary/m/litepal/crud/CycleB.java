@@ -0,0 +1,23 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The second model of the association cycle, see {@link CycleA}.
+ */
+public class CycleB extends DataSupport {
+
+	private long id;
+
+	private String name;
+
+	private List<CycleC> cycleCList = new ArrayList<CycleC>();
+
+	private CycleA cycleA;
+
+}
@@ -0,0 +1,23 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.crud;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The third model of the association cycle, which leads back to {@link CycleA}.
+ */
+public class CycleC extends DataSupport {
+
+	private long id;
+
+	private String name;
+
+	private List<CycleA> cycleAList = new ArrayList<CycleA>();
+
+	private CycleB cycleB;
+
+}
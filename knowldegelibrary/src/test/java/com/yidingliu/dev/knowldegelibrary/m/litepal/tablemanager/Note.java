@@ -0,0 +1,26 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.annotation.Column;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
+
+/**
+ * Model of the table manager tests, with defaults on a text and an integer
+ * column.
+ */
+public class Note extends DataSupport {
+
+	private long id;
+
+	private String title;
+
+	@Column(defaultValue = "draft")
+	private String status;
+
+	@Column(defaultValue = "0")
+	private int readCount;
+
+}
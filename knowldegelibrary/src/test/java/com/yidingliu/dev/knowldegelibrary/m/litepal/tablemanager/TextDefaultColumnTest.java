@@ -0,0 +1,93 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.yidingliu.dev.knowldegelibrary.BuildConfig;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.model.TableModel;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.util.DBUtility;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Text defaults must be quoted exactly once, no matter how many times the
+ * table model is taken from the shared metadata.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TextDefaultColumnTest {
+
+	private SQLiteDatabase db;
+
+	private TestCreator creator;
+
+	@Before
+	public void setUp() {
+		db = SQLiteDatabase.create(null);
+		creator = new TestCreator();
+	}
+
+	@After
+	public void tearDown() {
+		db.close();
+	}
+
+	@Test
+	public void textDefaultIsQuotedOnce() {
+		// the second table model is copied from the metadata registered by the first.
+		creator.getTableModel(Note.class.getName());
+		TableModel tableModel = creator.getTableModel(Note.class.getName());
+		assertEquals("'draft'", tableModel.getColumnModelByName("status").getDefaultValue());
+		assertEquals("0", tableModel.getColumnModelByName("readcount").getDefaultValue());
+	}
+
+	@Test
+	public void createTableWithTextDefault() {
+		TableModel tableModel = creator.getTableModel(Note.class.getName());
+		String sql = creator.generateCreateTableSQL(tableModel);
+		assertTrue(sql, sql.contains("default 'draft'"));
+		db.execSQL(sql);
+		db.execSQL("insert into " + tableModel.getTableName() + " (title) values ('hello')");
+		Cursor cursor = db.rawQuery("select status from " + tableModel.getTableName(), null);
+		try {
+			assertTrue(cursor.moveToFirst());
+			assertEquals("draft", cursor.getString(0));
+		} finally {
+			cursor.close();
+		}
+	}
+
+	@Test
+	public void upgraderSeesNoDefaultChange() {
+		TableModel tableModel = creator.getTableModel(Note.class.getName());
+		db.execSQL(creator.generateCreateTableSQL(tableModel));
+		TableModel tableModelDB = DBUtility.findPragmaTableInfo(tableModel.getTableName(), db);
+		assertEquals(tableModel.getColumnModelByName("status").getDefaultValue(),
+				tableModelDB.getColumnModelByName("status").getDefaultValue());
+	}
+
+	/**
+	 * Exposes the protected table model to the test.
+	 */
+	private static class TestCreator extends Creator {
+
+		@Override
+		protected TableModel getTableModel(String className) {
+			return super.getTableModel(className);
+		}
+
+	}
+
+}
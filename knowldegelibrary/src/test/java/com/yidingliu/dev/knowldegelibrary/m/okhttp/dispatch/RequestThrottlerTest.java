@@ -0,0 +1,275 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestThrottlerTest
+{
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private FakeClock clock;
+    private RequestThrottler throttler;
+    /**
+     * The calls in the order they are started.
+     */
+    private List<String> started;
+    /**
+     * When each call is started, in nanoseconds of the fake clock.
+     */
+    private List<Long> startedAt;
+
+    @Before
+    public void setUp()
+    {
+        clock = new FakeClock();
+        throttler = new RequestThrottler(clock);
+        started = new ArrayList<String>();
+        startedAt = new ArrayList<Long>();
+    }
+
+    @Test
+    public void submitReturnsAtOnceWhenThrottled()
+    {
+        RequestThrottler throttler = new RequestThrottler().perHostRate(1, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++)
+        {
+            throttler.submit(new StubCall("http://a.com/" + i, null), RequestThrottler.PRIORITY_NORMAL,
+                    new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                        }
+                    });
+        }
+        long elapsed = System.nanoTime() - start;
+        // 19 calls have to wait 19 seconds for their tokens, the caller none of that.
+        assertTrue("submit took " + elapsed + "ns", elapsed < 500 * MILLIS);
+        assertEquals(1, throttler.getRunningCount());
+        assertEquals(19, throttler.getWaitingCount());
+    }
+
+    @Test
+    public void burstThenRate()
+    {
+        throttler.perHostRate(10, 3);
+        for (int i = 0; i < 6; i++)
+        {
+            submit("http://a.com/" + i, RequestThrottler.PRIORITY_NORMAL);
+        }
+        assertEquals(3, started.size());
+        assertEquals(3, throttler.getWaitingCount());
+
+        clock.advance(1000 * MILLIS);
+        assertEquals(6, started.size());
+        long[] expected = {0, 0, 0, 100 * MILLIS, 200 * MILLIS, 300 * MILLIS};
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i], (long) startedAt.get(i));
+        }
+    }
+
+    @Test
+    public void rateIsPerHost()
+    {
+        throttler.perHostRate(1, 1);
+        submit("http://a.com/1", RequestThrottler.PRIORITY_NORMAL);
+        submit("http://a.com/2", RequestThrottler.PRIORITY_NORMAL);
+        submit("http://b.com/1", RequestThrottler.PRIORITY_NORMAL);
+        assertEquals(2, started.size());
+        assertTrue(started.contains("http://a.com/1"));
+        assertTrue(started.contains("http://b.com/1"));
+
+        clock.advance(999 * MILLIS);
+        assertEquals(2, started.size());
+        clock.advance(MILLIS);
+        assertEquals(3, started.size());
+        assertEquals(1000 * MILLIS, (long) startedAt.get(2));
+    }
+
+    @Test
+    public void maxConcurrency()
+    {
+        throttler.perHostRate(0, 1).maxConcurrency(2);
+        for (int i = 0; i < 3; i++)
+        {
+            submit("http://a.com/" + i, RequestThrottler.PRIORITY_NORMAL);
+        }
+        assertEquals(2, started.size());
+        throttler.finished();
+        assertEquals(3, started.size());
+        assertEquals(2, throttler.getRunningCount());
+    }
+
+    @Test
+    public void highPriorityStartsFirst()
+    {
+        throttler.perHostRate(0, 1).maxConcurrency(1);
+        submit("http://a.com/running", RequestThrottler.PRIORITY_NORMAL);
+        submit("http://a.com/low", RequestThrottler.PRIORITY_LOW);
+        submit("http://a.com/normal", RequestThrottler.PRIORITY_NORMAL);
+        submit("http://a.com/high", RequestThrottler.PRIORITY_HIGH);
+        throttler.finished();
+        throttler.finished();
+        throttler.finished();
+        assertEquals("http://a.com/high", started.get(1));
+        assertEquals("http://a.com/normal", started.get(2));
+        assertEquals("http://a.com/low", started.get(3));
+    }
+
+    @Test
+    public void canceledCallStartsAtOnce()
+    {
+        throttler.perHostRate(1, 1);
+        submit("http://a.com/1", RequestThrottler.PRIORITY_NORMAL);
+        throttler.submit(new StubCall("http://a.com/2", "tag"), RequestThrottler.PRIORITY_NORMAL,
+                record("http://a.com/2"));
+        assertEquals(1, started.size());
+        throttler.cancelTag("tag");
+        // started to deliver the cancellation, without waiting for a token.
+        assertEquals(2, started.size());
+        assertEquals(0, (long) startedAt.get(1));
+    }
+
+    private void submit(String url, int priority)
+    {
+        throttler.submit(new StubCall(url, null), priority, record(url));
+    }
+
+    private Runnable record(final String url)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                started.add(url);
+                startedAt.add(clock.nanoTime());
+            }
+        };
+    }
+
+    /**
+     * A clock which only moves by {@link #advance(long)}, running the tasks which fall due.
+     */
+    private static class FakeClock implements RequestThrottler.Clock
+    {
+        private final PriorityQueue<Task> mTasks = new PriorityQueue<Task>();
+        private long mNow;
+        private long mSequence;
+
+        @Override
+        public long nanoTime()
+        {
+            return mNow;
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayNanos)
+        {
+            mTasks.add(new Task(mNow + delayNanos, mSequence++, task));
+        }
+
+        void advance(long nanos)
+        {
+            long target = mNow + nanos;
+            while (!mTasks.isEmpty() && mTasks.peek().runAt <= target)
+            {
+                Task task = mTasks.poll();
+                mNow = task.runAt;
+                task.runnable.run();
+            }
+            mNow = target;
+        }
+
+        private static class Task implements Comparable<Task>
+        {
+            final long runAt;
+            final long sequence;
+            final Runnable runnable;
+
+            Task(long runAt, long sequence, Runnable runnable)
+            {
+                this.runAt = runAt;
+                this.sequence = sequence;
+                this.runnable = runnable;
+            }
+
+            @Override
+            public int compareTo(Task another)
+            {
+                if (runAt != another.runAt)
+                {
+                    return runAt < another.runAt ? -1 : 1;
+                }
+                return sequence < another.sequence ? -1 : (sequence == another.sequence ? 0 : 1);
+            }
+        }
+    }
+
+    private static class StubCall implements Call
+    {
+        private final Request mRequest;
+        private boolean mCanceled;
+
+        StubCall(String url, Object tag)
+        {
+            mRequest = new Request.Builder().url(url).tag(tag).build();
+        }
+
+        @Override
+        public Request request()
+        {
+            return mRequest;
+        }
+
+        @Override
+        public Response execute() throws IOException
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void cancel()
+        {
+            mCanceled = true;
+        }
+
+        @Override
+        public boolean isExecuted()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isCanceled()
+        {
+            return mCanceled;
+        }
+    }
+}
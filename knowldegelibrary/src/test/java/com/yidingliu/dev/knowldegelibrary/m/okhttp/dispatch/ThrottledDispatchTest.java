@@ -0,0 +1,168 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.knowldegelibrary.m.okhttp.dispatch;
+
+import com.yidingliu.dev.knowldegelibrary.BuildConfig;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.OkHttpUtils;
+import com.yidingliu.dev.knowldegelibrary.m.okhttp.callback.StringCallback;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Requests executed through {@link OkHttpUtils} go through its throttler: they
+ * reach the server no faster than the rate of the default throttler, and the
+ * throttler is told when each of them finishes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ThrottledDispatchTest
+{
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * Allowed error of the arrival times, for the scheduling and the connections.
+     */
+    private static final long TOLERANCE = 30 * MILLIS;
+
+    private MockWebServer server;
+    /**
+     * When each request reaches the server, in {@link System#nanoTime()}.
+     */
+    private List<Long> arrivals;
+    private OkHttpUtils okHttpUtils;
+    private RequestThrottler defaultThrottler;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        arrivals = Collections.synchronizedList(new ArrayList<Long>());
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                arrivals.add(System.nanoTime());
+                return new MockResponse().setBody("ok");
+            }
+        });
+        server.start();
+        okHttpUtils = OkHttpUtils.getInstance(RuntimeEnvironment.application);
+        defaultThrottler = okHttpUtils.getThrottler();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        okHttpUtils.setThrottler(defaultThrottler);
+        server.shutdown();
+    }
+
+    @Test
+    public void defaultRateIsEnforced() throws Exception
+    {
+        // warm up the client and the connection without the throttler, so that the arrival times
+        // below only depend on when the calls are started.
+        Request warmUp = new Request.Builder().url(server.url("/warm-up")).build();
+        okHttpUtils.getOkHttpClient().newCall(warmUp).execute().body().close();
+        arrivals.clear();
+
+        // only this test takes the tokens of the default throttler.
+        int count = 15;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+        {
+            OkHttpUtils.get().url(server.url("/" + i).toString()).build().execute(new NullCallback());
+        }
+        long submitted = System.nanoTime() - start;
+        // the last 5 requests wait 500ms for their tokens, the caller none of that.
+        assertTrue("execute took " + submitted + "ns", submitted < 200 * MILLIS);
+
+        awaitArrivals(count, 5000);
+        List<Long> times = new ArrayList<Long>(arrivals);
+        Collections.sort(times);
+        // by default 10 at once, then one every 100ms.
+        for (int i = 10; i < count; i++)
+        {
+            long earliest = start + (i - 9) * 100 * MILLIS - TOLERANCE;
+            assertTrue("request " + i + " arrived " + (times.get(i) - start) / MILLIS + "ms after start",
+                    times.get(i) >= earliest);
+        }
+        awaitIdle(defaultThrottler, 5000);
+    }
+
+    @Test
+    public void failedCallsFinish() throws Exception
+    {
+        RequestThrottler throttler = new RequestThrottler().perHostRate(10, 10).maxConcurrency(2);
+        okHttpUtils.setThrottler(throttler);
+        // a port which nobody listens on.
+        ServerSocket socket = new ServerSocket(0);
+        String url = "http://127.0.0.1:" + socket.getLocalPort() + "/gone";
+        socket.close();
+        for (int i = 0; i < 4; i++)
+        {
+            OkHttpUtils.get().url(url + "?" + i).build().execute(new NullCallback());
+        }
+        // only 2 can run, the others start as the failed ones finish.
+        awaitIdle(throttler, 5000);
+        assertEquals(0, throttler.getWaitingCount());
+    }
+
+    private void awaitArrivals(int count, long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (arrivals.size() < count)
+        {
+            assertTrue("only " + arrivals.size() + " requests arrived", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitIdle(RequestThrottler throttler, long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (throttler.getRunningCount() > 0 || throttler.getWaitingCount() > 0)
+        {
+            assertTrue(throttler.getRunningCount() + " calls still running, "
+                    + throttler.getWaitingCount() + " waiting", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class NullCallback extends StringCallback
+    {
+        @Override
+        public void onError(Call call, Exception e)
+        {
+        }
+
+        @Override
+        public void onResponse(String response)
+        {
+        }
+    }
+}
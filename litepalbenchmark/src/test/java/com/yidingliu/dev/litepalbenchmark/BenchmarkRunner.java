@@ -0,0 +1,147 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.litepalbenchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * A small JMH style harness. Each benchmark runs some warmup iterations which
+ * are thrown away, then some measurement iterations. The throughput of every
+ * measurement iteration is recorded to report the mean and the standard
+ * deviation, and the bytes allocated by the benchmark thread are divided by
+ * the operation count to report allocation per operation.
+ * <p>
+ * JMH itself can't drive Robolectric's SQLite, which only works under the
+ * Robolectric test runner, so the harness runs inside a JUnit test instead.
+ */
+final class BenchmarkRunner {
+
+	/**
+	 * Iterations which warm up the JIT and the SQLite page cache.
+	 */
+	static final int WARMUP_ITERATIONS = 3;
+
+	/**
+	 * Iterations which are measured.
+	 */
+	static final int MEASUREMENT_ITERATIONS = 5;
+
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * One benchmark operation. {@link #prepare()} runs before every iteration
+	 * and is not measured.
+	 */
+	abstract static class Operation {
+
+		void prepare() throws Exception {
+		}
+
+		abstract void run() throws Exception;
+
+	}
+
+	/**
+	 * Run the operation and print the result.
+	 *
+	 * @param name
+	 *            The name of benchmark.
+	 * @param rows
+	 *            The row count of the table benchmarked against.
+	 * @param opsPerIteration
+	 *            How many operations one call of {@link Operation#run()} does.
+	 * @param operation
+	 *            The operation to measure.
+	 * @return The result of benchmark.
+	 */
+	static Result run(String name, int rows, int opsPerIteration, Operation operation)
+			throws Exception {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			operation.prepare();
+			operation.run();
+		}
+		double[] opsPerSecond = new double[MEASUREMENT_ITERATIONS];
+		boolean allocationSupported = getAllocatedBytes() >= 0;
+		long allocatedBytes = 0;
+		for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+			operation.prepare();
+			long allocatedBefore = getAllocatedBytes();
+			long start = System.nanoTime();
+			operation.run();
+			long elapsed = System.nanoTime() - start;
+			allocatedBytes += getAllocatedBytes() - allocatedBefore;
+			opsPerSecond[i] = opsPerIteration * 1e9 / Math.max(elapsed, 1);
+		}
+		Result result = new Result(name, rows, opsPerSecond, allocationSupported
+				? (double) allocatedBytes / (opsPerIteration * MEASUREMENT_ITERATIONS) : -1);
+		System.out.println(result);
+		return result;
+	}
+
+	/**
+	 * Get the bytes allocated by current thread so far.
+	 *
+	 * @return The allocated bytes, or -1 if the JVM can't tell.
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported()
+					&& sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The result of one benchmark.
+	 */
+	static final class Result {
+
+		final String name;
+
+		final int rows;
+
+		final double mean;
+
+		final double error;
+
+		final double bytesPerOp;
+
+		Result(String name, int rows, double[] opsPerSecond, double bytesPerOp) {
+			this.name = name;
+			this.rows = rows;
+			double sum = 0;
+			for (double value : opsPerSecond) {
+				sum += value;
+			}
+			mean = sum / opsPerSecond.length;
+			double variance = 0;
+			for (double value : opsPerSecond) {
+				variance += (value - mean) * (value - mean);
+			}
+			error = Math.sqrt(variance / Math.max(opsPerSecond.length - 1, 1));
+			this.bytesPerOp = bytesPerOp;
+		}
+
+		static String header() {
+			return String.format(Locale.US, "%-32s %8s %14s %12s %14s", "Benchmark", "Rows",
+					"ops/s", "error", "B/op");
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.US, "%-32s %8d %14.1f %12.1f %14s", name, rows, mean,
+					error, bytesPerOp < 0 ? "n/a" : String.format(Locale.US, "%.0f", bytesPerOp));
+		}
+
+	}
+
+}
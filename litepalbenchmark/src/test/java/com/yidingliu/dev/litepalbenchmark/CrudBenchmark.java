@@ -0,0 +1,274 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.litepalbenchmark;
+
+import android.content.ContentValues;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.LitePalApplication;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
+import com.yidingliu.dev.knowldegelibrary.m.litepal.tablemanager.Connector;
+import com.yidingliu.dev.litepalbenchmark.model.Article;
+import com.yidingliu.dev.litepalbenchmark.model.Comment;
+import com.yidingliu.dev.litepalbenchmark.model.News;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of the LitePal CRUD layer against tables of different sizes.
+ * Skipped unless run with -Pbenchmark, see build.gradle of this module.
+ * <p>
+ * For each row count the tables are seeded first, then the read benchmarks
+ * run, then the write benchmarks. Random ids are drawn from a fixed seed so
+ * that runs are comparable.
+ * <p>
+ * The write benchmarks use Article, which has no associations, so that
+ * saveAllBatched is measured on its compiled statement path. Its table is
+ * reset to the seeded rows before every iteration.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CrudBenchmark {
+
+	/**
+	 * How many models one write iteration handles.
+	 */
+	private static final int WRITE_BATCH = 100;
+
+	/**
+	 * How many lookups one find iteration does.
+	 */
+	private static final int FIND_BATCH = 1000;
+
+	/**
+	 * How many queries one ClusterQuery iteration does.
+	 */
+	private static final int QUERY_BATCH = 200;
+
+	private final Random random = new Random(42);
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(Boolean.getBoolean("litepal.benchmark"));
+		LitePalApplication.initialize(RuntimeEnvironment.application);
+	}
+
+	@Test
+	public void benchmark() throws Exception {
+		System.out.println(BenchmarkRunner.Result.header());
+		for (String rows : System.getProperty("litepal.benchmark.rows", "1000").split(",")) {
+			runAll(Integer.parseInt(rows.trim()));
+		}
+	}
+
+	private void runAll(final int rows) throws Exception {
+		seed(rows);
+
+		BenchmarkRunner.run("find", rows, FIND_BATCH, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				for (int i = 0; i < FIND_BATCH; i++) {
+					DataSupport.find(News.class, 1 + random.nextInt(rows));
+				}
+			}
+		});
+		BenchmarkRunner.run("findAll lazy", rows, 1, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				DataSupport.findAll(News.class);
+			}
+		});
+		BenchmarkRunner.run("findAll eager (one2many)", rows, 1, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				DataSupport.findAll(News.class, true);
+			}
+		});
+		BenchmarkRunner.run("findAll eager (many2one)", rows, 1, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				DataSupport.findAll(Comment.class, true);
+			}
+		});
+		BenchmarkRunner.run("where/order/limit find", rows, QUERY_BATCH,
+				new BenchmarkRunner.Operation() {
+					@Override
+					void run() {
+						for (int i = 0; i < QUERY_BATCH; i++) {
+							DataSupport.where("readCount > ?", String.valueOf(random.nextInt(1000)))
+									.order("publishTime desc").limit(20).find(News.class);
+						}
+					}
+				});
+		BenchmarkRunner.run("count", rows, QUERY_BATCH, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				for (int i = 0; i < QUERY_BATCH; i++) {
+					DataSupport.where("readCount > ?", String.valueOf(random.nextInt(1000))).count(
+							News.class);
+				}
+			}
+		});
+		BenchmarkRunner.run("updateAll (10% rows)", rows, 1, new BenchmarkRunner.Operation() {
+			@Override
+			void run() {
+				ContentValues values = new ContentValues();
+				values.put("readCount", random.nextInt(1000));
+				DataSupport.updateAll(News.class, values, "id <= ?", String.valueOf(rows / 10));
+			}
+		});
+		BenchmarkRunner.run("save", rows, WRITE_BATCH, new WriteOperation(rows) {
+			@Override
+			void run() {
+				for (Article article : createArticles(WRITE_BATCH)) {
+					article.save();
+				}
+			}
+		});
+		BenchmarkRunner.run("saveFast", rows, WRITE_BATCH, new WriteOperation(rows) {
+			@Override
+			void run() {
+				for (Article article : createArticles(WRITE_BATCH)) {
+					article.saveFast();
+				}
+			}
+		});
+		BenchmarkRunner.run("saveAll", rows, WRITE_BATCH, new WriteOperation(rows) {
+			@Override
+			void run() {
+				DataSupport.saveAll(createArticles(WRITE_BATCH));
+			}
+		});
+		BenchmarkRunner.run("saveAllBatched", rows, WRITE_BATCH, new WriteOperation(rows) {
+			@Override
+			void run() {
+				DataSupport.saveAllBatched(createArticles(WRITE_BATCH), WRITE_BATCH);
+			}
+		});
+		BenchmarkRunner.run("saveAllBatched (one2many)", rows, WRITE_BATCH,
+				new BenchmarkRunner.Operation() {
+					@Override
+					void prepare() {
+						resetNews(rows);
+					}
+
+					@Override
+					void run() {
+						DataSupport.saveAllBatched(createNews(WRITE_BATCH), WRITE_BATCH);
+					}
+				});
+		BenchmarkRunner.run("deleteAll (inserted rows)", rows, WRITE_BATCH, new WriteOperation(rows) {
+			@Override
+			void prepare() {
+				super.prepare();
+				DataSupport.saveAllBatched(createArticles(WRITE_BATCH), WRITE_BATCH);
+			}
+
+			@Override
+			void run() {
+				DataSupport.deleteAll(Article.class, "id > ?", String.valueOf(rows));
+			}
+		});
+		resetNews(rows);
+	}
+
+	/**
+	 * A write benchmark on the article table, which is reset to the seeded
+	 * rows before every iteration so that all the iterations write against
+	 * the same row count.
+	 */
+	private abstract class WriteOperation extends BenchmarkRunner.Operation {
+
+		private final int rows;
+
+		WriteOperation(int rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		void prepare() {
+			resetArticles(rows);
+		}
+
+	}
+
+	/**
+	 * Remove the articles inserted after seeding, and rewind the id sequence.
+	 */
+	private void resetArticles(int rows) {
+		DataSupport.deleteAll(Article.class, "id > ?", String.valueOf(rows));
+		Connector.getDatabase().execSQL(
+				"update sqlite_sequence set seq = " + rows + " where name like 'article'");
+	}
+
+	/**
+	 * Remove the news inserted after seeding, and rewind the id sequence.
+	 */
+	private void resetNews(int rows) {
+		DataSupport.deleteAll(News.class, "id > ?", String.valueOf(rows));
+		Connector.getDatabase().execSQL(
+				"update sqlite_sequence set seq = " + rows + " where name like 'news'");
+	}
+
+	/**
+	 * Empty the tables, then insert the given count of News, each of which has
+	 * one Comment, and the given count of Articles.
+	 */
+	private void seed(int rows) {
+		DataSupport.deleteAll(Comment.class);
+		DataSupport.deleteAll(News.class);
+		DataSupport.deleteAll(Article.class);
+		Connector.getDatabase().execSQL("delete from sqlite_sequence");
+		DataSupport.saveAllBatched(createArticles(rows), 1000);
+		List<News> newsList = createNews(rows);
+		DataSupport.saveAllBatched(newsList, 1000);
+		List<Comment> comments = new ArrayList<Comment>(rows);
+		for (News news : newsList) {
+			Comment comment = new Comment();
+			comment.setContent("comment of " + news.getTitle());
+			comment.setNews(news);
+			comments.add(comment);
+		}
+		DataSupport.saveAllBatched(comments, 1000);
+	}
+
+	private List<Article> createArticles(int count) {
+		List<Article> articles = new ArrayList<Article>(count);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			Article article = new Article();
+			article.setTitle("title " + i);
+			article.setContent("content of the article number " + i);
+			article.setPublishTime(now - random.nextInt(Integer.MAX_VALUE));
+			article.setReadCount(random.nextInt(1000));
+			articles.add(article);
+		}
+		return articles;
+	}
+
+	private List<News> createNews(int count) {
+		List<News> newsList = new ArrayList<News>(count);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			News news = new News();
+			news.setTitle("title " + i);
+			news.setContent("content of the news number " + i);
+			news.setPublishTime(now - random.nextInt(Integer.MAX_VALUE));
+			news.setReadCount(random.nextInt(1000));
+			newsList.add(news);
+		}
+		return newsList;
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.litepalbenchmark.model;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
+
+/**
+ * Model of the write benchmarks, which has no associations so that the
+ * batched insert takes its compiled statement path.
+ */
+public class Article extends DataSupport {
+
+	private long id;
+
+	private String title;
+
+	private String content;
+
+	private long publishTime;
+
+	private int readCount;
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	public void setContent(String content) {
+		this.content = content;
+	}
+
+	public long getPublishTime() {
+		return publishTime;
+	}
+
+	public void setPublishTime(long publishTime) {
+		this.publishTime = publishTime;
+	}
+
+	public int getReadCount() {
+		return readCount;
+	}
+
+	public void setReadCount(int readCount) {
+		this.readCount = readCount;
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.litepalbenchmark.model;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
+
+/**
+ * Model of the benchmark, many Comments belong to one News.
+ */
+public class Comment extends DataSupport {
+
+	private long id;
+
+	private String content;
+
+	private News news;
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	public void setContent(String content) {
+		this.content = content;
+	}
+
+	public News getNews() {
+		return news;
+	}
+
+	public void setNews(News news) {
+		this.news = news;
+	}
+
+}
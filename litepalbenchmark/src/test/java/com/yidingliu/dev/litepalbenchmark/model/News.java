@@ -0,0 +1,77 @@
+/*
+ * yidingliu.com Inc. * Copyright (c) 2016 All Rights Reserved.
+ */
+
+package com.yidingliu.dev.litepalbenchmark.model;
+
+import com.yidingliu.dev.knowldegelibrary.m.litepal.crud.DataSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model of the benchmark, one News has many Comments.
+ */
+public class News extends DataSupport {
+
+	private long id;
+
+	private String title;
+
+	private String content;
+
+	private long publishTime;
+
+	private int readCount;
+
+	private List<Comment> comments = new ArrayList<Comment>();
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	public void setContent(String content) {
+		this.content = content;
+	}
+
+	public long getPublishTime() {
+		return publishTime;
+	}
+
+	public void setPublishTime(long publishTime) {
+		this.publishTime = publishTime;
+	}
+
+	public int getReadCount() {
+		return readCount;
+	}
+
+	public void setReadCount(int readCount) {
+		this.readCount = readCount;
+	}
+
+	public List<Comment> getComments() {
+		return comments;
+	}
+
+	public void setComments(List<Comment> comments) {
+		this.comments = comments;
+	}
+
+}